@@ -5,37 +5,59 @@
 
 package com.microsoft.azure.toolkit.eclipse.common.logstream;
 
+import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import com.microsoft.azure.toolkit.eclipse.common.console.AzureAsyncConsoleJob;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingOptions;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingPipeline;
 
 import reactor.core.publisher.Flux;
 
 public class EclipseAzureLogStreamingJob extends AzureAsyncConsoleJob {
 
     private final Flux<String> logStreaming;
+    private final LogStreamingPipeline pipeline;
 
     public EclipseAzureLogStreamingJob(final String title, final Flux<String> logStreaming) {
+        this(title, logStreaming, LogStreamingOptions.DEFAULT);
+    }
+
+    public EclipseAzureLogStreamingJob(final String title, final Flux<String> logStreaming,
+            final LogStreamingOptions options) {
         super(title);
         this.logStreaming = logStreaming;
+        this.pipeline = new LogStreamingPipeline(options);
         this.setSupplier(this::showLogStream);
     }
 
     private IStatus showLogStream() {
-        final Flux<String> doOnEach = logStreaming
-                .doFinally(ignore -> EclipseAzureLogStreamingJob.this.getMessager()
-                        .warning("Disconnected from log-streaming service."))
-                .doOnEach((log) -> EclipseAzureLogStreamingJob.this.getMessager().info(log.get()));
+        final Flux<LogStreamingPipeline.Chunk> chunks = pipeline.process(logStreaming)
+                .doFinally(ignore -> {
+                    getMessager().warning("Disconnected from log-streaming service.");
+                    getMessager().info(String.format("Lines received: %d, rendered: %d, dropped: %d.",
+                            pipeline.getReceived(), pipeline.getRendered(), pipeline.getDropped()));
+                })
+                .doOnNext(this::showChunk);
         try {
-            doOnEach.blockLast();
+            chunks.blockLast();
         } catch (Exception e) {
             // swallow interrupt exception
         }
         return Status.OK_STATUS;
     }
 
+    private void showChunk(final LogStreamingPipeline.Chunk chunk) {
+        if (chunk.getDroppedBefore() > 0) {
+            getMessager().warning(String.format("... %d lines dropped, the console can not keep up with the log stream ...",
+                    chunk.getDroppedBefore()));
+        }
+        // messager terminates every message with a line separator
+        getMessager().info(StringUtils.removeEnd(chunk.getText(), System.lineSeparator()));
+    }
+
     public void closeLogStream() {
         this.cancel();
     }
@@ -21,10 +21,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicReference;
 
-import com.google.common.base.Joiner;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.jcraft.jsch.ChannelSftp;
@@ -40,6 +38,7 @@ import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.IHDIStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountType;
+import com.microsoft.azure.hdinsight.spark.common.LivyBatchLogReader;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
 import com.microsoft.azure.hdinsight.spark.common.SparkJobLog;
 import com.microsoft.azure.hdinsight.spark.common.SparkSubmitResponse;
@@ -57,17 +56,20 @@ import com.microsoft.azuretools.hdinsight.Activator;
 import com.microsoft.azuretools.hdinsight.common2.HDInsightUtil;
 import com.microsoft.azuretools.core.utils.Messages;
 
+import rx.exceptions.Exceptions;
+import rx.schedulers.Schedulers;
+
 public class SparkSubmitHelper {
     private static SparkSubmitHelper ourInstance = new SparkSubmitHelper();
 
     private static final int MAX_INTERVAL_TIME = 5000;
     private static final int MIN_INTERVAL_TIME = 1000;
-    private static final int INC_TIME = 100;
 
-    private static final String APPLICATION_ID_PATTERN = "Application report for ([^ ]*) \\(state: ACCEPTED\\)";
     public static final String HELP_LINK = "http://go.microsoft.com/fwlink/?LinkID=722349&clcid=0x409";
 
-    private SparkJobLog sparkJobLog;
+    // The last batch printed out, whose full log is got only when it's written to the local file
+    private String batchesUrl;
+    private int batchId;
 
     public static SparkSubmitHelper getInstance() {
         return ourInstance;
@@ -79,7 +81,14 @@ public class SparkSubmitHelper {
     private String JobLogFolderName = "SparkJobLog";
 
     public String writeLogToLocalFile(/* @NotNull Project project */) throws IOException {
-        if (sparkJobLog == null) {
+        if (batchesUrl == null) {
+            return null;
+        }
+
+        HttpResponse httpResponse = SparkBatchSubmission.getInstance().getBatchJobFullLog(batchesUrl, batchId);
+        SparkJobLog sparkJobLog = new Gson().fromJson(httpResponse.getMessage(), new TypeToken<SparkJobLog>() {
+        }.getType());
+        if (sparkJobLog == null || sparkJobLog.getLog() == null) {
             return null;
         }
 
@@ -125,48 +134,39 @@ public class SparkSubmitHelper {
             boolean isFailedJob = false;
             boolean isKilledJob = false;
 
-            int from_index = 0;
-            int pre_index;
-            int times = 0;
+            batchesUrl = clusterDetail.getConnectionUrl() + "/livy/batches";
+            batchId = id;
             HDInsightUtil.getSparkSubmissionToolWindowView()
                     .setInfo("======================Begin printing out spark job log.=======================");
-            while (true) {
-                pre_index = from_index;
-                if (HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
-                    isKilledJob = true;
-                    break;
-                }
-
-                from_index = printoutJobLog(/* project, */id, from_index, clusterDetail);
-                HttpResponse statusHttpResponse = SparkBatchSubmission.getInstance()
-                        .getBatchSparkJobStatus(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-
-                SparkSubmitResponse status = new Gson().fromJson(statusHttpResponse.getMessage(),
-                        new TypeToken<SparkSubmitResponse>() {
-                        }.getType());
-
-                // only the lines of the log are same between two http requests,
-                // we try to get the job status
-                if (from_index == pre_index) {
-                    String finalStatus = status.getState().toLowerCase();
-                    if (finalStatus.equals("error") || finalStatus.equals("success") || finalStatus.equals("dead")) {
-                        if (finalStatus.equals("error") || finalStatus.equals("dead")) {
-                            isFailedJob = true;
-                        }
 
-                        if (!HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
-                            printoutJobLog(id, from_index, clusterDetail);
-                            HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(
-                                    "======================Finish printing out spark job log.=======================");
-                        } else {
-                            isKilledJob = true;
-                        }
-                        break;
-                    }
+            // Only the new lines are got by every poll, and the job status is got only when all the lines are got
+            final AtomicReference<SparkSubmitResponse> finalStatus = new AtomicReference<>();
+            final LivyBatchLogReader logReader = new LivyBatchLogReader(SparkBatchSubmission.getInstance(), batchesUrl, id);
+            logReader.getApplicationIdObservable().subscribe(applicationId -> {
+                if (!HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isApplicationGenerated()) {
+                    HDInsightUtil.getSparkSubmissionToolWindowView().setBrowserButtonState(true);
+                    HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().setApplicationIdGenerated();
+                    HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().setApplicationId(applicationId);
                 }
+            });
+
+            Iterable<String> lines = logReader
+                    .lines(() -> isJobRunning(id, finalStatus), MIN_INTERVAL_TIME, MAX_INTERVAL_TIME, Schedulers.io())
+                    .takeWhile(line -> !HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled())
+                    .filter(line -> !StringHelper.isNullOrWhiteSpace(line))
+                    .toBlocking()
+                    .toIterable();
+            for (String line : lines) {
+                HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(line, true);
+            }
 
-                Thread.sleep(getIntervalTime(times));
-                times++;
+            if (HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
+                isKilledJob = true;
+            } else {
+                String state = finalStatus.get().getState().toLowerCase();
+                isFailedJob = state.equals("error") || state.equals("dead");
+                HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(
+                        "======================Finish printing out spark job log.=======================");
             }
 
             if (isKilledJob) {
@@ -179,11 +179,8 @@ public class SparkSubmitHelper {
 
             if (isFailedJob) {
                 postEventProperty.put("IsRunningSucceed", "false");
-                HttpResponse httpResponse = SparkBatchSubmission.getInstance()
-                        .getBatchJobFullLog(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-                SparkSubmitResponse submitStatus = new Gson().fromJson(httpResponse.getMessage(),
-                        new TypeToken<SparkSubmitResponse>() {
-                        }.getType());
+                // The job status carries the tail of the log already
+                SparkSubmitResponse submitStatus = finalStatus.get();
                 if (submitStatus != null && submitStatus.getLog() != null && submitStatus.getLog().size() > 0) {
                     List<String> logs = submitStatus.getLog();
                     postEventProperty.put("SubmitFailedReason", truncateTelemetryMessage(logs.get(logs.size() - 1)));
@@ -267,35 +264,31 @@ public class SparkSubmitHelper {
         return len < 50 ? message : message.substring(0, 50);
     }
 
-    private int printoutJobLog(/* Project project, */ int id, int from_index, IClusterDetail clusterDetail)
-            throws IOException {
-        HttpResponse httpResponse = SparkBatchSubmission.getInstance()
-                .getBatchJobFullLog(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-        sparkJobLog = new Gson().fromJson(httpResponse.getMessage(), new TypeToken<SparkJobLog>() {
-        }.getType());
-
-        if (!HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isApplicationGenerated()) {
-            String sparkLogs = Joiner.on("").join(sparkJobLog.getLog());
-            String applicationId = getApplicationIdFromYarnLog(sparkLogs);
-            if (applicationId != null) {
-                HDInsightUtil.getSparkSubmissionToolWindowView().setBrowserButtonState(true);
-                HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().setApplicationIdGenerated();
-                HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().setApplicationId(applicationId);
-            }
+    /**
+     * @param finalStatus set to the job status once the job is finished
+     * @return false if the job is killed or finished
+     */
+    private boolean isJobRunning(int id, AtomicReference<SparkSubmitResponse> finalStatus) {
+        if (HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
+            return false;
         }
 
-        int counter = 0;
-        if (sparkJobLog.getLog().size() > 0) {
-            for (String line : sparkJobLog.getLog()) {
-                if (counter >= from_index && !StringHelper.isNullOrWhiteSpace(line)) {
-                    HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(line, true);
-                }
-
-                counter++;
+        try {
+            HttpResponse statusHttpResponse = SparkBatchSubmission.getInstance().getBatchSparkJobStatus(batchesUrl, id);
+            SparkSubmitResponse status = new Gson().fromJson(statusHttpResponse.getMessage(),
+                    new TypeToken<SparkSubmitResponse>() {
+                    }.getType());
+
+            String state = status.getState().toLowerCase();
+            if (state.equals("error") || state.equals("success") || state.equals("dead")) {
+                finalStatus.set(status);
+                return false;
             }
-        }
 
-        return sparkJobLog.getTotal();
+            return true;
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
     }
 
     private BlobContainer getSparkClusterDefaultContainer(ClientStorageAccount storageAccount,
@@ -311,21 +304,6 @@ public class SparkSubmitHelper {
         return null;
     }
 
-    private int getIntervalTime(int times) {
-        int interval = MIN_INTERVAL_TIME + times * INC_TIME;
-        return interval > MAX_INTERVAL_TIME ? MAX_INTERVAL_TIME : interval;
-    }
-
-    private String getApplicationIdFromYarnLog(String yarnLog) {
-        Pattern r = Pattern.compile(APPLICATION_ID_PATTERN);
-        Matcher m = r.matcher(yarnLog);
-        if (m.find()) {
-            return m.group(1);
-        }
-
-        return null;
-    }
-
     public static String uploadFileToEmulator(@NotNull IClusterDetail selectedClusterDetail,
             @NotNull String buildJarPath) throws Exception {
         HDInsightUtil.showInfoOnSubmissionMessageWindow(String.format("Info : Get target jar from %s.", buildJarPath));
@@ -7,6 +7,8 @@ package com.microsoft.azure.toolkit.intellij.legacy.appservice;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingOptions;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingPipeline;
 import org.jetbrains.annotations.NotNull;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
@@ -23,6 +25,7 @@ public class AppServiceStreamingLogConsoleView extends ConsoleViewImpl {
     private boolean isDisposed;
     private String resourceId;
     private Disposable subscription;
+    private LogStreamingPipeline pipeline;
 
     public AppServiceStreamingLogConsoleView(@NotNull Project project, String resourceId) {
         super(project, true);
@@ -31,18 +34,23 @@ public class AppServiceStreamingLogConsoleView extends ConsoleViewImpl {
     }
 
     public void startStreamingLog(Flux<String> logStreaming) {
+        startStreamingLog(logStreaming, LogStreamingOptions.DEFAULT);
+    }
+
+    public void startStreamingLog(Flux<String> logStreaming, LogStreamingOptions options) {
         if (!isActive()) {
             printlnToConsole(message("appService.logStreaming.hint.connect"), SYSTEM_OUTPUT);
-            subscription = logStreaming.subscribeOn(Schedulers.boundedElastic())
-                                       .doAfterTerminate(() -> printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT))
-                                       .subscribe((log) -> printlnToConsole(log, NORMAL_OUTPUT));
+            pipeline = new LogStreamingPipeline(options);
+            subscription = pipeline.process(logStreaming.subscribeOn(Schedulers.boundedElastic()))
+                                   .doAfterTerminate(this::printDisconnected)
+                                   .subscribe(this::printChunk);
         }
     }
 
     public void closeStreamingLog() {
         if (isActive()) {
             subscription.dispose();
-            printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
+            printDisconnected();
         }
     }
 
@@ -54,6 +62,19 @@ public class AppServiceStreamingLogConsoleView extends ConsoleViewImpl {
         return this.isDisposed;
     }
 
+    private void printChunk(LogStreamingPipeline.Chunk chunk) {
+        if (chunk.getDroppedBefore() > 0) {
+            printlnToConsole(message("appService.logStreaming.hint.dropped", chunk.getDroppedBefore()), SYSTEM_OUTPUT);
+        }
+        this.print(chunk.getText(), NORMAL_OUTPUT);
+    }
+
+    private void printDisconnected() {
+        printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
+        printlnToConsole(message("appService.logStreaming.hint.statistics",
+            pipeline.getReceived(), pipeline.getRendered(), pipeline.getDropped()), SYSTEM_OUTPUT);
+    }
+
     private void printlnToConsole(String message, ConsoleViewContentType consoleViewContentType) {
         this.print(message + SEPARATOR, consoleViewContentType);
     }
@@ -14,6 +14,7 @@ import com.microsoft.azure.toolkit.lib.appservice.model.OperatingSystem;
 import com.microsoft.azure.toolkit.lib.appservice.service.impl.AppServicePlan;
 import com.microsoft.azure.toolkit.lib.appservice.model.PricingTier;
 import com.microsoft.azure.toolkit.intellij.common.AzureComboBox;
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache;
 import com.microsoft.azure.toolkit.ide.common.model.Draft;
 import com.microsoft.azure.toolkit.ide.appservice.webapp.model.DraftServicePlan;
 import com.microsoft.azure.toolkit.lib.common.cache.CacheManager;
@@ -119,9 +120,11 @@ public class ServicePlanComboBox extends AzureComboBox<AppServicePlanEntity> {
                     .filter(p -> this.subscription.equals(p.getSubscription()))
                     .collect(Collectors.toList()));
             }
-            final List<AppServicePlanEntity> remotePlans = Azure.az(AzureAppService.class)
-                .subscription(subscription.getId()).appServicePlans().stream().map(AppServicePlan::entity)
-                .collect(Collectors.toList());
+            final String sid = subscription.getId();
+            final AzureCatalogCache.CatalogKey key = new AzureCatalogCache.CatalogKey(AzureCatalogCache.SERVICE_PLANS, sid);
+            final List<AppServicePlanEntity> remotePlans = AzureCatalogCache.getInstance().get(key, () ->
+                Azure.az(AzureAppService.class).subscription(sid).appServicePlans().stream().map(AppServicePlan::entity)
+                    .collect(Collectors.toList()));
             plans.addAll(remotePlans);
             Stream<AppServicePlanEntity> stream = plans.stream();
             if (Objects.nonNull(this.region)) {
@@ -16,6 +16,7 @@ import com.intellij.ui.PopupMenuListenerAdapter;
 import com.intellij.ui.SimpleListCellRenderer;
 import com.intellij.ui.components.fields.ExtendableTextComponent;
 import com.intellij.ui.components.fields.ExtendableTextField;
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache;
 import com.microsoft.azure.toolkit.ide.common.model.Draft;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -271,9 +272,13 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
         try {
             if (Objects.nonNull(this.itemsLoader)) {
                 return this.itemsLoader.get();
-            } else {
-                return this.loadItems();
             }
+            final AzureCatalogCache.CatalogKey catalogKey = this.getCatalogKey();
+            if (Objects.nonNull(catalogKey)) {
+                // the cache may reload in background later, when the combo box shows other parameters
+                return AzureCatalogCache.getInstance().get(catalogKey, () -> this.loadItems(catalogKey));
+            }
+            return this.loadItems();
         } catch (final Exception e) {
             final Throwable rootCause = ExceptionUtils.getRootCause(e);
             if (!(rootCause instanceof InterruptedIOException) && !(rootCause instanceof InterruptedException)) {
@@ -289,6 +294,24 @@ public abstract class AzureComboBox<T> extends ComboBox<T> implements AzureFormI
         return Collections.emptyList();
     }
 
+    /**
+     * Load the items through the shared {@link AzureCatalogCache} with this key, instead of querying Azure each time
+     * a dialog opens. The items are loaded by {@link #loadItems(AzureCatalogCache.CatalogKey)}.
+     */
+    @Nullable
+    protected AzureCatalogCache.CatalogKey getCatalogKey() {
+        return null;
+    }
+
+    /**
+     * Load the items of the {@code key} returned by {@link #getCatalogKey()}, with nothing but the parameters of the
+     * key, the fields of the combo box may have changed when the cache reloads the items.
+     */
+    @Nonnull
+    protected List<? extends T> loadItems(@Nonnull AzureCatalogCache.CatalogKey key) throws Exception {
+        return Collections.emptyList();
+    }
+
     protected void handleLoadingError(Throwable e) {
         final Throwable rootCause = ExceptionUtils.getRootCause(e);
         if (rootCause instanceof InterruptedIOException || rootCause instanceof InterruptedException) {
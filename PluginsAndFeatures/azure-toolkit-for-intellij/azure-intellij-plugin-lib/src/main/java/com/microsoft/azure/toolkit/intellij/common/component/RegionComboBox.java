@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.toolkit.intellij.common.component;
 
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache;
 import com.microsoft.azure.toolkit.intellij.common.AzureComboBox;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.model.Region;
@@ -12,6 +13,7 @@ import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -51,9 +53,32 @@ public class RegionComboBox extends AzureComboBox<Region> {
     )
     protected List<? extends Region> loadItems() throws Exception {
         if (Objects.nonNull(this.subscription)) {
-            final String sid = this.subscription.getId();
-            return az(AzureAccount.class).listRegions(sid);
+            return this.loadRegions(this.subscription.getId());
         }
         return Collections.emptyList();
     }
+
+    @Nonnull
+    @Override
+    protected List<? extends Region> loadItems(@Nonnull AzureCatalogCache.CatalogKey key) throws Exception {
+        return this.loadRegions(key.getSubscriptionId());
+    }
+
+    /**
+     * The subclasses override it to list the regions supported by their services.
+     */
+    @Nonnull
+    protected List<? extends Region> loadRegions(@Nonnull String subscriptionId) throws Exception {
+        return az(AzureAccount.class).listRegions(subscriptionId);
+    }
+
+    @Nullable
+    @Override
+    protected AzureCatalogCache.CatalogKey getCatalogKey() {
+        if (Objects.isNull(this.subscription)) {
+            return null;
+        }
+        // The subclasses list the regions supported by their services, keep their lists apart
+        return new AzureCatalogCache.CatalogKey(AzureCatalogCache.REGIONS, this.subscription.getId(), this.getClass().getName());
+    }
 }
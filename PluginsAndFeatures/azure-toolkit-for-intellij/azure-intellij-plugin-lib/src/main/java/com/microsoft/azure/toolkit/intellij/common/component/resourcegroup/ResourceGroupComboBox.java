@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.intellij.common.component.resourcegroup;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.ui.components.fields.ExtendableTextComponent;
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache;
 import com.microsoft.azure.toolkit.ide.common.model.Draft;
 import com.microsoft.azure.toolkit.intellij.common.AzureComboBox;
 import com.microsoft.azure.toolkit.lib.Azure;
@@ -62,7 +63,7 @@ public class ResourceGroupComboBox extends AzureComboBox<ResourceGroup> {
         params = {"this.subscription.getId()"},
         type = AzureOperation.Type.SERVICE
     )
-    protected List<? extends ResourceGroup> loadItems() {
+    protected List<? extends ResourceGroup> loadItems() throws Exception {
         final List<ResourceGroup> groups = new ArrayList<>();
         if (Objects.nonNull(this.subscription)) {
             if (CollectionUtils.isNotEmpty(this.draftItems)) {
@@ -71,8 +72,10 @@ public class ResourceGroupComboBox extends AzureComboBox<ResourceGroup> {
                     .collect(Collectors.toList()));
             }
             final String sid = subscription.getId();
-            final List<ResourceGroup> remoteGroups = Azure.az(AzureResources.class).groups(sid).list().stream().map(r -> r.toPojo())
-                .sorted(Comparator.comparing(ResourceGroup::getName)).collect(Collectors.toList());
+            final AzureCatalogCache.CatalogKey key = new AzureCatalogCache.CatalogKey(AzureCatalogCache.RESOURCE_GROUPS, sid);
+            final List<ResourceGroup> remoteGroups = AzureCatalogCache.getInstance().get(key, () ->
+                Azure.az(AzureResources.class).groups(sid).list().stream().map(r -> r.toPojo())
+                    .sorted(Comparator.comparing(ResourceGroup::getName)).collect(Collectors.toList()));
             groups.addAll(remoteGroups);
         }
         return groups;
@@ -28,15 +28,14 @@ import com.microsoft.azure.toolkit.redis.model.PricingTier;
 import com.microsoft.azure.toolkit.redis.model.RedisConfig;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
 import java.awt.event.ItemEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 public class RedisCreationDialog extends AzureDialog<RedisConfig> implements AzureForm<RedisConfig> {
@@ -130,11 +129,10 @@ public class RedisCreationDialog extends AzureDialog<RedisConfig> implements Azu
         this.subscriptionComboBox = new SubscriptionComboBox();
         this.resourceGroupComboBox = new ResourceGroupComboBox();
         this.regionComboBox = new RegionComboBox() {
-            protected List<? extends Region> loadItems() {
-                if (Objects.nonNull(this.subscription)) {
-                    return Azure.az(AzureRedis.class).forSubscription(subscription.getId()).listSupportedRegions();
-                }
-                return Collections.emptyList();
+            @Nonnull
+            @Override
+            protected List<? extends Region> loadRegions(@Nonnull String subscriptionId) {
+                return Azure.az(AzureRedis.class).forSubscription(subscriptionId).listSupportedRegions();
             }
         };
         this.redisNameTextField = new AzureTextInput();
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.toolkit.intellij.springcloud.deplolyment;
 
+import com.azure.resourcemanager.appplatform.models.DeploymentInstance;
 import com.intellij.execution.DefaultExecutionResult;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.Executor;
@@ -26,9 +27,7 @@ import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry;
 import com.microsoft.azure.toolkit.lib.springcloud.SpringCloudApp;
-import com.microsoft.azure.toolkit.lib.springcloud.SpringCloudCluster;
 import com.microsoft.azure.toolkit.lib.springcloud.SpringCloudDeployment;
-import com.microsoft.azure.toolkit.lib.springcloud.Utils;
 import com.microsoft.azure.toolkit.lib.springcloud.config.SpringCloudAppConfig;
 import com.microsoft.azure.toolkit.lib.springcloud.task.DeploySpringCloudAppTask;
 import com.microsoft.intellij.RunProcessHandler;
@@ -40,9 +39,13 @@ import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.microsoft.azure.toolkit.lib.common.messager.AzureMessageBundle.message;
 
@@ -71,15 +74,14 @@ public class SpringCloudDeploymentConfigurationState implements RunProfileState
         final ConsoleMessager messager = new ConsoleMessager(processHandler);
         final ConsoleView consoleView = TextConsoleBuilderFactory.getInstance().createBuilder(this.project).getConsole();
         consoleView.attachToProcess(processHandler);
-        final Runnable execute = () -> {
-            try {
-                this.execute(messager);
-                messager.success("Deploy succeed!");
-            } catch (final Exception e) {
+        // no thread is blocked while waiting for the deployment to be ready, see SpringCloudDeploymentTracker
+        final Disposable subscribe = Mono.fromCallable(() -> this.execute(messager))
+            .flatMap(deployment -> this.trackProgress(deployment, messager))
+            .doOnSuccess(v -> messager.success("Deploy succeed!"))
+            .onErrorResume(e -> {
                 messager.error(e, "Azure", retry);
-            }
-        };
-        final Disposable subscribe = Mono.fromRunnable(execute)
+                return Mono.empty();
+            })
             .doOnTerminate(processHandler::notifyComplete)
             .subscribeOn(Schedulers.boundedElastic())
             .subscribe();
@@ -105,33 +107,38 @@ public class SpringCloudDeploymentConfigurationState implements RunProfileState
                 new Action<Void>((v) -> DeploySpringCloudAppAction.deploy(this.config, this.project), new ActionView.Builder("Add BeforeRunTask")));
         }
         final DeploySpringCloudAppTask task = new DeploySpringCloudAppTask(appConfig);
-        final SpringCloudDeployment deployment = task.execute();
+        return task.execute();
+    }
+
+    private Mono<SpringCloudDeploymentTracker.Progress> trackProgress(final SpringCloudDeployment deployment, final IAzureMessager messager) {
         final SpringCloudApp app = deployment.getParent();
-        final SpringCloudCluster cluster = app.getParent();
-        if (!deployment.waitUntilReady(GET_STATUS_TIMEOUT)) {
-            messager.warning(GET_DEPLOYMENT_STATUS_TIMEOUT, NOTIFICATION_TITLE);
+        final boolean waitForUrl = app.isPublicEndpointEnabled();
+        if (waitForUrl) {
+            messager.info(String.format("Getting public url of app(%s)...", app.name()));
         }
-        printPublicUrl(app);
-        return deployment;
+        return Mono.defer(() -> {
+            final CompletableFuture<SpringCloudDeploymentTracker.Progress> future = SpringCloudDeploymentTracker.getInstance().track(new DeploymentTarget(deployment),
+                waitForUrl, TimeUnit.SECONDS.toMillis(GET_STATUS_TIMEOUT), TimeUnit.SECONDS.toMillis(GET_URL_TIMEOUT), p -> printProgress(p, messager));
+            return Mono.fromFuture(future).doOnCancel(() -> future.cancel(false));
+        }).doOnSuccess(progress -> {
+            if (!progress.isReady()) {
+                messager.warning(GET_DEPLOYMENT_STATUS_TIMEOUT, NOTIFICATION_TITLE);
+            }
+            if (!waitForUrl) {
+                return;
+            }
+            if (StringUtils.isEmpty(progress.getApplicationUrl())) {
+                messager.warning("Failed to get application url", NOTIFICATION_TITLE);
+            } else {
+                messager.info(String.format("Application url: %s", progress.getApplicationUrl()));
+            }
+        });
     }
 
-    private void printPublicUrl(final SpringCloudApp app) {
-        final IAzureMessager messager = AzureMessager.getMessager();
-        if (!app.isPublicEndpointEnabled()) {
-            return;
-        }
-        messager.info(String.format("Getting public url of app(%s)...", app.name()));
-        String publicUrl = app.getApplicationUrl();
-        if (StringUtils.isEmpty(publicUrl)) {
-            publicUrl = Utils.pollUntil(() -> {
-                app.refresh();
-                return app.getApplicationUrl();
-            }, StringUtils::isNotBlank, GET_URL_TIMEOUT);
-        }
-        if (StringUtils.isEmpty(publicUrl)) {
-            messager.warning("Failed to get application url", NOTIFICATION_TITLE);
-        } else {
-            messager.info(String.format("Application url: %s", publicUrl));
+    private static void printProgress(final SpringCloudDeploymentTracker.Progress progress, final IAzureMessager messager) {
+        if (!progress.getState().isDone() && progress.getInstanceCount() > 0) {
+            messager.info(String.format("Deployment is %s, %d/%d instances running...", StringUtils.defaultIfBlank(progress.getStatus(), "starting"),
+                progress.getRunningInstanceCount(), progress.getInstanceCount()));
         }
     }
 
@@ -168,4 +175,36 @@ public class SpringCloudDeploymentConfigurationState implements RunProfileState
             return super.show(raw);
         }
     }
+
+    @RequiredArgsConstructor
+    private static class DeploymentTarget implements SpringCloudDeploymentTracker.Target {
+        private static final String RUNNING = "Running";
+        private static final String DISCOVERY_UP = "UP";
+
+        private final SpringCloudDeployment deployment;
+        private boolean first = true;
+
+        @NotNull
+        @Override
+        public SpringCloudDeploymentTracker.Snapshot poll(boolean withUrl) {
+            final SpringCloudApp app = deployment.getParent();
+            String url = null;
+            if (withUrl) {
+                // the app is just deployed, so the URL may already be there without a refresh
+                if (!first) {
+                    app.refresh();
+                }
+                url = app.getApplicationUrl();
+            }
+            if (!first) {
+                deployment.refresh();
+            }
+            first = false;
+            final List<DeploymentInstance> instances = Optional.ofNullable(deployment.getInstances()).orElse(Collections.emptyList());
+            final int running = (int) instances.stream().filter(i -> StringUtils.equalsIgnoreCase(i.status(), RUNNING)).count();
+            final boolean ready = !instances.isEmpty() && instances.stream()
+                .allMatch(i -> StringUtils.equalsIgnoreCase(i.status(), RUNNING) && StringUtils.equalsIgnoreCase(i.discoveryStatus(), DISCOVERY_UP));
+            return new SpringCloudDeploymentTracker.Snapshot(deployment.getStatus(), instances.size(), running, ready, url);
+        }
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.springcloud.deplolyment;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Track the readiness and the public URL of Spring Cloud deployments after they are deployed. All the deployments
+ * are polled by one scheduler thread with exponential backoff, instead of a sleeping thread per deployment. Each poll
+ * gets the deployment status and, while it's still missing, the application URL, so both conditions are settled by the
+ * same polls, and every change of the progress is reported to the listener as it's polled.
+ */
+public class SpringCloudDeploymentTracker {
+    private static final SpringCloudDeploymentTracker INSTANCE = new SpringCloudDeploymentTracker(Backoff.DEFAULT);
+
+    private final Backoff backoff;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final AtomicInteger trackingCount = new AtomicInteger();
+
+    public SpringCloudDeploymentTracker(@Nonnull Backoff backoff) {
+        this.backoff = backoff;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "spring-cloud-deployment-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public static SpringCloudDeploymentTracker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The deployment to track.
+     */
+    public interface Target {
+        /**
+         * Get the latest status of the deployment, and the application URL if {@code withUrl}. It's called by the
+         * tracker thread only, one call at a time.
+         */
+        @Nonnull
+        Snapshot poll(boolean withUrl);
+    }
+
+    @Value
+    public static class Snapshot {
+        @Nullable
+        String status;
+        int instanceCount;
+        int runningInstanceCount;
+        boolean ready;
+        @Nullable
+        String applicationUrl;
+    }
+
+    public enum State {
+        STARTING,
+        READY_WITHOUT_URL,
+        URL_ASSIGNED,
+        SUCCEEDED,
+        TIMED_OUT,
+        FAILED;
+
+        public boolean isDone() {
+            return this == SUCCEEDED || this == TIMED_OUT || this == FAILED;
+        }
+    }
+
+    /**
+     * The progress of a deployment, which is reported whenever it changes.
+     */
+    @Value
+    public static class Progress {
+        @Nonnull
+        State state;
+        @Nullable
+        String status;
+        int instanceCount;
+        int runningInstanceCount;
+        boolean ready;
+        @Nullable
+        String applicationUrl;
+        @Nullable
+        Throwable error;
+    }
+
+    /**
+     * Start to track the deployment.
+     *
+     * @param waitForUrl         whether to wait for the application URL, i.e. the public endpoint is enabled
+     * @param readyTimeoutMillis the time to wait for the deployment to be ready
+     * @param urlTimeoutMillis   the time to wait for the URL after the readiness is settled
+     * @param listener           called with every changed progress on the tracker thread
+     * @return the final progress, which is {@link State#SUCCEEDED} or {@link State#TIMED_OUT}, or completed
+     * exceptionally if the poll fails. Cancel it to stop tracking.
+     */
+    @Nonnull
+    public CompletableFuture<Progress> track(@Nonnull Target target, boolean waitForUrl, long readyTimeoutMillis,
+                                             long urlTimeoutMillis, @Nonnull Consumer<Progress> listener) {
+        final Tracking tracking = new Tracking(target, waitForUrl, readyTimeoutMillis, urlTimeoutMillis, listener);
+        trackingCount.incrementAndGet();
+        tracking.result.whenComplete((p, e) -> trackingCount.decrementAndGet());
+        tracking.schedule(0);
+        return tracking.result;
+    }
+
+    public int getTrackingCount() {
+        return trackingCount.get();
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @RequiredArgsConstructor
+    private final class Tracking implements Runnable {
+        private final Target target;
+        private final boolean waitForUrl;
+        private final long readyTimeoutMillis;
+        private final long urlTimeoutMillis;
+        private final Consumer<Progress> listener;
+        private final CompletableFuture<Progress> result = new CompletableFuture<>();
+        private final long startedAt = System.currentTimeMillis();
+
+        private int attempt = 0;
+        @Nullable
+        private String applicationUrl;
+        @Nullable
+        private Snapshot snapshot;
+        @Nullable
+        private Progress last;
+
+        private void schedule(long delayMillis) {
+            if (!result.isDone()) {
+                try {
+                    scheduler.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+                } catch (final RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                // the URL isn't polled any more once it's assigned
+                snapshot = target.poll(waitForUrl && StringUtils.isBlank(applicationUrl));
+            } catch (final Throwable e) {
+                report(toProgress(State.FAILED, e));
+                result.completeExceptionally(e);
+                return;
+            }
+            if (StringUtils.isNotBlank(snapshot.getApplicationUrl())) {
+                applicationUrl = snapshot.getApplicationUrl();
+            }
+            final Progress progress = toProgress(getState(), null);
+            report(progress);
+            if (progress.getState().isDone()) {
+                result.complete(progress);
+            } else {
+                schedule(backoff.getDelayMillis(attempt++));
+            }
+        }
+
+        @Nonnull
+        private Progress toProgress(@Nonnull State state, @Nullable Throwable error) {
+            return snapshot == null ? new Progress(state, null, 0, 0, false, applicationUrl, error) :
+                new Progress(state, snapshot.getStatus(), snapshot.getInstanceCount(), snapshot.getRunningInstanceCount(),
+                    snapshot.isReady(), applicationUrl, error);
+        }
+
+        @Nonnull
+        private State getState() {
+            final boolean ready = snapshot != null && snapshot.isReady();
+            final boolean urlAssigned = !waitForUrl || StringUtils.isNotBlank(applicationUrl);
+            if (ready && urlAssigned) {
+                return State.SUCCEEDED;
+            }
+            // wait for the URL after the readiness times out, like after it's ready
+            final long elapsed = System.currentTimeMillis() - startedAt;
+            if (elapsed >= readyTimeoutMillis + urlTimeoutMillis || (elapsed >= readyTimeoutMillis && urlAssigned)) {
+                return State.TIMED_OUT;
+            }
+            if (ready) {
+                return State.READY_WITHOUT_URL;
+            }
+            return waitForUrl && urlAssigned ? State.URL_ASSIGNED : State.STARTING;
+        }
+
+        private void report(@Nonnull Progress progress) {
+            if (!progress.equals(last)) {
+                last = progress;
+                try {
+                    listener.accept(progress);
+                } catch (final RuntimeException ignored) {
+                    // the listener shouldn't stop the tracking
+                }
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff of the polls with jitter, so the deployments started together don't poll together.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Backoff {
+        public static final Backoff DEFAULT = new Backoff(1000, 1.5, 10_000, 0.2);
+
+        private final long initialDelayMillis;
+        private final double multiplier;
+        private final long maxDelayMillis;
+        private final double jitter;
+
+        public long getDelayMillis(int attempt) {
+            final double delay = getBaseDelayMillis(attempt);
+            final double jittered = delay * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+            return Math.max(1, Math.round(jittered));
+        }
+
+        /**
+         * @return the max count of the polls of a deployment tracked for the duration, the first poll included
+         */
+        public int getMaxPolls(long durationMillis) {
+            int polls = 1;
+            double elapsed = 0;
+            for (int attempt = 0; ; attempt++) {
+                elapsed += Math.max(1, Math.floor(getBaseDelayMillis(attempt) * (1 - jitter)));
+                if (elapsed > durationMillis) {
+                    return polls;
+                }
+                polls++;
+            }
+        }
+
+        private double getBaseDelayMillis(int attempt) {
+            return Math.min(maxDelayMillis, initialDelayMillis * Math.pow(multiplier, attempt));
+        }
+    }
+}
@@ -8,26 +8,28 @@ package com.microsoft.azure.toolkit.intellij.springcloud.streaminglog;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.project.Project;
-import com.microsoft.applicationinsights.internal.util.ThreadPoolUtils;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingOptions;
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingPipeline;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperationBundle;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Scanner;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Supplier;
 
 public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
 
     private ConsoleViewStatus status;
-    private ExecutorService executorService;
+    private Disposable subscription;
 
     private final String resourceName;
     private InputStream logInputStream;
@@ -47,6 +49,13 @@ public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
     }
 
     public void startLog(Supplier<? extends InputStream> inputStreamSupplier) throws IOException {
+        startLog(inputStreamSupplier, LogStreamingOptions.DEFAULT);
+    }
+
+    /**
+     * @param options filters of the log lines, e.g. the minimum {@link com.microsoft.azure.toolkit.ide.common.logstream.LogLevel}
+     */
+    public void startLog(Supplier<? extends InputStream> inputStreamSupplier, LogStreamingOptions options) throws IOException {
         synchronized (this) {
             if (getStatus() != ConsoleViewStatus.STOPPED) {
                 return;
@@ -65,23 +74,46 @@ public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
             setStatus(ConsoleViewStatus.ACTIVE);
         }
         this.print("Streaming Log Start.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
-        executorService = Executors.newSingleThreadExecutor();
-        executorService.submit(() -> {
-            try (final Scanner scanner = new Scanner(new InputStreamReader(logInputStream))) {
-                while (getStatus() == ConsoleViewStatus.ACTIVE && scanner.hasNext()) {
-                    final String log = scanner.nextLine();
-                    SpringCloudStreamingLogConsoleView.this.print(log + "\n", ConsoleViewContentType.NORMAL_OUTPUT);
-                    Thread.sleep(50);
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(options);
+        subscription = pipeline.process(readLines(logInputStream))
+            .doOnError(error -> {
+                // the stream is closed by shutdown
+                if (getStatus() == ConsoleViewStatus.ACTIVE) {
+                    this.print(String.format("Streaming Log is interrupted due to error : %s.\n", error.getMessage()), ConsoleViewContentType.SYSTEM_OUTPUT);
+                }
+            })
+            .doFinally(ignore -> {
+                if (pipeline.getFiltered() > 0) {
+                    print(String.format("%d of %d lines are filtered out.\n", pipeline.getFiltered(), pipeline.getReceived()),
+                        ConsoleViewContentType.SYSTEM_OUTPUT);
                 }
-            } catch (final InterruptedException e) {
-                // swallow interrupt exception while shutdown
-            } catch (final Exception e) {
-                this.print(String.format("Streaming Log is interrupted due to error : %s.\n", e.getMessage()), ConsoleViewContentType.SYSTEM_OUTPUT);
-            } finally {
                 print("Streaming Log stops.\n", ConsoleViewContentType.SYSTEM_OUTPUT);
                 setStatus(ConsoleViewStatus.STOPPED);
-            }
-        });
+            })
+            .subscribe(this::printChunk, error -> {
+            });
+    }
+
+    private static Flux<String> readLines(@NotNull InputStream inputStream) {
+        return Flux.using(() -> new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+                reader -> Flux.fromStream(reader.lines()), SpringCloudStreamingLogConsoleView::closeQuietly)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static void closeQuietly(@NotNull BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            // swallow io exception when close
+        }
+    }
+
+    private void printChunk(LogStreamingPipeline.Chunk chunk) {
+        if (chunk.getDroppedBefore() > 0) {
+            this.print(String.format("... %d lines dropped, the console can't keep up with the log ...\n", chunk.getDroppedBefore()),
+                ConsoleViewContentType.SYSTEM_OUTPUT);
+        }
+        this.print(chunk.getText(), ConsoleViewContentType.NORMAL_OUTPUT);
     }
 
     public void shutdown() {
@@ -97,12 +129,12 @@ public class SpringCloudStreamingLogConsoleView extends ConsoleViewImpl {
                 if (logInputStream != null) {
                     logInputStream.close();
                 }
-                if (executorService != null) {
-                    ThreadPoolUtils.stop(executorService, 100, TimeUnit.MICROSECONDS);
-                }
             } catch (final IOException e) {
                 // swallow io exception when close
             } finally {
+                if (subscription != null) {
+                    subscription.dispose();
+                }
                 setStatus(ConsoleViewStatus.STOPPED);
             }
         }));
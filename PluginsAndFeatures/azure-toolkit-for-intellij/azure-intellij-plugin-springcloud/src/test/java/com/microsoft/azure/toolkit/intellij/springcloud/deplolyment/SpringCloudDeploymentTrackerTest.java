@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.springcloud.deplolyment;
+
+import com.microsoft.azure.toolkit.intellij.springcloud.deplolyment.SpringCloudDeploymentTracker.Backoff;
+import com.microsoft.azure.toolkit.intellij.springcloud.deplolyment.SpringCloudDeploymentTracker.Progress;
+import com.microsoft.azure.toolkit.intellij.springcloud.deplolyment.SpringCloudDeploymentTracker.Snapshot;
+import com.microsoft.azure.toolkit.intellij.springcloud.deplolyment.SpringCloudDeploymentTracker.State;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpringCloudDeploymentTrackerTest {
+    private static final Backoff BACKOFF = new Backoff(10, 1.5, 80, 0.2);
+    private static final int DEPLOYMENTS = 20;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final SpringCloudDeploymentTracker tracker = new SpringCloudDeploymentTracker(BACKOFF);
+
+    @After
+    public void tearDown() {
+        tracker.close();
+    }
+
+    @Test
+    public void testConcurrentDeploymentsSharePollsOnOneThread() throws Exception {
+        final List<FakeDeployment> deployments = new ArrayList<>();
+        final List<CompletableFuture<Progress>> results = new ArrayList<>();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < DEPLOYMENTS; i++) {
+            final FakeDeployment deployment = new FakeDeployment(2, 3 + i % 5, 2 + i % 4, "https://app-" + i + ".azuremicroservices.io");
+            deployments.add(deployment);
+            results.add(tracker.track(deployment, true, TIMEOUT_MILLIS, TIMEOUT_MILLIS, p -> {
+            }));
+        }
+        int maxThreads = 0;
+        while (!results.stream().allMatch(CompletableFuture::isDone)) {
+            maxThreads = Math.max(maxThreads, countTrackerThreads());
+            Thread.sleep(5);
+        }
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Tracked with " + maxThreads + " threads", maxThreads <= 2);
+        assertEquals(0, tracker.getTrackingCount());
+        int totalCalls = 0;
+        for (int i = 0; i < DEPLOYMENTS; i++) {
+            final FakeDeployment deployment = deployments.get(i);
+            final Progress progress = results.get(i).get();
+            assertEquals(State.SUCCEEDED, progress.getState());
+            assertTrue(progress.isReady());
+            assertEquals(deployment.url, progress.getApplicationUrl());
+            // readiness and URL are settled by the same polls, instead of one wait after another
+            assertEquals(Math.max(deployment.readyOnPoll, deployment.urlOnPoll), deployment.statusCalls.get());
+            assertEquals(deployment.urlOnPoll, deployment.urlCalls.get());
+            totalCalls += deployment.statusCalls.get() + deployment.urlCalls.get();
+        }
+        final int maxCalls = DEPLOYMENTS * 2 * BACKOFF.getMaxPolls(elapsed);
+        assertTrue(String.format("%d ARM calls, at most %d expected", totalCalls, maxCalls), totalCalls <= maxCalls);
+    }
+
+    @Test
+    public void testProgressIsReportedOnChange() throws Exception {
+        final FakeDeployment deployment = new FakeDeployment(3, 6, 2, "https://app.azuremicroservices.io");
+        final List<Progress> reported = new CopyOnWriteArrayList<>();
+        final Progress result = tracker.track(deployment, true, TIMEOUT_MILLIS, TIMEOUT_MILLIS, reported::add)
+            .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(State.SUCCEEDED, result.getState());
+        assertEquals(result, reported.get(reported.size() - 1));
+        for (int i = 1; i < reported.size(); i++) {
+            assertFalse(reported.get(i).equals(reported.get(i - 1)));
+        }
+        // 0, 1, 2 and 3 instances running before ready, and the URL is assigned in between
+        assertEquals(State.STARTING, reported.get(0).getState());
+        assertEquals(0, reported.get(0).getRunningInstanceCount());
+        assertEquals(3, reported.get(0).getInstanceCount());
+        assertTrue(reported.stream().anyMatch(p -> p.getState() == State.URL_ASSIGNED));
+        assertTrue(reported.size() < deployment.statusCalls.get());
+    }
+
+    @Test
+    public void testNoUrlPollsWithoutPublicEndpoint() throws Exception {
+        final FakeDeployment deployment = new FakeDeployment(1, 3, 1, "https://app.azuremicroservices.io");
+        final Progress result = tracker.track(deployment, false, TIMEOUT_MILLIS, TIMEOUT_MILLIS, p -> {
+        }).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(State.SUCCEEDED, result.getState());
+        assertNull(result.getApplicationUrl());
+        assertEquals(3, deployment.statusCalls.get());
+        assertEquals(0, deployment.urlCalls.get());
+    }
+
+    @Test
+    public void testTimeoutStopsPolling() throws Exception {
+        final FakeDeployment deployment = new FakeDeployment(1, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+        final long start = System.currentTimeMillis();
+        final Progress result = tracker.track(deployment, true, 200, 100, p -> {
+        }).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(State.TIMED_OUT, result.getState());
+        assertFalse(result.isReady());
+        assertTrue(elapsed >= 300);
+        assertTrue(deployment.statusCalls.get() <= BACKOFF.getMaxPolls(elapsed));
+        final int calls = deployment.statusCalls.get();
+        Thread.sleep(200);
+        assertEquals(calls, deployment.statusCalls.get());
+    }
+
+    @Test
+    public void testFailedPollCompletesExceptionally() throws Exception {
+        final FakeDeployment deployment = new FakeDeployment(1, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+        deployment.failOnPoll = 3;
+        final List<Progress> reported = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Progress> result = tracker.track(deployment, true, TIMEOUT_MILLIS, TIMEOUT_MILLIS, reported::add);
+        try {
+            result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            fail("The poll failure isn't reported");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        final Progress last = reported.get(reported.size() - 1);
+        assertEquals(State.FAILED, last.getState());
+        assertTrue(last.getError() instanceof IllegalStateException);
+        assertEquals(3, deployment.statusCalls.get());
+    }
+
+    @Test
+    public void testCancelStopsPolling() throws Exception {
+        final FakeDeployment deployment = new FakeDeployment(1, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+        final CompletableFuture<Progress> result = tracker.track(deployment, true, TIMEOUT_MILLIS, TIMEOUT_MILLIS, p -> {
+        });
+        while (deployment.statusCalls.get() < 3) {
+            Thread.sleep(5);
+        }
+        result.cancel(false);
+        Thread.sleep(100);
+        final int calls = deployment.statusCalls.get();
+        Thread.sleep(300);
+
+        assertEquals(calls, deployment.statusCalls.get());
+        assertEquals(0, tracker.getTrackingCount());
+    }
+
+    @Test
+    public void testMaxPollsBoundsTheBackoff() {
+        final Backoff backoff = new Backoff(1000, 1.5, 10_000, 0.2);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            final long delay = backoff.getDelayMillis(attempt);
+            final double base = Math.min(10_000, 1000 * Math.pow(1.5, attempt));
+            assertTrue(delay >= Math.floor(base * 0.8) && delay <= Math.ceil(base * 1.2));
+        }
+        // the min delays are 800, 1200, 1800, 2700 and 4050 (10550 in total), then 6075, then 8000 each
+        assertEquals(1, backoff.getMaxPolls(0));
+        assertEquals(5, backoff.getMaxPolls(10_000));
+        assertEquals(6, backoff.getMaxPolls(10_550));
+        assertEquals(7, backoff.getMaxPolls(16_625));
+        assertEquals(8, backoff.getMaxPolls(24_625));
+    }
+
+    private static int countTrackerThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+            .filter(t -> t.isAlive() && t.getName().startsWith("spring-cloud-deployment-tracker"))
+            .count();
+    }
+
+    /**
+     * A deployment with scripted transitions: one more instance runs on every poll until all are running and
+     * discovered on the {@code readyOnPoll}th poll, and the application URL is assigned on the {@code urlOnPoll}th
+     * poll of the app. Every status or URL poll counts as one ARM call.
+     */
+    private static class FakeDeployment implements SpringCloudDeploymentTracker.Target {
+        private final int instanceCount;
+        private final int readyOnPoll;
+        private final int urlOnPoll;
+        private final String url;
+        private final AtomicInteger statusCalls = new AtomicInteger();
+        private final AtomicInteger urlCalls = new AtomicInteger();
+        private volatile int failOnPoll = Integer.MAX_VALUE;
+
+        FakeDeployment(int instanceCount, int readyOnPoll, int urlOnPoll, String url) {
+            this.instanceCount = instanceCount;
+            this.readyOnPoll = readyOnPoll;
+            this.urlOnPoll = urlOnPoll;
+            this.url = url;
+        }
+
+        @Nonnull
+        @Override
+        public Snapshot poll(boolean withUrl) {
+            final int poll = statusCalls.incrementAndGet();
+            if (poll >= failOnPoll) {
+                throw new IllegalStateException("Failed to get the deployment");
+            }
+            final String applicationUrl = withUrl && urlCalls.incrementAndGet() >= urlOnPoll ? url : null;
+            final boolean ready = poll >= readyOnPoll;
+            final int running = ready ? instanceCount : Math.min(poll - 1, instanceCount);
+            return new Snapshot(ready ? "Running" : "Updating", instanceCount, running, ready, applicationUrl);
+        }
+    }
+}
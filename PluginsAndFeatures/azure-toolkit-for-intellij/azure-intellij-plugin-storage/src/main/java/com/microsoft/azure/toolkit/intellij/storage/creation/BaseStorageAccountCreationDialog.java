@@ -25,13 +25,12 @@ import com.microsoft.azure.toolkit.lib.storage.model.StorageAccountConfig;
 import com.microsoft.azure.toolkit.lib.storage.AzureStorageAccount;
 import org.jetbrains.annotations.Nullable;
 
+import javax.annotation.Nonnull;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ItemEvent;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 public class BaseStorageAccountCreationDialog extends AzureDialog<StorageAccountConfig> implements AzureForm<StorageAccountConfig> {
@@ -154,11 +153,10 @@ public class BaseStorageAccountCreationDialog extends AzureDialog<StorageAccount
 
     private void createUIComponents() {
         this.regionComboBox = new RegionComboBox() {
-            protected List<? extends Region> loadItems() {
-                if (Objects.nonNull(this.subscription)) {
-                    return Azure.az(AzureStorageAccount.class).forSubscription(subscription.getId()).listSupportedRegions();
-                }
-                return Collections.emptyList();
+            @Nonnull
+            @Override
+            protected List<? extends Region> loadRegions(@Nonnull String subscriptionId) {
+                return Azure.az(AzureStorageAccount.class).forSubscription(subscriptionId).listSupportedRegions();
             }
         };
     }
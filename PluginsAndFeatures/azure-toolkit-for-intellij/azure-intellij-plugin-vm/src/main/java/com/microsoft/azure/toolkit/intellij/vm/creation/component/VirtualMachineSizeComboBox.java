@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.toolkit.intellij.vm.creation.component;
 
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache;
 import com.microsoft.azure.toolkit.intellij.common.AzureComboBox;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.common.model.Region;
@@ -13,6 +14,7 @@ import com.microsoft.azure.toolkit.lib.compute.vm.AzureVirtualMachine;
 import com.microsoft.azure.toolkit.lib.compute.vm.AzureVirtualMachineSize;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -44,4 +46,19 @@ public class VirtualMachineSizeComboBox extends AzureComboBox<AzureVirtualMachin
         }
         return Azure.az(AzureVirtualMachine.class).listPricing(subscription.getId(), region);
     }
+
+    @Nonnull
+    @Override
+    protected List<? extends AzureVirtualMachineSize> loadItems(@Nonnull AzureCatalogCache.CatalogKey key) throws Exception {
+        return Azure.az(AzureVirtualMachine.class).listPricing(key.getSubscriptionId(), Region.fromName(key.getScope()));
+    }
+
+    @Nullable
+    @Override
+    protected AzureCatalogCache.CatalogKey getCatalogKey() {
+        if (Objects.isNull(region) || Objects.isNull(subscription)) {
+            return null;
+        }
+        return new AzureCatalogCache.CatalogKey(AzureCatalogCache.VIRTUAL_MACHINE_SIZES, subscription.getId(), region.getName());
+    }
 }
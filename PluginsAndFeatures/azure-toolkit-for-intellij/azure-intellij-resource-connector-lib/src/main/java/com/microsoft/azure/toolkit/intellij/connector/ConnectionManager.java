@@ -17,15 +17,19 @@ import org.jetbrains.annotations.NotNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 public interface ConnectionManager extends PersistentStateComponent<Element> {
     @Nonnull
@@ -78,58 +82,133 @@ public interface ConnectionManager extends PersistentStateComponent<Element> {
         private static final String ELEMENT_NAME_CONNECTIONS = "connections";
         private static final String ELEMENT_NAME_CONNECTION = "connection";
         private static final String FIELD_TYPE = "type";
-        private final Set<Connection<?, ?>> connections = new LinkedHashSet<>();
         private static final Map<String, ConnectionDefinition<?, ?>> definitions = new LinkedHashMap<>();
+        /**
+         * immutable snapshot of connections and their indexes, replaced as a whole by mutators so that
+         * readers(e.g. line marker passes) never lock or copy.
+         */
+        private volatile Snapshot snapshot = Snapshot.EMPTY;
 
         @Override
         public synchronized void addConnection(Connection<?, ?> connection) {
+            final List<Connection<?, ?>> connections = new ArrayList<>(snapshot.connections);
             connections.removeIf(c -> Objects.equals(c, connection)); // always replace the old with the new one.
             connections.add(connection);
+            this.snapshot = new Snapshot(connections, snapshot, Collections.singleton(connection));
         }
 
         @Override
         public synchronized void removeConnection(String resourceId, String consumerId) {
-            connections.removeIf(c -> StringUtils.equals(resourceId, c.getResource().getId()) && StringUtils.equals(consumerId, c.getConsumer().getId()));
+            final List<Connection<?, ?>> connections = new ArrayList<>(snapshot.connections);
+            if (connections.removeIf(c -> StringUtils.equals(resourceId, c.getResource().getId()) && StringUtils.equals(consumerId, c.getConsumer().getId()))) {
+                this.snapshot = new Snapshot(connections, snapshot, Collections.emptySet());
+            }
         }
 
         @Override
         public List<Connection<?, ?>> getConnections() {
-            return new ArrayList<>(connections);
+            return new ArrayList<>(snapshot.connections);
         }
 
+        /**
+         * @return unmodifiable connections of the resource
+         */
         @Override
         public List<Connection<?, ?>> getConnectionsByResourceId(String id) {
-            return connections.stream().filter(e -> StringUtils.equals(id, e.getResource().getId())).collect(Collectors.toList());
+            return snapshot.byResourceId.getOrDefault(id, Collections.emptyList());
         }
 
+        /**
+         * @return unmodifiable connections of the consumer
+         */
         @Override
         public List<Connection<?, ?>> getConnectionsByConsumerId(String id) {
-            return connections.stream().filter(e -> StringUtils.equals(id, e.getConsumer().getId())).collect(Collectors.toList());
+            return snapshot.byConsumerId.getOrDefault(id, Collections.emptyList());
         }
 
+        /**
+         * only the connections added or loaded since the last serialization are serialized again, a connection changed in
+         * place must be added again to be saved.
+         */
         @Override
         public Element getState() {
-            final Element connectionsEle = new Element(ELEMENT_NAME_CONNECTIONS);
-            for (final Connection<?, ?> connection : this.connections) {
-                final Element connectionEle = new Element(ELEMENT_NAME_CONNECTION);
-                connectionEle.setAttribute(FIELD_TYPE, ConnectionManager.getName(connection.getDefinition()));
-                connection.write(connectionEle);
-                connectionsEle.addContent(connectionEle);
+            final Snapshot current = this.snapshot;
+            Element connectionsEle = current.state;
+            if (connectionsEle == null) {
+                connectionsEle = new Element(ELEMENT_NAME_CONNECTIONS);
+                for (final Connection<?, ?> connection : current.connections) {
+                    connectionsEle.addContent(current.elements.computeIfAbsent(connection, Impl::write).clone());
+                }
+                current.state = connectionsEle;
             }
-            return connectionsEle;
+            return connectionsEle.clone();
+        }
+
+        private static Element write(Connection<?, ?> connection) {
+            final Element connectionEle = new Element(ELEMENT_NAME_CONNECTION);
+            connectionEle.setAttribute(FIELD_TYPE, ConnectionManager.getName(connection.getDefinition()));
+            connection.write(connectionEle);
+            return connectionEle;
         }
 
         @Override
-        public void loadState(@NotNull Element connectionsEle) {
+        public synchronized void loadState(@NotNull Element connectionsEle) {
+            final Map<Connection<?, ?>, Connection<?, ?>> connections = new LinkedHashMap<>();
+            final Set<Connection<?, ?>> loaded = new HashSet<>();
+            snapshot.connections.forEach(c -> connections.put(c, c));
             for (final Element connectionEle : connectionsEle.getChildren()) {
                 final String name = connectionEle.getAttributeValue(FIELD_TYPE);
                 final ConnectionDefinition<?, ?> definition = ConnectionManager.getDefinitionOrDefault(name);
                 try {
-                    Optional.ofNullable(definition).map(d -> d.read(connectionEle)).ifPresent(this::addConnection);
+                    Optional.ofNullable(definition).map(d -> d.read(connectionEle)).ifPresent(c -> {
+                        // always replace the old with the new one.
+                        connections.remove(c);
+                        connections.put(c, c);
+                        loaded.add(c);
+                    });
                 } catch (final Exception e) {
                     log.log(Level.WARNING, String.format("error occurs when load a resource connection of type '%s'", name), e);
                 }
             }
+            this.snapshot = new Snapshot(connections.keySet(), snapshot, loaded);
+        }
+
+        private static class Snapshot {
+            private static final Snapshot EMPTY = new Snapshot(Collections.emptyList(), null, Collections.emptySet());
+            private final List<Connection<?, ?>> connections;
+            private final Map<String, List<Connection<?, ?>>> byResourceId;
+            private final Map<String, List<Connection<?, ?>>> byConsumerId;
+            /**
+             * serialized element of each connection, taken over from the previous snapshot except the changed ones.
+             */
+            private final Map<Connection<?, ?>, Element> elements = new ConcurrentHashMap<>();
+            /**
+             * serialized connections, computed by the first {@link #getState()} of this snapshot
+             */
+            private volatile Element state;
+
+            private Snapshot(Collection<Connection<?, ?>> connections, @Nullable Snapshot previous, Set<Connection<?, ?>> changed) {
+                this.connections = Collections.unmodifiableList(new ArrayList<>(connections));
+                this.byResourceId = index(this.connections, c -> c.getResource().getId());
+                this.byConsumerId = index(this.connections, c -> c.getConsumer().getId());
+                if (previous != null) {
+                    for (final Connection<?, ?> connection : this.connections) {
+                        final Element element = previous.elements.get(connection);
+                        if (element != null && !changed.contains(connection)) {
+                            this.elements.put(connection, element);
+                        }
+                    }
+                }
+            }
+
+            private static Map<String, List<Connection<?, ?>>> index(List<Connection<?, ?>> connections, Function<Connection<?, ?>, String> key) {
+                final Map<String, List<Connection<?, ?>>> index = new HashMap<>();
+                for (final Connection<?, ?> connection : connections) {
+                    index.computeIfAbsent(key.apply(connection), k -> new ArrayList<>()).add(connection);
+                }
+                index.replaceAll((k, v) -> Collections.unmodifiableList(v));
+                return index;
+            }
         }
     }
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.connector;
+
+import com.intellij.openapi.project.Project;
+import com.microsoft.azure.toolkit.intellij.common.AzureFormJPanel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.jdom.Element;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class ConnectionManagerTest {
+    private static final int MODULES = 200;
+    private static final int CONNECTIONS = 5000;
+
+    private ConnectionManager.Impl manager;
+    private List<Connection<?, ?>> connections;
+
+    @Before
+    public void setUp() {
+        manager = new ConnectionManager.Impl();
+        final ConnectionDefinition<String, String> definition = new ConnectionDefinition<>(TestResource.Definition.INSTANCE, ModuleResource.Definition.IJ_MODULE);
+        final Random random = new Random(0);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            manager.addConnection(definition.define(new TestResource("resource-" + random.nextInt(CONNECTIONS / 2)),
+                new ModuleResource("module-" + random.nextInt(MODULES))));
+        }
+        connections = manager.getConnections();
+    }
+
+    @Test
+    public void testIndexesConsistentWithScan() {
+        for (int i = 0; i < MODULES; i++) {
+            final String module = "module-" + i;
+            Assert.assertEquals(scanByConsumerId(module), manager.getConnectionsByConsumerId(module));
+        }
+        for (final Connection<?, ?> connection : connections.subList(0, 100)) {
+            final String resourceId = connection.getResource().getId();
+            Assert.assertEquals(connections.stream().filter(c -> StringUtils.equals(resourceId, c.getResource().getId())).collect(Collectors.toList()),
+                manager.getConnectionsByResourceId(resourceId));
+        }
+        Assert.assertTrue(manager.getConnectionsByConsumerId("module-absent").isEmpty());
+    }
+
+    @Test
+    public void testAddReplaceAndRemove() {
+        final Connection<?, ?> first = connections.get(0);
+        final String resourceId = first.getResource().getId();
+        final String consumerId = first.getConsumer().getId();
+        final int size = connections.size();
+
+        manager.addConnection(first);
+        Assert.assertEquals(size, manager.getConnections().size());
+        Assert.assertEquals(first, manager.getConnections().get(size - 1)); // the replaced one is moved to the end
+
+        manager.removeConnection(resourceId, consumerId);
+        Assert.assertEquals(size - 1, manager.getConnections().size());
+        Assert.assertFalse(manager.getConnectionsByResourceId(resourceId).contains(first));
+        Assert.assertFalse(manager.getConnectionsByConsumerId(consumerId).contains(first));
+    }
+
+    @Test
+    public void testStateSerializedOncePerSnapshot() {
+        final Element state = manager.getState();
+        Assert.assertEquals(connections.size(), state.getChildren().size());
+        // cached elements are not exposed
+        state.getChildren().get(1).setAttribute("envPrefix", "TAMPERED_");
+        Assert.assertNotEquals("TAMPERED_", manager.getState().getChildren().get(1).getAttributeValue("envPrefix"));
+
+        final Connection<?, ?> connection = connections.get(0);
+        connection.setEnvPrefix("CHANGED_");
+        manager.addConnection(connection);
+        final List<Element> changed = manager.getState().getChildren();
+        Assert.assertEquals("CHANGED_", changed.get(changed.size() - 1).getAttributeValue("envPrefix"));
+
+        manager.removeConnection(connection.getResource().getId(), connection.getConsumer().getId());
+        Assert.assertEquals(connections.size() - 1, manager.getState().getChildren().size());
+    }
+
+    /**
+     * the id of the resource is read once per serialization of a connection.
+     */
+    @Test
+    public void testOnlyChangedConnectionsAreSerializedAgain() {
+        TestResource.DATA_ID_READS.set(0);
+        Assert.assertEquals(connections.size(), manager.getState().getChildren().size());
+        Assert.assertEquals(connections.size(), TestResource.DATA_ID_READS.get());
+
+        final Connection<?, ?> connection = connections.get(0);
+        connection.setEnvPrefix("CHANGED_");
+        manager.addConnection(connection);
+        TestResource.DATA_ID_READS.set(0);
+        final List<Element> changed = manager.getState().getChildren();
+        Assert.assertEquals(1, TestResource.DATA_ID_READS.get());
+        Assert.assertEquals("CHANGED_", changed.get(changed.size() - 1).getAttributeValue("envPrefix"));
+
+        manager.removeConnection(connection.getResource().getId(), connection.getConsumer().getId());
+        TestResource.DATA_ID_READS.set(0);
+        Assert.assertEquals(connections.size() - 1, manager.getState().getChildren().size());
+        Assert.assertEquals(0, TestResource.DATA_ID_READS.get());
+    }
+
+    /**
+     * every line marker pass of a properties file looks up the connections of the module once per property, the
+     * lookups must not visit the connections, whose ids are hashed on every call.
+     */
+    @Test
+    public void testLookupsDoNotScan() {
+        final List<String> resourceIds = connections.stream().map(c -> c.getResource().getId()).collect(Collectors.toList());
+        TestResource.DATA_ID_READS.set(0);
+        for (int pass = 0; pass < 10; pass++) {
+            for (int i = 0; i < MODULES; i++) {
+                final String module = "module-" + i;
+                Assert.assertSame(manager.getConnectionsByConsumerId(module), manager.getConnectionsByConsumerId(module));
+            }
+            resourceIds.forEach(manager::getConnectionsByResourceId);
+        }
+        Assert.assertEquals(0, TestResource.DATA_ID_READS.get());
+
+        // while a scan visits every connection per lookup
+        Assert.assertFalse(connections.stream().filter(c -> StringUtils.equals(resourceIds.get(0), c.getResource().getId())).collect(Collectors.toList()).isEmpty());
+        Assert.assertEquals(connections.size(), TestResource.DATA_ID_READS.get());
+    }
+
+    private List<Connection<?, ?>> scanByConsumerId(String id) {
+        return connections.stream().filter(c -> StringUtils.equals(id, c.getConsumer().getId())).collect(Collectors.toList());
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class TestResource implements Resource<String> {
+        private static final AtomicInteger DATA_ID_READS = new AtomicInteger();
+        private final String data;
+
+        @Nonnull
+        @Override
+        public ResourceDefinition<String> getDefinition() {
+            return Definition.INSTANCE;
+        }
+
+        @Override
+        public String getDataId() {
+            DATA_ID_READS.incrementAndGet();
+            return data;
+        }
+
+        @Override
+        public String getName() {
+            return data;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TestResource && ((TestResource) o).data.equals(data);
+        }
+
+        @Override
+        public int hashCode() {
+            return data.hashCode();
+        }
+
+        enum Definition implements ResourceDefinition<String> {
+            INSTANCE;
+
+            @Override
+            public String getName() {
+                return "Test.Resource";
+            }
+
+            @Override
+            public Resource<String> define(String resource) {
+                return new TestResource(resource);
+            }
+
+            @Override
+            public AzureFormJPanel<Resource<String>> getResourcePanel(Project project) {
+                return null;
+            }
+
+            @Override
+            public boolean write(@Nonnull Element element, @Nonnull Resource<String> resource) {
+                element.setText(resource.getDataId());
+                return true;
+            }
+
+            @Override
+            public Resource<String> read(@Nonnull Element element) {
+                return new TestResource(element.getTextTrim());
+            }
+        }
+    }
+}
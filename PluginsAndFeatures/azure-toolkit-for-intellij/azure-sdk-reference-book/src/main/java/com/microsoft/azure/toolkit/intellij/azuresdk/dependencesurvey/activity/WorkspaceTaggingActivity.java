@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.intellij.azuresdk.dependencesurvey.activity;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.ProjectLibraryService;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.ProjectLibraryService.ProjectLibEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.WorkspaceTaggingService;
 import com.microsoft.azure.toolkit.intellij.common.survey.CustomerSurvey;
 import com.microsoft.azure.toolkit.intellij.common.survey.CustomerSurveyManager;
@@ -18,10 +19,10 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class WorkspaceTaggingActivity {
     private static final Logger logger = Logger.getLogger(WorkspaceTaggingActivity.class.getName());
@@ -37,17 +38,25 @@ public class WorkspaceTaggingActivity {
     private static final String SPRING = "spring";
 
     public static void runActivity(@NotNull final Project project) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> tagWorkspace(project, ProjectLibraryService.getProjectLibraries(project)));
+    }
+
+    /**
+     * @param libs libraries of {@code project}, shared with other startup activities to avoid enumerating them again
+     */
+    public static void runActivity(@NotNull final Project project, @NotNull final List<ProjectLibEntity> libs) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> tagWorkspace(project, libs));
+    }
 
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
-            try {
-                final Set<String> workspaceTags = getWorkspaceTags(project);
-                trackWorkspaceTagging(workspaceTags);
-                showCustomerSurvey(project, workspaceTags);
-            } catch (final Exception e) {
-                // swallow exception for workspace tagging
-                logger.warning(e.getMessage());
-            }
-        });
+    private static void tagWorkspace(@NotNull final Project project, @NotNull final List<ProjectLibEntity> libs) {
+        try {
+            final Set<String> workspaceTags = WorkspaceTaggingService.getWorkspaceTags(libs);
+            trackWorkspaceTagging(workspaceTags);
+            showCustomerSurvey(project, workspaceTags);
+        } catch (final Exception e) {
+            // swallow exception for workspace tagging
+            logger.warning(e.getMessage());
+        }
     }
 
     private static void showCustomerSurvey(final Project project, final Set<String> workspaceTags) {
@@ -67,13 +76,6 @@ public class WorkspaceTaggingActivity {
         CustomerSurveyManager.getInstance().takeSurvey(project, CustomerSurvey.AZURE_INTELLIJ_TOOLKIT);
     }
 
-    private static Set<String> getWorkspaceTags(@NotNull final Project project) {
-        return ProjectLibraryService.getProjectLibraries(project).stream()
-                .map(l -> WorkspaceTaggingService.getWorkspaceTag(l.getGroupId(), l.getArtifactId()))
-                .filter(StringUtils::isNotBlank)
-                .collect(Collectors.toSet());
-    }
-
     private static void trackWorkspaceTagging(final Set<String> tagSet) {
         final Map<String, String> properties = new HashMap<>();
         properties.put(SERVICE_NAME, SYSTEM);
@@ -19,14 +19,14 @@ import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetry;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -35,18 +35,25 @@ import java.util.stream.Collectors;
 public class AzureSdkEnforcer {
 
     public static void enforce(Project project) {
-        final Map<String, AzureJavaSdkEntity> allDeprecatedAzureLibs = AzureSdkLibraryService.getDeprecatedAzureSDKEntities().stream()
-                .collect(Collectors.toMap(AzureJavaSdkEntity::getPackageName, e -> e));
-        final Set<String> allDeprecatedAzureLibNames = allDeprecatedAzureLibs.keySet();
-        final Set<String> projectLibPackageNames = ProjectLibraryService.getProjectLibraries(project).stream()
-                .map(ProjectLibEntity::getPackageName).collect(Collectors.toSet());
-        final SetUtils.SetView<String> deprecatedProjectLibNames = SetUtils.intersection(projectLibPackageNames, allDeprecatedAzureLibNames);
+        enforce(project, ProjectLibraryService.getProjectLibraries(project));
+    }
+
+    /**
+     * @param projectLibs libraries of {@code project}, shared with other startup activities to avoid enumerating them again
+     */
+    public static void enforce(Project project, List<ProjectLibEntity> projectLibs) {
         final String neverShowGainActionId = "AzureToolkit.AzureSDK.DeprecatedNotification.NeverShowAgain";
         if (Boolean.TRUE.equals(IntellijStore.getInstance().getState().getSuppressedActions().get(neverShowGainActionId))) {
             return;
         }
-        if (CollectionUtils.isNotEmpty(deprecatedProjectLibNames)) {
-            final List<AzureJavaSdkEntity> libs = deprecatedProjectLibNames.stream().map(allDeprecatedAzureLibs::get).collect(Collectors.toList());
+        final Map<String, AzureJavaSdkEntity> allDeprecatedAzureLibs = AzureSdkLibraryService.getDeprecatedAzureSDKEntities().stream()
+                .collect(Collectors.toMap(e -> e.getPackageName().toLowerCase(Locale.ROOT), e -> e, (e1, e2) -> e1));
+        final List<AzureJavaSdkEntity> libs = projectLibs.stream()
+                .map(l -> allDeprecatedAzureLibs.get(l.getPackageName().toLowerCase(Locale.ROOT)))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (CollectionUtils.isNotEmpty(libs)) {
             AzureSdkEnforcer.warnDeprecatedLibs(libs);
         }
     }
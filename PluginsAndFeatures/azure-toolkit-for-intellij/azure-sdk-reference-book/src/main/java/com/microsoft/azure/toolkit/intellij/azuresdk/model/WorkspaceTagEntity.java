@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.toolkit.intellij.azuresdk.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
@@ -12,6 +13,7 @@ import lombok.ToString;
 @ToString
 @Getter
 @NoArgsConstructor
+@AllArgsConstructor
 public class WorkspaceTagEntity {
     private String groupId;
     private String artifactId;
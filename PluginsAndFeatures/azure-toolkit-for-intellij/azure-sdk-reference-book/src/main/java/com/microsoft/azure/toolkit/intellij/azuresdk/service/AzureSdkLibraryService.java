@@ -13,6 +13,7 @@ import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import com.google.common.collect.ImmutableMap;
+import com.intellij.openapi.application.PathManager;
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkAllowListEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkArtifactEntity;
@@ -23,6 +24,7 @@ import com.microsoft.azure.toolkit.lib.common.cache.CacheManager;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -30,8 +32,11 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
@@ -167,33 +172,46 @@ public class AzureSdkLibraryService {
                 .collect(Collectors.toList());
     }
 
-    @SneakyThrows(MalformedURLException.class)
     @Cacheable("sdk/packages/spring")
     @AzureOperation(name = "sdk.load_spring_libs_metadata", type = AzureOperation.Type.TASK)
     private static List<AzureSdkServiceEntity> loadSpringSDKEntities() {
-        final List<AzureSdkServiceEntity> remote = loadSpringSDKEntities(new URL(SPRING_SDK_METADATA_URL));
+        final List<AzureSdkServiceEntity> remote = loadWithDiskCache(MetadataCaches.SPRING, "sdk/packages/spring");
         if (CollectionUtils.isEmpty(remote)) {
             return loadSpringSDKEntities(AzureSdkLibraryService.class.getResource(SDK_SPRING_SERVICES_BACKUP));
         }
         return remote;
     }
 
-    @SneakyThrows(MalformedURLException.class)
     @Cacheable("sdk/packages")
     @AzureOperation(name = "sdk.load_java_libs_meta_data", type = AzureOperation.Type.TASK)
     public static List<AzureJavaSdkEntity> loadAzureSDKEntities() {
-        final List<AzureJavaSdkEntity> remote = loadAzureSDKEntities(new URL(CLIENT_MGMT_SDK_METADATA_URL));
+        final List<AzureJavaSdkEntity> remote = loadWithDiskCache(MetadataCaches.CLIENT_MGMT, "sdk/packages");
         if (CollectionUtils.isEmpty(remote)) {
             return loadAzureSDKEntities(AzureSdkLibraryService.class.getResource(SDK_JAVA_PACKAGES_BACKUP));
         }
         return remote;
     }
 
+    /**
+     * serves the copy cached on disk at once and revalidates it in background, the in-memory cache {@code cacheName}
+     * is evicted if the remote copy has changed. the remote copy is fetched synchronously only if nothing is cached.
+     */
+    private static <T> List<T> loadWithDiskCache(@Nonnull AzureSdkMetadataCache<T> cache, @Nonnull String cacheName) {
+        final List<T> cached = cache.read();
+        if (CollectionUtils.isEmpty(cached)) {
+            return cache.revalidate();
+        }
+        AzureTaskManager.getInstance().runOnPooledThread(() -> {
+            if (CollectionUtils.isNotEmpty(cache.revalidate())) {
+                evictCaches(cacheName, "sdk/services", "workspace-tag/index");
+            }
+        });
+        return cached;
+    }
+
     public static List<AzureSdkServiceEntity> loadSpringSDKEntities(final URL destination) {
-        try {
-            final ObjectReader reader = YML_MAPPER.readerFor(AzureSdkServiceEntity.class);
-            final MappingIterator<AzureSdkServiceEntity> data = reader.readValues(destination);
-            return data.readAll();
+        try (final InputStream stream = destination.openStream()) {
+            return readSpringSDKEntities(stream);
         } catch (final IOException e) {
             log.warn(String.format("failed to load Azure SDK list from \"%s\"", destination.toString()), e);
         }
@@ -201,18 +219,28 @@ public class AzureSdkLibraryService {
     }
 
     public static List<AzureJavaSdkEntity> loadAzureSDKEntities(final URL destination) {
-        try {
-            final ObjectReader reader = CSV_MAPPER.readerFor(AzureJavaSdkEntity.class).with(CsvSchema.emptySchema().withHeader());
-            final MappingIterator<AzureJavaSdkEntity> data = reader.readValues(destination);
-            return data.readAll().stream()
-                    .filter(e -> StringUtils.isNoneBlank(e.getArtifactId(), e.getGroupId()))
-                    .collect(Collectors.toList());
+        try (final InputStream stream = destination.openStream()) {
+            return readAzureSDKEntities(stream);
         } catch (final IOException e) {
             log.warn(String.format("failed to load Azure SDK list from \"%s\"", destination.toString()), e);
         }
         return Collections.emptyList();
     }
 
+    private static List<AzureSdkServiceEntity> readSpringSDKEntities(final InputStream stream) throws IOException {
+        final ObjectReader reader = YML_MAPPER.readerFor(AzureSdkServiceEntity.class);
+        final MappingIterator<AzureSdkServiceEntity> data = reader.readValues(stream);
+        return data.readAll();
+    }
+
+    private static List<AzureJavaSdkEntity> readAzureSDKEntities(final InputStream stream) throws IOException {
+        final ObjectReader reader = CSV_MAPPER.readerFor(AzureJavaSdkEntity.class).with(CsvSchema.emptySchema().withHeader());
+        final MappingIterator<AzureJavaSdkEntity> data = reader.readValues(stream);
+        return data.readAll().stream()
+                .filter(e -> StringUtils.isNoneBlank(e.getArtifactId(), e.getGroupId()))
+                .collect(Collectors.toList());
+    }
+
     @Cacheable("sdk/packages/whitelist")
     @AzureOperation(name = "sdk.load_whitelist_metadata", type = AzureOperation.Type.TASK)
     private static Set<String> loadAzureSDKWhitelist() {
@@ -231,13 +259,35 @@ public class AzureSdkLibraryService {
     }
 
     public static void refresh() {
+        evictCaches("sdk/services", "sdk/packages", "sdk/packages/spring", "sdk/packages/whitelist", "workspace-tag/index");
+    }
+
+    private static void evictCaches(String... cacheNames) {
         try {
-            CacheManager.evictCache("sdk/services", CacheEvict.ALL);
-            CacheManager.evictCache("sdk/packages", CacheEvict.ALL);
-            CacheManager.evictCache("sdk/packages/spring", CacheEvict.ALL);
-            CacheManager.evictCache("sdk/packages/whitelist", CacheEvict.ALL);
+            for (final String cacheName : cacheNames) {
+                CacheManager.evictCache(cacheName, CacheEvict.ALL);
+            }
         } catch (final ExecutionException e) {
             log.warn("failed to evict cache", e);
         }
     }
+
+    @SneakyThrows(MalformedURLException.class)
+    private static URL toURL(String url) {
+        return new URL(url);
+    }
+
+    /**
+     * resolves the cache directory on first use rather than when the class is loaded (e.g. by unit tests, where the
+     * IDE paths are not set up).
+     */
+    private static class MetadataCaches {
+        private static final Path DIR = Paths.get(PathManager.getSystemPath(), "azure-toolkit", "sdk-reference");
+        private static final AzureSdkMetadataCache<AzureSdkServiceEntity> SPRING = new AzureSdkMetadataCache<>(
+                toURL(SPRING_SDK_METADATA_URL), DIR.resolve("spring-reference.bin"),
+                AzureSdkServiceEntity.class, AzureSdkLibraryService::readSpringSDKEntities);
+        private static final AzureSdkMetadataCache<AzureJavaSdkEntity> CLIENT_MGMT = new AzureSdkMetadataCache<>(
+                toURL(CLIENT_MGMT_SDK_METADATA_URL), DIR.resolve("java-packages.bin"),
+                AzureJavaSdkEntity.class, AzureSdkLibraryService::readAzureSDKEntities);
+    }
 }
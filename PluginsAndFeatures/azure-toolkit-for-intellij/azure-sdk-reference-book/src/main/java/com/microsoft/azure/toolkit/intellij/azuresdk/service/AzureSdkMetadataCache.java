@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Disk cache of the Azure SDK metadata parsed from {@code source}. Parsed entities are stored in Smile (binary JSON)
+ * together with the {@code ETag}/{@code Last-Modified} of the response they were parsed from, so that the cached copy
+ * can be served at once (also offline) and revalidated with a conditional GET.
+ */
+@Slf4j
+public class AzureSdkMetadataCache<T> {
+    private static final int MAGIC = 0x417a5344; // "AzSD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final ObjectMapper SMILE_MAPPER = new SmileMapper()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Getter
+    private final URL source;
+    @Getter
+    private final Path file;
+    private final JavaType type;
+    private final Parser<T> parser;
+
+    @Nullable
+    private String etag;
+    @Nullable
+    private String lastModified;
+
+    public AzureSdkMetadataCache(@Nonnull URL source, @Nonnull Path file, @Nonnull Class<T> entityType, @Nonnull Parser<T> parser) {
+        this.source = source;
+        this.file = file;
+        this.type = SMILE_MAPPER.getTypeFactory().constructCollectionType(List.class, entityType);
+        this.parser = parser;
+    }
+
+    /**
+     * @return entities cached on disk, {@code null} if nothing is cached or the cache is unreadable.
+     */
+    @Nullable
+    public synchronized List<T> read() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (final DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final String cachedEtag = input.readUTF();
+            final String cachedLastModified = input.readUTF();
+            final List<T> entities = SMILE_MAPPER.readValue(IOUtils.toByteArray(input, input.readInt()), type);
+            this.etag = StringUtils.stripToNull(cachedEtag);
+            this.lastModified = StringUtils.stripToNull(cachedLastModified);
+            return entities;
+        } catch (final IOException | RuntimeException e) {
+            log.warn(String.format("failed to read cached Azure SDK metadata from \"%s\"", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * conditionally fetches {@code source} with the validators of the cached copy, and updates the cache on change.
+     * The fetch doesn't hold the lock, so {@link #read()} is never blocked by the network.
+     *
+     * @return entities fetched from {@code source}, {@code null} if the cached copy is still valid or {@code source}
+     * is not reachable.
+     */
+    @Nullable
+    public List<T> revalidate() {
+        final String cachedEtag;
+        final String cachedLastModified;
+        synchronized (this) {
+            final boolean cached = Files.isRegularFile(file);
+            cachedEtag = cached ? etag : null;
+            cachedLastModified = cached ? lastModified : null;
+        }
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) source.openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            if (cachedEtag != null) {
+                connection.setRequestProperty("If-None-Match", cachedEtag);
+            }
+            if (cachedLastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", cachedLastModified);
+            }
+            try {
+                final int code = connection.getResponseCode();
+                if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return null;
+                } else if (code != HttpURLConnection.HTTP_OK) {
+                    log.warn(String.format("failed to revalidate Azure SDK metadata from \"%s\", status code: %d", source, code));
+                    return null;
+                }
+                final List<T> entities;
+                try (final InputStream body = connection.getInputStream()) {
+                    entities = parser.parse(body);
+                }
+                if (CollectionUtils.isNotEmpty(entities)) {
+                    write(entities, connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
+                }
+                return entities;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (final IOException e) {
+            log.warn(String.format("failed to revalidate Azure SDK metadata from \"%s\"", source), e);
+            return null;
+        }
+    }
+
+    /**
+     * swaps the cached copy and its validators atomically.
+     */
+    private synchronized void write(@Nonnull List<T> entities, @Nullable String newEtag, @Nullable String newLastModified) throws IOException {
+        final byte[] data = SMILE_MAPPER.writerFor(type).writeValueAsBytes(entities);
+        Files.createDirectories(file.getParent());
+        final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (final OutputStream stream = Files.newOutputStream(temp); final DataOutputStream output = new DataOutputStream(stream)) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeUTF(StringUtils.defaultString(newEtag));
+                output.writeUTF(StringUtils.defaultString(newLastModified));
+                output.writeInt(data.length);
+                output.write(data);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        this.etag = newEtag;
+        this.lastModified = newLastModified;
+    }
+
+    @FunctionalInterface
+    public interface Parser<T> {
+        List<T> parse(InputStream stream) throws IOException;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive index of workspace tags keyed by {@code groupId:artifactId}, the lookup result is the same as
+ * scanning Azure SDK entities first and then workspace tag rules in their declaration order.
+ * A rule whose {@code groupId}/{@code artifactId} is empty matches any value, otherwise the value must equal.
+ */
+public class WorkspaceTagIndex {
+    private final Map<String, String> azureTags = new HashMap<>();
+    private final Map<String, List<TagRule>> rulesByGroup = new HashMap<>();
+    private final List<TagRule> rulesOfAnyGroup = new ArrayList<>();
+
+    @Nonnull
+    public static WorkspaceTagIndex build(@Nonnull List<? extends AzureJavaSdkEntity> sdkEntities, @Nonnull List<? extends WorkspaceTagEntity> tagEntities) {
+        final WorkspaceTagIndex index = new WorkspaceTagIndex();
+        for (final AzureJavaSdkEntity entity : sdkEntities) {
+            if (StringUtils.isNotEmpty(entity.getType())) {
+                index.azureTags.putIfAbsent(key(entity.getGroupId(), entity.getArtifactId()), entity.getType());
+            }
+        }
+        for (int i = 0; i < tagEntities.size(); i++) {
+            final WorkspaceTagEntity entity = tagEntities.get(i);
+            final TagRule rule = new TagRule(i, entity.getTag(), ValueMatcher.of(entity.getArtifactId()));
+            final ValueMatcher group = ValueMatcher.of(entity.getGroupId());
+            if (group.any) {
+                index.rulesOfAnyGroup.add(rule);
+            } else {
+                index.rulesByGroup.computeIfAbsent(group.value, k -> new ArrayList<>()).add(rule);
+            }
+        }
+        return index;
+    }
+
+    @Nullable
+    public String getTag(@Nonnull String groupId, @Nonnull String artifactId) {
+        if (StringUtils.isAnyEmpty(groupId, artifactId)) {
+            return null;
+        }
+        final String azureTag = azureTags.get(key(groupId, artifactId));
+        if (azureTag != null) {
+            return azureTag;
+        }
+        final String artifact = lower(artifactId);
+        final TagRule matched = firstMatch(rulesOfAnyGroup, artifact, firstMatch(rulesByGroup.get(lower(groupId)), artifact, null));
+        return matched == null ? null : matched.tag;
+    }
+
+    @Nullable
+    private static TagRule firstMatch(@Nullable List<TagRule> rules, @Nonnull String artifact, @Nullable TagRule current) {
+        for (final TagRule rule : rules == null ? Collections.<TagRule>emptyList() : rules) {
+            if (current != null && current.order < rule.order) {
+                // rules are sorted by declaration order
+                return current;
+            }
+            if (rule.artifact.matches(artifact)) {
+                return rule;
+            }
+        }
+        return current;
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return lower(groupId) + ":" + lower(artifactId);
+    }
+
+    private static String lower(String value) {
+        return StringUtils.defaultString(value).toLowerCase(Locale.ROOT);
+    }
+
+    @RequiredArgsConstructor
+    private static class TagRule {
+        private final int order;
+        private final String tag;
+        private final ValueMatcher artifact;
+    }
+
+    @RequiredArgsConstructor
+    private static class ValueMatcher {
+        private final String value;
+        private final boolean any;
+
+        static ValueMatcher of(@Nullable String value) {
+            final String lowerCased = lower(value);
+            return new ValueMatcher(lowerCased, lowerCased.isEmpty());
+        }
+
+        boolean matches(@Nonnull String lowerCased) {
+            return any || lowerCased.equals(value);
+        }
+    }
+}
@@ -9,11 +9,9 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
@@ -22,6 +20,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class WorkspaceTaggingService {
 
@@ -33,26 +33,22 @@ public class WorkspaceTaggingService {
         if (StringUtils.isAnyEmpty(groupId, artifactId)) {
             return null;
         }
-        return ObjectUtils.firstNonNull(getAzureDependencyTag(groupId, artifactId), getExternalDependencyTag(groupId, artifactId));
+        return getWorkspaceTagIndex().getTag(groupId, artifactId);
     }
 
-    private static String getAzureDependencyTag(final String groupId, final String artifactId) {
-        return AzureSdkLibraryService.loadAzureSDKEntities()
-            .stream()
-            .filter(entity -> StringUtils.isNotEmpty(entity.getType())
-                && StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId)
-                && StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId))
-            .map(AzureJavaSdkEntity::getType)
-            .findFirst().orElse(null);
+    @Nonnull
+    public static Set<String> getWorkspaceTags(@Nonnull List<? extends ProjectLibraryService.ProjectLibEntity> libs) {
+        final WorkspaceTagIndex index = getWorkspaceTagIndex();
+        return libs.stream()
+            .filter(l -> StringUtils.isNoneEmpty(l.getGroupId(), l.getArtifactId()))
+            .map(l -> index.getTag(l.getGroupId(), l.getArtifactId()))
+            .filter(StringUtils::isNotBlank)
+            .collect(Collectors.toSet());
     }
 
-    private static String getExternalDependencyTag(final String groupId, final String artifactId) {
-        return getWorkspaceTagEntities()
-            .stream()
-            .filter(entity -> (StringUtils.isEmpty(entity.getGroupId()) || StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId))
-                && (StringUtils.isEmpty(entity.getArtifactId()) || StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId)))
-            .map(WorkspaceTagEntity::getTag)
-            .findFirst().orElse(null);
+    @Cacheable(value = "workspace-tag/index")
+    public static WorkspaceTagIndex getWorkspaceTagIndex() {
+        return WorkspaceTagIndex.build(AzureSdkLibraryService.loadAzureSDKEntities(), getWorkspaceTagEntities());
     }
 
     @Preload
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AzureSdkMetadataCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private volatile String etag = "\"v1\"";
+    private volatile String content = "azure-core\nazure-identity";
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final CountDownLatch requested = new CountDownLatch(1);
+    private volatile CountDownLatch respond;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/java-packages.csv", this::handle);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testServeCachedCopyAndRevalidate() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("java-packages.bin");
+        final AzureSdkMetadataCache<String> cache = createCache(file);
+        Assert.assertNull(cache.read());
+        Assert.assertEquals(Arrays.asList("azure-core", "azure-identity"), cache.revalidate());
+        Assert.assertEquals(1, fullResponses.get());
+
+        // a new session is served from disk, and revalidation of an unchanged copy transfers nothing
+        final AzureSdkMetadataCache<String> restarted = createCache(file);
+        Assert.assertEquals(Arrays.asList("azure-core", "azure-identity"), restarted.read());
+        Assert.assertNull(restarted.revalidate());
+        Assert.assertEquals(1, fullResponses.get());
+        Assert.assertEquals(1, notModifiedResponses.get());
+
+        etag = "\"v2\"";
+        content = "azure-core\nazure-identity\nazure-storage-blob";
+        Assert.assertEquals(3, restarted.revalidate().size());
+        Assert.assertEquals(3, createCache(file).read().size());
+    }
+
+    @Test
+    public void testServeCachedCopyOffline() throws IOException {
+        final Path file = folder.getRoot().toPath().resolve("java-packages.bin");
+        Assert.assertNotNull(createCache(file).revalidate());
+        server.stop(0);
+
+        final AzureSdkMetadataCache<String> offline = createCache(file);
+        Assert.assertEquals(Arrays.asList("azure-core", "azure-identity"), offline.read());
+        Assert.assertNull(offline.revalidate());
+    }
+
+    @Test
+    public void testReadIsNotBlockedByRevalidation() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("java-packages.bin");
+        final AzureSdkMetadataCache<String> cache = createCache(file);
+        Assert.assertNotNull(cache.revalidate());
+
+        etag = "\"v2\"";
+        content = "azure-core";
+        respond = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<String>> revalidated = executor.submit(cache::revalidate);
+            Assert.assertTrue(requested.await(10, TimeUnit.SECONDS));
+            // the cached copy is served while the remote copy is being fetched
+            Assert.assertEquals(Arrays.asList("azure-core", "azure-identity"), executor.submit(cache::read).get(10, TimeUnit.SECONDS));
+
+            respond.countDown();
+            Assert.assertEquals(Collections.singletonList("azure-core"), revalidated.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(Collections.singletonList("azure-core"), cache.read());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private AzureSdkMetadataCache<String> createCache(Path file) throws IOException {
+        final URL source = new URL(String.format("http://127.0.0.1:%d/java-packages.csv", server.getAddress().getPort()));
+        return new AzureSdkMetadataCache<>(source, file, String.class,
+            stream -> Arrays.asList(IOUtils.toString(stream, StandardCharsets.UTF_8).split("\n")));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final CountDownLatch latch = respond;
+        if (latch != null) {
+            requested.countDown();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final List<String> validators = exchange.getRequestHeaders().get("If-None-Match");
+        if (validators != null && validators.contains(etag)) {
+            notModifiedResponses.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        fullResponses.incrementAndGet();
+        final byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(200, body.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
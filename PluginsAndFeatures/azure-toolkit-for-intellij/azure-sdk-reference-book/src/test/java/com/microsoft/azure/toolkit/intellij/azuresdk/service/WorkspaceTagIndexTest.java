@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.WorkspaceTagEntity;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class WorkspaceTagIndexTest {
+    private List<AzureJavaSdkEntity> sdkEntities;
+    private List<WorkspaceTagEntity> tagEntities;
+
+    @Before
+    public void setUp() throws IOException {
+        sdkEntities = AzureSdkLibraryService.loadAzureSDKEntities(WorkspaceTagIndexTest.class.getResource("/java-packages.csv"));
+        try (final InputStream stream = WorkspaceTagIndexTest.class.getResourceAsStream("/workspaceTag.json")) {
+            tagEntities = new JsonMapper().configure(JsonParser.Feature.ALLOW_COMMENTS, true)
+                .readerFor(WorkspaceTagEntity.class).<WorkspaceTagEntity>readValues(stream).readAll();
+        }
+        Assert.assertFalse(sdkEntities.isEmpty());
+        Assert.assertFalse(tagEntities.isEmpty());
+    }
+
+    @Test
+    public void testSameTagsAsLinearScan() {
+        final WorkspaceTagIndex index = WorkspaceTagIndex.build(sdkEntities, tagEntities);
+        for (final String[] lib : createLibraries(20000)) {
+            Assert.assertEquals(Arrays.toString(lib), getTagByScan(lib[0], lib[1]), index.getTag(lib[0], lib[1]));
+        }
+    }
+
+    /**
+     * tagging the libraries of a monorepo-sized project at startup reads every rule a fixed number of times to build the
+     * index, no matter how many libraries are looked up, while the linear scan reads the rules once per library.
+     */
+    @Test
+    public void testStartupReadsOfRulesDoNotGrowWithLibraries() {
+        final List<String[]> libs = createLibraries(20000);
+        final AtomicInteger reads = new AtomicInteger();
+        tagEntities = tagEntities.stream().<WorkspaceTagEntity>map(e -> new CountingTagEntity(e, reads)).collect(Collectors.toList());
+
+        final WorkspaceTagIndex index = WorkspaceTagIndex.build(sdkEntities, tagEntities);
+        Assert.assertEquals(3 * tagEntities.size(), reads.get());
+        libs.forEach(lib -> index.getTag(lib[0], lib[1]));
+        Assert.assertEquals(3 * tagEntities.size(), reads.get());
+
+        reads.set(0);
+        libs.forEach(lib -> getTagByScan(lib[0], lib[1]));
+        Assert.assertTrue(reads.get() >= libs.size() / 2);
+    }
+
+    @Test
+    public void testRuleOrderAndEmptyValues() {
+        final List<WorkspaceTagEntity> rules = Arrays.asList(
+            new WorkspaceTagEntity("org.springframework.cloud", "spring-cloud-starter-config", "springcloud"),
+            new WorkspaceTagEntity("org.springframework.cloud", "", "spring"),
+            new WorkspaceTagEntity("org.springframework.cloud", "spring-cloud-commons", "commons"),
+            new WorkspaceTagEntity("org.springframework*", "", "wildcard"),
+            new WorkspaceTagEntity("", "junit", "test"));
+        final WorkspaceTagIndex index = WorkspaceTagIndex.build(new ArrayList<>(), rules);
+        Assert.assertEquals("springcloud", index.getTag("org.springframework.cloud", "spring-cloud-starter-config"));
+        // an earlier rule of any artifact wins over a later exact one
+        Assert.assertEquals("spring", index.getTag("org.springframework.cloud", "spring-cloud-commons"));
+        // values are matched as a whole, '*' is not a wildcard
+        Assert.assertNull(index.getTag("org.springframework.boot", "spring-boot-starter-web"));
+        Assert.assertNull(index.getTag("org.springframework.cloud.stream", "spring-cloud-stream"));
+        Assert.assertEquals("wildcard", index.getTag("org.springframework*", "spring-core"));
+        Assert.assertEquals("test", index.getTag("junit", "JUnit"));
+        Assert.assertNull(index.getTag("com.example", "example"));
+        Assert.assertNull(index.getTag("", "junit"));
+    }
+
+    private static class CountingTagEntity extends WorkspaceTagEntity {
+        private final AtomicInteger reads;
+
+        CountingTagEntity(WorkspaceTagEntity entity, AtomicInteger reads) {
+            super(entity.getGroupId(), entity.getArtifactId(), entity.getTag());
+            this.reads = reads;
+        }
+
+        @Override
+        public String getGroupId() {
+            reads.incrementAndGet();
+            return super.getGroupId();
+        }
+
+        @Override
+        public String getArtifactId() {
+            reads.incrementAndGet();
+            return super.getArtifactId();
+        }
+
+        @Override
+        public String getTag() {
+            reads.incrementAndGet();
+            return super.getTag();
+        }
+    }
+
+    private List<String[]> createLibraries(int count) {
+        final Random random = new Random(0);
+        final List<String[]> libs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    final AzureJavaSdkEntity sdk = sdkEntities.get(random.nextInt(sdkEntities.size()));
+                    libs.add(new String[]{sdk.getGroupId().toUpperCase(Locale.ROOT), sdk.getArtifactId()});
+                    break;
+                case 1:
+                    final WorkspaceTagEntity tag = tagEntities.get(random.nextInt(tagEntities.size()));
+                    final String artifactId = StringUtils.isEmpty(tag.getArtifactId()) ? "artifact-" + i : tag.getArtifactId();
+                    libs.add(new String[]{StringUtils.defaultIfEmpty(tag.getGroupId(), "group" + i), artifactId});
+                    break;
+                default:
+                    libs.add(new String[]{"com.example.group" + random.nextInt(100), "module-" + i});
+            }
+        }
+        return libs;
+    }
+
+    private String getTagByScan(final String groupId, final String artifactId) {
+        final String azureTag = sdkEntities.stream()
+            .filter(entity -> StringUtils.isNotEmpty(entity.getType())
+                && StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId)
+                && StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId))
+            .map(AzureJavaSdkEntity::getType)
+            .findFirst().orElse(null);
+        if (azureTag != null) {
+            return azureTag;
+        }
+        return tagEntities.stream()
+            .filter(entity -> (StringUtils.isEmpty(entity.getGroupId()) || StringUtils.equalsIgnoreCase(entity.getGroupId(), groupId))
+                && (StringUtils.isEmpty(entity.getArtifactId()) || StringUtils.equalsIgnoreCase(entity.getArtifactId(), artifactId)))
+            .map(WorkspaceTagEntity::getTag)
+            .findFirst().orElse(null);
+    }
+}
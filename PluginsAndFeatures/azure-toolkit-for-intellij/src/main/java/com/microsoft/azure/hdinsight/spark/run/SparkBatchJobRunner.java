@@ -41,6 +41,7 @@ import rx.Observable;
 import rx.subjects.PublishSubject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UnknownFormatConversionException;
@@ -114,6 +115,23 @@ public class SparkBatchJobRunner extends DefaultProgramRunner implements SparkSu
         return submissionParameter;
     }
 
+    // Fail fast on the missing referenced jars and files, rather than after the artifact is uploaded and Livy rejects the job
+    protected void checkReferencedFilesExisting(@NotNull ADLSGen2Deploy jobDeploy,
+                                                @NotNull SparkSubmissionParameter submissionParameter) throws ExecutionException {
+        final List<String> missingFiles = Observable.from(submissionParameter.getReferencedJars())
+                                                    .concatWith(Observable.from(submissionParameter.getReferencedFiles()))
+                                                    .concatMap(uri -> jobDeploy.isReferencedFileExisting(uri)
+                                                                               .filter(isExisting -> !isExisting)
+                                                                               .map(ignored -> uri))
+                                                    .toList()
+                                                    .toBlocking()
+                                                    .single();
+
+        if (!missingFiles.isEmpty()) {
+            throw new ExecutionException("Can't find the referenced jars or files: " + String.join(", ", missingFiles));
+        }
+    }
+
     @Override
     @NotNull
     public Observable<ISparkBatchJob> buildSparkBatchJob(@NotNull SparkSubmitModel submitModel) {
@@ -138,6 +156,9 @@ public class SparkBatchJobRunner extends DefaultProgramRunner implements SparkSu
                     submitModel, clusterDetail);
 
             final SparkSubmissionParameter submissionParameter = updateStorageConfigForSubmissionParameter(submitModel);
+            if (jobDeploy instanceof ADLSGen2Deploy) {
+                checkReferencedFilesExisting((ADLSGen2Deploy) jobDeploy, submissionParameter);
+            }
 
             updateCurrentBackgroundableTaskIndicator(progressIndicator -> {
                 progressIndicator.setFraction(1.0f);
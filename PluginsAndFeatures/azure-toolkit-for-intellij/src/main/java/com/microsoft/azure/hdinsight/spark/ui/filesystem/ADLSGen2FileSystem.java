@@ -11,6 +11,7 @@ import com.microsoft.azure.hdinsight.common.AbfsUri;
 import com.microsoft.azure.hdinsight.common.AzureStorageUri;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.ForbiddenHttpErrorStatus;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFileBrowser;
 import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
 import com.microsoft.azure.hdinsight.spark.common.ADLSGen2Deploy;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
@@ -50,7 +51,7 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
             String fileSystemRootPath = rootPathUri.resolve("/").getUrl().toString();
             // sample directoryParam: sub/path/to
             String directoryParam = vf.getAbfsUri().getDirectoryParam();
-            childrenList = this.op.list(fileSystemRootPath, directoryParam)
+            childrenList = RemoteFileBrowser.getInstance().list(this.op, fileSystemRootPath, directoryParam)
                     // sample remoteFile.getName(): sub/path/to/SparkSubmission
                     .map(remoteFile -> new AdlsGen2VirtualFile(
                             (AbfsUri) AbfsUri.parse(fileSystemRootPath)
@@ -80,7 +81,7 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
 
     @Override
     public void refresh(boolean asynchronous) {
-
+        RemoteFileBrowser.getInstance().invalidate(rootPathUri.resolve("/").getUrl().toString());
     }
 
     @Nullable
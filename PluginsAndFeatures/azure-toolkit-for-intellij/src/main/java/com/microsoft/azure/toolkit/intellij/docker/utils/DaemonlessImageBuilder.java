@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.docker.utils;
+
+import com.google.cloud.tools.jib.api.CacheDirectoryCreationException;
+import com.google.cloud.tools.jib.api.Containerizer;
+import com.google.cloud.tools.jib.api.ImageReference;
+import com.google.cloud.tools.jib.api.InvalidImageReferenceException;
+import com.google.cloud.tools.jib.api.Jib;
+import com.google.cloud.tools.jib.api.JibContainer;
+import com.google.cloud.tools.jib.api.JibContainerBuilder;
+import com.google.cloud.tools.jib.api.LogEvent;
+import com.google.cloud.tools.jib.api.RegistryException;
+import com.google.cloud.tools.jib.api.RegistryImage;
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.ImageFormat;
+import com.google.cloud.tools.jib.api.buildplan.Port;
+import com.google.cloud.tools.jib.event.events.ProgressEvent;
+import com.google.cloud.tools.jib.event.progress.Allocation;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azuretools.core.mvp.model.webapp.PrivateRegistryImageSetting;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Builds and pushes the image of a Dockerfile without Docker daemon: the image is assembled from the base image and
+ * the artifact, and only the layers missing in the registry are pushed (mounted from the base image repository if
+ * it is in the same registry).
+ * The artifact is split into layers so that a redeploy only pushes what has changed: release dependencies,
+ * snapshot dependencies and the application classes for Spring Boot jars ({@code BOOT-INF/lib}) and wars
+ * ({@code WEB-INF/lib}), the whole artifact otherwise. File timestamps are fixed so that unchanged layers keep
+ * their digests.
+ * Only {@code FROM}, {@code ARG}, {@code WORKDIR}, {@code VOLUME}, {@code ENV}, {@code EXPOSE}, {@code ENTRYPOINT},
+ * {@code CMD} and the {@code COPY}/{@code ADD} of the artifact are applied, other instructions (e.g. {@code RUN}) are
+ * skipped. {@code ARG} and {@code ENV} variables are expanded as Docker does, {@code ARG}s take their default values.
+ */
+public class DaemonlessImageBuilder {
+    private static final String TOOL_NAME = "azure-toolkit-for-intellij";
+    private static final String SCRATCH = "scratch";
+    private static final String BOOT_LIB = "BOOT-INF/lib/";
+    private static final String WEB_LIB = "WEB-INF/lib/";
+    private static final String SPRING_BOOT_LOADER = "org/springframework/boot/loader/";
+    private static final String JAVA_SECURITY_EGD = "-Djava.security.egd=file:/dev/./urandom";
+    private static final String ARG = "ARG";
+    // instructions whose arguments are expanded with ARG and ENV variables, the others are left to the shell
+    private static final Set<String> EXPANDED = new HashSet<>(Arrays.asList(DockerfileInstruction.FROM, ARG, "WORKDIR", "VOLUME",
+        "ENV", DockerfileInstruction.EXPOSE, DockerfileInstruction.COPY, DockerfileInstruction.ADD));
+    // \$, ${name}, ${name:-word}, ${name:+word} or $name
+    private static final Pattern VARIABLE = Pattern.compile("\\\\\\$|\\$\\{([A-Za-z_][A-Za-z0-9_]*)(?::([-+])([^}]*))?}|\\$([A-Za-z_][A-Za-z0-9_]*)");
+
+    private final Path cacheDir;
+    private final Consumer<String> logger;
+
+    public DaemonlessImageBuilder(@Nonnull Path cacheDir, @Nonnull Consumer<String> logger) {
+        this.cacheDir = cacheDir;
+        this.logger = logger;
+    }
+
+    /**
+     * @return digest of the pushed image
+     */
+    @AzureOperation(
+        name = "docker.push_image.image|registry",
+        params = {"target.getImageTagWithServerUrl()", "target.getServerUrl()"},
+        type = AzureOperation.Type.TASK
+    )
+    public String buildAndPush(@Nonnull Path dockerfile, @Nonnull Path artifact, @Nonnull PrivateRegistryImageSetting target)
+        throws AzureExecutionException, IOException, InterruptedException {
+        final List<DockerfileInstruction> instructions = DockerfileInstruction.parse(dockerfile);
+        final Path workDir = Files.createTempDirectory(Files.createDirectories(cacheDir), "build");
+        try {
+            final JibContainerBuilder builder = createContainerBuilder(instructions, artifact, workDir, target);
+            final RegistryImage image = RegistryImage.named(target.getImageTagWithServerUrl());
+            if (StringUtils.isNotEmpty(target.getUsername())) {
+                image.addCredential(target.getUsername(), target.getPassword());
+            }
+            final Containerizer containerizer = Containerizer.to(image)
+                .setBaseImageLayersCache(cacheDir.resolve("base"))
+                .setApplicationLayersCache(cacheDir.resolve("application"))
+                .setAllowInsecureRegistries(isLocalRegistry(target.getServerUrl()))
+                .setToolName(TOOL_NAME)
+                .addEventHandler(LogEvent.class, this::log)
+                .addEventHandler(ProgressEvent.class, new ProgressLogger());
+            final JibContainer container = builder.containerize(containerizer);
+            logger.accept(String.format("Pushed image %s@%s", container.getTargetImage(), container.getDigest()));
+            return container.getDigest().toString();
+        } catch (final InvalidImageReferenceException e) {
+            throw new AzureExecutionException(String.format("Invalid image reference: %s", e.getInvalidReference()), e);
+        } catch (final RegistryException | CacheDirectoryCreationException | ExecutionException e) {
+            throw new AzureExecutionException(String.format("Failed to build and push image %s: %s",
+                target.getImageTagWithServerUrl(), e.getMessage()), e);
+        } finally {
+            FileUtils.deleteQuietly(workDir.toFile());
+        }
+    }
+
+    @Nonnull
+    JibContainerBuilder createContainerBuilder(@Nonnull List<DockerfileInstruction> instructions, @Nonnull Path artifact,
+                                               @Nonnull Path workDir, @Nonnull PrivateRegistryImageSetting target)
+        throws AzureExecutionException, IOException, InvalidImageReferenceException {
+        final DockerfileInstruction from = instructions.stream().filter(i -> i.is(DockerfileInstruction.FROM))
+            .reduce((first, second) -> second)
+            .orElseThrow(() -> new AzureExecutionException("No FROM instruction found in Dockerfile."));
+        if (instructions.stream().filter(i -> i.is(DockerfileInstruction.FROM)).count() > 1) {
+            logger.accept("Multi-stage Dockerfile, only the last stage is built.");
+        }
+        // ARGs before the first FROM are used by FROM, and by the stage if they are declared again without values
+        final Map<String, String> globalArgs = new HashMap<>();
+        for (final DockerfileInstruction instruction : instructions) {
+            if (instruction.is(DockerfileInstruction.FROM)) {
+                break;
+            }
+            if (instruction.is(ARG)) {
+                parseArguments(expand(instruction.getValues(), globalArgs::get), globalArgs, globalArgs);
+            }
+        }
+        final JibContainerBuilder builder = createFrom(expand(from.getValues().get(0), globalArgs::get), target);
+        builder.setFormat(ImageFormat.OCI);
+        AbsoluteUnixPath workingDir = AbsoluteUnixPath.get("/");
+        AbsoluteUnixPath destination = null;
+        List<String> entrypoint = null;
+        List<String> cmd = null;
+        final Map<String, String> args = new HashMap<>();
+        final Map<String, String> env = new HashMap<>();
+        // ENV overrides ARG of the same name
+        final Function<String, String> variables = name -> env.containsKey(name) ? env.get(name) : args.get(name);
+        for (final DockerfileInstruction instruction : instructions.subList(instructions.lastIndexOf(from) + 1, instructions.size())) {
+            final List<String> values = EXPANDED.contains(instruction.getKeyword()) ?
+                expand(instruction.getValues(), variables) : instruction.getValues();
+            switch (instruction.getKeyword()) {
+                case ARG:
+                    parseArguments(values, globalArgs, args);
+                    break;
+                case "WORKDIR":
+                    workingDir = resolve(workingDir, values.get(0));
+                    builder.setWorkingDirectory(workingDir);
+                    break;
+                case "VOLUME":
+                    for (final String volume : values) {
+                        builder.addVolume(resolve(workingDir, volume));
+                    }
+                    break;
+                case "ENV":
+                    final Map<String, String> variablesSet = parseEnvironment(values);
+                    env.putAll(variablesSet);
+                    variablesSet.forEach(builder::addEnvironmentVariable);
+                    break;
+                case DockerfileInstruction.EXPOSE:
+                    for (final String port : values) {
+                        builder.addExposedPort(parsePort(port, instruction));
+                    }
+                    break;
+                case "ENTRYPOINT":
+                    entrypoint = toCommand(instruction);
+                    break;
+                case "CMD":
+                    cmd = toCommand(instruction);
+                    break;
+                case DockerfileInstruction.COPY:
+                case DockerfileInstruction.ADD:
+                    if (values.size() > 1 && StringUtils.equals(FilenameUtils.getName(values.get(0)), artifact.getFileName().toString())) {
+                        final String dest = values.get(values.size() - 1);
+                        destination = resolve(workingDir, dest.endsWith("/") ? dest + artifact.getFileName() : dest);
+                    } else {
+                        logger.accept(String.format("Skipped \"%s %s\", only the artifact is copied.", instruction.getKeyword(), String.join(" ", values)));
+                    }
+                    break;
+                default:
+                    logger.accept(String.format("Skipped \"%s\", it is not supported without Docker daemon.", instruction.getKeyword()));
+            }
+        }
+        if (destination == null) {
+            throw new AzureExecutionException(String.format("No COPY/ADD instruction of artifact \"%s\" found in Dockerfile.", artifact.getFileName()));
+        }
+        final String mainClass = getSpringBootLauncher(artifact);
+        if (mainClass != null) {
+            // run the exploded jar with the Spring Boot launcher, dependencies and application in separated layers
+            final AbsoluteUnixPath appDir = AbsoluteUnixPath.get(FilenameUtils.removeExtension(destination.toString()));
+            addExplodedLayers(builder, artifact, workDir, appDir, BOOT_LIB);
+            entrypoint = Arrays.asList("java", JAVA_SECURITY_EGD, "-cp", appDir.toString(), mainClass);
+            cmd = null;
+        } else if (StringUtils.endsWithIgnoreCase(artifact.toString(), ".war")) {
+            // an exploded war in the webapps folder is deployed the same as the war
+            addExplodedLayers(builder, artifact, workDir, AbsoluteUnixPath.get(FilenameUtils.removeExtension(destination.toString())), WEB_LIB);
+        } else {
+            builder.addFileEntriesLayer(FileEntriesLayer.builder().setName("application").addEntry(artifact, destination).build());
+        }
+        if (entrypoint != null) {
+            builder.setEntrypoint(entrypoint);
+        }
+        if (cmd != null) {
+            builder.setProgramArguments(cmd);
+        }
+        return builder;
+    }
+
+    private JibContainerBuilder createFrom(@Nonnull String baseImage, @Nonnull PrivateRegistryImageSetting target) throws InvalidImageReferenceException {
+        if (SCRATCH.equals(baseImage)) {
+            return Jib.fromScratch();
+        }
+        final RegistryImage base = RegistryImage.named(baseImage);
+        final String registry = ImageReference.parse(baseImage).getRegistry();
+        if (StringUtils.equalsIgnoreCase(registry, target.getServerUrl()) && StringUtils.isNotEmpty(target.getUsername())) {
+            // layers of a base image in the target registry are mounted instead of pushed
+            base.addCredential(target.getUsername(), target.getPassword());
+        }
+        return Jib.from(base);
+    }
+
+    /**
+     * explodes the archive into {@code workDir} and adds its entries under {@code appDir} in layers of release
+     * dependencies, snapshot dependencies and the rest.
+     */
+    private static void addExplodedLayers(@Nonnull JibContainerBuilder builder, @Nonnull Path archive, @Nonnull Path workDir,
+                                          @Nonnull AbsoluteUnixPath appDir, @Nonnull String libDir) throws IOException {
+        final FileEntriesLayer.Builder dependencies = FileEntriesLayer.builder().setName("dependencies");
+        final FileEntriesLayer.Builder snapshots = FileEntriesLayer.builder().setName("snapshot dependencies");
+        final FileEntriesLayer.Builder application = FileEntriesLayer.builder().setName("application");
+        final Path explodedDir = Files.createDirectories(workDir.resolve("exploded"));
+        try (final ZipFile zip = new ZipFile(archive.toFile())) {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final Path file = explodedDir.resolve(entry.getName()).normalize();
+                if (entry.isDirectory() || !file.startsWith(explodedDir)) {
+                    continue;
+                }
+                Files.createDirectories(file.getParent());
+                try (final InputStream input = zip.getInputStream(entry)) {
+                    Files.copy(input, file);
+                }
+                final String name = entry.getName();
+                final FileEntriesLayer.Builder layer = !name.startsWith(libDir) ? application :
+                    name.toUpperCase(Locale.ROOT).contains("SNAPSHOT") ? snapshots : dependencies;
+                layer.addEntry(file, appDir.resolve(name));
+            }
+        }
+        builder.addFileEntriesLayer(dependencies.build())
+            .addFileEntriesLayer(snapshots.build())
+            .addFileEntriesLayer(application.build());
+    }
+
+    /**
+     * @return main class of the Spring Boot executable jar, {@code null} if {@code artifact} is not one.
+     */
+    @Nullable
+    static String getSpringBootLauncher(@Nonnull Path artifact) throws IOException {
+        if (!StringUtils.endsWithIgnoreCase(artifact.toString(), ".jar")) {
+            return null;
+        }
+        try (final JarFile jar = new JarFile(artifact.toFile())) {
+            final Manifest manifest = jar.getManifest();
+            final String mainClass = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            return StringUtils.startsWith(mainClass, SPRING_BOOT_LOADER.replace('/', '.')) && jar.getEntry(BOOT_LIB) != null ? mainClass : null;
+        }
+    }
+
+    private static Port parsePort(@Nonnull String port, @Nonnull DockerfileInstruction instruction) throws AzureExecutionException {
+        try {
+            return Port.parseProtocol(Integer.parseInt(StringUtils.substringBefore(port, "/")),
+                StringUtils.defaultIfEmpty(StringUtils.substringAfter(port, "/"), "tcp"));
+        } catch (final NumberFormatException e) {
+            throw new AzureExecutionException(String.format("Invalid port \"%s\" of \"EXPOSE %s\", build arguments are not supported " +
+                "without Docker daemon, please give the ARG a default value.", port, String.join(" ", instruction.getValues())), e);
+        }
+    }
+
+    /**
+     * sets the variables of {@code ARG name=default} and {@code ARG name}, which takes the value of a global ARG.
+     */
+    private static void parseArguments(@Nonnull List<String> values, @Nonnull Map<String, String> globalArgs, @Nonnull Map<String, String> args) {
+        for (final String value : values) {
+            if (value.contains("=")) {
+                args.put(StringUtils.substringBefore(value, "="), StringUtils.strip(StringUtils.substringAfter(value, "="), "\""));
+            } else if (globalArgs.containsKey(value)) {
+                args.put(value, globalArgs.get(value));
+            }
+        }
+    }
+
+    private static List<String> expand(@Nonnull List<String> values, @Nonnull Function<String, String> variables) {
+        return values.stream().map(v -> expand(v, variables)).collect(Collectors.toList());
+    }
+
+    /**
+     * expands the variables in {@code value} as Docker does, an unset variable is expanded to empty.
+     */
+    static String expand(@Nonnull String value, @Nonnull Function<String, String> variables) {
+        final Matcher matcher = VARIABLE.matcher(value);
+        final StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            final String replacement;
+            if (matcher.group(1) == null && matcher.group(4) == null) {
+                replacement = "$";
+            } else {
+                final String variable = variables.apply(StringUtils.defaultString(matcher.group(1), matcher.group(4)));
+                if ("-".equals(matcher.group(2))) {
+                    replacement = variable == null ? matcher.group(3) : variable;
+                } else if ("+".equals(matcher.group(2))) {
+                    replacement = variable == null ? "" : matcher.group(3);
+                } else {
+                    replacement = StringUtils.defaultString(variable);
+                }
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static List<String> toCommand(@Nonnull DockerfileInstruction instruction) {
+        final List<String> values = instruction.getValues();
+        // shell form is run by "/bin/sh -c"
+        return instruction.isExecForm() ? values : Arrays.asList("/bin/sh", "-c", String.join(" ", values));
+    }
+
+    private static Map<String, String> parseEnvironment(@Nonnull List<String> values) {
+        final Map<String, String> env = new LinkedHashMap<>();
+        if (values.size() > 1 && !values.get(0).contains("=")) {
+            // legacy form: ENV key value
+            env.put(values.get(0), String.join(" ", values.subList(1, values.size())));
+            return env;
+        }
+        values.forEach(v -> env.put(StringUtils.substringBefore(v, "="), StringUtils.strip(StringUtils.substringAfter(v, "="), "\"")));
+        return env;
+    }
+
+    private static AbsoluteUnixPath resolve(@Nonnull AbsoluteUnixPath dir, @Nonnull String path) {
+        final String absolute = path.startsWith("/") ? path : StringUtils.removeEnd(dir.toString(), "/") + "/" + path;
+        return AbsoluteUnixPath.get(StringUtils.defaultIfEmpty(FilenameUtils.normalizeNoEndSeparator(absolute, true), "/"));
+    }
+
+    private static boolean isLocalRegistry(@Nullable String serverUrl) {
+        final String host = StringUtils.substringBefore(StringUtils.defaultString(serverUrl), ":");
+        return StringUtils.equalsAnyIgnoreCase(host, "localhost", "127.0.0.1");
+    }
+
+    private void log(@Nonnull LogEvent event) {
+        if (event.getLevel() != LogEvent.Level.DEBUG && event.getLevel() != LogEvent.Level.INFO && StringUtils.isNotBlank(event.getMessage())) {
+            logger.accept(event.getMessage());
+        }
+    }
+
+    private class ProgressLogger implements Consumer<ProgressEvent> {
+        private static final int STEP = 10;
+        private double progress;
+        private int reported;
+
+        @Override
+        public synchronized void accept(@Nonnull ProgressEvent event) {
+            final Allocation allocation = event.getAllocation();
+            progress += allocation.getFractionOfRoot() * event.getUnits() / Math.max(1, allocation.getAllocationUnits());
+            final int percent = (int) Math.min(100, progress * 100);
+            if (percent >= reported + STEP) {
+                reported = percent - percent % STEP;
+                logger.accept(String.format("[%3d%%] %s", percent, allocation.getDescription()));
+            }
+        }
+    }
+}
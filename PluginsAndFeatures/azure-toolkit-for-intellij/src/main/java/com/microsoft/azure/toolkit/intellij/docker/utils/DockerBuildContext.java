@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.docker.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Minimal build context for the Docker daemon: only the files referenced by {@code COPY}/{@code ADD} instructions of
+ * the Dockerfile and not excluded by {@code .dockerignore} are copied into a temporary directory, instead of sending
+ * the whole directory of the Dockerfile to the daemon.
+ */
+public class DockerBuildContext {
+    public static final String DOCKER_IGNORE = ".dockerignore";
+
+    /**
+     * @return a temporary directory containing the minimal context and the Dockerfile, which should be deleted by
+     * the caller after the build.
+     */
+    @Nonnull
+    public static Path create(@Nonnull Path contextDir, @Nonnull Path dockerfile) throws IOException {
+        final DockerIgnore ignore = DockerIgnore.load(contextDir);
+        final Set<Path> files = new LinkedHashSet<>();
+        for (final String source : getSources(DockerfileInstruction.parse(dockerfile))) {
+            collect(contextDir, source, files);
+        }
+        final Path context = Files.createTempDirectory("docker-context");
+        for (final Path file : files) {
+            final String relative = FilenameUtils.separatorsToUnix(contextDir.relativize(file).toString());
+            if (!ignore.isExcluded(relative)) {
+                final Path target = context.resolve(contextDir.relativize(file));
+                Files.createDirectories(target.getParent());
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+        Files.copy(dockerfile, context.resolve(dockerfile.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+        if (Files.isRegularFile(contextDir.resolve(DOCKER_IGNORE))) {
+            Files.copy(contextDir.resolve(DOCKER_IGNORE), context.resolve(DOCKER_IGNORE), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return context;
+    }
+
+    /**
+     * @return sources of {@code COPY}/{@code ADD} instructions that are read from the build context, i.e. except
+     * those copied from other stages or downloaded from remote URLs.
+     */
+    @Nonnull
+    static List<String> getSources(@Nonnull List<DockerfileInstruction> instructions) {
+        final List<String> sources = new ArrayList<>();
+        for (final DockerfileInstruction instruction : instructions) {
+            if (!instruction.is(DockerfileInstruction.COPY) && !instruction.is(DockerfileInstruction.ADD)
+                || instruction.getFlags().stream().anyMatch(f -> f.startsWith("--from="))) {
+                continue;
+            }
+            final List<String> values = instruction.getValues();
+            values.subList(0, Math.max(0, values.size() - 1)).stream()
+                .filter(s -> !s.matches("^[a-zA-Z][a-zA-Z0-9+.-]*://.*"))
+                .forEach(sources::add);
+        }
+        return sources;
+    }
+
+    private static void collect(@Nonnull Path contextDir, @Nonnull String source, @Nonnull Set<Path> files) throws IOException {
+        final String normalized = StringUtils.defaultIfEmpty(StringUtils.removeStart(FilenameUtils.normalizeNoEndSeparator(source, true), "/"), ".");
+        if (StringUtils.containsAny(normalized, '*', '?', '[')) {
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized);
+            try (final Stream<Path> paths = Files.walk(contextDir)) {
+                for (final Path path : paths.filter(p -> matcher.matches(Paths.get(unix(contextDir.relativize(p))))).collect(Collectors.toList())) {
+                    addAll(path, files);
+                }
+            }
+        } else {
+            final Path path = contextDir.resolve(normalized).normalize();
+            if (path.startsWith(contextDir) && Files.exists(path)) {
+                addAll(path, files);
+            }
+        }
+    }
+
+    private static void addAll(@Nonnull Path path, @Nonnull Set<Path> files) throws IOException {
+        try (final Stream<Path> paths = Files.walk(path)) {
+            paths.filter(Files::isRegularFile).forEach(files::add);
+        }
+    }
+
+    private static String unix(Path path) {
+        return FilenameUtils.separatorsToUnix(path.toString());
+    }
+
+    /**
+     * Patterns of {@code .dockerignore}, the last matching pattern decides whether a path is excluded, and a pattern
+     * matching a directory matches all files in it.
+     */
+    @RequiredArgsConstructor
+    public static class DockerIgnore {
+        private final List<Rule> rules;
+
+        @Nonnull
+        public static DockerIgnore load(@Nonnull Path contextDir) throws IOException {
+            final Path file = contextDir.resolve(DOCKER_IGNORE);
+            return Files.isRegularFile(file) ? parse(Files.readAllLines(file, StandardCharsets.UTF_8)) : new DockerIgnore(new ArrayList<>());
+        }
+
+        @Nonnull
+        public static DockerIgnore parse(@Nonnull List<String> lines) {
+            final List<Rule> rules = new ArrayList<>();
+            for (final String line : lines) {
+                String pattern = line.trim();
+                if (pattern.isEmpty() || pattern.startsWith("#")) {
+                    continue;
+                }
+                final boolean exception = pattern.startsWith("!");
+                pattern = StringUtils.removeStart(FilenameUtils.normalizeNoEndSeparator(StringUtils.removeStart(pattern, "!").trim(), true), "/");
+                if (StringUtils.isNotEmpty(pattern)) {
+                    rules.add(new Rule(exception, FileSystems.getDefault().getPathMatcher("glob:" + pattern),
+                        pattern.startsWith("**/") ? FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(3)) : null));
+                }
+            }
+            return new DockerIgnore(rules);
+        }
+
+        /**
+         * @param relativePath path relative to the build context, separated by {@code /}
+         */
+        public boolean isExcluded(@Nonnull String relativePath) {
+            boolean excluded = false;
+            for (final Rule rule : rules) {
+                // a pattern matches the path or any of its parent directories
+                Path path = Paths.get(relativePath);
+                boolean matched = false;
+                while (path != null && !matched) {
+                    matched = rule.matches(path);
+                    path = path.getParent();
+                }
+                if (matched) {
+                    excluded = !rule.exception;
+                }
+            }
+            return excluded;
+        }
+
+        @RequiredArgsConstructor
+        private static class Rule {
+            private final boolean exception;
+            private final PathMatcher matcher;
+            private final PathMatcher rootMatcher;
+
+            boolean matches(Path path) {
+                return matcher.matches(path) || (rootMatcher != null && rootMatcher.matches(path));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.docker.utils;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An instruction of a Dockerfile, with line continuations joined, comments removed and arguments split.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DockerfileInstruction {
+    public static final String FROM = "FROM";
+    public static final String COPY = "COPY";
+    public static final String ADD = "ADD";
+    public static final String EXPOSE = "EXPOSE";
+    private static final Pattern JSON_ARGUMENT = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final String keyword;
+    /**
+     * leading flags of the instruction, e.g. {@code --from=build}
+     */
+    private final List<String> flags;
+    /**
+     * arguments after the leading flags, as they are in the Dockerfile
+     */
+    private final List<String> values;
+    /**
+     * whether values are in JSON array, e.g. {@code ENTRYPOINT ["java", "-jar", "app.jar"]}
+     */
+    private final boolean execForm;
+
+    public boolean is(@Nonnull String keyword) {
+        return this.keyword.equals(keyword);
+    }
+
+    public static List<DockerfileInstruction> parse(@Nonnull Path dockerfile) throws IOException {
+        return parse(Files.readAllLines(dockerfile, StandardCharsets.UTF_8));
+    }
+
+    public static List<DockerfileInstruction> parse(@Nonnull List<String> lines) {
+        final List<DockerfileInstruction> instructions = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        for (final String line : lines) {
+            final String trimmed = line.trim();
+            if (trimmed.startsWith("#") || (trimmed.isEmpty() && current.length() > 0)) {
+                continue;
+            }
+            if (trimmed.endsWith("\\")) {
+                current.append(StringUtils.removeEnd(trimmed, "\\")).append(' ');
+                continue;
+            }
+            current.append(trimmed);
+            final String instruction = current.toString().trim();
+            current.setLength(0);
+            if (!instruction.isEmpty()) {
+                instructions.add(of(instruction));
+            }
+        }
+        if (StringUtils.isNotBlank(current)) {
+            instructions.add(of(current.toString().trim()));
+        }
+        return instructions;
+    }
+
+    private static DockerfileInstruction of(@Nonnull String instruction) {
+        final String[] parts = instruction.split("\\s+", 2);
+        final String keyword = parts[0].toUpperCase(Locale.ROOT);
+        final String rest = parts.length > 1 ? parts[1].trim() : "";
+        final List<String> flags = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+        final String[] tokens = rest.split("\\s+");
+        int i = 0;
+        for (; i < tokens.length && tokens[i].startsWith("--"); i++) {
+            flags.add(tokens[i]);
+        }
+        final String joined = String.join(" ", Arrays.asList(tokens).subList(i, tokens.length));
+        if (joined.startsWith("[")) {
+            // exec form, e.g. COPY --chown=app ["a b", "c"]
+            final Matcher matcher = JSON_ARGUMENT.matcher(joined);
+            while (matcher.find()) {
+                values.add(matcher.group(1).replaceAll("\\\\(.)", "$1"));
+            }
+        } else {
+            Arrays.stream(tokens, i, tokens.length).filter(StringUtils::isNotEmpty).forEach(values::add);
+        }
+        return new DockerfileInstruction(keyword, flags, values, joined.startsWith("["));
+    }
+}
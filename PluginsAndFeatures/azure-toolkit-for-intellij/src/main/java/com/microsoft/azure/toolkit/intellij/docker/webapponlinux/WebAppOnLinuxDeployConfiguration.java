@@ -304,4 +304,12 @@ public class WebAppOnLinuxDeployConfiguration extends AzureRunConfigurationBase<
     public void setDockerFilePath(String dockerFilePath) {
         deployModel.setDockerFilePath(dockerFilePath);
     }
+
+    public boolean isDaemonlessImageBuild() {
+        return deployModel.isDaemonlessImageBuild();
+    }
+
+    public void setDaemonlessImageBuild(boolean daemonlessImageBuild) {
+        deployModel.setDaemonlessImageBuild(daemonlessImageBuild);
+    }
 }
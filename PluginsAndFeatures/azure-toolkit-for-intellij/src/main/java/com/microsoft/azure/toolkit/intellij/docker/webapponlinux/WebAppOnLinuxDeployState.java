@@ -6,9 +6,12 @@
 package com.microsoft.azure.toolkit.intellij.docker.webapponlinux;
 
 import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.project.Project;
 import com.microsoft.azure.toolkit.intellij.legacy.common.AzureRunProfileState;
 import com.microsoft.azure.toolkit.intellij.docker.utils.Constant;
+import com.microsoft.azure.toolkit.intellij.docker.utils.DaemonlessImageBuilder;
+import com.microsoft.azure.toolkit.intellij.docker.utils.DockerBuildContext;
 import com.microsoft.azure.toolkit.intellij.docker.utils.DockerProgressHandler;
 import com.microsoft.azure.toolkit.intellij.docker.utils.DockerUtil;
 import com.microsoft.azure.toolkit.lib.appservice.service.IAppService;
@@ -26,6 +29,7 @@ import com.microsoft.intellij.RunProcessHandler;
 import com.microsoft.intellij.util.MavenRunTaskUtil;
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerClient;
+import org.apache.commons.io.FileUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.FileNotFoundException;
@@ -69,23 +73,36 @@ public class WebAppOnLinuxDeployState extends AzureRunProfileState<IAppService>
         );
         Files.write(targetDockerfile, content.getBytes());
 
-        // build image
         final PrivateRegistryImageSetting acrInfo = deployModel.getPrivateRegistryImageSetting();
-        processHandler.setText(String.format("Building image ...  [%s]",
-                acrInfo.getImageTagWithServerUrl()));
-        final DockerClient docker = DefaultDockerClient.fromEnv().build();
-        DockerUtil.ping(docker);
-        DockerUtil.buildImage(docker,
-                acrInfo.getImageTagWithServerUrl(),
-                targetDockerfile.getParent(),
-                targetDockerfile.getFileName().toString(),
-                new DockerProgressHandler(processHandler)
-        );
+        if (deployModel.isDaemonlessImageBuild()) {
+            // build and push image without docker daemon
+            processHandler.setText(String.format("Building and pushing image without Docker daemon ... [%s]",
+                    acrInfo.getImageTagWithServerUrl()));
+            new DaemonlessImageBuilder(Paths.get(PathManager.getSystemPath(), "azure-toolkit", "image-layers"), processHandler::setText)
+                    .buildAndPush(targetDockerfile, Paths.get(targetFilePath), acrInfo);
+        } else {
+            // build image with the minimal context
+            processHandler.setText(String.format("Building image ...  [%s]",
+                    acrInfo.getImageTagWithServerUrl()));
+            final DockerClient docker = DefaultDockerClient.fromEnv().build();
+            DockerUtil.ping(docker);
+            final Path context = DockerBuildContext.create(targetDockerfile.getParent(), targetDockerfile);
+            try {
+                DockerUtil.buildImage(docker,
+                        acrInfo.getImageTagWithServerUrl(),
+                        context,
+                        targetDockerfile.getFileName().toString(),
+                        new DockerProgressHandler(processHandler)
+                );
+            } finally {
+                FileUtils.deleteQuietly(context.toFile());
+            }
 
-        // push to ACR
-        processHandler.setText(String.format("Pushing to ACR ... [%s] ", acrInfo.getServerUrl()));
-        DockerUtil.pushImage(docker, acrInfo.getServerUrl(), acrInfo.getUsername(), acrInfo.getPassword(),
-                acrInfo.getImageTagWithServerUrl(), new DockerProgressHandler(processHandler));
+            // push to ACR
+            processHandler.setText(String.format("Pushing to ACR ... [%s] ", acrInfo.getServerUrl()));
+            DockerUtil.pushImage(docker, acrInfo.getServerUrl(), acrInfo.getUsername(), acrInfo.getPassword(),
+                    acrInfo.getImageTagWithServerUrl(), new DockerProgressHandler(processHandler));
+        }
 
         // deploy
         if (deployModel.isCreatingNewWebAppOnLinux()) {
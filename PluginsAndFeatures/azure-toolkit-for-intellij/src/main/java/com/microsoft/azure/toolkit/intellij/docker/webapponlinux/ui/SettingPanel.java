@@ -46,6 +46,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -107,6 +108,7 @@ public class SettingPanel extends AzureSettingPanel<WebAppOnLinuxDeployConfigura
     private JComboBox<Artifact> cbArtifact;
     private JLabel lblArtifact;
     private JPanel pnlArtifact;
+    private JCheckBox chkDaemonlessBuild;
     private JPanel pnlResourceGroupHolder;
     private JPanel pnlAppServicePlanHolder;
     private JPanel pnlResourceGroup;
@@ -355,6 +357,7 @@ public class SettingPanel extends AzureSettingPanel<WebAppOnLinuxDeployConfigura
 
         webAppOnLinuxDeployConfiguration.setTargetPath(getTargetPath());
         webAppOnLinuxDeployConfiguration.setTargetName(getTargetName());
+        webAppOnLinuxDeployConfiguration.setDaemonlessImageBuild(chkDaemonlessBuild.isSelected());
 
         // set web app info
         if (rdoUseExist.isSelected()) {
@@ -456,6 +459,7 @@ public class SettingPanel extends AzureSettingPanel<WebAppOnLinuxDeployConfigura
             acrInfo.setPassword(secureStore.loadPassword(PRIVATE_DOCKER_REGISTRY, acrInfo.getServerUrl(), acrInfo.getUsername()));
         }
         containerSettingPanel.setTxtFields(acrInfo);
+        chkDaemonlessBuild.setSelected(conf.isDaemonlessImageBuild());
 
         // cache for table/combo selection
         defaultSubscriptionId = conf.getSubscriptionId();
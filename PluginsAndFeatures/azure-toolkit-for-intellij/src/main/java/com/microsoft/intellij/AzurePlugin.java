@@ -34,6 +34,7 @@ import com.microsoft.applicationinsights.preference.ApplicationInsightsResourceR
 import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
 import com.microsoft.azure.toolkit.intellij.azuresdk.dependencesurvey.activity.WorkspaceTaggingActivity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.enforcer.AzureSdkEnforcer;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.ProjectLibraryService;
 import com.microsoft.azure.toolkit.intellij.common.action.WhatsNewAction;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azuretools.azurecommons.deploy.DeploymentEventArgs;
@@ -167,8 +168,9 @@ public class AzurePlugin implements StartupActivity.DumbAware {
                 .subscribeOn(Schedulers.newThread())
                 .take(1)
                 .subscribe(next -> {
-                    WorkspaceTaggingActivity.runActivity(myProject);
-                    AzureSdkEnforcer.enforce(myProject);
+                    final List<ProjectLibraryService.ProjectLibEntity> libs = ProjectLibraryService.getProjectLibraries(myProject);
+                    WorkspaceTaggingActivity.runActivity(myProject, libs);
+                    AzureSdkEnforcer.enforce(myProject, libs);
                 });
     }
 
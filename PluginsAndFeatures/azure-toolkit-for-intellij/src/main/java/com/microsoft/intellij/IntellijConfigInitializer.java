@@ -9,7 +9,7 @@ import com.intellij.openapi.application.PermanentInstallationID;
 import com.microsoft.azure.toolkit.ide.common.store.AzureConfigInitializer;
 import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
 import com.microsoft.azure.toolkit.ide.common.store.IIdeStore;
-import com.microsoft.azure.toolkit.ide.common.util.ParserXMLUtility;
+import com.microsoft.azure.toolkit.ide.common.util.StreamingXMLUtility;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.auth.AzureCloud;
 import com.microsoft.azure.toolkit.lib.common.utils.InstallationIdUtils;
@@ -100,10 +100,6 @@ public class IntellijConfigInitializer {
         if (!file.exists()) {
             return false;
         }
-        try {
-            return ParserXMLUtility.parseXMLFile(dataFile) != null;
-        } catch (final Exception e) {
-            return false;
-        }
+        return StreamingXMLUtility.isWellFormed(dataFile);
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.intellij.ui;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.TableSpeedSearch;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.microsoft.azuretools.telemetrywrapper.OperationLatencyRegistry;
+import com.microsoft.azuretools.telemetrywrapper.OperationLatencySnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+public class OperationLatencyDialog extends DialogWrapper {
+    private static final String[] COLUMN_NAMES =
+            {"Service", "Operation", "Count", "Errors", "Mean (ms)", "P50 (ms)", "P90 (ms)", "P99 (ms)", "Max (ms)"};
+    private static final List<Function<OperationLatencySnapshot, Object>> COLUMN_VALUES = List.of(
+            OperationLatencySnapshot::getServiceName,
+            OperationLatencySnapshot::getOperationName,
+            OperationLatencySnapshot::getCount,
+            OperationLatencySnapshot::getErrors,
+            snapshot -> Math.round(snapshot.getMean()),
+            OperationLatencySnapshot::getP50,
+            OperationLatencySnapshot::getP90,
+            OperationLatencySnapshot::getP99,
+            OperationLatencySnapshot::getMax);
+
+    private final LatencyTableModel tableModel = new LatencyTableModel();
+
+    public OperationLatencyDialog(@Nullable Project project) {
+        super(project);
+        setModal(false);
+        setTitle("Azure Operation Latency");
+        setOKButtonText("Close");
+        init();
+        refresh();
+    }
+
+    @Nullable
+    @Override
+    protected JComponent createCenterPanel() {
+        final JBTable table = new JBTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        table.getEmptyText().setText("No Azure operation has completed yet");
+        new TableSpeedSearch(table);
+
+        final JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+        panel.setPreferredSize(new Dimension(900, 400));
+        return panel;
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createLeftSideActions() {
+        return new Action[]{
+            new DialogWrapperAction("Refresh") {
+                @Override
+                protected void doAction(ActionEvent e) {
+                    refresh();
+                }
+            },
+            new DialogWrapperAction("Reset") {
+                @Override
+                protected void doAction(ActionEvent e) {
+                    OperationLatencyRegistry.getInstance().reset();
+                    refresh();
+                }
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    private void refresh() {
+        tableModel.setSnapshots(OperationLatencyRegistry.getInstance().getSnapshots());
+    }
+
+    private static class LatencyTableModel extends AbstractTableModel {
+        private List<OperationLatencySnapshot> snapshots = Collections.emptyList();
+
+        void setSnapshots(List<OperationLatencySnapshot> snapshots) {
+            this.snapshots = snapshots;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return snapshots.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column < 2 ? String.class : Long.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return COLUMN_VALUES.get(column).apply(snapshots.get(row));
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.project.ProjectManagerListener;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
 import com.intellij.openapi.wm.ex.ToolWindowEx;
@@ -69,6 +70,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -369,34 +371,58 @@ public class ServerExplorerToolWindowFactory implements ToolWindowFactory, Prope
                 return;
             }
 
+            // notify the inserted and removed tree nodes only rather than reloading the
+            // whole tree node, so the expanded subtrees of the unchanged siblings stay expanded
+            final DefaultTreeModel treeModel = treeModelMap.get(project);
             switch (e.getAction()) {
                 case add:
                     // create child tree nodes for the new nodes
+                    final List<TreeNode> inserted = new ArrayList<>();
                     for (Node childNode : (Collection<Node>) e.getNewItems()) {
                         if (isOutdatedModule(childNode)) {
                             continue;
                         }
-                        treeNode.add(createTreeNode(childNode, project));
+                        final SortableTreeNode childTreeNode = createTreeNode(childNode, project);
+                        treeNode.add(childTreeNode);
+                        inserted.add(childTreeNode);
+                    }
+                    if (treeModel != null && !inserted.isEmpty()) {
+                        treeModel.nodesWereInserted(treeNode, inserted.stream().mapToInt(treeNode::getIndex).toArray());
                     }
                     break;
                 case remove:
                     // unregistered all event handlers recursively and remove
                     // child nodes from the tree
+                    final List<Pair<Integer, TreeNode>> removed = new ArrayList<>();
                     for (Node childNode : (Collection<Node>) e.getOldItems()) {
                         if (isOutdatedModule(childNode)) {
                             continue;
                         }
-                        // remove this node from the tree
                         removeEventHandlers(childNode);
-                        treeNode.remove((MutableTreeNode) childNode.getViewData());
+                        if (!(childNode.getViewData() instanceof MutableTreeNode)) {
+                            continue;
+                        }
+                        // remove this node from the tree
+                        final MutableTreeNode childTreeNode = (MutableTreeNode) childNode.getViewData();
+                        final int index = treeNode.getIndex(childTreeNode);
+                        if (index >= 0) {
+                            removed.add(Pair.create(index, childTreeNode));
+                        }
+                    }
+                    // the indices are the ones before the removal, in ascending order
+                    removed.sort(Comparator.comparingInt(pair -> pair.first));
+                    for (int i = removed.size() - 1; i >= 0; i--) {
+                        treeNode.remove(removed.get(i).first);
+                    }
+                    if (treeModel != null && !removed.isEmpty()) {
+                        treeModel.nodesWereRemoved(treeNode,
+                                                   removed.stream().mapToInt(pair -> pair.first).toArray(),
+                                                   removed.stream().map(pair -> pair.second).toArray());
                     }
                     break;
                 default:
                     break;
             }
-            if (treeModelMap.get(project) != null) {
-                treeModelMap.get(project).reload(treeNode);
-            }
         }
     }
 
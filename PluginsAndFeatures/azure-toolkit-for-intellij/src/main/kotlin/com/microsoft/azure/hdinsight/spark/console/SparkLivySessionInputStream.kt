@@ -32,7 +32,8 @@ import java.util.*
 
 abstract class SparkLivySessionInputStream(val session: Session) : InputStream(), ILogger {
     private var isClosed: Boolean = false
-    private var nextStatementId = 0
+    // Start from the first statement of the session once started, it may be taken over from a previous console
+    private var nextStatementId = -1
     private var statementOutputQueue: ArrayDeque<Byte>? = null
 
     override fun read(): Int {
@@ -66,6 +67,14 @@ abstract class SparkLivySessionInputStream(val session: Session) : InputStream()
     abstract fun createStatementBytesQueue(output: StatementOutput): String?
 
     private fun fetchNextStatementOutput() {
+        if (nextStatementId < 0) {
+            if (!session.isStarted) {
+                return
+            }
+
+            nextStatementId = session.firstStatementId
+        }
+
         val statement = Statement(session, nextStatementId)
 
         try {
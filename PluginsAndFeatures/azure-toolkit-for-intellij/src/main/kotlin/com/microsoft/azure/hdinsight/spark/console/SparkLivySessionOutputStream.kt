@@ -23,10 +23,13 @@
 package com.microsoft.azure.hdinsight.spark.console
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.microsoft.azure.hdinsight.common.MessageInfoType
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine
 import org.apache.commons.io.output.ByteArrayOutputStream
+import org.apache.commons.lang3.exception.ExceptionUtils
 import java.nio.charset.Charset
 
 class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream(), ILogger {
@@ -37,22 +40,31 @@ class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream
         }
 
         val codes = toString(Charset.defaultCharset())
+        reset()
         log().debug("Send those codes to Livy: $codes")
 
-        session.runCodes(codes)
-                .doOnEach { reset() }
-                .toBlocking()
-                .subscribe(
-                        { result ->
-                            log().debug("Livy running results: ${ObjectMapper().writeValueAsString(result)}")
-                        },
-                        { err -> when (err.cause) {
-                            is StatementExecutionError -> log().debug(err.message)
-                            else -> throw SparkConsoleExceptions.LivySessionExecuteError(
-                                    "Got the code `${codes.split(
-                                            "\n").first()}` execution error:",
-                                    err.cause ?: err)
-                        }}
-                )
+        val errorMessage = "Got the code `${codes.split("\n").first()}` execution error:"
+
+        // Only post the codes, the outputs are read by the statement ID, so the lines typed don't wait for each other
+        val result = try {
+            session.submitCodes(codes)
+        } catch (err: Throwable) {
+            throw SparkConsoleExceptions.LivySessionExecuteError(errorMessage, err.cause ?: err)
+        }
+
+        result.subscribe(
+                { output ->
+                    log().debug("Livy running results: ${ObjectMapper().writeValueAsString(output)}")
+                },
+                { err -> when (err.cause) {
+                    is StatementExecutionError -> log().debug(err.message)
+                    else -> {
+                        // The flush has returned, print the failure to the console as the caller of flush did
+                        log().warn("$errorMessage $err")
+                        session.ctrlSubject.onNext(SparkLogLine(SparkLogLine.TOOL, MessageInfoType.Warning,
+                                "$errorMessage ${ExceptionUtils.getRootCauseMessage(err)}"))
+                    }
+                }}
+        )
     }
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import com.google.common.net.HostAndPort
 import com.intellij.remote.RemoteProcess
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.common.mvc.IdeSchedulers
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.LivySessionPool
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import rx.Observable
 import java.io.InputStream
@@ -48,7 +49,9 @@ class SparkLivySessionProcess(
     override fun waitFor(): Int = 0
 
     override fun destroy() {
-        session.close()
+        // The pool keeps the session for the next console of the same cluster and configurations if it's enabled
+        // and no statement is running, or kills the session
+        LivySessionPool.getInstance().release(session)
         outputStream.close()
         errorStream.close()
         inputStream.close()
@@ -65,13 +68,15 @@ class SparkLivySessionProcess(
 
     override fun getInputStream(): InputStream = stdOutStream
 
-    fun start(): Observable<Session> = session.deploy()
-            .subscribeOn(rxSchedulers.processBarVisibleAsync(
-                    "Deploy Livy interactive console artifacts dependencies..."))
-            .observeOn(rxSchedulers.processBarVisibleAsync(
-                    "Create Spark Livy interactive console session..."))
-            .flatMap { it.create() }
-            .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
-                    "The Spark Livy interactive console session is starting..." )) }
+    fun start(): Observable<Session> = LivySessionPool.getInstance()
+            .acquire(session) { toStart -> toStart.deploy()
+                    .subscribeOn(rxSchedulers.processBarVisibleAsync(
+                            "Deploy Livy interactive console artifacts dependencies..."))
+                    .observeOn(rxSchedulers.processBarVisibleAsync(
+                            "Create Spark Livy interactive console session..."))
+                    .flatMap { it.create() }
+                    .flatMap { it.awaitReady(rxSchedulers.processBarVisibleAsync(
+                            "The Spark Livy interactive console session is starting..." )) }
+            }
             .doOnError { destroy() }
 }
\ No newline at end of file
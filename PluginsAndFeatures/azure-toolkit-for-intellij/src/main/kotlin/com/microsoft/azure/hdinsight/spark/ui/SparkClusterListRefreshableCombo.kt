@@ -31,6 +31,7 @@ import com.microsoft.azure.hdinsight.common.ClusterManagerEx
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.common.viewmodels.ComboBoxSelectionDelegated
 import com.microsoft.azure.hdinsight.common.viewmodels.ComponentWithBrowseButtonEnabledDelegated
+import com.microsoft.azure.hdinsight.sdk.cluster.ClusterDetail
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
 import com.microsoft.azure.hdinsight.sdk.common.azure.serverless.AzureSparkCosmosClusterManager
 import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.arcadiaSparkClustersRefreshed
@@ -147,6 +148,7 @@ open class SparkClusterListRefreshableCombo: ILogger, Disposable {
                     }}
                     .distinctUntilChanged()
                     .doOnNext { log().info("Selected ${clusterIdMapper(it)}, (you may get duplicated outputs for each subscriptions)") }
+                    .doOnNext { cluster -> cluster?.let { ClusterDetail.prefetchConfigurationInfo(listOf(it)) } }
 
         init {
             // To select cluster with refresh
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.docker.utils;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.Port;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azuretools.core.mvp.model.webapp.PrivateRegistryImageSetting;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * pushes images to a stand-in of a Docker registry (HTTP API V2) on localhost.
+ */
+public class DaemonlessImageBuilderTest {
+    private static final int TLS_HANDSHAKE = 0x16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer registry;
+    private ServerSocket frontend;
+    private final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+    private final Map<String, ByteArrayOutputStream> uploads = new ConcurrentHashMap<>();
+    private final List<String> pushedBlobs = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws IOException {
+        registry = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        registry.createContext("/v2/", this::handle);
+        registry.start();
+        frontend = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread acceptor = new Thread(this::accept);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        frontend.close();
+        registry.stop(0);
+    }
+
+    @Test
+    public void testPushOnlyChangedLayers() throws Exception {
+        final Path dockerfile = folder.getRoot().toPath().resolve("Dockerfile");
+        Files.write(dockerfile, String.format(Constant.DOCKERFILE_CONTENT_SPRING, "target/app.jar")
+            .replaceFirst("FROM .*", "FROM scratch").getBytes(StandardCharsets.UTF_8));
+        final Path artifact = folder.newFolder("target").toPath().resolve("app.jar");
+        final PrivateRegistryImageSetting target = new PrivateRegistryImageSetting(getServerUrl(), "", "", "app:latest", "");
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final DaemonlessImageBuilder builder = new DaemonlessImageBuilder(folder.newFolder("cache").toPath(), messages::add);
+
+        createSpringBootJar(artifact, "v1");
+        final String digest = builder.buildAndPush(dockerfile, artifact, target);
+        // dependencies, snapshot dependencies, application layer and container configuration
+        assertEquals(4, pushedBlobs.size());
+        assertTrue(messages.contains(String.format("Pushed image %s/app@%s", getServerUrl(), digest)));
+        assertTrue(messages.stream().noneMatch(m -> m.startsWith("Skipped")));
+
+        pushedBlobs.clear();
+        createSpringBootJar(artifact, "v1");
+        assertEquals(digest, builder.buildAndPush(dockerfile, artifact, target));
+        assertTrue(pushedBlobs.isEmpty());
+
+        createSpringBootJar(artifact, "v2");
+        builder.buildAndPush(dockerfile, artifact, target);
+        // only the application layer and container configuration are changed
+        assertEquals(2, pushedBlobs.size());
+    }
+
+    @Test
+    public void testExpandVariables() {
+        final Map<String, String> variables = Collections.singletonMap("PORT", "8080");
+        assertEquals("8080/tcp", DaemonlessImageBuilder.expand("$PORT/tcp", variables::get));
+        assertEquals("8080", DaemonlessImageBuilder.expand("${PORT}", variables::get));
+        assertEquals("80", DaemonlessImageBuilder.expand("${HOST_PORT:-80}", variables::get));
+        assertEquals("8080", DaemonlessImageBuilder.expand("${PORT:-80}", variables::get));
+        assertEquals("on", DaemonlessImageBuilder.expand("${PORT:+on}", variables::get));
+        assertEquals("", DaemonlessImageBuilder.expand("$HOST_PORT", variables::get));
+        assertEquals("$PORT", DaemonlessImageBuilder.expand("\\$PORT", variables::get));
+    }
+
+    @Test
+    public void testBuildArgumentsAndEnvironment() throws Exception {
+        final Path artifact = folder.newFolder("target").toPath().resolve("app.jar");
+        new JarOutputStream(Files.newOutputStream(artifact), new Manifest()).close();
+        final List<String> messages = new ArrayList<>();
+        final DaemonlessImageBuilder builder = new DaemonlessImageBuilder(folder.newFolder("cache").toPath(), messages::add);
+        final List<DockerfileInstruction> instructions = DockerfileInstruction.parse(Arrays.asList(
+            "ARG BASE=scratch", "ARG PORT=8080", "FROM $BASE", "ARG PORT", "ARG APP_HOME=/app", "ENV APP_HOME=/home/app DEBUG_PORT=5005",
+            "WORKDIR $APP_HOME", "EXPOSE ${PORT} $DEBUG_PORT/udp", "COPY target/app.jar ./",
+            "ENTRYPOINT [\"java\", \"-jar\", \"app.jar\", \"--server.port=$PORT\"]"));
+        final ContainerBuildPlan plan = builder.createContainerBuilder(instructions, artifact, folder.newFolder("work").toPath(),
+            new PrivateRegistryImageSetting(getServerUrl(), "", "", "app:latest", "")).toContainerBuildPlan();
+
+        assertEquals(AbsoluteUnixPath.get("/home/app"), plan.getWorkingDirectory());
+        assertEquals(new HashSet<>(Arrays.asList(Port.tcp(8080), Port.udp(5005))), plan.getExposedPorts());
+        // exec form is not expanded, as Docker does
+        assertEquals(Arrays.asList("java", "-jar", "app.jar", "--server.port=$PORT"), plan.getEntrypoint());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void testUnresolvedExposedPort() throws Exception {
+        final Path artifact = folder.newFolder("target").toPath().resolve("app.jar");
+        new JarOutputStream(Files.newOutputStream(artifact), new Manifest()).close();
+        final DaemonlessImageBuilder builder = new DaemonlessImageBuilder(folder.newFolder("cache").toPath(), m -> {
+        });
+        final List<DockerfileInstruction> instructions = DockerfileInstruction.parse(Arrays.asList(
+            "FROM scratch", "ARG PORT", "EXPOSE $PORT", "COPY target/app.jar /app.jar"));
+        try {
+            builder.createContainerBuilder(instructions, artifact, folder.newFolder("work").toPath(),
+                new PrivateRegistryImageSetting(getServerUrl(), "", "", "app:latest", ""));
+            fail("EXPOSE of an ARG without value should fail");
+        } catch (final AzureExecutionException e) {
+            assertTrue(e.getMessage().contains("EXPOSE $PORT"));
+        }
+    }
+
+    private String getServerUrl() {
+        return "localhost:" + frontend.getLocalPort();
+    }
+
+    /**
+     * like a registry serving plain HTTP, TLS handshakes are answered with "400 Bad Request" so that clients fail
+     * over to HTTP at once.
+     */
+    private void accept() {
+        while (!frontend.isClosed()) {
+            try {
+                final Socket client = frontend.accept();
+                final PushbackInputStream input = new PushbackInputStream(client.getInputStream());
+                final int first = input.read();
+                if (first == TLS_HANDSHAKE) {
+                    client.getOutputStream().write("HTTP/1.1 400 Bad Request\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                    client.close();
+                    continue;
+                }
+                input.unread(first);
+                final Socket backend = new Socket(registry.getAddress().getAddress(), registry.getAddress().getPort());
+                pipe(input, backend.getOutputStream(), backend);
+                pipe(backend.getInputStream(), client.getOutputStream(), client);
+            } catch (final IOException ignored) {
+                // frontend closed
+            }
+        }
+    }
+
+    private static void pipe(InputStream input, OutputStream output, Socket target) {
+        final Thread thread = new Thread(() -> {
+            try {
+                IOUtils.copy(input, output);
+            } catch (final IOException ignored) {
+                // connection closed
+            } finally {
+                IOUtils.closeQuietly(target);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void createSpringBootJar(Path jar, String version) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "org.springframework.boot.loader.JarLauncher");
+        manifest.getMainAttributes().putValue("Start-Class", "com.example.App");
+        try (final JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (final String name : new String[]{"org/springframework/boot/loader/JarLauncher.class", "BOOT-INF/lib/",
+                "BOOT-INF/lib/library-1.0.jar", "BOOT-INF/lib/module-1.0-SNAPSHOT.jar", "BOOT-INF/classes/com/example/App.class"}) {
+                output.putNextEntry(new JarEntry(name));
+                if (!name.endsWith("/")) {
+                    output.write((name.startsWith("BOOT-INF/classes") ? name + version : name).getBytes(StandardCharsets.UTF_8));
+                }
+                output.closeEntry();
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        final String query = exchange.getRequestURI().getQuery();
+        final byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+        if (path.equals("/v2/")) {
+            respond(exchange, 200, "{}", null);
+        } else if (path.contains("/blobs/uploads/")) {
+            final String uuid = path.substring(path.indexOf("/blobs/uploads/") + "/blobs/uploads/".length());
+            final String location = path.substring(0, path.indexOf("/blobs/uploads/")) + "/blobs/uploads/";
+            if (method.equals("POST")) {
+                final String mount = query == null ? null : getParameter(query, "mount");
+                if (mount != null && blobs.containsKey(mount)) {
+                    respond(exchange, 201, "", null);
+                    return;
+                }
+                final String id = UUID.randomUUID().toString();
+                uploads.put(id, new ByteArrayOutputStream());
+                respond(exchange, 202, "", location + id);
+            } else if (method.equals("PATCH")) {
+                uploads.get(uuid).write(body);
+                respond(exchange, 202, "", location + uuid);
+            } else if (method.equals("PUT")) {
+                final ByteArrayOutputStream upload = uploads.remove(uuid);
+                upload.write(body);
+                final String digest = getParameter(query, "digest");
+                assertEquals(digest, "sha256:" + DigestUtils.sha256Hex(upload.toByteArray()));
+                blobs.put(digest, upload.toByteArray());
+                pushedBlobs.add(digest);
+                respond(exchange, 201, "", null);
+            }
+        } else if (path.contains("/blobs/")) {
+            final byte[] blob = blobs.get(path.substring(path.lastIndexOf('/') + 1));
+            if (blob == null) {
+                respond(exchange, 404, "", null);
+            } else {
+                exchange.getResponseHeaders().add("Content-Length", String.valueOf(blob.length));
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        } else if (path.contains("/manifests/") && method.equals("PUT")) {
+            exchange.getResponseHeaders().add("Docker-Content-Digest", "sha256:" + DigestUtils.sha256Hex(body));
+            respond(exchange, 201, "", null);
+        } else {
+            respond(exchange, 404, "", null);
+        }
+    }
+
+    private static String getParameter(String query, String name) {
+        for (final String parameter : query.split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                return parameter.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int code, String content, String location) throws IOException {
+        if (location != null) {
+            exchange.getResponseHeaders().add("Location", location);
+        }
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        try (final OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
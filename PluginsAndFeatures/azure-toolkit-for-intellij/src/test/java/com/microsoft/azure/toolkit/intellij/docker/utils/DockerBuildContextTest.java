@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.docker.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DockerBuildContextTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParseInstructions() {
+        final java.util.List<DockerfileInstruction> instructions = DockerfileInstruction.parse(Arrays.asList(
+            "# comment",
+            "FROM azul/zulu-openjdk-alpine:8 AS runtime",
+            "COPY --chown=app:app target/app.jar \\",
+            "    /app.jar",
+            "ENTRYPOINT [\"java\", \"-jar\", \"/app.jar\"]"));
+        assertEquals(3, instructions.size());
+        assertEquals(Arrays.asList("--chown=app:app"), instructions.get(1).getFlags());
+        assertEquals(Arrays.asList("target/app.jar", "/app.jar"), instructions.get(1).getValues());
+        assertTrue(instructions.get(2).isExecForm());
+        assertEquals(Arrays.asList("java", "-jar", "/app.jar"), instructions.get(2).getValues());
+    }
+
+    @Test
+    public void testApplicationArgumentsAreKept() {
+        final java.util.List<DockerfileInstruction> instructions = DockerfileInstruction.parse(Arrays.asList(
+            "FROM --platform=linux/amd64 openjdk:8",
+            "ENTRYPOINT [\"java\", \"-jar\", \"app.jar\", \"--server.port=80\"]",
+            "CMD java -jar app.jar --debug"));
+        assertEquals(Arrays.asList("--platform=linux/amd64"), instructions.get(0).getFlags());
+        assertEquals(Arrays.asList("openjdk:8"), instructions.get(0).getValues());
+        assertTrue(instructions.get(1).getFlags().isEmpty());
+        assertEquals(Arrays.asList("java", "-jar", "app.jar", "--server.port=80"), instructions.get(1).getValues());
+        assertTrue(instructions.get(2).getFlags().isEmpty());
+        assertEquals(Arrays.asList("java", "-jar", "app.jar", "--debug"), instructions.get(2).getValues());
+    }
+
+    @Test
+    public void testDockerIgnore() {
+        final DockerBuildContext.DockerIgnore ignore = DockerBuildContext.DockerIgnore.parse(Arrays.asList(
+            "# comment", "target", "!target/*.jar", "**/*.log", "/.git"));
+        assertTrue(ignore.isExcluded("target/classes/App.class"));
+        assertFalse(ignore.isExcluded("target/app.jar"));
+        assertTrue(ignore.isExcluded("debug.log"));
+        assertTrue(ignore.isExcluded("src/main/debug.log"));
+        assertTrue(ignore.isExcluded(".git/config"));
+        assertFalse(ignore.isExcluded("src/main/App.java"));
+    }
+
+    @Test
+    public void testMinimalContext() throws IOException {
+        final Path project = folder.newFolder("project").toPath();
+        write(project.resolve("Dockerfile"), "FROM tomcat\nCOPY target/*.war /usr/local/tomcat/webapps/ROOT.war\n" +
+            "ADD conf /usr/local/tomcat/conf\nADD https://example.com/agent.jar /agent.jar\nCOPY --from=build /out /out\n");
+        write(project.resolve(".dockerignore"), "conf/*.bak\n");
+        write(project.resolve("target/app.war"), "war");
+        write(project.resolve("target/classes/App.class"), "class");
+        write(project.resolve("conf/server.xml"), "xml");
+        write(project.resolve("conf/server.xml.bak"), "bak");
+        write(project.resolve("src/main/java/App.java"), "java");
+
+        final Path context = DockerBuildContext.create(project, project.resolve("Dockerfile"));
+        try {
+            assertTrue(Files.isRegularFile(context.resolve("Dockerfile")));
+            assertTrue(Files.isRegularFile(context.resolve(".dockerignore")));
+            assertTrue(Files.isRegularFile(context.resolve("target/app.war")));
+            assertTrue(Files.isRegularFile(context.resolve("conf/server.xml")));
+            assertFalse(Files.exists(context.resolve("conf/server.xml.bak")));
+            assertFalse(Files.exists(context.resolve("target/classes")));
+            assertFalse(Files.exists(context.resolve("src")));
+        } finally {
+            FileUtils.deleteQuietly(context.toFile());
+        }
+    }
+
+    @Test
+    public void testWholeContextFilteredByDockerIgnore() throws IOException {
+        final Path project = folder.newFolder("project").toPath();
+        write(project.resolve("Dockerfile"), "FROM node\nCOPY . /app\n");
+        write(project.resolve(".dockerignore"), "node_modules\n");
+        write(project.resolve("index.js"), "js");
+        write(project.resolve("node_modules/lib/index.js"), "js");
+
+        final Path context = DockerBuildContext.create(project, project.resolve("Dockerfile"));
+        try {
+            assertTrue(Files.isRegularFile(context.resolve("index.js")));
+            assertFalse(Files.exists(context.resolve("node_modules")));
+        } finally {
+            FileUtils.deleteQuietly(context.toFile());
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, Collections.singletonList(content), StandardCharsets.UTF_8);
+    }
+}
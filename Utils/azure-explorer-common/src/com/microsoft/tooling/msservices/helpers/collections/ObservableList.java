@@ -15,7 +15,6 @@ import java.util.List;
 public class ObservableList<E> extends ForwardingList<E> {
     private final List<E> delegate = new ArrayList<E>();
     protected List<ListChangeListener> changeListeners = new ArrayList<ListChangeListener>();
-    private boolean freezeEvents = false;
 
     @Override
     protected List<E> delegate() {
@@ -29,10 +28,10 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(c);
+        // add in one go and fire one event for all the items added
+        boolean changed = delegate.addAll(c);
+
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.add, c, null);
         }
 
@@ -41,10 +40,9 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean addAll(int index, Collection<? extends E> c) {
-        freezeEvents = true;
-        boolean changed = standardAddAll(index, c);
+        boolean changed = delegate.addAll(index, c);
+
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.add, c, null);
         }
 
@@ -72,14 +70,15 @@ public class ObservableList<E> extends ForwardingList<E> {
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        freezeEvents = true;
-        boolean changed = standardRemoveAll(c);
+        // remove in one pass and fire one event for all the items removed,
+        // pass a set to remove many items from a long list
+        boolean changed = delegate.removeAll(c);
+
         if (changed) {
-            freezeEvents = false;
             fireChangeListenerEvent(ListChangedAction.remove, null, c);
         }
 
-        return standardRemoveAll(c);
+        return changed;
     }
 
     @Override
@@ -98,7 +97,7 @@ public class ObservableList<E> extends ForwardingList<E> {
     private void fireChangeListenerEvent(ListChangedAction action,
                                          Collection<?> newItems,
                                          Collection<?> oldItems) {
-        if (!changeListeners.isEmpty() && !freezeEvents) {
+        if (!changeListeners.isEmpty()) {
             ListChangedEvent listChangedEvent = new ListChangedEvent(
                     this,
                     action,
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.serviceexplorer;
+
+import com.google.common.collect.ImmutableMap;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The immutable description of a child node loaded by {@link ReconcilableNode#loadChildDescriptors(boolean)}, keyed by
+ * a stable id, usually the resource id. The children of the same id are kept across refreshes, and only updated when
+ * the name, icon or properties are changed.
+ */
+public final class NodeDescriptor {
+    @NotNull
+    private final String id;
+    @NotNull
+    private final String name;
+    @Nullable
+    private final String iconPath;
+    @NotNull
+    private final Map<String, String> properties;
+
+    public NodeDescriptor(@NotNull String id, @NotNull String name) {
+        this(id, name, null, ImmutableMap.of());
+    }
+
+    public NodeDescriptor(@NotNull String id, @NotNull String name, @Nullable String iconPath,
+                          @NotNull Map<String, String> properties) {
+        this.id = Objects.requireNonNull(id);
+        this.name = Objects.requireNonNull(name);
+        this.iconPath = iconPath;
+        this.properties = ImmutableMap.copyOf(properties);
+    }
+
+    @NotNull
+    public String getId() {
+        return id;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public String getIconPath() {
+        return iconPath;
+    }
+
+    /**
+     * The extra states of the resource shown by the child node, e.g. the running status
+     */
+    @NotNull
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @Nullable
+    public String getProperty(@NotNull String key) {
+        return properties.get(key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final NodeDescriptor that = (NodeDescriptor) o;
+        return id.equals(that.id) &&
+                name.equals(that.name) &&
+                Objects.equals(iconPath, that.iconPath) &&
+                properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, iconPath, properties);
+    }
+
+    @Override
+    public String toString() {
+        return "NodeDescriptor{id='" + id + "', name='" + name + "'}";
+    }
+}
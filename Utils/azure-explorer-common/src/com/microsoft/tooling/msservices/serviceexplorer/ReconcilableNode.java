@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.serviceexplorer;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Implemented by the {@link RefreshableNode}s whose children are reconciled from {@link NodeDescriptor}s instead of
+ * re-created by {@link RefreshableNode#refreshItems()} on every refresh. The kept children, and their loaded or
+ * expanded subtrees, survive the refreshes.
+ */
+public interface ReconcilableNode {
+    /**
+     * @param forceRefresh whether the user asks to reload from Azure rather than the cache
+     * @return the descriptors of the children, keyed by the stable ids
+     */
+    @NotNull
+    List<NodeDescriptor> loadChildDescriptors(boolean forceRefresh) throws Exception;
+
+    /**
+     * Create the child node of a descriptor, the id of the node must be the id of the descriptor.
+     */
+    @NotNull
+    Node createChildNode(@NotNull NodeDescriptor descriptor);
+
+    /**
+     * Update a kept child node in place, when its descriptor is changed. The default implementation updates the name
+     * and the icon.
+     */
+    default void updateChildNode(@NotNull Node child, @NotNull NodeDescriptor descriptor) {
+        if (!Objects.equals(child.getName(), descriptor.getName())) {
+            child.setName(descriptor.getName());
+        }
+
+        if (descriptor.getIconPath() != null && !Objects.equals(child.getIconPath(), descriptor.getIconPath())) {
+            child.setIconPath(descriptor.getIconPath());
+        }
+    }
+}
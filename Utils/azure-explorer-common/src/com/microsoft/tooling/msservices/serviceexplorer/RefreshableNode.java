@@ -17,13 +17,21 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.core.mvp.ui.base.NodeContent;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.AzureModule;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class RefreshableNode extends Node {
     protected boolean initialized;
@@ -31,6 +39,13 @@ public abstract class RefreshableNode extends Node {
     public static String REFRESH_ICON_DARK = "RefreshDark_16.png";
     private static final String REFRESH = "Refresh";
 
+    private final AtomicReference<Load> inFlight = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object reconcileLock = new Object();
+    // Guarded by reconcileLock
+    private final Map<String, NodeDescriptor> childDescriptors = new HashMap<>();
+    private long appliedGeneration = 0;
+
     public RefreshableNode(String id, String name, Node parent) {
         super(id, name, parent);
     }
@@ -82,30 +97,125 @@ public abstract class RefreshableNode extends Node {
     // Sub-classes are expected to override this method if they wish
     // to refresh items asynchronously. The default implementation simply
     // delegates to "refreshItems" *synchronously* and completes the Future
-    // with the result of calling getChildNodes.
-    protected synchronized void refreshItems(SettableFuture<List<Node>> future, boolean forceRefresh) {
-        if (!loading) {
-            setLoading(true);
-            try {
-                removeAllChildNodes();
-                if (AuthMethodManager.getInstance().isSignedIn()
-                        || this instanceof AzureModule
-                        || refreshEnabledWhenNotSignIn()) {
-                    if (forceRefresh) {
-                        refreshFromAzure();
-                    }
+    // with the result of calling getChildNodes. The concurrent calls share
+    // the load in flight, except that a forced refresh of a ReconcilableNode
+    // doesn't wait for a cached one but starts over and supersedes it.
+    protected void refreshItems(SettableFuture<List<Node>> future, boolean forceRefresh) {
+        while (true) {
+            final Load current = inFlight.get();
+            if (current != null && (current.forceRefresh || !forceRefresh || !(this instanceof ReconcilableNode))) {
+                future.setFuture(current.result);
+                return;
+            }
+
+            final Load load = new Load(generation.incrementAndGet(), forceRefresh);
+            if (inFlight.compareAndSet(current, load)) {
+                future.setFuture(load.result);
+                runLoad(load);
+                return;
+            }
+        }
+    }
+
+    private void runLoad(final Load load) {
+        setLoading(true);
+        try {
+            if (isRefreshEnabled()) {
+                if (load.forceRefresh) {
+                    refreshFromAzure();
+                }
+
+                if (this instanceof ReconcilableNode) {
+                    reconcile(load.generation, ((ReconcilableNode) this).loadChildDescriptors(load.forceRefresh));
+                } else {
+                    removeAllChildNodes();
                     refreshItems();
                 }
+            } else {
+                synchronized (reconcileLock) {
+                    childDescriptors.clear();
+                    removeAllChildNodes();
+                }
+            }
 
-                future.set(getChildNodes());
-            } catch (Exception e) {
-                future.setException(e);
-            } finally {
+            load.result.set(getChildNodes());
+        } catch (Exception e) {
+            load.result.setException(e);
+        } finally {
+            // A superseding load is still running, leave the loading state to it
+            if (inFlight.compareAndSet(load, null)) {
                 setLoading(false);
             }
         }
     }
 
+    /**
+     * Diff the descriptors against the current children, remove the children gone, update the children changed in
+     * place and insert the new ones. The kept children, and their loaded or expanded subtrees, are untouched. The
+     * list listeners get one event for the removals and one for the insertions. Only for {@link ReconcilableNode}s.
+     *
+     * @return false if the result is dropped since a newer one has been applied
+     */
+    boolean reconcile(long loadGeneration, @NotNull List<NodeDescriptor> descriptors) {
+        synchronized (reconcileLock) {
+            if (loadGeneration < appliedGeneration) {
+                return false;
+            }
+
+            appliedGeneration = loadGeneration;
+
+            final Map<String, NodeDescriptor> next = new LinkedHashMap<>();
+            for (final NodeDescriptor descriptor : descriptors) {
+                next.put(descriptor.getId(), descriptor);
+            }
+
+            // The children of unknown or duplicated ids aren't created by the reconciliation, replace them
+            final Map<String, Node> kept = new HashMap<>();
+            final Set<Node> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final Node child : childNodes) {
+                final String id = child.getId();
+                if (id != null && next.containsKey(id) && childDescriptors.containsKey(id) && !kept.containsKey(id)) {
+                    kept.put(id, child);
+                } else {
+                    removed.add(child);
+                }
+            }
+
+            final ReconcilableNode reconciler = (ReconcilableNode) this;
+            final List<Node> inserted = new ArrayList<>();
+            for (final NodeDescriptor descriptor : next.values()) {
+                final Node child = kept.get(descriptor.getId());
+                if (child == null) {
+                    inserted.add(reconciler.createChildNode(descriptor));
+                } else if (!descriptor.equals(childDescriptors.get(descriptor.getId()))) {
+                    reconciler.updateChildNode(child, descriptor);
+                }
+            }
+
+            childDescriptors.clear();
+            childDescriptors.putAll(next);
+
+            if (!removed.isEmpty()) {
+                // remove the child nodes of the removed nodes (so they get an
+                // opportunity to clean up after them)
+                removed.forEach(Node::removeAllChildNodes);
+                childNodes.removeAll(removed);
+            }
+
+            if (!inserted.isEmpty()) {
+                childNodes.addAll(inserted);
+            }
+
+            return true;
+        }
+    }
+
+    private boolean isRefreshEnabled() {
+        return refreshEnabledWhenNotSignIn()
+                || this instanceof AzureModule
+                || AuthMethodManager.getInstance().isSignedIn();
+    }
+
     protected void refreshFromAzure() throws Exception {
     }
 
@@ -153,8 +263,9 @@ public abstract class RefreshableNode extends Node {
                             });
                         }
                     }, MoreExecutors.directExecutor());
-                    node.refreshItems(future, forceRefresh);
                 }
+                // join the refresh in flight if any
+                node.refreshItems(future, forceRefresh);
             }
 
             private void updateName(String name, final Throwable throwable) {
@@ -177,6 +288,17 @@ public abstract class RefreshableNode extends Node {
         }
     }
 
+    private static final class Load {
+        private final SettableFuture<List<Node>> result = SettableFuture.create();
+        private final long generation;
+        private final boolean forceRefresh;
+
+        private Load(long generation, boolean forceRefresh) {
+            this.generation = generation;
+            this.forceRefresh = forceRefresh;
+        }
+    }
+
     private class RefreshActionListener extends NodeActionListener {
 
         @Override
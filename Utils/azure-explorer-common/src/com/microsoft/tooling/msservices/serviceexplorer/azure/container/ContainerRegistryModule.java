@@ -10,8 +10,15 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureIconSymbol;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureRefreshableNode;
 import com.microsoft.tooling.msservices.serviceexplorer.Node;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeDescriptor;
+import com.microsoft.tooling.msservices.serviceexplorer.ReconcilableNode;
 
-public class ContainerRegistryModule extends AzureRefreshableNode {
+import java.util.List;
+
+import static com.microsoft.tooling.msservices.serviceexplorer.azure.container.ContainerRegistryModulePresenter.RESOURCE_ID;
+import static com.microsoft.tooling.msservices.serviceexplorer.azure.container.ContainerRegistryModulePresenter.SUBSCRIPTION_ID;
+
+public class ContainerRegistryModule extends AzureRefreshableNode implements ReconcilableNode {
 
     private static final String ACR_MODULE_ID = ContainerRegistryModule.class.getName();
     private static final String ICON_PATH = "acr.png";
@@ -35,7 +42,18 @@ public class ContainerRegistryModule extends AzureRefreshableNode {
 
     @Override
     protected void refreshItems() throws AzureCmdException {
-        containerRegistryPresenter.onModuleRefresh();
+        // the registry nodes are reconciled from the descriptors instead
+    }
+
+    @Override
+    public List<NodeDescriptor> loadChildDescriptors(boolean forceRefresh) {
+        return containerRegistryPresenter.onModuleRefresh();
+    }
+
+    @Override
+    public Node createChildNode(NodeDescriptor descriptor) {
+        return new ContainerRegistryNode(this, descriptor.getProperty(SUBSCRIPTION_ID), descriptor.getProperty(RESOURCE_ID),
+                descriptor.getName());
     }
 
 }
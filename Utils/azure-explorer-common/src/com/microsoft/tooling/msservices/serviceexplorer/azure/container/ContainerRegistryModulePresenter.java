@@ -5,28 +5,30 @@
 
 package com.microsoft.tooling.msservices.serviceexplorer.azure.container;
 
+import com.google.common.collect.ImmutableMap;
 import com.microsoft.azure.management.containerregistry.Registry;
 import com.microsoft.azuretools.core.mvp.model.ResourceEx;
 import com.microsoft.azuretools.core.mvp.model.container.ContainerRegistryMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.MvpPresenter;
+import com.microsoft.tooling.msservices.serviceexplorer.NodeDescriptor;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ContainerRegistryModulePresenter<V extends ContainerRegistryModule> extends MvpPresenter<V> {
+    static final String SUBSCRIPTION_ID = "subscriptionId";
+    static final String RESOURCE_ID = "resourceId";
 
     /**
      * Called from view when the view needs refresh.
+     *
+     * @return the descriptors of the registry nodes, keyed by the node ids
      */
-    public void onModuleRefresh() {
-        List<ResourceEx<Registry>> registryList = ContainerRegistryMvpModel.getInstance().listContainerRegistries(true);
-        if (getMvpView() == null) {
-            return;
-        }
-        registryList.forEach(app -> getMvpView().addChildNode(new ContainerRegistryNode(
-                getMvpView(),
-                app.getSubscriptionId(),
-                app.getResource().id(),
-                app.getResource().name()
-        )));
+    public List<NodeDescriptor> onModuleRefresh() {
+        final List<ResourceEx<Registry>> registryList = ContainerRegistryMvpModel.getInstance().listContainerRegistries(true);
+        return registryList.stream()
+                .map(app -> new NodeDescriptor(app.getSubscriptionId() + app.getResource().name(), app.getResource().name(), null,
+                        ImmutableMap.of(SUBSCRIPTION_ID, app.getSubscriptionId(), RESOURCE_ID, app.getResource().id())))
+                .collect(Collectors.toList());
     }
 }
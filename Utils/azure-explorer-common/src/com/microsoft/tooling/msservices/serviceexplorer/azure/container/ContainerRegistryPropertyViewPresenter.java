@@ -109,13 +109,17 @@ public class ContainerRegistryPropertyViewPresenter<V extends ContainerRegistryP
      */
     public void onRefreshRepositories(String sid, String id, boolean isNextPage) {
         resetRepoStack();
-        onListRepositories(sid, id, isNextPage);
+        listRepositories(sid, id, isNextPage, true);
     }
 
     /**
      * Called when listing repositories of ACR.
      */
     public void onListRepositories(String sid, String id, boolean isNextPage) {
+        listRepositories(sid, id, isNextPage, false);
+    }
+
+    private void listRepositories(String sid, String id, boolean isNextPage, boolean isRefresh) {
         if (isSubscriptionIdAndResourceIdInValid(sid, id)) {
             return;
         }
@@ -124,6 +128,10 @@ public class ContainerRegistryPropertyViewPresenter<V extends ContainerRegistryP
             Registry registry = ContainerRegistryMvpModel.getInstance().getContainerRegistry(sid, id);
             PrivateRegistryImageSetting setting = ContainerRegistryMvpModel.getInstance()
                     .createImageSettingWithRegistry(registry);
+            if (isRefresh) {
+                // drop the cached and prefetched pages of the registry
+                ContainerExplorerMvpModel.getInstance().invalidate(registry.loginServerUrl());
+            }
             Map<String, String> query = buildQueryMap(isNextPage, repoStack, nextRepo);
             Map<String, String> responseMap = ContainerExplorerMvpModel.getInstance().listRepositories(registry
                     .loginServerUrl(), setting.getUsername(), setting.getPassword(), query);
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.serviceexplorer;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.microsoft.tooling.msservices.helpers.collections.ListChangedEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RefreshableNodeReconcileTest {
+    private static final int NODE_COUNT = 10_000;
+
+    private FakeResourceNode node;
+    private final AtomicInteger listEvents = new AtomicInteger();
+    private final AtomicInteger propertyEvents = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        node = new FakeResourceNode();
+        node.getChildNodes().addChangeListener(this::onListChanged);
+    }
+
+    @Test
+    public void testRefreshOnlyRecreatesChangedNodes() throws Exception {
+        final List<NodeDescriptor> descriptors = createDescriptors(0, NODE_COUNT);
+        node.loader = () -> descriptors;
+        refresh(false);
+
+        assertEquals(NODE_COUNT, node.getChildNodes().size());
+        assertEquals(NODE_COUNT, node.created.get());
+        assertEquals(1, listEvents.get());
+
+        final Map<Node, Boolean> before = new IdentityHashMap<>();
+        node.getChildNodes().forEach(child -> {
+            before.put(child, true);
+            child.addPropertyChangeListener(evt -> propertyEvents.incrementAndGet());
+        });
+        // An expanded subtree of a kept child
+        final Node kept = node.getChildNodes().get(NODE_COUNT / 2);
+        final Node grandChild = new Node("grand-child", "grand-child", kept, true);
+        kept.addChildNode(grandChild);
+
+        // 1% churn: remove 40, rename 30 and add 30
+        final List<NodeDescriptor> churned = new ArrayList<>(descriptors.subList(40, NODE_COUNT));
+        for (int i = 0; i < 30; i++) {
+            final int index = i * 300;
+            final NodeDescriptor old = churned.get(index);
+            churned.set(index, new NodeDescriptor(old.getId(), old.getName() + "-renamed"));
+        }
+        churned.addAll(createDescriptors(NODE_COUNT, 30));
+
+        node.created.set(0);
+        listEvents.set(0);
+        node.loader = () -> churned;
+        refresh(false);
+
+        assertEquals(NODE_COUNT - 40 + 30, node.getChildNodes().size());
+        assertEquals(30, node.created.get());
+        // One event for the removals and one for the insertions, a property change for each renamed node
+        assertEquals(2, listEvents.get());
+        assertEquals(30, propertyEvents.get());
+
+        final long keptCount = node.getChildNodes().stream().filter(before::containsKey).count();
+        assertEquals(NODE_COUNT - 40, keptCount);
+        assertSame(kept, node.getChildNodes().stream().filter(child -> child.getId().equals(kept.getId()))
+                                .findFirst().orElse(null));
+        assertTrue(kept.isDirectChild(grandChild));
+        assertEquals(descriptors.get(40).getName() + "-renamed", node.getChildNodes().get(0).getName());
+    }
+
+    @Test
+    public void testConcurrentRefreshesShareOneLoad() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        node.loader = () -> {
+            loading.countDown();
+            release.await();
+            return createDescriptors(0, 100);
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(50);
+        final List<SettableFuture<List<Node>>> futures = new ArrayList<>();
+        try {
+            final SettableFuture<List<Node>> first = SettableFuture.create();
+            futures.add(first);
+            executor.submit(() -> node.refreshItems(first, false));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+            final CountDownLatch submitted = new CountDownLatch(49);
+            for (int i = 0; i < 49; i++) {
+                final SettableFuture<List<Node>> future = SettableFuture.create();
+                futures.add(future);
+                executor.submit(() -> {
+                    node.refreshItems(future, false);
+                    submitted.countDown();
+                });
+            }
+            assertTrue(submitted.await(10, TimeUnit.SECONDS));
+            release.countDown();
+
+            for (SettableFuture<List<Node>> future : futures) {
+                assertEquals(100, future.get(10, TimeUnit.SECONDS).size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, node.loaderCalls.get());
+        assertFalse(node.isLoading());
+    }
+
+    @Test
+    public void testForcedRefreshSupersedesCachedOne() throws Exception {
+        node.loader = () -> createDescriptors(0, 10);
+        refresh(false);
+
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        node.loader = () -> {
+            loading.countDown();
+            release.await();
+            return createDescriptors(0, 5);
+        };
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final SettableFuture<List<Node>> cached = SettableFuture.create();
+            executor.submit(() -> node.refreshItems(cached, false));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+            node.loader = () -> createDescriptors(0, 20);
+            final SettableFuture<List<Node>> forced = SettableFuture.create();
+            node.refreshItems(forced, true);
+            assertEquals(20, forced.get(10, TimeUnit.SECONDS).size());
+
+            // The cached result arrives after the forced one is applied, drop it
+            release.countDown();
+            cached.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(20, node.getChildNodes().size());
+        assertFalse(node.isLoading());
+    }
+
+    @Test
+    public void testStaleResultIsDropped() {
+        assertTrue(node.reconcile(2, createDescriptors(0, 3)));
+        assertFalse(node.reconcile(1, createDescriptors(0, 7)));
+
+        assertEquals(3, node.getChildNodes().size());
+    }
+
+    @Test
+    public void testCompareWithRecreatingChildren() throws Exception {
+        final List<NodeDescriptor> descriptors = createDescriptors(0, NODE_COUNT);
+        final List<NodeDescriptor> churned = new ArrayList<>(descriptors.subList(NODE_COUNT / 100, NODE_COUNT));
+        churned.addAll(createDescriptors(NODE_COUNT, NODE_COUNT / 100));
+
+        final RecreatingResourceNode recreating = new RecreatingResourceNode();
+        final AtomicInteger recreatingEvents = new AtomicInteger();
+        recreating.getChildNodes().addChangeListener(e -> recreatingEvents.incrementAndGet());
+
+        // Alternate between the two lists
+        for (int round = 0; round < 4; round++) {
+            final List<NodeDescriptor> next = round % 2 == 0 ? descriptors : churned;
+            recreating.loader = () -> next;
+            node.loader = () -> next;
+            recreating.created.set(0);
+            node.created.set(0);
+            recreatingEvents.set(0);
+            listEvents.set(0);
+
+            refresh(recreating, false);
+            refresh(false);
+        }
+
+        assertEquals(NODE_COUNT, recreating.created.get());
+        assertEquals(2 * NODE_COUNT, recreatingEvents.get());
+        assertEquals(NODE_COUNT / 100, node.created.get());
+        assertEquals(2, listEvents.get());
+        assertEquals(recreating.getChildNodes().stream().map(Node::getId).collect(Collectors.toList()),
+                     node.getChildNodes().stream().map(Node::getId).collect(Collectors.toList()));
+    }
+
+    private void refresh(boolean forceRefresh) throws Exception {
+        refresh(node, forceRefresh);
+    }
+
+    private static void refresh(RefreshableNode target, boolean forceRefresh) throws Exception {
+        final SettableFuture<List<Node>> future = SettableFuture.create();
+        target.refreshItems(future, forceRefresh);
+        future.get(10, TimeUnit.SECONDS);
+    }
+
+    private void onListChanged(ListChangedEvent e) {
+        listEvents.incrementAndGet();
+    }
+
+    private static List<NodeDescriptor> createDescriptors(int from, int count) {
+        return IntStream.range(from, from + count)
+                        .mapToObj(i -> new NodeDescriptor("/subscriptions/sub/resourceGroups/rg/providers/fake/resources/" + i,
+                                                          "resource-" + i))
+                        .collect(Collectors.toList());
+    }
+
+    private static class FakeResourceNode extends RefreshableNode implements ReconcilableNode {
+        private final AtomicInteger loaderCalls = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private volatile Callable<List<NodeDescriptor>> loader = ArrayList::new;
+
+        FakeResourceNode() {
+            super("fake-module", "Fake Module", null, true);
+        }
+
+        @Override
+        protected boolean refreshEnabledWhenNotSignIn() {
+            return true;
+        }
+
+        @Override
+        public List<NodeDescriptor> loadChildDescriptors(boolean forceRefresh) throws Exception {
+            loaderCalls.incrementAndGet();
+            return loader.call();
+        }
+
+        @Override
+        public Node createChildNode(NodeDescriptor descriptor) {
+            created.incrementAndGet();
+            return new Node(descriptor.getId(), descriptor.getName(), this, true);
+        }
+
+        @Override
+        protected void refreshItems() {
+        }
+    }
+
+    private static class RecreatingResourceNode extends RefreshableNode {
+        private final AtomicInteger created = new AtomicInteger();
+        private volatile Callable<List<NodeDescriptor>> loader = ArrayList::new;
+
+        RecreatingResourceNode() {
+            super("recreating-module", "Recreating Module", null, true);
+        }
+
+        @Override
+        protected boolean refreshEnabledWhenNotSignIn() {
+            return true;
+        }
+
+        @Override
+        protected void refreshItems() {
+            try {
+                loader.call().forEach(descriptor -> {
+                    created.incrementAndGet();
+                    addChildNode(new Node(descriptor.getId(), descriptor.getName(), this, true));
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
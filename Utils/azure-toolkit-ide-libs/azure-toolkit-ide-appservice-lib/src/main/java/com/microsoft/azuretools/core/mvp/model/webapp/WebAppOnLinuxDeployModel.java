@@ -22,6 +22,7 @@ public class WebAppOnLinuxDeployModel {
     private String targetPath;
     private String targetName;
     private String dockerFilePath;
+    private boolean daemonlessImageBuild;
 
 
     public WebAppOnLinuxDeployModel() {
@@ -155,4 +156,12 @@ public class WebAppOnLinuxDeployModel {
     public void setDockerFilePath(String dockerFilePath) {
         this.dockerFilePath = dockerFilePath;
     }
+
+    public boolean isDaemonlessImageBuild() {
+        return daemonlessImageBuild;
+    }
+
+    public void setDaemonlessImageBuild(boolean daemonlessImageBuild) {
+        this.daemonlessImageBuild = daemonlessImageBuild;
+    }
 }
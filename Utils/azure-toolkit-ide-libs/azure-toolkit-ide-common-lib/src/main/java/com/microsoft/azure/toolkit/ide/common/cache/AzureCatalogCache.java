@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.cache;
+
+import com.microsoft.azure.toolkit.lib.common.entity.IAzureBaseResource;
+import com.microsoft.azure.toolkit.lib.common.event.AzureEvent;
+import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The lists of Azure resources shown in the creation dialogs, like regions, resource groups and service plans, shared by
+ * all the dialogs and kept per subscription:
+ * <ul>
+ *     <li>a list is reloaded in background once it's older than the TTL of its resource type, the stale list is
+ *     returned meanwhile</li>
+ *     <li>the combo boxes opened at the same time share one request</li>
+ *     <li>the lists of a subscription are dropped when a resource is created or deleted in it</li>
+ * </ul>
+ */
+public class AzureCatalogCache {
+    public static final String REGIONS = "regions";
+    public static final String RESOURCE_GROUPS = "resource_groups";
+    public static final String SERVICE_PLANS = "service_plans";
+    public static final String VIRTUAL_MACHINE_SIZES = "virtual_machine_sizes";
+
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    // Return the stale list only if it's not too old, otherwise wait for the reload
+    private static final Duration STALE_GRACE = Duration.ofMinutes(30);
+    private static final Pattern SUBSCRIPTION_IN_ID = Pattern.compile("^/subscriptions/([^/]+)", Pattern.CASE_INSENSITIVE);
+    private static final List<String> RESOURCE_CHANGED_EVENTS = Arrays.asList(
+            "resource.children_changed.resource",
+            "module.children_changed.module",
+            "service.children_changed.service",
+            "webapp.delete_app.app",
+            "webapp.delete_slot.slot|app",
+            "functionapp.delete_app.app");
+
+    private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+    private final Map<CatalogKey, Catalog> catalogs = new ConcurrentHashMap<>();
+    private final Map<CatalogKey, CompletableFuture<List<?>>> loadings = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Clock clock;
+    private final Executor reloader;
+
+    private static final class SingletonHolder {
+        private static final AzureCatalogCache INSTANCE = new AzureCatalogCache();
+    }
+
+    public static AzureCatalogCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private AzureCatalogCache() {
+        this(Clock.systemUTC(), task -> AzureTaskManager.getInstance().runOnPooledThread(task));
+        final AzureEventBus.EventListener<Object, AzureEvent<Object>> listener = new AzureEventBus.EventListener<>(this::onEvent);
+        RESOURCE_CHANGED_EVENTS.forEach(type -> AzureEventBus.on(type, listener));
+    }
+
+    AzureCatalogCache(@Nonnull Clock clock, @Nonnull Executor reloader) {
+        this.clock = clock;
+        this.reloader = reloader;
+        ttls.put(REGIONS, Duration.ofDays(1));
+        ttls.put(VIRTUAL_MACHINE_SIZES, Duration.ofDays(1));
+        ttls.put(RESOURCE_GROUPS, Duration.ofMinutes(5));
+        ttls.put(SERVICE_PLANS, Duration.ofMinutes(5));
+    }
+
+    public void setTtl(@Nonnull String resourceType, @Nonnull Duration ttl) {
+        ttls.put(resourceType, ttl);
+    }
+
+    /**
+     * Get the list from the cache, or load it with the loader. It may block, call it from a background thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(@Nonnull CatalogKey key, @Nonnull Callable<? extends List<? extends T>> loader) throws Exception {
+        final Catalog catalog = catalogs.get(key);
+        if (catalog != null) {
+            final long age = clock.millis() - catalog.loadedAt;
+            final long ttl = getTtl(key.getResourceType()).toMillis();
+            if (age < ttl) {
+                return (List<T>) catalog.items;
+            }
+            if (age < ttl + STALE_GRACE.toMillis()) {
+                load(key, loader, true);
+                return (List<T>) catalog.items;
+            }
+        }
+
+        try {
+            return (List<T>) load(key, loader, false).get();
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    public void invalidate(@Nonnull String resourceType, @Nonnull String subscriptionId) {
+        invalidateIf(key -> key.getResourceType().equals(resourceType) &&
+                StringUtils.equalsIgnoreCase(key.getSubscriptionId(), subscriptionId));
+    }
+
+    public void invalidate(@Nonnull String subscriptionId) {
+        invalidateIf(key -> StringUtils.equalsIgnoreCase(key.getSubscriptionId(), subscriptionId));
+    }
+
+    public void invalidateAll() {
+        invalidateIf(key -> true);
+    }
+
+    private void invalidateIf(Predicate<CatalogKey> predicate) {
+        invalidations.incrementAndGet();
+        catalogs.keySet().removeIf(predicate);
+        // The loadings started before may miss the change, let the next callers start over
+        loadings.keySet().removeIf(predicate);
+    }
+
+    private Duration getTtl(String resourceType) {
+        return ttls.getOrDefault(resourceType, DEFAULT_TTL);
+    }
+
+    private CompletableFuture<List<?>> load(CatalogKey key, Callable<? extends List<?>> loader, boolean isAsync) {
+        final CompletableFuture<List<?>> loading = new CompletableFuture<>();
+        final CompletableFuture<List<?>> existing = loadings.putIfAbsent(key, loading);
+        if (existing != null) {
+            return existing;
+        }
+
+        final long stamp = invalidations.get();
+        final Runnable task = () -> {
+            try {
+                final List<?> items = Collections.unmodifiableList(new ArrayList<>(loader.call()));
+                final Catalog catalog = new Catalog(items, clock.millis());
+                catalogs.put(key, catalog);
+                // Drop it if anything is created or deleted while loading
+                if (invalidations.get() != stamp) {
+                    catalogs.remove(key, catalog);
+                }
+                loading.complete(items);
+            } catch (final Throwable e) {
+                loading.completeExceptionally(e);
+            } finally {
+                loadings.remove(key, loading);
+            }
+        };
+
+        if (isAsync) {
+            reloader.execute(task);
+        } else {
+            task.run();
+        }
+
+        return loading;
+    }
+
+    private void onEvent(AzureEvent<Object> event) {
+        final String subscriptionId = event.getSource() instanceof IAzureBaseResource
+                ? getSubscriptionId(((IAzureBaseResource<?, ?>) event.getSource()).getId())
+                : null;
+        if (subscriptionId != null) {
+            invalidate(subscriptionId);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    @Nullable
+    private static String getSubscriptionId(@Nullable String resourceId) {
+        final Matcher matcher = SUBSCRIPTION_IN_ID.matcher(StringUtils.defaultString(resourceId));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @RequiredArgsConstructor
+    private static class Catalog {
+        private final List<?> items;
+        private final long loadedAt;
+    }
+
+    /**
+     * A list of a resource type in a subscription, the scope tells apart the lists filtered by other parameters, e.g.
+     * the virtual machine sizes of a region. The list is loaded with nothing but these parameters, since it may be
+     * reloaded in background at any time.
+     */
+    @Getter
+    @ToString
+    public static class CatalogKey {
+        private final String resourceType;
+        private final String subscriptionId;
+        private final String scope;
+
+        public CatalogKey(@Nonnull String resourceType, @Nonnull String subscriptionId) {
+            this(resourceType, subscriptionId, StringUtils.EMPTY);
+        }
+
+        public CatalogKey(@Nonnull String resourceType, @Nonnull String subscriptionId, @Nonnull String scope) {
+            this.resourceType = resourceType;
+            this.subscriptionId = subscriptionId;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CatalogKey)) {
+                return false;
+            }
+            final CatalogKey that = (CatalogKey) o;
+            return resourceType.equals(that.resourceType) && StringUtils.equalsIgnoreCase(subscriptionId, that.subscriptionId) &&
+                    scope.equals(that.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceType, StringUtils.lowerCase(subscriptionId), scope);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.logstream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, FATAL;
+
+    private static final Pattern LEVEL_PATTERN = Pattern.compile("\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL|SEVERE)\\b",
+        Pattern.CASE_INSENSITIVE);
+    // only the head of a line is inspected, stack traces and payloads may contain level-like words
+    private static final int LEVEL_SEARCH_LIMIT = 128;
+
+    /**
+     * @return level of the first level-like word in the head of {@code line}, {@code null} if none.
+     */
+    @Nullable
+    public static LogLevel parse(@Nonnull String line) {
+        final Matcher matcher = LEVEL_PATTERN.matcher(line);
+        matcher.region(0, Math.min(line.length(), LEVEL_SEARCH_LIMIT));
+        if (!matcher.find()) {
+            return null;
+        }
+        switch (matcher.group(1).toUpperCase(Locale.ROOT)) {
+            case "TRACE":
+                return TRACE;
+            case "DEBUG":
+                return DEBUG;
+            case "INFO":
+                return INFO;
+            case "WARN":
+            case "WARNING":
+                return WARN;
+            case "ERROR":
+            case "SEVERE":
+                return ERROR;
+            default:
+                return FATAL;
+        }
+    }
+}
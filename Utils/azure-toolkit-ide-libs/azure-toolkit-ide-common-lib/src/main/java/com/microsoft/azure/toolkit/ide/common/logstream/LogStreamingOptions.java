@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.logstream;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Tuning and filtering options of {@link LogStreamingPipeline}.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class LogStreamingOptions {
+    public static final LogStreamingOptions DEFAULT = LogStreamingOptions.builder().build();
+
+    /**
+     * max lines rendered with a single print call
+     */
+    @Builder.Default
+    private final int batchSize = 500;
+    /**
+     * max time a line waits before its batch is rendered
+     */
+    @Builder.Default
+    private final Duration batchTimeout = Duration.ofMillis(100);
+    /**
+     * max lines waiting to be rendered, the oldest ones are dropped when exceeded
+     */
+    @Builder.Default
+    private final int capacity = 10000;
+    /**
+     * lines with a recognizable level lower than this are filtered out, lines without level always pass
+     */
+    @Nullable
+    private final LogLevel minLevel;
+    /**
+     * only lines matching (find) this pattern are rendered
+     */
+    @Nullable
+    private final Pattern pattern;
+
+    public boolean hasFilter() {
+        return minLevel != null || pattern != null;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.logstream;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Rendering stage shared by the log streaming consoles of all IDEs: filters lines before rendering, coalesces them
+ * into batches so that the console is printed once per batch instead of once per line, and keeps at most
+ * {@link LogStreamingOptions#getCapacity()} lines pending by dropping the oldest batches when the console can not
+ * keep up with the log stream.
+ */
+public class LogStreamingPipeline {
+    private static final String SEPARATOR = System.lineSeparator();
+
+    @Getter
+    private final LogStreamingOptions options;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong filtered = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batched = new AtomicLong();
+    /**
+     * sequence of the last line rendered, only touched by the rendering worker
+     */
+    private long renderedEnd;
+
+    public LogStreamingPipeline() {
+        this(LogStreamingOptions.DEFAULT);
+    }
+
+    public LogStreamingPipeline(@Nonnull LogStreamingOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * chunks are emitted on a dedicated worker one at a time, a slow subscriber makes the oldest pending lines
+     * dropped rather than the pending lines growing without bound. The dropped lines are reported exactly by the
+     * next chunk rendered, each batch carries the sequence of its lines to find the gap.
+     */
+    public Flux<Chunk> process(@Nonnull Flux<String> logs) {
+        final int batchSize = Math.max(1, options.getBatchSize());
+        final int maxPendingBatches = Math.max(1, (options.getCapacity() + batchSize - 1) / batchSize);
+        return logs.doOnNext(ignore -> received.incrementAndGet())
+            .filter(this::accept)
+            .bufferTimeout(batchSize, options.getBatchTimeout())
+            .map(lines -> new Batch(lines, batched.addAndGet(lines.size())))
+            .onBackpressureBuffer(maxPendingBatches, batch -> dropped.addAndGet(batch.lines.size()), BufferOverflowStrategy.DROP_OLDEST)
+            .publishOn(Schedulers.boundedElastic(), 1)
+            .map(this::toChunk);
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getFiltered() {
+        return filtered.get();
+    }
+
+    public long getRendered() {
+        return rendered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private boolean accept(@Nonnull String line) {
+        if (!options.hasFilter()) {
+            return true;
+        }
+        final LogLevel minLevel = options.getMinLevel();
+        final Pattern pattern = options.getPattern();
+        boolean accepted = true;
+        if (minLevel != null) {
+            final LogLevel level = LogLevel.parse(line);
+            accepted = level == null || level.compareTo(minLevel) >= 0;
+        }
+        if (accepted && pattern != null) {
+            accepted = pattern.matcher(line).find();
+        }
+        if (!accepted) {
+            filtered.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    private Chunk toChunk(@Nonnull Batch batch) {
+        final List<String> lines = batch.lines;
+        final long droppedBefore = batch.end - lines.size() - renderedEnd;
+        renderedEnd = batch.end;
+        final StringBuilder text = new StringBuilder();
+        for (final String line : lines) {
+            text.append(line).append(SEPARATOR);
+        }
+        rendered.addAndGet(lines.size());
+        return new Chunk(text.toString(), lines.size(), droppedBefore);
+    }
+
+    @RequiredArgsConstructor
+    private static class Batch {
+        private final List<String> lines;
+        /**
+         * sequence of the last line of this batch among all accepted lines
+         */
+        private final long end;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Chunk {
+        /**
+         * the lines of this chunk, each one is terminated with line separator
+         */
+        private final String text;
+        private final int lines;
+        /**
+         * lines dropped since the previous chunk
+         */
+        private final long droppedBefore;
+    }
+}
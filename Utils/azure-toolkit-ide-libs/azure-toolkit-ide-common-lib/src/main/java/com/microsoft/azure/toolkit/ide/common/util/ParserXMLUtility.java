@@ -9,15 +9,19 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
@@ -26,13 +30,31 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public final class ParserXMLUtility {
 
     private static final int BUFF_SIZE = 1024;
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
     public static final String INVALID_ARG = "Invalid argument.";
 
+    // The builders, transformers and xpath are not thread safe, but are expensive to create, so reuse them per thread
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+            ThreadLocal.withInitial(() -> withPluginClassLoader(ParserXMLUtility::newDocumentBuilder));
+    private static final ThreadLocal<Transformer> TRANSFORMER =
+            ThreadLocal.withInitial(() -> withPluginClassLoader(ParserXMLUtility::newTransformer));
+    private static final ThreadLocal<XPath> XPATH =
+            ThreadLocal.withInitial(() -> withPluginClassLoader(() -> XPathFactory.newInstance().newXPath()));
+    private static final ThreadLocal<Map<String, XPathExpression>> EXPRESSIONS =
+            ThreadLocal.withInitial(() -> new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            });
+
     /**
      * Parses XML file and returns XML document.
      *
@@ -47,15 +69,8 @@ public final class ParserXMLUtility {
             Thread.currentThread().setContextClassLoader(ParserXMLUtility.class.getClassLoader());
             // fixes https://dev.azure.com/mseng/VSJava/_workitems/edit/1796447
             // refers https://jetbrains.org/intellij/sdk/docs/basics/plugin_structure/plugin_class_loaders.html
-            DocumentBuilder docBuilder;
-            Document doc = null;
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory
-                    .newInstance();
-            docBuilderFactory.setIgnoringElementContentWhitespace(true);
-            docBuilder = docBuilderFactory.newDocumentBuilder();
             File xmlFile = new File(fileName);
-            doc = docBuilder.parse(xmlFile);
-            return doc;
+            return getDocumentBuilder().parse(xmlFile);
         } finally {
             Thread.currentThread().setContextClassLoader(current);
         }
@@ -70,14 +85,7 @@ public final class ParserXMLUtility {
      */
     protected static Document parseXMLResource(final InputStream inputStream)
             throws Exception {
-        DocumentBuilder docBuilder;
-        Document doc = null;
-        DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory
-                .newInstance();
-        docBuilderFactory.setIgnoringElementContentWhitespace(true);
-        docBuilder = docBuilderFactory.newDocumentBuilder();
-        doc = docBuilder.parse(inputStream);
-        return doc;
+        return getDocumentBuilder().parse(inputStream);
     }
 
     /**
@@ -94,19 +102,13 @@ public final class ParserXMLUtility {
             throws Exception {
         File xmlFile = null;
         FileOutputStream fos = null;
-        Transformer transformer;
         try {
             xmlFile = new File(fileName);
             fos = new FileOutputStream(xmlFile);
-            TransformerFactory transFactory = TransformerFactory.newInstance();
-            transformer = transFactory.newTransformer();
             DOMSource source = new DOMSource(doc);
             StreamResult destination = new StreamResult(fos);
             // transform source into result will do save
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(
-                    "{http://xml.apache.org/xslt}indent-amount", "2");
-            transformer.transform(source, destination);
+            TRANSFORMER.get().transform(source, destination);
         } finally {
             if (fos != null) {
                 fos.close();
@@ -179,8 +181,7 @@ public final class ParserXMLUtility {
         if (doc == null) {
             throw new IllegalArgumentException(INVALID_ARG);
         } else {
-            XPath path = XPathFactory.newInstance().newXPath();
-            Element element = (Element) path.evaluate(expr, doc,
+            Element element = (Element) compile(expr).evaluate(doc,
                     XPathConstants.NODE);
 
             if (element != null) {
@@ -200,8 +201,7 @@ public final class ParserXMLUtility {
             throw new IllegalArgumentException(INVALID_ARG);
         }
 
-        XPath path = XPathFactory.newInstance().newXPath();
-        return path.evaluate(expr, doc);
+        return compile(expr).evaluate(doc);
     }
 
     /**
@@ -213,8 +213,7 @@ public final class ParserXMLUtility {
             throw new IllegalArgumentException(INVALID_ARG);
         }
 
-        XPath path = XPathFactory.newInstance().newXPath();
-        Node node = (Node) path.evaluate(expr, doc, XPathConstants.NODE);
+        Node node = (Node) compile(expr).evaluate(doc, XPathConstants.NODE);
         node.setNodeValue(value);
     }
 
@@ -293,18 +292,17 @@ public final class ParserXMLUtility {
         if (doc == null) {
             throw new IllegalArgumentException(INVALID_ARG);
         } else {
-            XPath path = XPathFactory.newInstance().newXPath();
             Element element = null;
             if (expr != null) {
-                element = (Element) path.evaluate(expr, doc,
+                element = (Element) compile(expr).evaluate(doc,
                         XPathConstants.NODE);
             }
 
             // If element doesn't exist create one
             if (element == null) {
                 element = doc.createElement(elementName);
-                Element parentElement = (Element) path.evaluate(
-                        parentNodeExpr, doc, XPathConstants.NODE);
+                Element parentElement = (Element) compile(
+                        parentNodeExpr).evaluate(doc, XPathConstants.NODE);
                 if (firstChild) {
                     parentElement.insertBefore(
                             element,
@@ -337,10 +335,9 @@ public final class ParserXMLUtility {
         if (doc == null) {
             throw new IllegalArgumentException(INVALID_ARG);
         } else {
-            XPath path = XPathFactory.newInstance().newXPath();
             Element element = null;
             if (expr != null) {
-                element = (Element) path.evaluate(expr, doc,
+                element = (Element) compile(expr).evaluate(doc,
                         XPathConstants.NODE);
             }
 
@@ -379,9 +376,69 @@ public final class ParserXMLUtility {
         if (nodeExpression == null) {
             throw new IllegalArgumentException(INVALID_ARG);
         } else {
-            XPath path = XPathFactory.newInstance().newXPath();
-            Element element = (Element) path.evaluate(nodeExpression, doc, XPathConstants.NODE);
+            Element element = (Element) compile(nodeExpression).evaluate(doc, XPathConstants.NODE);
             return element != null;
         }
     }
+
+    /**
+     * Compile the XPath expression, or get the one compiled by the current thread before.
+     */
+    public static XPathExpression compile(String expr) throws XPathExpressionException {
+        final Map<String, XPathExpression> expressions = EXPRESSIONS.get();
+        XPathExpression expression = expressions.get(expr);
+        if (expression == null) {
+            expression = XPATH.get().compile(expr);
+            expressions.put(expr, expression);
+        }
+        return expression;
+    }
+
+    private static DocumentBuilder getDocumentBuilder() {
+        final DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
+        return builder;
+    }
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory
+                    .newInstance();
+            docBuilderFactory.setIgnoringElementContentWhitespace(true);
+            // don't resolve the external entities and DTDs, e.g. the DTD of a legacy web.xml is downloaded otherwise
+            docBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            docBuilderFactory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            docBuilderFactory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            docBuilderFactory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            docBuilderFactory.setXIncludeAware(false);
+            docBuilderFactory.setExpandEntityReferences(false);
+            return docBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            TransformerFactory transFactory = TransformerFactory.newInstance();
+            transFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            Transformer transformer = transFactory.newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(
+                    "{http://xml.apache.org/xslt}indent-amount", "2");
+            return transformer;
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static <T> T withPluginClassLoader(Supplier<T> supplier) {
+        final ClassLoader current = Thread.currentThread().getContextClassLoader();
+        try {
+            Thread.currentThread().setContextClassLoader(ParserXMLUtility.class.getClassLoader());
+            return supplier.get();
+        } finally {
+            Thread.currentThread().setContextClassLoader(current);
+        }
+    }
 }
@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.util;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query and edit XML descriptors, e.g. pom.xml and web.xml, by streaming the file instead of loading the whole DOM
+ * like {@link ParserXMLUtility}. The elements are addressed by an absolute path of element names, where each step may
+ * be filtered by one attribute, e.g. {@code /data/property[@name='key']}. Namespaces are ignored, same as the DOM of
+ * {@link ParserXMLUtility}.
+ */
+public final class StreamingXMLUtility {
+    private static final int BUFF_SIZE = 64 * 1024;
+    private static final Pattern STEP = Pattern.compile("([\\w.\\-]+)(?:\\[@([\\w.\\-:]+)=['\"]([^'\"]*)['\"]])?");
+
+    private static final XMLInputFactory INPUT_FACTORY = ParserXMLUtility.withPluginClassLoader(() -> {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        // keep the DOCTYPE of a legacy web.xml as is, but never resolve it
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setXMLResolver((publicId, systemId, baseUri, namespace) -> new ByteArrayInputStream(new byte[0]));
+        return factory;
+    });
+    private static final XMLOutputFactory OUTPUT_FACTORY = ParserXMLUtility.withPluginClassLoader(XMLOutputFactory::newInstance);
+    private static final XMLEventFactory EVENT_FACTORY = ParserXMLUtility.withPluginClassLoader(XMLEventFactory::newInstance);
+
+    private StreamingXMLUtility() {
+    }
+
+    /**
+     * An edit applied to every element of the path by {@link #rewrite(InputStream, OutputStream, String, Edit)}.
+     */
+    public static final class Edit {
+        private enum Type {
+            DELETE, REPLACE, APPEND_CHILD
+        }
+
+        private final Type type;
+        private final String fragment;
+
+        private Edit(Type type, String fragment) {
+            this.type = type;
+            this.fragment = fragment;
+        }
+
+        public static Edit delete() {
+            return new Edit(Type.DELETE, null);
+        }
+
+        /**
+         * Replace the element with the XML fragment, e.g. {@code <version>1.0</version>}
+         */
+        public static Edit replace(String fragment) {
+            return new Edit(Type.REPLACE, fragment);
+        }
+
+        /**
+         * Insert the XML fragment as the last child of the element, indented like its other children.
+         */
+        public static Edit appendChild(String fragment) {
+            return new Edit(Type.APPEND_CHILD, fragment);
+        }
+    }
+
+    /**
+     * Checks if the XML file is well formed, without building the DOM.
+     */
+    public static boolean isWellFormed(String fileName) {
+        try (InputStream input = open(fileName)) {
+            final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    reader.next();
+                }
+                return true;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            return false;
+        }
+    }
+
+    public static boolean exists(String fileName, String path) throws IOException, XMLStreamException {
+        try (InputStream input = open(fileName)) {
+            return exists(input, path);
+        }
+    }
+
+    public static boolean exists(InputStream input, String path) throws XMLStreamException {
+        final PathMatcher matcher = new PathMatcher(path);
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            return nextMatch(reader, matcher);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return the attribute of the first element of the path, or <B>null</B> if not found
+     */
+    public static String readAttribute(String fileName, String path, String attribute)
+            throws IOException, XMLStreamException {
+        try (InputStream input = open(fileName)) {
+            return readAttribute(input, path, attribute);
+        }
+    }
+
+    public static String readAttribute(InputStream input, String path, String attribute) throws XMLStreamException {
+        final PathMatcher matcher = new PathMatcher(path);
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            return nextMatch(reader, matcher) ? getAttribute(reader, attribute) : null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @return the text of the first element of the path, or <B>null</B> if not found
+     */
+    public static String readText(String fileName, String path) throws IOException, XMLStreamException {
+        try (InputStream input = open(fileName)) {
+            return readText(input, path);
+        }
+    }
+
+    public static String readText(InputStream input, String path) throws XMLStreamException {
+        final PathMatcher matcher = new PathMatcher(path);
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            if (!nextMatch(reader, matcher)) {
+                return null;
+            }
+            final StringBuilder text = new StringBuilder();
+            int depth = 1;
+            while (depth > 0) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (isText(event)) {
+                    text.append(reader.getText());
+                }
+            }
+            return text.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Collect the text of the simple child elements of every element of the path, e.g. the {@code groupId},
+     * {@code artifactId} and {@code version} of each {@code /project/dependencies/dependency} of a pom.xml. The
+     * child elements with element children, e.g. {@code exclusions}, are skipped.
+     */
+    public static List<Map<String, String>> collectElements(String fileName, String path)
+            throws IOException, XMLStreamException {
+        try (InputStream input = open(fileName)) {
+            return collectElements(input, path);
+        }
+    }
+
+    public static List<Map<String, String>> collectElements(InputStream input, String path) throws XMLStreamException {
+        final PathMatcher matcher = new PathMatcher(path);
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+        try {
+            final List<Map<String, String>> elements = new ArrayList<>();
+            while (nextMatch(reader, matcher)) {
+                elements.add(readChildren(reader));
+                matcher.end();
+            }
+            return elements;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Apply the edit to the XML file in place, the file is untouched if no element of the path is found.
+     *
+     * @return the count of the edited elements
+     */
+    public static int rewrite(String fileName, String path, Edit edit) throws IOException, XMLStreamException {
+        final File file = new File(fileName);
+        final File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            final int count;
+            try (InputStream input = open(fileName);
+                 OutputStream output = new BufferedOutputStream(new FileOutputStream(temp), BUFF_SIZE)) {
+                count = rewrite(input, output, path, edit);
+            }
+            if (count > 0) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return count;
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Copy the XML from input to output and apply the edit to every element of the path. The other content, including
+     * the declaration, whitespaces and comments, is copied as is, the whitespace before a deleted element is dropped
+     * with it. Only the attributes of a start tag are written in one line.
+     *
+     * @return the count of the edited elements
+     */
+    public static int rewrite(InputStream input, OutputStream output, String path, Edit edit)
+            throws XMLStreamException, IOException {
+        final PathMatcher matcher = new PathMatcher(path);
+        final XMLStreamReader streamReader = INPUT_FACTORY.createXMLStreamReader(input);
+        final String encoding = streamReader.getCharacterEncodingScheme() == null ?
+                "UTF-8" : streamReader.getCharacterEncodingScheme();
+        if (streamReader.getVersion() != null) {
+            output.write(getDeclaration(streamReader).getBytes(encoding));
+        }
+        final XMLEventReader reader = INPUT_FACTORY.createXMLEventReader(streamReader);
+        final XMLEventWriter writer = OUTPUT_FACTORY.createXMLEventWriter(output, encoding);
+        final List<XMLEvent> fragment = edit.fragment == null ? Collections.emptyList() : parseFragment(edit.fragment);
+        try {
+            int count = 0;
+            // the whitespace before the current event, held back to be dropped with a deleted element
+            Characters whitespace = null;
+            // the whitespace before the last child of the edited element, to indent the appended child
+            Characters childIndent = null;
+            boolean inEdited = false;
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartDocument()) {
+                    continue;
+                }
+                if (event.isCharacters() && ((Characters) event).isWhiteSpace()) {
+                    whitespace = whitespace == null ? event.asCharacters() :
+                            EVENT_FACTORY.createCharacters(whitespace.getData() + event.asCharacters().getData());
+                    continue;
+                }
+
+                if (event.isStartElement() && matcher.start(event.asStartElement())) {
+                    count++;
+                    if (edit.type == Edit.Type.APPEND_CHILD) {
+                        inEdited = true;
+                        childIndent = null;
+                    } else {
+                        if (edit.type == Edit.Type.REPLACE) {
+                            writeAll(writer, whitespace);
+                            writeAll(writer, fragment);
+                        }
+                        whitespace = null;
+                        skipElement(reader);
+                        matcher.end();
+                        continue;
+                    }
+                } else if (event.isStartElement()) {
+                    if (inEdited && matcher.depth() == matcher.length() + 1) {
+                        childIndent = whitespace;
+                    }
+                } else if (event.isEndElement()) {
+                    if (inEdited && matcher.depth() == matcher.length() && matcher.isMatched()) {
+                        writeAll(writer, childIndent);
+                        writeAll(writer, fragment);
+                        inEdited = false;
+                    }
+                    matcher.end();
+                }
+
+                writeAll(writer, whitespace);
+                whitespace = null;
+                writer.add(event);
+                if (matcher.depth() == 0 && !event.isEndDocument() && !(reader.peek() instanceof Characters)) {
+                    // the parsers don't report the line breaks out of the root element
+                    writer.add(EVENT_FACTORY.createCharacters("\n"));
+                }
+            }
+            writeAll(writer, whitespace);
+            writer.flush();
+            return count;
+        } finally {
+            writer.close();
+            reader.close();
+        }
+    }
+
+    private static String getDeclaration(XMLStreamReader reader) {
+        final StringBuilder declaration = new StringBuilder("<?xml version=\"").append(reader.getVersion()).append('"');
+        if (reader.getCharacterEncodingScheme() != null) {
+            declaration.append(" encoding=\"").append(reader.getCharacterEncodingScheme()).append('"');
+        }
+        if (reader.standaloneSet()) {
+            declaration.append(" standalone=\"").append(reader.isStandalone() ? "yes" : "no").append('"');
+        }
+        return declaration.append("?>\n").toString();
+    }
+
+    private static InputStream open(String fileName) throws IOException {
+        return new BufferedInputStream(new FileInputStream(fileName), BUFF_SIZE);
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA ||
+                event == XMLStreamConstants.SPACE;
+    }
+
+    /**
+     * Move the reader to the start of the next element of the path.
+     */
+    private static boolean nextMatch(XMLStreamReader reader, PathMatcher matcher) throws XMLStreamException {
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (matcher.start(reader.getLocalName(), name -> getAttribute(reader, name))) {
+                    return true;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                matcher.end();
+            }
+        }
+        return false;
+    }
+
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (name.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> readChildren(XMLStreamReader reader) throws XMLStreamException {
+        final Map<String, String> children = new LinkedHashMap<>();
+        String child = null;
+        StringBuilder text = null;
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == 2) {
+                    child = reader.getLocalName();
+                    text = new StringBuilder();
+                } else {
+                    // not a simple element
+                    child = null;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 2 && child != null) {
+                    children.putIfAbsent(child, text.toString().trim());
+                }
+                depth--;
+            } else if (depth == 2 && child != null && isText(event)) {
+                text.append(reader.getText());
+            }
+        }
+        return children;
+    }
+
+    private static void skipElement(XMLEventReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+        }
+    }
+
+    private static List<XMLEvent> parseFragment(String fragment) throws XMLStreamException {
+        final List<XMLEvent> events = new ArrayList<>();
+        final XMLEventReader reader = INPUT_FACTORY.createXMLEventReader(new StringReader(fragment));
+        try {
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (!event.isStartDocument() && !event.isEndDocument()) {
+                    events.add(event);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return events;
+    }
+
+    private static void writeAll(XMLEventWriter writer, XMLEvent event) throws XMLStreamException {
+        if (event != null) {
+            writer.add(event);
+        }
+    }
+
+    private static void writeAll(XMLEventWriter writer, List<XMLEvent> events) throws XMLStreamException {
+        for (final XMLEvent event : events) {
+            writer.add(event);
+        }
+    }
+
+    /**
+     * Track how many leading steps of the path are matched by the current element and its ancestors.
+     */
+    private static final class PathMatcher {
+        private final String[] names;
+        private final String[] attributes;
+        private final String[] values;
+        private int depth = 0;
+        private int matched = 0;
+
+        PathMatcher(String path) {
+            if (path == null || !path.startsWith("/") || path.length() == 1) {
+                throw new IllegalArgumentException(ParserXMLUtility.INVALID_ARG);
+            }
+            final String[] steps = path.substring(1).split("/");
+            names = new String[steps.length];
+            attributes = new String[steps.length];
+            values = new String[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                final Matcher step = STEP.matcher(steps[i]);
+                if (!step.matches()) {
+                    throw new IllegalArgumentException(ParserXMLUtility.INVALID_ARG);
+                }
+                names[i] = step.group(1);
+                attributes[i] = step.group(2);
+                values[i] = step.group(3);
+            }
+        }
+
+        boolean start(StartElement element) {
+            return start(element.getName().getLocalPart(), name -> {
+                for (final Iterator<?> it = element.getAttributes(); it.hasNext(); ) {
+                    final Attribute attribute = (Attribute) it.next();
+                    if (name.equals(attribute.getName().getLocalPart())) {
+                        return attribute.getValue();
+                    }
+                }
+                return null;
+            });
+        }
+
+        /**
+         * @return true if the started element is an element of the path
+         */
+        boolean start(String name, Function<String, String> attributeLookup) {
+            depth++;
+            if (matched == depth - 1 && depth <= names.length && names[depth - 1].equals(name) &&
+                    (attributes[depth - 1] == null ||
+                            values[depth - 1].equals(attributeLookup.apply(attributes[depth - 1])))) {
+                matched = depth;
+            }
+            return matched == names.length && depth == names.length;
+        }
+
+        void end() {
+            if (matched == depth) {
+                matched--;
+            }
+            depth--;
+        }
+
+        int depth() {
+            return depth;
+        }
+
+        int length() {
+            return names.length;
+        }
+
+        boolean isMatched() {
+            return matched == names.length;
+        }
+    }
+}
@@ -6,24 +6,18 @@
 package com.microsoft.azuretools.telemetrywrapper;
 
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryClient;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.MutableTriple;
 
-import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-
-import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.SERVICE_NAME;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class CommonUtil {
 
     public static final String DURATION = "duration";
     public static final String OPERATION_ID = "operationId";
     public static final String TIMESTAMP = "timestamp";
-    public static AzureTelemetryClient client;
-    private static List<MutableTriple<EventType, Map, Map>> cachedEvents = new ArrayList<>();
+    public static volatile AzureTelemetryClient client;
 
     public static Map<String, String> mergeProperties(Map<String, String> properties) {
         Map<String, String> commonProperties = TelemetryManager.getInstance().getCommonProperties();
@@ -34,35 +28,28 @@ public class CommonUtil {
         return merged;
     }
 
-    public static synchronized void sendTelemetry(EventType eventType, String serviceName, Map<String, String> properties,
+    /**
+     * Queue the event to be sent in background, the common properties are merged then. The properties and metrics
+     * mustn't be modified after the call.
+     */
+    public static void sendTelemetry(EventType eventType, String serviceName, Map<String, String> properties,
         Map<String, Double> metrics) {
-        Map<String, String> mutableProps = properties == null ? new HashMap<>() : new HashMap<>(properties);
-        // Tag UTC time as timestamp
-        mutableProps.put(TIMESTAMP, Instant.now().toString());
-        if (!StringUtils.isEmpty(serviceName)) {
-            mutableProps.put(SERVICE_NAME, serviceName);
-        }
-        if (client != null) {
-            final String eventName = getFullEventName(eventType);
-            client.trackEvent(eventName, mutableProps, metrics);
-        } else {
-            cacheEvents(eventType, mutableProps, metrics);
-        }
+        TelemetryDispatcher.getInstance().offer(eventType, serviceName, properties, metrics);
     }
 
     public static void clearCachedEvents() {
         if (client != null) {
-            cachedEvents.forEach(triple -> client.trackEvent(getFullEventName(triple.left), triple.middle, triple.right));
-            cachedEvents.clear();
+            TelemetryDispatcher.getInstance().wakeUp();
         }
     }
 
-    private static void cacheEvents(EventType eventType, Map<String, String> mutableProps, Map<String, Double> metrics) {
-        cachedEvents.add(MutableTriple.of(eventType, mutableProps, metrics));
+    /**
+     * A random version 4 UUID, without the blocking {@link java.security.SecureRandom} behind {@link UUID#randomUUID()}
+     */
+    static String newOperationId() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        final long leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
     }
-
-    private static String getFullEventName(EventType eventType) {
-        return TelemetryManager.getInstance().getEventNamePrefix() + "/" + eventType.name();
-    }
-
 }
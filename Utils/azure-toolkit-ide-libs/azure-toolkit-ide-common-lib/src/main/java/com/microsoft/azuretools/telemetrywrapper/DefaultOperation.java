@@ -10,7 +10,8 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ERROR_CLASSNAME;
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ERROR_CODE;
@@ -20,32 +21,36 @@ import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ER
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.OPERATION_NAME;
 import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.DURATION;
 import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.OPERATION_ID;
-import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.mergeProperties;
+import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.newOperationId;
 import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.sendTelemetry;
 import static com.microsoft.azuretools.telemetrywrapper.EventUtil.isAbleToCollectErrorStacks;
 
+/**
+ * An operation of the telemetry, the events are queued to {@link TelemetryDispatcher} without any lock, so it's cheap to
+ * log on the EDT.
+ */
 public class DefaultOperation implements Operation {
 
-    private long timeStart;
-    private String operationId;
-    private String serviceName;
-    private String operationName;
-    private Error error;
-    private Map<String, String> properties;
-    private volatile boolean isComplete = false;
+    private volatile long timeStart;
+    private final String operationId;
+    private final String serviceName;
+    private final String operationName;
+    private volatile Error error;
+    private final Map<String, String> properties;
+    private final AtomicBoolean isComplete = new AtomicBoolean(false);
 
     public DefaultOperation(String serviceName, String operationName) {
         this.serviceName = serviceName == null ? "" : serviceName;
         this.operationName = operationName == null ? "" : operationName;
-        this.operationId = UUID.randomUUID().toString();
-        this.properties = new HashMap<>();
+        this.operationId = newOperationId();
+        this.properties = new ConcurrentHashMap<>();
         properties.put(CommonUtil.OPERATION_ID, operationId);
-        properties.put(OPERATION_NAME, operationName);
+        properties.put(OPERATION_NAME, this.operationName);
     }
 
     public void logEvent(EventType eventType, Map<String, String> properties, Map<String, Double> metrics) {
         try {
-            if (isComplete) {
+            if (isComplete.get()) {
                 return;
             }
             if (eventType == EventType.opStart || eventType == EventType.opEnd) {
@@ -59,43 +64,45 @@ public class DefaultOperation implements Operation {
             if (eventType == EventType.step) {
                 mutableMetrics.put(DURATION, Double.valueOf(System.currentTimeMillis() - timeStart));
             }
-            sendTelemetry(eventType, serviceName, mergeProperties(mutableProps), mutableMetrics);
+            sendTelemetry(eventType, serviceName, mutableProps, mutableMetrics);
         } catch (Exception ignore) {
         }
     }
 
     // We define this new API to remove error message and stacktrace as per privacy review requirements
-    public synchronized void logErrorClassNameOnly(ErrorType errorType, Throwable e, Map<String, String> properties,
-                                                   Map<String, Double> metrics) {
+    public void logErrorClassNameOnly(ErrorType errorType, Throwable e, Map<String, String> properties,
+                                      Map<String, Double> metrics) {
         logError(errorType, e, properties, metrics, false);
     }
 
-    public synchronized void logError(ErrorType errorType, Throwable e, Map<String, String> properties,
-                                      Map<String, Double> metrics) {
+    public void logError(ErrorType errorType, Throwable e, Map<String, String> properties,
+                         Map<String, Double> metrics) {
         logError(errorType, e, properties, metrics, true);
     }
 
     @Override
-    public synchronized void start() {
+    public void start() {
         try {
-            if (isComplete) {
+            if (isComplete.get()) {
                 return;
             }
             timeStart = System.currentTimeMillis();
-            sendTelemetry(EventType.opStart, serviceName, mergeProperties(properties), null);
+            sendTelemetry(EventType.opStart, serviceName, new HashMap<>(properties), null);
         } catch (Exception ignore) {
         }
     }
 
     @Override
-    public synchronized void complete() {
-        if (isComplete) {
+    public void complete() {
+        if (!isComplete.compareAndSet(false, true)) {
             return;
         }
+        final Error error = this.error;
+        final long duration = System.currentTimeMillis() - timeStart;
         try {
             Map<String, Double> metrics = new HashMap<>();
-            metrics.put(DURATION, Double.valueOf(System.currentTimeMillis() - timeStart));
-            Map<String, String> mergedProperty = mergeProperties(properties);
+            metrics.put(DURATION, Double.valueOf(duration));
+            Map<String, String> mergedProperty = new HashMap<>(properties);
             if (error != null) {
                 mergedProperty.put(ERROR_CODE, "1");
                 mergedProperty.put(ERROR_MSG, error.errMsg);
@@ -106,19 +113,31 @@ public class DefaultOperation implements Operation {
             }
             sendTelemetry(EventType.opEnd, serviceName, mergedProperty, metrics);
         } catch (Exception ignore) {
-        } finally {
-            clear();
+        }
+        try {
+            if (timeStart > 0) {
+                OperationLatencyRegistry.getInstance().record(serviceName, operationName, duration, error != null);
+            }
+        } catch (Exception ignore) {
         }
     }
 
     @Override
     public void trackProperty(String key, @Nullable String value) {
-        properties.put(key, value);
+        if (key == null) {
+            return;
+        }
+        // The telemetry client drops the null values anyway
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.put(key, value);
+        }
     }
 
     @Override
     public void trackProperties(Map<String, String> properties) {
-        this.properties.putAll(properties);
+        properties.forEach(this::trackProperty);
     }
 
     @Override
@@ -126,17 +145,18 @@ public class DefaultOperation implements Operation {
         complete();
     }
 
-    private synchronized void logError(ErrorType errorType, Throwable e, Map<String, String> properties,
-                                       Map<String, Double> metrics, boolean logErrorTraces) {
+    private void logError(ErrorType errorType, Throwable e, Map<String, String> properties,
+                          Map<String, Double> metrics, boolean logErrorTraces) {
         try {
-            if (isComplete) {
+            if (isComplete.get()) {
                 return;
             }
-            error = new Error();
+            final Error error = new Error();
             error.errorType = errorType == null ? ErrorType.systemError : errorType;
             error.errMsg = e == null ? "" : e.getMessage();
             error.className = e == null ? "" : e.getClass().getName();
             error.stackTrace = ExceptionUtils.getStackTrace(e);
+            this.error = error;
 
             Map<String, String> mutableProps = properties == null ? new HashMap<>() : new HashMap<>(properties);
             mutableProps.put(ERROR_CODE, "1");
@@ -151,15 +171,11 @@ public class DefaultOperation implements Operation {
 
             Map<String, Double> mutableMetrics = metrics == null ? new HashMap<>() : new HashMap<>(metrics);
             mutableMetrics.put(DURATION, Double.valueOf(System.currentTimeMillis() - timeStart));
-            sendTelemetry(EventType.error, serviceName, mergeProperties(mutableProps), mutableMetrics);
+            sendTelemetry(EventType.error, serviceName, mutableProps, mutableMetrics);
         } catch (Exception ignore) {
         }
     }
 
-    private void clear() {
-        isComplete = true;
-    }
-
     private static class Error {
         ErrorType errorType;
         String errMsg;
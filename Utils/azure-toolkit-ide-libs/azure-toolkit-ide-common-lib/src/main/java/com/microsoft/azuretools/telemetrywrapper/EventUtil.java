@@ -12,7 +12,6 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.util.function.Consumer;
 
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ERROR_CLASSNAME;
@@ -22,7 +21,7 @@ import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ER
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ERROR_TYPE;
 import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.OPERATION_NAME;
 import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.OPERATION_ID;
-import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.mergeProperties;
+import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.newOperationId;
 import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.sendTelemetry;
 
 public class EventUtil {
@@ -33,8 +32,9 @@ public class EventUtil {
             // Parameter properties might be a ImmutableMap, which means calling properties.put will lead to UnsupportedOperationException
             Map<String, String> mutableProps = properties == null ? new HashMap<>() : new HashMap<>(properties);
             mutableProps.put(OPERATION_NAME, operName);
-            mutableProps.put(OPERATION_ID, UUID.randomUUID().toString());
-            sendTelemetry(eventType, serviceName, mergeProperties(mutableProps), metrics);
+            mutableProps.put(OPERATION_ID, newOperationId());
+            Map<String, Double> mutableMetrics = metrics == null ? null : new HashMap<>(metrics);
+            sendTelemetry(eventType, serviceName, mutableProps, mutableMetrics);
         } catch (Exception ignore) {
         }
     }
@@ -215,7 +215,7 @@ public class EventUtil {
         try {
             Map<String, String> mutableProps = properties == null ? new HashMap<>() : new HashMap<>(properties);
             mutableProps.put(OPERATION_NAME, operName);
-            mutableProps.put(OPERATION_ID, UUID.randomUUID().toString());
+            mutableProps.put(OPERATION_ID, newOperationId());
             mutableProps.put(ERROR_CODE, "1");
             mutableProps.put(ERROR_CLASSNAME, e != null ? e.getClass().getName() : "");
             mutableProps.put(ERROR_TYPE, errorType.name());
@@ -223,7 +223,8 @@ public class EventUtil {
                 mutableProps.put(ERROR_MSG, e != null ? e.getMessage() : "");
                 mutableProps.put(ERROR_STACKTRACE, ExceptionUtils.getStackTrace(e));
             }
-            sendTelemetry(EventType.error, serviceName, mergeProperties(mutableProps), metrics);
+            Map<String, Double> mutableMetrics = metrics == null ? null : new HashMap<>(metrics);
+            sendTelemetry(EventType.error, serviceName, mutableProps, mutableMetrics);
         } catch (Exception ignore) {
         }
     }
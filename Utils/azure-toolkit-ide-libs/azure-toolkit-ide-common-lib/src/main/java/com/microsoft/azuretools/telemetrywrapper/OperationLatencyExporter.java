@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write the operation latencies into a file in the Prometheus text format, to be scraped by the node exporter's
+ * textfile collector or compared offline. It's off unless the system property {@value #EXPORT_FILE_PROPERTY} is set.
+ */
+public class OperationLatencyExporter {
+    public static final String EXPORT_FILE_PROPERTY = "azure.toolkit.metrics.export.file";
+    public static final String EXPORT_INTERVAL_SECONDS_PROPERTY = "azure.toolkit.metrics.export.intervalSeconds";
+    private static final int DEFAULT_EXPORT_INTERVAL_SECONDS = 60;
+
+    private static final String DURATION_METRIC = "azure_toolkit_operation_duration_milliseconds";
+    private static final String ERRORS_METRIC = "azure_toolkit_operation_errors_total";
+
+    private OperationLatencyExporter() {
+    }
+
+    static void startIfConfigured(OperationLatencyRegistry registry) {
+        final String exportFile = System.getProperty(EXPORT_FILE_PROPERTY);
+        if (StringUtils.isBlank(exportFile)) {
+            return;
+        }
+
+        final Path target = Paths.get(exportFile);
+        final int interval = Math.max(1, NumberUtils.toInt(
+                System.getProperty(EXPORT_INTERVAL_SECONDS_PROPERTY), DEFAULT_EXPORT_INTERVAL_SECONDS));
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "azure-toolkit-metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                export(registry.getSnapshots(), target);
+            } catch (Exception ignore) {
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public static void export(List<OperationLatencySnapshot> snapshots, Path target) throws IOException {
+        final Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        // Replace the file at once, so that a collector never reads it half written
+        final Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, toPrometheusText(snapshots).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static String toPrometheusText(List<OperationLatencySnapshot> snapshots) {
+        final StringBuilder text = new StringBuilder();
+
+        text.append("# HELP ").append(DURATION_METRIC).append(" The duration of the Azure Toolkit operations\n");
+        text.append("# TYPE ").append(DURATION_METRIC).append(" summary\n");
+        for (OperationLatencySnapshot snapshot : snapshots) {
+            final String labels = labelsOf(snapshot);
+            appendQuantile(text, labels, "0.5", snapshot.getP50());
+            appendQuantile(text, labels, "0.9", snapshot.getP90());
+            appendQuantile(text, labels, "0.99", snapshot.getP99());
+            appendQuantile(text, labels, "1", snapshot.getMax());
+            text.append(DURATION_METRIC).append("_sum{").append(labels).append("} ")
+                .append(snapshot.getSum()).append('\n');
+            text.append(DURATION_METRIC).append("_count{").append(labels).append("} ")
+                .append(snapshot.getCount()).append('\n');
+        }
+
+        text.append("# HELP ").append(ERRORS_METRIC).append(" The failed Azure Toolkit operations\n");
+        text.append("# TYPE ").append(ERRORS_METRIC).append(" counter\n");
+        for (OperationLatencySnapshot snapshot : snapshots) {
+            text.append(ERRORS_METRIC).append('{').append(labelsOf(snapshot)).append("} ")
+                .append(snapshot.getErrors()).append('\n');
+        }
+
+        return text.toString();
+    }
+
+    private static void appendQuantile(StringBuilder text, String labels, String quantile, long value) {
+        text.append(DURATION_METRIC).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+            .append(value).append('\n');
+    }
+
+    private static String labelsOf(OperationLatencySnapshot snapshot) {
+        return "service=\"" + escape(snapshot.getServiceName()) + "\","
+                + "operation=\"" + escape(snapshot.getOperationName()) + "\"";
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * The latencies of the toolkit operations in this IDE process, by service and operation name. They are kept locally
+ * besides the telemetry, to find the slow operations without the telemetry backend.
+ */
+public class OperationLatencyRegistry {
+    private final ConcurrentMap<Pair<String, String>, OperationLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private static final class SingletonHolder {
+        private static final OperationLatencyRegistry INSTANCE = new OperationLatencyRegistry();
+
+        static {
+            OperationLatencyExporter.startIfConfigured(INSTANCE);
+        }
+    }
+
+    OperationLatencyRegistry() {
+    }
+
+    public static OperationLatencyRegistry getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public void record(String serviceName, String operationName, long durationMillis, boolean isError) {
+        final Pair<String, String> key =
+                Pair.of(StringUtils.defaultString(serviceName), StringUtils.defaultString(operationName));
+
+        // Look up first, computeIfAbsent of Java 8 locks the bin even if the key is present
+        OperationLatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(key, k -> new OperationLatencyHistogram());
+        }
+
+        histogram.record(durationMillis, isError);
+    }
+
+    public List<OperationLatencySnapshot> getSnapshots() {
+        return histograms.entrySet().stream()
+                .map(entry -> new OperationLatencySnapshot(
+                        entry.getKey().getLeft(), entry.getKey().getRight(), entry.getValue()))
+                .sorted(Comparator.comparing(OperationLatencySnapshot::getServiceName)
+                        .thenComparing(OperationLatencySnapshot::getOperationName))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+}
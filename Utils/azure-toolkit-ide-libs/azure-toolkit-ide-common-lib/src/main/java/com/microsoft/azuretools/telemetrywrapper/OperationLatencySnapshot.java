@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+public class OperationLatencySnapshot {
+    private final String serviceName;
+    private final String operationName;
+    private final long count;
+    private final long errors;
+    private final long sum;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    OperationLatencySnapshot(String serviceName, String operationName, OperationLatencyHistogram histogram) {
+        this.serviceName = serviceName;
+        this.operationName = operationName;
+        this.count = histogram.getCount();
+        this.errors = histogram.getErrors();
+        this.sum = histogram.getSum();
+        this.p50 = histogram.getValueAtPercentile(0.5);
+        this.p90 = histogram.getValueAtPercentile(0.9);
+        this.p99 = histogram.getValueAtPercentile(0.99);
+        this.max = histogram.getMax();
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+}
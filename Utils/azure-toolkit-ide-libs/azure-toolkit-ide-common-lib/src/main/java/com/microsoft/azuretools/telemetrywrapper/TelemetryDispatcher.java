@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryClient;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.SERVICE_NAME;
+import static com.microsoft.azuretools.telemetrywrapper.CommonUtil.TIMESTAMP;
+
+/**
+ * Hand the telemetry events over to a single background thread, which merges the common properties and sends them to
+ * the telemetry client in batches. The events are kept until the client is set. The queue is bounded, when it's full
+ * the step and info events are dropped first, so the callers, often the EDT, never wait for the telemetry.
+ */
+public class TelemetryDispatcher {
+    static final int LOW_PRIORITY_CAPACITY = 4096;
+    static final int CAPACITY = 8192;
+    static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long SHUTDOWN_FLUSH_MILLIS = 3000;
+
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder sentEvents = new LongAdder();
+    private final LongAdder droppedLowPriorityEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final Supplier<AzureTelemetryClient> clientSupplier;
+    private final List<Event> batch = new ArrayList<>(BATCH_SIZE);
+    private final Thread dispatcher;
+
+    private static final class SingletonHolder {
+        private static final TelemetryDispatcher INSTANCE = new TelemetryDispatcher(() -> CommonUtil.client);
+
+        static {
+            INSTANCE.start();
+        }
+    }
+
+    private static final class Event {
+        private final EventType eventType;
+        private final String serviceName;
+        private final Map<String, String> properties;
+        private final Map<String, Double> metrics;
+        private final long timestamp;
+
+        private Event(EventType eventType, String serviceName, Map<String, String> properties,
+                      Map<String, Double> metrics) {
+            this.eventType = eventType;
+            this.serviceName = serviceName;
+            this.properties = properties;
+            this.metrics = metrics;
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The dispatching thread isn't started until {@link #start()}, the tests send the batches by
+     * {@link #dispatchBatch()} instead.
+     */
+    TelemetryDispatcher(Supplier<AzureTelemetryClient> clientSupplier) {
+        this.clientSupplier = clientSupplier;
+        this.dispatcher = new Thread(this::dispatch, "azure-toolkit-telemetry-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    private void start() {
+        dispatcher.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(SHUTDOWN_FLUSH_MILLIS)));
+    }
+
+    public static TelemetryDispatcher getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Queue the event without blocking. The properties and metrics are owned by the dispatcher afterwards, the caller
+     * mustn't modify them any more.
+     *
+     * @return false if the queue is full and the event is dropped
+     */
+    public boolean offer(EventType eventType, String serviceName, Map<String, String> properties,
+                         Map<String, Double> metrics) {
+        final int limit = isLowPriority(eventType) ? LOW_PRIORITY_CAPACITY : CAPACITY;
+        int size;
+        do {
+            size = queued.get();
+            if (size >= limit) {
+                (limit == CAPACITY ? droppedEvents : droppedLowPriorityEvents).increment();
+                return false;
+            }
+        } while (!queued.compareAndSet(size, size + 1));
+
+        queue.offer(new Event(eventType, serviceName, properties, metrics));
+
+        if (size == 0) {
+            LockSupport.unpark(dispatcher);
+        }
+
+        return true;
+    }
+
+    /**
+     * Wake up the dispatcher, e.g. once the telemetry client is set
+     */
+    public void wakeUp() {
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * Wait for the queued events to be sent, at most the timeout
+     */
+    public void flush(long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        wakeUp();
+        while (queued.get() > 0 && clientSupplier.get() != null && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    public int getQueuedEventCount() {
+        return queued.get();
+    }
+
+    public long getSentEventCount() {
+        return sentEvents.sum();
+    }
+
+    public long getDroppedLowPriorityEventCount() {
+        return droppedLowPriorityEvents.sum();
+    }
+
+    public long getDroppedEventCount() {
+        return droppedEvents.sum() + droppedLowPriorityEvents.sum();
+    }
+
+    static boolean isLowPriority(EventType eventType) {
+        return eventType == EventType.step || eventType == EventType.info;
+    }
+
+    private void dispatch() {
+        while (true) {
+            if (dispatchBatch() == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Send at most {@value #BATCH_SIZE} queued events if the client is set
+     *
+     * @return the number of the events taken from the queue
+     */
+    int dispatchBatch() {
+        final AzureTelemetryClient client = clientSupplier.get();
+        if (client == null) {
+            return 0;
+        }
+
+        Event event;
+        while (batch.size() < BATCH_SIZE && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+
+        final int size = batch.size();
+        if (size > 0) {
+            final Map<String, String> commonProperties = TelemetryManager.getInstance().getCommonProperties();
+            final String eventNamePrefix = TelemetryManager.getInstance().getEventNamePrefix();
+            for (Event taken : batch) {
+                try {
+                    client.trackEvent(eventNamePrefix + "/" + taken.eventType.name(),
+                            toProperties(commonProperties, taken), taken.metrics);
+                    sentEvents.increment();
+                } catch (Throwable ignore) {
+                } finally {
+                    queued.decrementAndGet();
+                }
+            }
+
+            batch.clear();
+        }
+
+        return size;
+    }
+
+    private static Map<String, String> toProperties(Map<String, String> commonProperties, Event event) {
+        final int size = commonProperties.size() + (event.properties == null ? 0 : event.properties.size()) + 2;
+        final Map<String, String> properties = new HashMap<>(size * 4 / 3 + 1);
+        properties.putAll(commonProperties);
+        if (event.properties != null) {
+            properties.putAll(event.properties);
+        }
+
+        // Tag UTC time as timestamp
+        properties.put(TIMESTAMP, Instant.ofEpochMilli(event.timestamp).toString());
+        if (!StringUtils.isEmpty(event.serviceName)) {
+            properties.put(SERVICE_NAME, event.serviceName);
+        }
+
+        return properties;
+    }
+}
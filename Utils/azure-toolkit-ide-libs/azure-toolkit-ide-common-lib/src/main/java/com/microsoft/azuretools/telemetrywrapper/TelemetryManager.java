@@ -14,8 +14,8 @@ import java.util.Map;
 
 public class TelemetryManager {
 
-    private String eventNamePrefix = "";
-    private Map<String, String> commonProperties = Collections.unmodifiableMap(new HashMap<>());
+    private volatile String eventNamePrefix = "";
+    private volatile Map<String, String> commonProperties = Collections.emptyMap();
 
     private static final class SingletonHolder {
         private static final TelemetryManager INSTANCE = new TelemetryManager();
@@ -50,7 +50,8 @@ public class TelemetryManager {
 
     public synchronized void setCommonProperties(Map<String, String> commonProperties) {
         if (commonProperties != null) {
-            this.commonProperties = Collections.unmodifiableMap(commonProperties);
+            // A snapshot shared by all the events, the caller may keep changing its map
+            this.commonProperties = Collections.unmodifiableMap(new HashMap<>(commonProperties));
         }
     }
 
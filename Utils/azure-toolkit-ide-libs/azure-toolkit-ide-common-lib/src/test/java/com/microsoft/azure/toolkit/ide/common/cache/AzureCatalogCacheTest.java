@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.cache;
+
+import com.microsoft.azure.toolkit.ide.common.cache.AzureCatalogCache.CatalogKey;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AzureCatalogCacheTest {
+    private static final String SUBSCRIPTION = "00000000-0000-0000-0000-00000000000A";
+    private static final CatalogKey KEY = new CatalogKey(AzureCatalogCache.RESOURCE_GROUPS, SUBSCRIPTION);
+
+    private final MutableClock clock = new MutableClock();
+    private final Queue<Runnable> reloads = new ArrayDeque<>();
+    private AzureCatalogCache cache;
+    private CountingLoader loader;
+
+    @Before
+    public void setUp() {
+        cache = new AzureCatalogCache(clock, reloads::add);
+        cache.setTtl(AzureCatalogCache.RESOURCE_GROUPS, Duration.ofMinutes(5));
+        loader = new CountingLoader();
+    }
+
+    @Test
+    public void testFreshListIsCached() throws Exception {
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, loader));
+        clock.advance(Duration.ofMinutes(5).minusMillis(1));
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, loader));
+        assertEquals(1, loader.calls.get());
+        assertTrue(reloads.isEmpty());
+    }
+
+    @Test
+    public void testStaleListIsReturnedWhileReloading() throws Exception {
+        cache.get(KEY, loader);
+        clock.advance(Duration.ofMinutes(5));
+
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, loader));
+        // the callers during the reload share it
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, loader));
+        assertEquals(1, reloads.size());
+        assertEquals(1, loader.calls.get());
+
+        reloads.poll().run();
+        assertEquals(Collections.singletonList("rg-2"), cache.get(KEY, loader));
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    public void testTooStaleListIsReloadedAtOnce() throws Exception {
+        cache.get(KEY, loader);
+        clock.advance(Duration.ofMinutes(5 + 30));
+
+        assertEquals(Collections.singletonList("rg-2"), cache.get(KEY, loader));
+        assertTrue(reloads.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<List<String>> blockingLoader = () -> {
+            loading.countDown();
+            release.await();
+            return loader.call();
+        };
+        final ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<String>> first = callers.submit(() -> cache.get(KEY, blockingLoader));
+            assertTrue(loading.await(10, TimeUnit.SECONDS));
+            final Future<List<String>> second = callers.submit(() -> cache.get(KEY, blockingLoader));
+            release.countDown();
+
+            assertEquals(Collections.singletonList("rg-1"), first.get(10, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("rg-1"), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loader.calls.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        cache.get(KEY, loader);
+        cache.invalidate("another-subscription");
+        cache.invalidate(AzureCatalogCache.REGIONS, SUBSCRIPTION);
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, loader));
+
+        cache.invalidate(SUBSCRIPTION.toLowerCase());
+        assertEquals(Collections.singletonList("rg-2"), cache.get(KEY, loader));
+
+        cache.invalidate(AzureCatalogCache.RESOURCE_GROUPS, SUBSCRIPTION);
+        assertEquals(Collections.singletonList("rg-3"), cache.get(KEY, loader));
+    }
+
+    @Test
+    public void testListLoadedDuringInvalidationIsNotKept() throws Exception {
+        assertEquals(Collections.singletonList("rg-1"), cache.get(KEY, () -> {
+            final List<String> items = loader.call();
+            cache.invalidateAll();
+            return items;
+        }));
+        assertEquals(Collections.singletonList("rg-2"), cache.get(KEY, loader));
+    }
+
+    @Test
+    public void testKeyIgnoresCaseOfSubscription() throws Exception {
+        cache.get(KEY, loader);
+        final CatalogKey key = new CatalogKey(AzureCatalogCache.RESOURCE_GROUPS, SUBSCRIPTION.toLowerCase());
+        assertEquals(KEY, key);
+        assertEquals(Collections.singletonList("rg-1"), cache.get(key, loader));
+        assertEquals(SUBSCRIPTION.toLowerCase(), key.getSubscriptionId());
+    }
+
+    private static class CountingLoader implements Callable<List<String>> {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<String> call() {
+            return Collections.singletonList("rg-" + calls.incrementAndGet());
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2021-06-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.logstream;
+
+import com.microsoft.azure.toolkit.ide.common.logstream.LogStreamingPipeline.Chunk;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogStreamingPipelineTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern LINE_INDEX = Pattern.compile("line-(\\d+)");
+
+    @Test
+    public void testSlowConsoleDropsOldestLines() {
+        final int total = 100_000;
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder()
+            .batchSize(100).capacity(1_000).build());
+        final List<Chunk> chunks = pipeline.process(Flux.range(0, total).map(LogStreamingPipelineTest::line))
+            .doOnNext(ignore -> sleep(5))
+            .collectList().block(TIMEOUT);
+
+        assertEquals(total, pipeline.getReceived());
+        assertTrue(pipeline.getDropped() > 0);
+        assertEquals(total, pipeline.getRendered() + pipeline.getDropped());
+        assertEquals(pipeline.getRendered(), chunks.stream().mapToInt(Chunk::getLines).sum());
+        // the newest lines are kept
+        assertTrue(chunks.get(chunks.size() - 1).getText().contains(line(total - 1)));
+        assertDroppedLinesAreReportedExactly(pipeline, chunks);
+    }
+
+    @Test
+    public void testPendingLinesAreBoundedByCapacity() {
+        final int total = 100_000;
+        final CountDownLatch logsEnded = new CountDownLatch(1);
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder()
+            .batchSize(100).capacity(1_000).batchTimeout(Duration.ofMinutes(1)).build());
+        // the console is stuck on the first chunk until all the lines are read
+        final List<Chunk> chunks = pipeline.process(Flux.range(0, total).map(LogStreamingPipelineTest::line).doOnComplete(logsEnded::countDown))
+            .doOnNext(ignore -> await(logsEnded))
+            .collectList().block(TIMEOUT);
+
+        // the pending batches, besides the one being rendered and the one prefetched
+        assertTrue(pipeline.getRendered() <= 1_000 + 2 * 100);
+        assertEquals(total, pipeline.getRendered() + pipeline.getDropped());
+        assertTrue(chunks.get(0).getText().contains(line(0)));
+        assertTrue(chunks.get(chunks.size() - 1).getText().contains(line(total - 1)));
+        assertDroppedLinesAreReportedExactly(pipeline, chunks);
+    }
+
+    @Test
+    public void testFastConsoleDropsNothing() {
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder().batchSize(100).build());
+        final List<Chunk> chunks = pipeline.process(Flux.range(0, 1_050).map(LogStreamingPipelineTest::line))
+            .collectList().block(TIMEOUT);
+
+        assertEquals(1_050, pipeline.getReceived());
+        assertEquals(1_050, pipeline.getRendered());
+        assertEquals(0, pipeline.getFiltered());
+        assertEquals(0, pipeline.getDropped());
+        assertEquals(11, chunks.size());
+        assertEquals(50, chunks.get(10).getLines());
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.getDroppedBefore() == 0));
+    }
+
+    @Test
+    public void testMinLevel() {
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder().minLevel(LogLevel.WARN).build());
+        final String text = render(pipeline, Flux.just(
+            "2021-06-01 12:00:00.000 INFO 1 --- [main] started",
+            "2021-06-01 12:00:00.001 WARN 1 --- [main] slow",
+            "2021-06-01 12:00:00.002 ERROR 1 --- [main] failed",
+            "\tat com.example.App.main(App.java:10)",
+            "2021-06-01 12:00:00.003 DEBUG 1 --- [main] detail"));
+
+        assertEquals(5, pipeline.getReceived());
+        assertEquals(2, pipeline.getFiltered());
+        assertEquals(3, pipeline.getRendered());
+        assertFalse(text.contains("INFO"));
+        assertTrue(text.contains("App.java:10"));
+    }
+
+    @Test
+    public void testPattern() {
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder()
+            .pattern(Pattern.compile("line-1\\d$")).build());
+        final String text = render(pipeline, Flux.range(0, 100).map(LogStreamingPipelineTest::line));
+
+        assertEquals(100, pipeline.getReceived());
+        assertEquals(90, pipeline.getFiltered());
+        assertEquals(10, pipeline.getRendered());
+        assertTrue(text.contains(line(10)));
+        assertTrue(text.contains(line(19)));
+        assertFalse(text.contains(line(1) + System.lineSeparator()));
+    }
+
+    @Test
+    public void testMinLevelAndPattern() {
+        final LogStreamingPipeline pipeline = new LogStreamingPipeline(LogStreamingOptions.builder()
+            .minLevel(LogLevel.WARN).pattern(Pattern.compile("timeout", Pattern.CASE_INSENSITIVE)).build());
+        final String text = render(pipeline, Flux.just(
+            "2021-06-01 12:00:00.000 INFO 1 --- [main] timeout is 30s",
+            "2021-06-01 12:00:00.001 WARN 1 --- [main] slow",
+            "2021-06-01 12:00:00.002 WARNING 1 --- [main] Timeout of the request",
+            "2021-06-01 12:00:00.003 ERROR 1 --- [main] read timeout"));
+
+        assertEquals(4, pipeline.getReceived());
+        assertEquals(2, pipeline.getFiltered());
+        assertEquals(2, pipeline.getRendered());
+        assertFalse(text.contains("30s"));
+        assertFalse(text.contains("slow"));
+        assertTrue(text.contains("Timeout of the request"));
+        assertTrue(text.contains("read timeout"));
+    }
+
+    /**
+     * every chunk reports the lines dropped between the previous chunk and itself
+     */
+    private static void assertDroppedLinesAreReportedExactly(LogStreamingPipeline pipeline, List<Chunk> chunks) {
+        int previousLast = -1;
+        long reported = 0;
+        for (final Chunk chunk : chunks) {
+            final Matcher matcher = LINE_INDEX.matcher(chunk.getText());
+            assertTrue(matcher.find());
+            assertEquals(previousLast + 1 + chunk.getDroppedBefore(), Integer.parseInt(matcher.group(1)));
+            previousLast += chunk.getDroppedBefore() + chunk.getLines();
+            reported += chunk.getDroppedBefore();
+        }
+        assertEquals(pipeline.getDropped(), reported);
+    }
+
+    private static String render(LogStreamingPipeline pipeline, Flux<String> logs) {
+        return pipeline.process(logs).collectList().block(TIMEOUT).stream().map(Chunk::getText).collect(Collectors.joining());
+    }
+
+    private static String line(int index) {
+        return String.format("2021-06-01 12:00:00.000 INFO 1 --- [main] c.e.App : line-%d", index);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
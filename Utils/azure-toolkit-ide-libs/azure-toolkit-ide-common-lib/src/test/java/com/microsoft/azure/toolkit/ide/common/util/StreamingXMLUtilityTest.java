@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.util;
+
+import com.microsoft.azure.toolkit.ide.common.util.StreamingXMLUtility.Edit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingXMLUtilityTest {
+    private static final List<String> CORPUS = Arrays.asList("pom.xml", "web.xml", "web-3.1.xml", "data.xml");
+    private static final Map<String, List<String>> PATHS = new LinkedHashMap<>();
+
+    static {
+        PATHS.put("pom.xml", Arrays.asList("/project", "/project/artifactId", "/project/dependencies/dependency",
+                "/project/dependencies/dependency/exclusions/exclusion/artifactId", "/project/build/finalName",
+                "/project/parent", "/project/dependencies/dependency/classifier"));
+        PATHS.put("web.xml", Arrays.asList("/web-app/display-name", "/web-app/filter",
+                "/web-app/filter-mapping/url-pattern", "/web-app/listener", "/web-app/servlet/servlet-class"));
+        PATHS.put("web-3.1.xml", Arrays.asList("/web-app/listener/listener-class", "/web-app/servlet/load-on-startup",
+                "/web-app/filter", "/web-app/servlet-mapping/url-pattern"));
+        PATHS.put("data.xml", Arrays.asList("/data/property[@name='telemetry']", "/data/property[@name='missing']",
+                "/data/property", "/data/other"));
+    }
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testQueriesMatchDom() throws Exception {
+        for (final String name : CORPUS) {
+            final File file = copy(name);
+            final Document doc = ParserXMLUtility.parseXMLFile(file.getPath());
+            for (final String path : PATHS.get(name)) {
+                final String message = name + path;
+                final Node node = (Node) ParserXMLUtility.compile(path).evaluate(doc, XPathConstants.NODE);
+                assertEquals(message, ParserXMLUtility.doesNodeExists(doc, path),
+                        StreamingXMLUtility.exists(file.getPath(), path));
+                assertEquals(message, node == null ? null : node.getTextContent(),
+                        StreamingXMLUtility.readText(file.getPath(), path));
+                assertEquals(message, collectDom(doc, path), StreamingXMLUtility.collectElements(file.getPath(), path));
+            }
+        }
+
+        final File data = copy("data.xml");
+        final Document doc = ParserXMLUtility.parseXMLFile(data.getPath());
+        assertEquals(ParserXMLUtility.getExpressionValue(doc, "/data/property[@name='instID']/@value"),
+                StreamingXMLUtility.readAttribute(data.getPath(), "/data/property[@name='instID']", "value"));
+        assertNull(StreamingXMLUtility.readAttribute(data.getPath(), "/data/property[@name='missing']", "value"));
+        assertTrue(StreamingXMLUtility.isWellFormed(data.getPath()));
+    }
+
+    @Test
+    public void testDependencyCoordinates() throws Exception {
+        final List<Map<String, String>> dependencies =
+                StreamingXMLUtility.collectElements(copy("pom.xml").getPath(), "/project/dependencies/dependency");
+
+        assertEquals(3, dependencies.size());
+        assertEquals("spring-boot-starter-web", dependencies.get(0).get("artifactId"));
+        assertFalse(dependencies.get(0).containsKey("exclusions"));
+        assertEquals("test", dependencies.get(2).get("scope"));
+    }
+
+    @Test
+    public void testDeleteMatchesDom() throws Exception {
+        for (final String name : CORPUS) {
+            for (final String path : PATHS.get(name)) {
+                final File file = copy(name);
+                final Document doc = ParserXMLUtility.parseXMLFile(file.getPath());
+                final NodeList nodes = (NodeList) ParserXMLUtility.compile(path).evaluate(doc, XPathConstants.NODESET);
+                if (path.equals("/" + doc.getDocumentElement().getTagName())) {
+                    continue;
+                }
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    nodes.item(i).getParentNode().removeChild(nodes.item(i));
+                }
+
+                assertEquals(name + path, nodes.getLength(), StreamingXMLUtility.rewrite(file.getPath(), path, Edit.delete()));
+                assertEquals(name + path, canonical(doc), canonical(ParserXMLUtility.parseXMLFile(file.getPath())));
+            }
+        }
+    }
+
+    @Test
+    public void testAppendAndReplaceMatchDom() throws Exception {
+        final File file = copy("web.xml");
+        final Document doc = ParserXMLUtility.parseXMLFile(file.getPath());
+        final Map<String, String> attributes = Collections.singletonMap("id", "ai");
+        final Element listener = ParserXMLUtility.updateOrCreateElement(doc, null, "/web-app", "listener", false, attributes);
+        ParserXMLUtility.createElement(doc, null, listener, "listener-class", false, null)
+                .setTextContent("com.microsoft.applicationinsights.web.internal.ApplicationInsightsServletContextListener");
+        ParserXMLUtility.setExpressionValue(doc, "/web-app/display-name/text()", "Monitored App");
+
+        assertEquals(1, StreamingXMLUtility.rewrite(file.getPath(), "/web-app", Edit.appendChild("<listener id=\"ai\">" +
+                "<listener-class>com.microsoft.applicationinsights.web.internal.ApplicationInsightsServletContextListener" +
+                "</listener-class></listener>")));
+        assertEquals(1, StreamingXMLUtility.rewrite(file.getPath(), "/web-app/display-name",
+                Edit.replace("<display-name>Monitored App</display-name>")));
+
+        assertEquals(canonical(doc), canonical(ParserXMLUtility.parseXMLFile(file.getPath())));
+    }
+
+    @Test
+    public void testRewritePreservesFormatting() throws Exception {
+        // the attributes of a start tag are written in one line
+        final String original = read("web-3.1.xml").replaceAll("\\s+xmlns:xsi=[^>]*3\\.1\"", " version=\"3.1\"");
+        final String listener = "    <listener>\n" +
+                "        <listener-class>com.example.StartupListener</listener-class>\n" +
+                "    </listener>\n";
+
+        assertEquals(original.replace(listener, ""), rewrite(original, "/web-app/listener", Edit.delete()));
+        assertEquals(original.replace("<load-on-startup>1</load-on-startup>", "<load-on-startup>2</load-on-startup>"),
+                rewrite(original, "/web-app/servlet/load-on-startup", Edit.replace("<load-on-startup>2</load-on-startup>")));
+        assertEquals(original.replace(listener, "").replace("</servlet-mapping>\n", "</servlet-mapping>\n" + listener),
+                rewrite(original.replace(listener, ""), "/web-app", Edit.appendChild("<listener>\n" +
+                        "        <listener-class>com.example.StartupListener</listener-class>\n" +
+                        "    </listener>")));
+        assertEquals(original, rewrite(original, "/web-app/filter", Edit.delete()));
+    }
+
+    @Test
+    public void testExternalDtdIsNotResolved() throws Exception {
+        final File file = folder.newFile("unresolvable.xml");
+        final String content = "<?xml version=\"1.0\"?>\n" +
+                "<!DOCTYPE web-app SYSTEM \"http://localhost:1/unresolvable.dtd\">\n" +
+                "<web-app><display-name>App</display-name></web-app>\n";
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("App", ParserXMLUtility.getExpressionValue(ParserXMLUtility.parseXMLFile(file.getPath()),
+                "/web-app/display-name"));
+        assertEquals("App", StreamingXMLUtility.readText(file.getPath(), "/web-app/display-name"));
+        assertEquals(content, rewrite(content, "/web-app/listener", Edit.delete()));
+    }
+
+    @Test
+    public void testParseConcurrently() throws Exception {
+        final File file = copy("pom.xml");
+        final String expected = canonical(ParserXMLUtility.parseXMLFile(file.getPath()));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> {
+                    final Document doc = ParserXMLUtility.parseXMLFile(file.getPath());
+                    assertEquals("demo", ParserXMLUtility.getExpressionValue(doc, "/project/artifactId"));
+                    return canonical(doc);
+                }));
+            }
+            for (final Future<String> result : results) {
+                assertEquals(expected, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompareWithDomOnLargePom() throws Exception {
+        final StringBuilder pom = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project>\n    <dependencies>\n");
+        int count = 0;
+        while (pom.length() < 5 * 1024 * 1024) {
+            pom.append("        <dependency>\n")
+                    .append("            <groupId>com.example.group").append(count % 100).append("</groupId>\n")
+                    .append("            <artifactId>artifact-").append(count).append("</artifactId>\n")
+                    .append("            <version>1.0.").append(count).append("</version>\n")
+                    .append("        </dependency>\n");
+            count++;
+        }
+        pom.append("    </dependencies>\n</project>\n");
+        final File file = folder.newFile("large-pom.xml");
+        Files.write(file.toPath(), pom.toString().getBytes(StandardCharsets.UTF_8));
+        final String path = "/project/dependencies/dependency";
+
+        final List<Map<String, String>> fromDom = collectDom(ParserXMLUtility.parseXMLFile(file.getPath()), path);
+        final List<Map<String, String>> fromStream = StreamingXMLUtility.collectElements(file.getPath(), path);
+
+        assertEquals(count, fromStream.size());
+        assertEquals(fromDom, fromStream);
+    }
+
+    private File copy(String name) throws Exception {
+        final File file = new File(folder.getRoot(), name);
+        try (InputStream input = getClass().getResourceAsStream("/xml/" + name)) {
+            Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    private String read(String name) throws Exception {
+        return new String(Files.readAllBytes(copy(name).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String rewrite(String content, String path, Edit edit) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        StreamingXMLUtility.rewrite(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), output, path, edit);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<Map<String, String>> collectDom(Document doc, String path) throws Exception {
+        final List<Map<String, String>> elements = new ArrayList<>();
+        final NodeList nodes = (NodeList) ParserXMLUtility.compile(path).evaluate(doc, XPathConstants.NODESET);
+        for (int i = 0; i < nodes.getLength(); i++) {
+            final Map<String, String> children = new LinkedHashMap<>();
+            final NodeList childNodes = nodes.item(i).getChildNodes();
+            for (int j = 0; j < childNodes.getLength(); j++) {
+                final Node child = childNodes.item(j);
+                if (child instanceof Element && ((Element) child).getElementsByTagName("*").getLength() == 0) {
+                    children.putIfAbsent(child.getNodeName(), child.getTextContent().trim());
+                }
+            }
+            elements.add(children);
+        }
+        return elements;
+    }
+
+    /**
+     * The elements, attributes and non-blank texts, regardless of the formatting.
+     */
+    private static String canonical(Node node) {
+        final StringBuilder builder = new StringBuilder();
+        canonical(node, builder);
+        return builder.toString();
+    }
+
+    private static void canonical(Node node, StringBuilder builder) {
+        if (node instanceof Element) {
+            builder.append('<').append(node.getNodeName());
+            final NamedNodeMap attributes = node.getAttributes();
+            final List<String> sorted = new ArrayList<>();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                sorted.add(attributes.item(i).getNodeName() + "=" + attributes.item(i).getNodeValue());
+            }
+            Collections.sort(sorted);
+            builder.append(sorted).append('>');
+        } else if (node.getNodeType() == Node.TEXT_NODE && !node.getNodeValue().trim().isEmpty()) {
+            builder.append(node.getNodeValue().trim());
+        }
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            canonical(children.item(i), builder);
+        }
+        if (node instanceof Element) {
+            builder.append("</").append(node.getNodeName()).append('>');
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OperationLatencyHistogramTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testBucketEdges() {
+        // the values under 32 ms have their own buckets
+        assertEquals(0, OperationLatencyHistogram.indexOf(0));
+        assertEquals(31, OperationLatencyHistogram.indexOf(31));
+        assertEquals(31, OperationLatencyHistogram.medianOf(31));
+
+        // then 16 buckets for every power of two
+        assertEquals(32, OperationLatencyHistogram.indexOf(32));
+        assertEquals(32, OperationLatencyHistogram.indexOf(33));
+        assertEquals(33, OperationLatencyHistogram.indexOf(34));
+        assertEquals(47, OperationLatencyHistogram.indexOf(63));
+        assertEquals(48, OperationLatencyHistogram.indexOf(64));
+        assertEquals(48, OperationLatencyHistogram.indexOf(67));
+        assertEquals(49, OperationLatencyHistogram.indexOf(68));
+        assertEquals(33, OperationLatencyHistogram.medianOf(32));
+        assertEquals(66, OperationLatencyHistogram.medianOf(48));
+
+        // the largest value fits into the last bucket
+        assertEquals(959, OperationLatencyHistogram.indexOf(Long.MAX_VALUE));
+
+        for (long value = 32; value < 1 << 20; value++) {
+            final long median = OperationLatencyHistogram.medianOf(OperationLatencyHistogram.indexOf(value));
+            assertTrue("value " + value, Math.abs(median - value) <= value / 32);
+        }
+    }
+
+    @Test
+    public void testPercentilesOfUniformDistribution() {
+        final OperationLatencyHistogram histogram = new OperationLatencyHistogram();
+        final List<Long> values = new ArrayList<>();
+        for (long value = 1; value <= 10_000; value++) {
+            values.add(value);
+        }
+        Collections.shuffle(values, new Random(42));
+        values.forEach(value -> histogram.record(value, false));
+
+        assertPercentile(5_000, histogram.getValueAtPercentile(0.5));
+        assertPercentile(9_000, histogram.getValueAtPercentile(0.9));
+        assertPercentile(9_900, histogram.getValueAtPercentile(0.99));
+        assertPercentile(10_000, histogram.getValueAtPercentile(1.0));
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(50_005_000, histogram.getSum());
+    }
+
+    @Test
+    public void testPercentilesOfExponentialDistribution() {
+        final OperationLatencyHistogram histogram = new OperationLatencyHistogram();
+        final Random random = new Random(42);
+        final long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (-Math.log(1 - random.nextDouble()) * 200);
+            histogram.record(values[i], false);
+        }
+        Arrays.sort(values);
+
+        assertPercentile(values[49_999], histogram.getValueAtPercentile(0.5));
+        assertPercentile(values[89_999], histogram.getValueAtPercentile(0.9));
+        assertPercentile(values[98_999], histogram.getValueAtPercentile(0.99));
+        assertPercentile(values[values.length - 1], histogram.getValueAtPercentile(1.0));
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final OperationLatencyHistogram histogram = new OperationLatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(0.5));
+
+        histogram.record(-5, false);
+        histogram.record(3, true);
+        histogram.record(7, false);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(1, histogram.getErrors());
+        assertEquals(10, histogram.getSum());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(3, histogram.getValueAtPercentile(0.5));
+        assertEquals(7, histogram.getValueAtPercentile(0.99));
+    }
+
+    @Test
+    public void testPercentileIsCappedByMax() {
+        final OperationLatencyHistogram histogram = new OperationLatencyHistogram();
+        histogram.record(64, false);
+
+        // the median of the bucket [64, 68) is 66
+        assertEquals(64, histogram.getValueAtPercentile(0.5));
+    }
+
+    @Test
+    public void testSnapshotsMergeTheSameOperation() throws Exception {
+        final OperationLatencyRegistry registry = new OperationLatencyRegistry();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= 1_000; i++) {
+                        registry.record("webapp", "deploy", i, i % 10 == 0);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        registry.record(null, null, 5, false);
+        registry.record("", "", 7, true);
+        registry.record("storage", "upload", 5, false);
+
+        final List<OperationLatencySnapshot> snapshots = registry.getSnapshots();
+        assertEquals(3, snapshots.size());
+
+        // sorted by the service and operation names, the null names are merged with the empty ones
+        assertEquals("", snapshots.get(0).getServiceName());
+        assertEquals(2, snapshots.get(0).getCount());
+        assertEquals(1, snapshots.get(0).getErrors());
+        assertEquals(6, snapshots.get(0).getMean(), 0);
+        assertEquals("storage", snapshots.get(1).getServiceName());
+
+        final OperationLatencySnapshot deploy = snapshots.get(2);
+        assertEquals("deploy", deploy.getOperationName());
+        assertEquals(4_000, deploy.getCount());
+        assertEquals(400, deploy.getErrors());
+        assertEquals(4 * 500_500, deploy.getSum());
+        assertPercentile(500, deploy.getP50());
+        assertPercentile(900, deploy.getP90());
+        assertPercentile(990, deploy.getP99());
+        assertEquals(1_000, deploy.getMax());
+
+        registry.reset();
+        assertTrue(registry.getSnapshots().isEmpty());
+    }
+
+    @Test
+    public void testPrometheusText() throws Exception {
+        final OperationLatencyRegistry registry = new OperationLatencyRegistry();
+        registry.record("web\"app", "deploy\n", 10, false);
+        registry.record("web\"app", "deploy\n", 20, true);
+
+        final String expected = "# HELP azure_toolkit_operation_duration_milliseconds The duration of the Azure Toolkit operations\n"
+            + "# TYPE azure_toolkit_operation_duration_milliseconds summary\n"
+            + "azure_toolkit_operation_duration_milliseconds{service=\"web\\\"app\",operation=\"deploy\\n\",quantile=\"0.5\"} 10\n"
+            + "azure_toolkit_operation_duration_milliseconds{service=\"web\\\"app\",operation=\"deploy\\n\",quantile=\"0.9\"} 20\n"
+            + "azure_toolkit_operation_duration_milliseconds{service=\"web\\\"app\",operation=\"deploy\\n\",quantile=\"0.99\"} 20\n"
+            + "azure_toolkit_operation_duration_milliseconds{service=\"web\\\"app\",operation=\"deploy\\n\",quantile=\"1\"} 20\n"
+            + "azure_toolkit_operation_duration_milliseconds_sum{service=\"web\\\"app\",operation=\"deploy\\n\"} 30\n"
+            + "azure_toolkit_operation_duration_milliseconds_count{service=\"web\\\"app\",operation=\"deploy\\n\"} 2\n"
+            + "# HELP azure_toolkit_operation_errors_total The failed Azure Toolkit operations\n"
+            + "# TYPE azure_toolkit_operation_errors_total counter\n"
+            + "azure_toolkit_operation_errors_total{service=\"web\\\"app\",operation=\"deploy\\n\"} 1\n";
+        assertEquals(expected, OperationLatencyExporter.toPrometheusText(registry.getSnapshots()));
+
+        final Path target = folder.getRoot().toPath().resolve("metrics/toolkit.prom");
+        OperationLatencyExporter.export(registry.getSnapshots(), target);
+        assertEquals(expected, new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        // the temp file is moved into the target
+        assertEquals(1, Files.list(target.getParent()).count());
+    }
+
+    private static void assertPercentile(long expected, long actual) {
+        assertTrue(String.format("expected %d, but was %d", expected, actual),
+            Math.abs(actual - expected) <= Math.max(1, expected / 32));
+    }
+}
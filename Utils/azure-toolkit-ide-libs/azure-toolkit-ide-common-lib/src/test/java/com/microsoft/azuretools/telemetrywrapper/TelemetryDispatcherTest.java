@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.SERVICE_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryDispatcherTest {
+    private final AtomicReference<AzureTelemetryClient> client = new AtomicReference<>();
+    private final FakeTelemetryClient fakeClient = new FakeTelemetryClient();
+    private TelemetryDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        // the dispatching thread isn't started, the batches are sent by the test
+        dispatcher = new TelemetryDispatcher(client::get);
+        TelemetryManager.getInstance().setEventNamePrefix("AzureToolkit");
+        TelemetryManager.getInstance().setCommonProperties(Collections.singletonMap("ide", "IntelliJ"));
+    }
+
+    @After
+    public void tearDown() {
+        TelemetryManager.getInstance().setEventNamePrefix("");
+        TelemetryManager.getInstance().setCommonProperties(Collections.emptyMap());
+    }
+
+    @Test
+    public void testLowPriorityEventsAreDroppedFirst() {
+        for (int i = 0; i < TelemetryDispatcher.LOW_PRIORITY_CAPACITY + 10; i++) {
+            dispatcher.offer(i % 2 == 0 ? EventType.step : EventType.info, "webapp", null, null);
+        }
+        assertEquals(TelemetryDispatcher.LOW_PRIORITY_CAPACITY, dispatcher.getQueuedEventCount());
+        assertEquals(10, dispatcher.getDroppedLowPriorityEventCount());
+
+        // the other events still have the rest of the queue
+        for (int i = TelemetryDispatcher.LOW_PRIORITY_CAPACITY; i < TelemetryDispatcher.CAPACITY; i++) {
+            assertTrue(dispatcher.offer(EventType.opEnd, "webapp", null, null));
+        }
+        assertFalse(dispatcher.offer(EventType.error, "webapp", null, null));
+        assertFalse(dispatcher.offer(EventType.info, "webapp", null, null));
+
+        assertEquals(TelemetryDispatcher.CAPACITY, dispatcher.getQueuedEventCount());
+        assertEquals(11, dispatcher.getDroppedLowPriorityEventCount());
+        assertEquals(12, dispatcher.getDroppedEventCount());
+        assertEquals(0, dispatcher.getSentEventCount());
+    }
+
+    @Test
+    public void testEventsAreKeptUntilClientIsSet() {
+        dispatcher.offer(EventType.opStart, "webapp", Collections.singletonMap("operationName", "deploy"), null);
+        dispatcher.offer(EventType.opEnd, null, null, Collections.singletonMap(CommonUtil.DURATION, 42.0));
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(2, dispatcher.getQueuedEventCount());
+
+        client.set(fakeClient);
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(0, dispatcher.getQueuedEventCount());
+        assertEquals(2, dispatcher.getSentEventCount());
+
+        final TrackedEvent opStart = fakeClient.events.get(0);
+        assertEquals("AzureToolkit/opStart", opStart.name);
+        assertEquals("IntelliJ", opStart.properties.get("ide"));
+        assertEquals("deploy", opStart.properties.get("operationName"));
+        assertEquals("webapp", opStart.properties.get(SERVICE_NAME));
+        assertTrue(opStart.properties.containsKey(CommonUtil.TIMESTAMP));
+
+        final TrackedEvent opEnd = fakeClient.events.get(1);
+        assertEquals("AzureToolkit/opEnd", opEnd.name);
+        assertNull(opEnd.properties.get(SERVICE_NAME));
+        assertEquals(42.0, opEnd.metrics.get(CommonUtil.DURATION), 0);
+    }
+
+    @Test
+    public void testEventsAreSentInBatches() {
+        client.set(fakeClient);
+        for (int i = 0; i < 600; i++) {
+            dispatcher.offer(EventType.info, "webapp", Collections.singletonMap("index", String.valueOf(i)), null);
+        }
+
+        assertEquals(TelemetryDispatcher.BATCH_SIZE, dispatcher.dispatchBatch());
+        assertEquals(TelemetryDispatcher.BATCH_SIZE, dispatcher.dispatchBatch());
+        assertEquals(600 - 2 * TelemetryDispatcher.BATCH_SIZE, dispatcher.dispatchBatch());
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        assertEquals(600, dispatcher.getSentEventCount());
+        assertEquals(0, dispatcher.getQueuedEventCount());
+        // in the order they were queued
+        for (int i = 0; i < 600; i++) {
+            assertEquals(String.valueOf(i), fakeClient.events.get(i).properties.get("index"));
+        }
+    }
+
+    @Test
+    public void testFailedEventsAreNotCountedAsSent() {
+        client.set(fakeClient);
+        fakeClient.failing = true;
+        dispatcher.offer(EventType.error, "webapp", null, null);
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        fakeClient.failing = false;
+        dispatcher.offer(EventType.error, "webapp", null, null);
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertEquals(1, dispatcher.getSentEventCount());
+        assertEquals(0, dispatcher.getQueuedEventCount());
+    }
+
+    @Test
+    public void testQueueIsReusedOnceSent() {
+        client.set(fakeClient);
+        for (int i = 0; i < TelemetryDispatcher.LOW_PRIORITY_CAPACITY; i++) {
+            dispatcher.offer(EventType.step, "webapp", null, null);
+        }
+        assertFalse(dispatcher.offer(EventType.step, "webapp", null, null));
+
+        dispatcher.dispatchBatch();
+        assertTrue(dispatcher.offer(EventType.step, "webapp", null, null));
+        assertEquals(TelemetryDispatcher.LOW_PRIORITY_CAPACITY - TelemetryDispatcher.BATCH_SIZE + 1,
+            dispatcher.getQueuedEventCount());
+    }
+
+    private static class TrackedEvent {
+        private final String name;
+        private final Map<String, String> properties;
+        private final Map<String, Double> metrics;
+
+        private TrackedEvent(String name, Map<String, String> properties, Map<String, Double> metrics) {
+            this.name = name;
+            this.properties = properties;
+            this.metrics = metrics;
+        }
+    }
+
+    private static class FakeTelemetryClient extends AzureTelemetryClient {
+        private final List<TrackedEvent> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void trackEvent(String eventName, Map<String, String> properties, Map<String, Double> metrics) {
+            if (failing) {
+                throw new IllegalStateException("failed to track " + eventName);
+            }
+            events.add(new TrackedEvent(eventName, properties, metrics));
+        }
+    }
+}
@@ -130,6 +130,9 @@ public class AuthMethodManager {
     }
 
     public void notifySignInEventListener() {
+        if (identityAzureManager != null) {
+            identityAzureManager.getSubscriptionManager().refreshSnapshot();
+        }
         for (Runnable l : signInEventListeners) {
             l.run();
         }
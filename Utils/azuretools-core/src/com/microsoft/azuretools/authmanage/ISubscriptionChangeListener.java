@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.authmanage;
+
+public interface ISubscriptionChangeListener {
+    /**
+     * called once a new {@link SubscriptionSnapshot} is published, {@code change} is never empty.
+     */
+    void subscriptionsChanged(SubscriptionChange change);
+}
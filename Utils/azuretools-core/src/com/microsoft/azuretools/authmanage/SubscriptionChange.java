@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.authmanage;
+
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Difference between two {@link SubscriptionSnapshot}s.
+ */
+@Getter
+public class SubscriptionChange {
+    private final SubscriptionSnapshot previous;
+    private final SubscriptionSnapshot current;
+    private final List<SubscriptionDetail> added;
+    private final List<SubscriptionDetail> removed;
+    /**
+     * subscriptions of both snapshots that are selected in {@link #current} but not in {@link #previous}
+     */
+    private final List<SubscriptionDetail> selected;
+    /**
+     * subscriptions of both snapshots that are selected in {@link #previous} but not in {@link #current}
+     */
+    private final List<SubscriptionDetail> deselected;
+
+    public SubscriptionChange(@Nonnull SubscriptionSnapshot previous, @Nonnull SubscriptionSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+        final Map<String, SubscriptionDetail> before = previous.getSubscriptionMap();
+        final Map<String, SubscriptionDetail> after = current.getSubscriptionMap();
+        this.added = after.values().stream().filter(s -> !before.containsKey(s.getSubscriptionId())).collect(Collectors.toList());
+        this.removed = before.values().stream().filter(s -> !after.containsKey(s.getSubscriptionId())).collect(Collectors.toList());
+        this.selected = after.values().stream()
+            .filter(s -> s.isSelected() && before.containsKey(s.getSubscriptionId()) && !previous.isSelected(s.getSubscriptionId()))
+            .collect(Collectors.toList());
+        this.deselected = after.values().stream()
+            .filter(s -> !s.isSelected() && previous.isSelected(s.getSubscriptionId()))
+            .collect(Collectors.toList());
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && selected.isEmpty() && deselected.isEmpty();
+    }
+
+    /**
+     * @return true if the selected subscriptions are changed, including added selected ones and removed selected ones.
+     */
+    public boolean isSelectionChanged() {
+        return !selected.isEmpty() || !deselected.isEmpty()
+            || added.stream().anyMatch(SubscriptionDetail::isSelected) || removed.stream().anyMatch(SubscriptionDetail::isSelected);
+    }
+}
@@ -9,8 +9,8 @@ import com.microsoft.azure.toolkit.ide.common.store.AzureStoreManager;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
-import com.microsoft.azure.toolkit.lib.common.utils.Utils;
 import com.microsoft.azuretools.adauth.JsonHelper;
 import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
 import com.microsoft.azuretools.sdkmanage.IdentityAzureManager;
@@ -21,15 +21,18 @@ import lombok.extern.java.Log;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
@@ -37,15 +40,18 @@ import java.util.stream.Collectors;
  */
 @Log
 public class SubscriptionManager {
-    private final Set<ISubscriptionSelectionListener> listeners = new HashSet<>();
+    private final Set<ISubscriptionSelectionListener> listeners = new CopyOnWriteArraySet<>();
+    private final Set<ISubscriptionChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+    private final AtomicReference<SubscriptionSnapshot> snapshot = new AtomicReference<>(SubscriptionSnapshot.EMPTY);
 
     private static final String FILE_NAME_SUBSCRIPTIONS_DETAILS = "subscriptionsDetails.json";
 
     public void setSubscriptionDetails(List<SubscriptionDetail> subscriptionDetails) {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.setSubscriptionDetails()");
+        log.fine("SubscriptionManager.setSubscriptionDetails()");
         synchronized (this) {
             try {
                 saveSubscriptions(subscriptionDetails);
+                refreshSnapshot();
                 notifyAllListeners(CollectionUtils.isEmpty(subscriptionDetails));
             } catch (final IOException e) {
                 final String error = "Failed to update local subscriptions cache while updating";
@@ -56,13 +62,21 @@ public class SubscriptionManager {
     }
 
     public synchronized void cleanSubscriptions() {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.cleanSubscriptions()");
+        log.fine("SubscriptionManager.cleanSubscriptions()");
         AzureStoreManager.getInstance().getIdeStore().setProperty(TelemetryConstants.ACCOUNT, "subscriptions_json", null);
+        final SubscriptionSnapshot previous = snapshot.get();
+        if (previous.getSubscriptions().isEmpty()) {
+            return;
+        }
+        final SubscriptionSnapshot current = SubscriptionSnapshot.of(previous.getVersion() + 1, Collections.emptyList());
+        if (snapshot.compareAndSet(previous, current)) {
+            notifyChangeListeners(new SubscriptionChange(previous, current));
+        }
     }
 
     @AzureOperation(name = "account.load_subscription_cache", type = AzureOperation.Type.TASK)
     public static List<SubscriptionDetail> loadSubscriptions() {
-        System.out.println("SubscriptionManager.loadSubscriptions()");
+        log.fine("SubscriptionManager.loadSubscriptions()");
         try {
             String json = AzureStoreManager.getInstance().getIdeStore().getProperty(TelemetryConstants.ACCOUNT, "subscription_details");
             if (StringUtils.isBlank(json)) {
@@ -73,7 +87,7 @@ public class SubscriptionManager {
                 AzureStoreManager.getInstance().getIdeStore().setProperty(TelemetryConstants.ACCOUNT, "subscriptions_json", json);
             }
             if (json.isEmpty()) {
-                System.out.println("subscription details is empty");
+                log.fine("subscription details is empty");
                 return Collections.emptyList();
             }
             final SubscriptionDetail[] sda = JsonHelper.deserialize(SubscriptionDetail[].class, json);
@@ -88,48 +102,94 @@ public class SubscriptionManager {
     @AzureOperation(name = "account.persist_subscription", type = AzureOperation.Type.TASK)
     private static void saveSubscriptions(List<SubscriptionDetail> sdl)
             throws IOException {
-        System.out.println("SubscriptionManager.saveSubscriptions()");
+        log.fine("SubscriptionManager.saveSubscriptions()");
         AzureStoreManager.getInstance().getIdeStore().setProperty(TelemetryConstants.ACCOUNT, "subscription_details", JsonHelper.serialize(sdl));
     }
 
-    public synchronized Map<String, SubscriptionDetail> getSubscriptionIdToSubscriptionDetailsMap() {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.getSubscriptionIdToSubscriptionDetailsMap()");
-        updateSubscriptionDetailsIfNull();
-        return Utils.groupByIgnoreDuplicate(IdentityAzureManager.getInstance().getSubscriptionDetails(), d -> d.getSubscriptionId());
+    /**
+     * @return the last published snapshot of the subscriptions, which is published on signing in and on changing
+     * the subscription selection, see {@link #publishSnapshot()}.
+     */
+    @Nonnull
+    public SubscriptionSnapshot getSnapshot() {
+        final SubscriptionSnapshot current = snapshot.get();
+        if (current == SubscriptionSnapshot.EMPTY) {
+            // nothing is published yet, e.g. signed in before the listeners are registered
+            refreshSnapshot();
+            return snapshot.get();
+        }
+        return current;
     }
 
-    @AzureOperation(name = "account.get_subscription_details", type = AzureOperation.Type.TASK)
-    public synchronized List<SubscriptionDetail> getSubscriptionDetails() {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.getSubscriptionDetails()");
-        updateSubscriptionDetailsIfNull();
-        return IdentityAzureManager.getInstance().getSubscriptionDetails();
+    /**
+     * queries the subscriptions of the signed-in account and publishes a new snapshot (and notifies the change
+     * listeners) only if the subscriptions or the selection are changed since the last one.
+     */
+    @Nonnull
+    public SubscriptionSnapshot publishSnapshot() {
+        final List<Subscription> subscriptions = IdentityAzureManager.getInstance().getSubscriptions();
+        while (true) {
+            final SubscriptionSnapshot previous = snapshot.get();
+            if (previous.matches(subscriptions) && previous != SubscriptionSnapshot.EMPTY) {
+                return previous;
+            }
+            final SubscriptionSnapshot current = SubscriptionSnapshot.from(previous.getVersion() + 1, subscriptions);
+            if (snapshot.compareAndSet(previous, current)) {
+                final SubscriptionChange change = new SubscriptionChange(previous, current);
+                if (!change.isEmpty()) {
+                    notifyChangeListeners(change);
+                }
+                return current;
+            }
+        }
     }
 
-    @AzureOperation(name = "account.get_subscription_detail", type = AzureOperation.Type.TASK)
-    public synchronized List<SubscriptionDetail> getSelectedSubscriptionDetails() {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.getSelectedSubscriptionDetails()");
-        updateSubscriptionDetailsIfNull();
+    /**
+     * @return unmodifiable map of subscription id to subscription detail, the details must not be modified.
+     */
+    public Map<String, SubscriptionDetail> getSubscriptionIdToSubscriptionDetailsMap() {
+        return getSnapshot().getSubscriptionMap();
+    }
 
-        final List<SubscriptionDetail> selectedSubscriptions =
-                IdentityAzureManager.getInstance().getSubscriptionDetails().stream().filter(SubscriptionDetail::isSelected).collect(Collectors.toList());
+    /**
+     * @return copies of the subscription details which are free to sort or to modify.
+     */
+    @AzureOperation(name = "account.get_subscription_details", type = AzureOperation.Type.TASK)
+    public List<SubscriptionDetail> getSubscriptionDetails() {
+        return getSnapshot().getSubscriptions().stream()
+                .map(d -> new SubscriptionDetail(d.getSubscriptionId(), d.getSubscriptionName(), d.getTenantId(), d.isSelected()))
+                .collect(Collectors.toList());
+    }
 
-        return selectedSubscriptions;
+    /**
+     * @return unmodifiable list of the selected subscription details, the details must not be modified.
+     */
+    @AzureOperation(name = "account.get_subscription_detail", type = AzureOperation.Type.TASK)
+    public List<SubscriptionDetail> getSelectedSubscriptionDetails() {
+        return getSnapshot().getSelectedSubscriptions();
     }
 
     public void updateSubscriptionDetailsIfNull() {
     }
 
-    public synchronized void addListener(ISubscriptionSelectionListener l) {
-        if (!listeners.contains(l)) {
-            listeners.add(l);
-        }
+    public void addListener(ISubscriptionSelectionListener l) {
+        listeners.add(l);
     }
 
-    public synchronized void removeListener(ISubscriptionSelectionListener l) {
+    public void removeListener(ISubscriptionSelectionListener l) {
         listeners.remove(l);
     }
 
+    public void addChangeListener(ISubscriptionChangeListener l) {
+        changeListeners.add(l);
+    }
+
+    public void removeChangeListener(ISubscriptionChangeListener l) {
+        changeListeners.remove(l);
+    }
+
     public void notifySubscriptionListChanged() {
+        refreshSnapshot();
         notifyAllListeners(false);
     }
 
@@ -142,8 +202,30 @@ public class SubscriptionManager {
         }
     }
 
+    protected void notifyChangeListeners(SubscriptionChange change) {
+        for (ISubscriptionChangeListener l : changeListeners) {
+            try {
+                l.subscriptionsChanged(change);
+            } catch (final RuntimeException e) {
+                log.log(Level.WARNING, "failed to notify subscription change listener", e);
+            }
+        }
+    }
+
+    void refreshSnapshot() {
+        try {
+            publishSnapshot();
+        } catch (final RuntimeException e) {
+            // not signed in, the snapshot will be published on signing in
+            log.log(Level.FINE, "failed to refresh subscription snapshot", e);
+        }
+    }
+
     public String getSubscriptionTenant(String sid) {
-        System.out.println(Thread.currentThread().getId() + " SubscriptionManager.getSubscriptionTenant()");
+        final SubscriptionDetail detail = snapshot.get().getSubscriptionMap().get(sid);
+        if (detail != null) {
+            return detail.getTenantId();
+        }
         return Azure.az(AzureAccount.class).account().getSubscription(sid).getTenantId();
     }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.authmanage;
+
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the subscriptions of the signed-in account, with the id to subscription map and the selected
+ * subscriptions precomputed. A new snapshot with a greater {@link #getVersion() version} is published whenever the
+ * subscriptions or their selection change.
+ * The {@link SubscriptionDetail}s are shared by all readers of the snapshot and must not be modified.
+ */
+public class SubscriptionSnapshot {
+    public static final SubscriptionSnapshot EMPTY = new SubscriptionSnapshot(0, Collections.emptyList());
+
+    @Getter
+    private final long version;
+    @Getter
+    private final List<SubscriptionDetail> subscriptions;
+    @Getter
+    private final List<SubscriptionDetail> selectedSubscriptions;
+    /**
+     * subscription id to subscription, the first one wins if ids are duplicated.
+     */
+    @Getter
+    private final Map<String, SubscriptionDetail> subscriptionMap;
+    // state the snapshot is built from, kept apart from the shared (mutable) details
+    private final String[] ids;
+    private final String[] names;
+    private final String[] tenantIds;
+    private final boolean[] selected;
+
+    private SubscriptionSnapshot(long version, @Nonnull List<SubscriptionDetail> subscriptions) {
+        this.version = version;
+        final int size = subscriptions.size();
+        this.ids = new String[size];
+        this.names = new String[size];
+        this.tenantIds = new String[size];
+        this.selected = new boolean[size];
+        final List<SubscriptionDetail> details = new ArrayList<>(size);
+        final Map<String, SubscriptionDetail> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            final SubscriptionDetail s = subscriptions.get(i);
+            ids[i] = s.getSubscriptionId();
+            names[i] = s.getSubscriptionName();
+            tenantIds[i] = s.getTenantId();
+            selected[i] = s.isSelected();
+            final SubscriptionDetail detail = new SubscriptionDetail(ids[i], names[i], tenantIds[i], selected[i]);
+            details.add(detail);
+            map.putIfAbsent(ids[i], detail);
+        }
+        this.subscriptions = Collections.unmodifiableList(details);
+        this.selectedSubscriptions = Collections.unmodifiableList(details.stream().filter(SubscriptionDetail::isSelected).collect(Collectors.toList()));
+        this.subscriptionMap = Collections.unmodifiableMap(map);
+    }
+
+    @Nonnull
+    public static SubscriptionSnapshot of(long version, @Nonnull List<SubscriptionDetail> subscriptions) {
+        return new SubscriptionSnapshot(version, subscriptions);
+    }
+
+    @Nonnull
+    public static SubscriptionSnapshot from(long version, @Nonnull List<Subscription> subscriptions) {
+        return new SubscriptionSnapshot(version, subscriptions.stream()
+            .map(s -> new SubscriptionDetail(s.getId(), s.getName(), s.getTenantId(), s.isSelected()))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * @return true if this snapshot is built from the same {@code subscriptions} with the same selection, checked
+     * without any allocation.
+     */
+    public boolean matches(@Nonnull List<Subscription> subscriptions) {
+        if (subscriptions.size() != ids.length) {
+            return false;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            final Subscription s = subscriptions.get(i);
+            if (s.isSelected() != selected[i] || !StringUtils.equals(s.getId(), ids[i])
+                || !StringUtils.equals(s.getName(), names[i]) || !StringUtils.equals(s.getTenantId(), tenantIds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isSelected(@Nonnull String subscriptionId) {
+        final SubscriptionDetail detail = subscriptionMap.get(subscriptionId);
+        return detail != null && detail.isSelected();
+    }
+}
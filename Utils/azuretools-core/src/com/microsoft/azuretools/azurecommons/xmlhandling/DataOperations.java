@@ -7,15 +7,14 @@ package com.microsoft.azuretools.azurecommons.xmlhandling;
 
 import java.util.HashMap;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
-
 import com.microsoft.azure.toolkit.ide.common.util.ParserXMLUtility;
+import com.microsoft.azure.toolkit.ide.common.util.StreamingXMLUtility;
 import org.w3c.dom.Document;
 
 public class DataOperations {
     public static final String PROPERTY = "/data/property[@name='%s']";
     public static final String PROPERTY_VAL = "/data/property[@name='%s']/@value";
+    private static final String VALUE = "value";
 
     /**
      * Method updates or creates property element.
@@ -44,12 +43,10 @@ public class DataOperations {
     public static String getProperty(String dataFile, String propName) {
         String propVal = null;
         try {
-            Document doc = ParserXMLUtility.parseXMLFile(dataFile);
-            if (doc != null) {
-                String nodeExpr = String.format(PROPERTY_VAL, propName);
-                XPath xPath = XPathFactory.newInstance().newXPath();
-                propVal = xPath.evaluate(nodeExpr, doc);
-            }
+            // read the attribute without loading the whole document
+            String nodeExpr = String.format(PROPERTY, propName);
+            String value = StreamingXMLUtility.readAttribute(dataFile, nodeExpr, VALUE);
+            propVal = value == null ? "" : value;
         } catch (Exception ex) {
             // ignore
         }
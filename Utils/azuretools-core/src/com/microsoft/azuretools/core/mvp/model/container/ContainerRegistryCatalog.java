@@ -0,0 +1,410 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.container;
+
+import com.google.gson.Gson;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.core.mvp.model.container.pojo.Catalog;
+import com.microsoft.azuretools.core.mvp.model.container.pojo.Tag;
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * The repositories and tags of the container registries, shared by the registry explorers:
+ * <ul>
+ *     <li>one http client per registry login server, sending the credential with every request, so the pages are
+ *     not challenged and requested twice</li>
+ *     <li>the pages are cached for a while and revalidated with their ETag, the next page in the Link header is
+ *     prefetched in background once a page is returned</li>
+ *     <li>the full catalog or tag list can be walked in background into an index, to filter by prefix at once</li>
+ * </ul>
+ */
+public class ContainerRegistryCatalog {
+    private static final String URL_SCHEME = "https";
+    private static final String CATALOG_PATH = "v2/_catalog";
+    private static final String TAGS_PATH = "v2/%s/tags/list";
+    private static final String HEADER_AUTH = "Authorization";
+    private static final String HEADER_LINK = "link";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String KEY_PAGE_SIZE = "n";
+    private static final String INDEX_PAGE_SIZE = "100";
+    private static final Duration DEFAULT_PAGE_TTL = Duration.ofMinutes(2);
+    private static final int MAX_CONCURRENT_SUBSCRIPTIONS = 8;
+    private static final String RESPONSE_FAIL_MSG = "Unexpected response %s. please make sure the admin user is " +
+            "enabled and try again";
+
+    private final OkHttpClient sharedClient;
+    private final String scheme;
+    private final long pageTtlMillis;
+    private final Gson gson = new Gson();
+
+    private final Map<String, RegistryClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, CatalogPage> pages = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CatalogPage>> loadings = new ConcurrentHashMap<>();
+    private final Map<String, Index> indexes = new ConcurrentHashMap<>();
+
+    private static final class SingletonHolder {
+        private static final ContainerRegistryCatalog INSTANCE =
+                new ContainerRegistryCatalog(new OkHttpClient(), URL_SCHEME, DEFAULT_PAGE_TTL);
+    }
+
+    public static ContainerRegistryCatalog getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    ContainerRegistryCatalog(@NotNull OkHttpClient sharedClient, @NotNull String scheme, @NotNull Duration pageTtl) {
+        this.sharedClient = sharedClient;
+        this.scheme = scheme;
+        this.pageTtlMillis = pageTtl.toMillis();
+    }
+
+    /**
+     * List the resources of the subscriptions in parallel, at most 8 subscriptions at a time, and concat the results
+     * in the order of the subscriptions.
+     */
+    public <T> List<T> listBySubscriptions(@NotNull List<String> subscriptionIds,
+                                           @NotNull Function<String, ? extends List<T>> lister) {
+        return Observable.from(subscriptionIds)
+                .concatMapEager(sid -> Observable.fromCallable(() -> lister.apply(sid)).subscribeOn(Schedulers.io()),
+                        subscriptionIds.size() + 1, MAX_CONCURRENT_SUBSCRIPTIONS)
+                .<T>flatMapIterable(list -> list)
+                .toList()
+                .toBlocking()
+                .single();
+    }
+
+    /**
+     * Get a page of the repositories under the given private registry.
+     */
+    @NotNull
+    public CatalogPage listRepositories(@NotNull String serverUrl, @NotNull String username, @NotNull String password,
+                                        @Nullable Map<String, String> query) throws Exception {
+        final RegistryClient client = getClient(serverUrl, username, password);
+        return getPageAndPrefetchNext(client, buildUrl(serverUrl, CATALOG_PATH, query));
+    }
+
+    /**
+     * Get a page of the tags under the given repository.
+     */
+    @NotNull
+    public CatalogPage listTags(@NotNull String serverUrl, @NotNull String username, @NotNull String password,
+                                @NotNull String repo, @Nullable Map<String, String> query) throws Exception {
+        final RegistryClient client = getClient(serverUrl, username, password);
+        return getPageAndPrefetchNext(client, buildUrl(serverUrl, String.format(TAGS_PATH, repo), query));
+    }
+
+    /**
+     * Walk all the repositories of the registry into the index in background.
+     */
+    public CompletableFuture<Void> indexRepositories(@NotNull String serverUrl, @NotNull String username,
+                                                     @NotNull String password) {
+        final RegistryClient client = getClient(serverUrl, username, password);
+        return buildIndex(getIndexKey(serverUrl, null), client, CATALOG_PATH,
+            body -> gson.fromJson(body, Catalog.class).getRepositories());
+    }
+
+    /**
+     * Walk all the tags of the repository into the index in background.
+     */
+    public CompletableFuture<Void> indexTags(@NotNull String serverUrl, @NotNull String username,
+                                             @NotNull String password, @NotNull String repo) {
+        final RegistryClient client = getClient(serverUrl, username, password);
+        return buildIndex(getIndexKey(serverUrl, repo), client, String.format(TAGS_PATH, repo),
+            body -> gson.fromJson(body, Tag.class).getTags());
+    }
+
+    /**
+     * Find the indexed repositories starting with the prefix, the result may be partial while the index is building.
+     */
+    @NotNull
+    public List<String> searchRepositories(@NotNull String serverUrl, @NotNull String prefix) {
+        return search(getIndexKey(serverUrl, null), prefix);
+    }
+
+    /**
+     * Find the indexed tags starting with the prefix, the result may be partial while the index is building.
+     */
+    @NotNull
+    public List<String> searchTags(@NotNull String serverUrl, @NotNull String repo, @NotNull String prefix) {
+        return search(getIndexKey(serverUrl, repo), prefix);
+    }
+
+    public boolean isIndexed(@NotNull String serverUrl, @Nullable String repo) {
+        final Index index = indexes.get(getIndexKey(serverUrl, repo));
+        return index != null && index.building.isDone() && !index.building.isCompletedExceptionally();
+    }
+
+    /**
+     * Drop the cached pages and indexes of the registry.
+     */
+    public void invalidate(@NotNull String serverUrl) {
+        final String prefix = serverUrl + "/";
+        pages.keySet().removeIf(key -> key.startsWith(prefix));
+        loadings.keySet().removeIf(key -> key.startsWith(prefix));
+        indexes.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    boolean isPageCached(@NotNull String serverUrl, @NotNull String path, @Nullable Map<String, String> query) {
+        final CatalogPage page = pages.get(getPageKey(serverUrl, buildUrl(serverUrl, path, query)));
+        return page != null && !page.isExpired(pageTtlMillis);
+    }
+
+    @NotNull
+    private RegistryClient getClient(@NotNull String serverUrl, @NotNull String username, @NotNull String password) {
+        final RegistryClient existing = clients.get(serverUrl);
+        if (existing != null && existing.matches(username, password)) {
+            return existing;
+        }
+
+        final RegistryClient client = new RegistryClient(serverUrl, username, password);
+        clients.put(serverUrl, client);
+        // The credential is changed, e.g. the admin user is disabled or the password is regenerated
+        if (existing != null) {
+            invalidate(serverUrl);
+        }
+
+        return client;
+    }
+
+    @NotNull
+    private HttpUrl buildUrl(@NotNull String serverUrl, @NotNull String path, @Nullable Map<String, String> query) {
+        final HttpUrl.Builder urlBuilder = Objects.requireNonNull(HttpUrl.parse(scheme + "://" + serverUrl))
+                .newBuilder()
+                .addPathSegments(path);
+        if (query != null) {
+            query.forEach(urlBuilder::addQueryParameter);
+        }
+
+        return urlBuilder.build();
+    }
+
+    @NotNull
+    private CatalogPage getPageAndPrefetchNext(@NotNull RegistryClient client, @NotNull HttpUrl url) throws Exception {
+        final CatalogPage page = getPage(client, url);
+        final HttpUrl next = getNextUrl(page, url);
+        if (next != null) {
+            final String key = getPageKey(client.serverUrl, next);
+            final CatalogPage cached = pages.get(key);
+            if ((cached == null || cached.isExpired(pageTtlMillis)) && !loadings.containsKey(key)) {
+                Observable.fromCallable(() -> load(client, next, key, cached).get())
+                        .subscribeOn(Schedulers.io())
+                        // The failure is shown when the page is requested
+                        .subscribe(any -> { }, ignore -> { });
+            }
+        }
+
+        return page;
+    }
+
+    @NotNull
+    private CatalogPage getPage(@NotNull RegistryClient client, @NotNull HttpUrl url) throws Exception {
+        final String key = getPageKey(client.serverUrl, url);
+        final CatalogPage cached = pages.get(key);
+        if (cached != null && !cached.isExpired(pageTtlMillis)) {
+            return cached;
+        }
+
+        try {
+            return load(client, url, key, cached).get();
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private CompletableFuture<CatalogPage> load(@NotNull RegistryClient client, @NotNull HttpUrl url,
+                                                @NotNull String key, @Nullable CatalogPage stale) {
+        final CompletableFuture<CatalogPage> loading = new CompletableFuture<>();
+        final CompletableFuture<CatalogPage> existing = loadings.putIfAbsent(key, loading);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            final CatalogPage page = request(client, url, stale);
+            pages.put(key, page);
+            loading.complete(page);
+        } catch (final Throwable e) {
+            loading.completeExceptionally(e);
+        } finally {
+            loadings.remove(key, loading);
+        }
+
+        return loading;
+    }
+
+    @NotNull
+    private CatalogPage request(@NotNull RegistryClient client, @NotNull HttpUrl url, @Nullable CatalogPage stale)
+            throws Exception {
+        final Request.Builder requestBuilder = new Request.Builder().url(url).get();
+        if (stale != null && stale.etag != null) {
+            requestBuilder.header(HEADER_IF_NONE_MATCH, stale.etag);
+        }
+
+        try (Response response = client.http.newCall(requestBuilder.build()).execute()) {
+            if (stale != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return new CatalogPage(stale.body, stale.link, stale.etag, System.currentTimeMillis());
+            }
+
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new Exception(String.format(RESPONSE_FAIL_MSG, response));
+            }
+
+            return new CatalogPage(response.body().string(), response.header(HEADER_LINK),
+                    response.header(HEADER_ETAG), System.currentTimeMillis());
+        }
+    }
+
+    private CompletableFuture<Void> buildIndex(@NotNull String indexKey, @NotNull RegistryClient client,
+                                               @NotNull String path,
+                                               @NotNull Function<String, ? extends List<String>> parser) {
+        final Index index = new Index();
+        final Index existing = indexes.putIfAbsent(indexKey, index);
+        if (existing != null && !existing.building.isCompletedExceptionally()) {
+            return existing.building;
+        }
+        if (existing != null) {
+            indexes.put(indexKey, index);
+        }
+
+        final Map<String, String> query = Collections.singletonMap(KEY_PAGE_SIZE, INDEX_PAGE_SIZE);
+        Observable.fromCallable(() -> {
+            HttpUrl url = buildUrl(client.serverUrl, path, query);
+            while (url != null) {
+                final CatalogPage page = getPage(client, url);
+                final List<String> names = parser.apply(page.body);
+                if (names != null) {
+                    index.names.addAll(names);
+                }
+                url = getNextUrl(page, url);
+            }
+            return index;
+        }).subscribeOn(Schedulers.io()).subscribe(any -> index.building.complete(null), err -> {
+            indexes.remove(indexKey, index);
+            index.building.completeExceptionally(err);
+        });
+
+        return index.building;
+    }
+
+    @NotNull
+    private List<String> search(@NotNull String indexKey, @NotNull String prefix) {
+        final Index index = indexes.get(indexKey);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<>(index.names.subSet(prefix, true, prefix + Character.MAX_VALUE, false));
+    }
+
+    /**
+     * Resolve the next page in the Link header, e.g. {@code </v2/_catalog?last=repo&n=30>; rel="next"}.
+     */
+    @Nullable
+    static HttpUrl getNextUrl(@NotNull CatalogPage page, @NotNull HttpUrl url) {
+        final String header = page.getLink();
+        if (header == null) {
+            return null;
+        }
+
+        final int start = header.indexOf("<") + 1;
+        final int end = header.lastIndexOf(">");
+        if (start <= 0 || end < 0 || start >= end) {
+            return null;
+        }
+
+        return url.resolve(header.substring(start, end));
+    }
+
+    private static String getPageKey(@NotNull String serverUrl, @NotNull HttpUrl url) {
+        // The same page may be linked with the query parameters in another order
+        final Map<String, String> query = new TreeMap<>();
+        url.queryParameterNames().forEach(name -> query.put(name, url.queryParameter(name)));
+        return serverUrl + url.encodedPath() + "?" + query;
+    }
+
+    private static String getIndexKey(@NotNull String serverUrl, @Nullable String repo) {
+        return serverUrl + "/" + (repo == null ? CATALOG_PATH : String.format(TAGS_PATH, repo));
+    }
+
+    /**
+     * A page of the repositories or tags, with the Link header of the next page.
+     */
+    public static class CatalogPage {
+        private final String body;
+        private final String link;
+        private final String etag;
+        private final long fetchedAt;
+
+        CatalogPage(@NotNull String body, @Nullable String link, @Nullable String etag, long fetchedAt) {
+            this.body = body;
+            this.link = link;
+            this.etag = etag;
+            this.fetchedAt = fetchedAt;
+        }
+
+        @NotNull
+        public String getBody() {
+            return body;
+        }
+
+        @Nullable
+        public String getLink() {
+            return link;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - fetchedAt >= ttlMillis;
+        }
+    }
+
+    private final class RegistryClient {
+        private final String serverUrl;
+        private final String credential;
+        private final OkHttpClient http;
+
+        private RegistryClient(@NotNull String serverUrl, @NotNull String username, @NotNull String password) {
+            this.serverUrl = serverUrl;
+            this.credential = Credentials.basic(username, password);
+            // Share the connection pool and the dispatcher with the other registries
+            this.http = sharedClient.newBuilder()
+                    .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                            .header(HEADER_AUTH, credential)
+                            .build()))
+                    .build();
+        }
+
+        private boolean matches(@NotNull String username, @NotNull String password) {
+            return credential.equals(Credentials.basic(username, password));
+        }
+    }
+
+    private static class Index {
+        private final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+        private final CompletableFuture<Void> building = new CompletableFuture<>();
+    }
+}
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.lib.Azure.az;
 
@@ -48,15 +49,14 @@ public class ContainerRegistryMvpModel {
     }
 
     /**
-     * Get Registry instances mapped by Subscription id.
+     * Get Registry instances mapped by Subscription id, the subscriptions are listed in parallel.
      */
     public List<ResourceEx<Registry>> listContainerRegistries(boolean force) {
-        List<ResourceEx<Registry>> registryList = new ArrayList<>();
-        List<Subscription> subscriptions = az(AzureAccount.class).account().getSelectedSubscriptions();
-        for (Subscription sub : subscriptions) {
-            registryList.addAll(listRegistryBySubscriptionId(sub.getId(), force));
-        }
-        return registryList;
+        List<String> subscriptionIds = az(AzureAccount.class).account().getSelectedSubscriptions().stream()
+                .map(Subscription::getId)
+                .collect(Collectors.toList());
+        return ContainerRegistryCatalog.getInstance()
+                .listBySubscriptions(subscriptionIds, sid -> listRegistryBySubscriptionId(sid, force));
     }
 
     /**
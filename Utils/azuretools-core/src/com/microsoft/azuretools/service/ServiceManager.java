@@ -42,4 +42,13 @@ public class ServiceManager {
     public static <T> void setServiceProvider(@NotNull Class<T> clazz, @NotNull T provider) {
         serviceProviders.put(clazz, provider);
     }
+
+    /**
+     * Remove the service provider for the specified abstract class or interface
+     *
+     * @param clazz the specified class or interface
+     */
+    public static void removeServiceProvider(@NotNull Class<?> clazz) {
+        serviceProviders.remove(clazz);
+    }
 }
@@ -138,9 +138,10 @@ public class AppInsightsClient {
             TelemetryClientSingleton.setConfiguration(configuration);
             final AzureTelemetryClient client = TelemetryClientSingleton.getTelemetry();
             final String eventNamePrefix = configuration.eventName();
-            TelemetryManager.getInstance().setTelemetryClient(client);
+            // The queued events are sent as soon as the client is set, so set the common properties first
             TelemetryManager.getInstance().setCommonProperties(properties);
             TelemetryManager.getInstance().setEventNamePrefix(eventNamePrefix);
+            TelemetryManager.getInstance().setTelemetryClient(client);
             TelemetryManager.getInstance().sendCachedTelemetries();
             AzureTelemeter.setClient(client);
             AzureTelemeter.setCommonProperties(properties);
@@ -6,8 +6,17 @@
 package com.microsoft.azuretools.telemetry;
 
 import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetryClient;
+import com.microsoft.azuretools.telemetrywrapper.CommonUtil;
+import com.microsoft.azuretools.telemetrywrapper.EventType;
+import com.microsoft.azuretools.telemetrywrapper.OperationLatencyRegistry;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Map;
+
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.ERROR_CODE;
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.OPERATION_NAME;
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter.SERVICE_NAME;
+
 public final class TelemetryClientSingleton {
     private final AzureTelemetryClient telemetry;
     private AppInsightsConfiguration configuration = null;
@@ -33,6 +42,32 @@ public final class TelemetryClientSingleton {
                 }
                 return (StringUtils.isEmpty(configuration.preferenceVal()) || Boolean.parseBoolean(configuration.preferenceVal())) && super.isEnabled();
             }
+
+            @Override
+            public void trackEvent(final String eventName, final Map<String, String> properties, final Map<String, Double> metrics) {
+                try {
+                    recordOperationLatency(eventName, properties, metrics);
+                } catch (final Exception ignore) {
+                }
+                super.trackEvent(eventName, properties, metrics);
+            }
         };
     }
+
+    /**
+     * Record the latency of the operations ended in azure-toolkit-lib, e.g. the {@code @AzureOperation} methods, the
+     * ones of {@link com.microsoft.azuretools.telemetrywrapper.DefaultOperation} are recorded by themselves
+     */
+    private static void recordOperationLatency(final String eventName, final Map<String, String> properties, final Map<String, Double> metrics) {
+        if (properties == null || metrics == null || properties.containsKey(CommonUtil.OPERATION_ID)) {
+            return;
+        }
+        final String eventType = StringUtils.substringAfterLast(eventName, "/");
+        final Double duration = metrics.get(CommonUtil.DURATION);
+        if (duration == null || !StringUtils.equalsIgnoreCase(StringUtils.remove(eventType, '_'), EventType.opEnd.name())) {
+            return;
+        }
+        OperationLatencyRegistry.getInstance().record(properties.get(SERVICE_NAME), properties.get(OPERATION_NAME),
+            duration.longValue(), "1".equals(properties.get(ERROR_CODE)));
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.authmanage;
+
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SubscriptionSnapshotTest {
+
+    @Test
+    public void testViews() {
+        final SubscriptionSnapshot snapshot = SubscriptionSnapshot.of(1, Arrays.asList(
+            detail("a", true), detail("b", false), detail("c", true), new SubscriptionDetail("a", "duplicated", "t", false)));
+        assertEquals(4, snapshot.getSubscriptions().size());
+        assertEquals(Arrays.asList("a", "c", "a"), Arrays.asList(snapshot.getSelectedSubscriptions().get(0).getSubscriptionId(),
+            snapshot.getSelectedSubscriptions().get(1).getSubscriptionId(), snapshot.getSubscriptions().get(0).getSubscriptionId()));
+        assertEquals(3, snapshot.getSubscriptionMap().size());
+        assertEquals("name-a", snapshot.getSubscriptionMap().get("a").getSubscriptionName());
+        assertTrue(snapshot.isSelected("c"));
+        assertFalse(snapshot.isSelected("b"));
+        assertFalse(snapshot.isSelected("absent"));
+    }
+
+    @Test
+    public void testSnapshotNotAffectedBySource() {
+        final List<SubscriptionDetail> source = Arrays.asList(detail("a", true), detail("b", false));
+        final SubscriptionSnapshot snapshot = SubscriptionSnapshot.of(1, source);
+        source.get(0).setSelected(false);
+        assertTrue(snapshot.isSelected("a"));
+        assertEquals(1, snapshot.getSelectedSubscriptions().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsUnmodifiable() {
+        SubscriptionSnapshot.of(1, Collections.singletonList(detail("a", true))).getSelectedSubscriptions().clear();
+    }
+
+    @Test
+    public void testChange() {
+        final SubscriptionSnapshot previous = SubscriptionSnapshot.of(1, Arrays.asList(
+            detail("kept", false), detail("selected", false), detail("deselected", true), detail("removed", true)));
+        final SubscriptionSnapshot current = SubscriptionSnapshot.of(2, Arrays.asList(
+            detail("kept", false), detail("selected", true), detail("deselected", false), detail("added", false)));
+        final SubscriptionChange change = new SubscriptionChange(previous, current);
+        assertEquals(Collections.singletonList("added"), ids(change.getAdded()));
+        assertEquals(Collections.singletonList("removed"), ids(change.getRemoved()));
+        assertEquals(Collections.singletonList("selected"), ids(change.getSelected()));
+        assertEquals(Collections.singletonList("deselected"), ids(change.getDeselected()));
+        assertTrue(change.isSelectionChanged());
+        assertFalse(change.isEmpty());
+    }
+
+    @Test
+    public void testNoChange() {
+        final List<SubscriptionDetail> subscriptions = Arrays.asList(detail("a", true), detail("b", false));
+        final SubscriptionChange change = new SubscriptionChange(SubscriptionSnapshot.of(1, subscriptions), SubscriptionSnapshot.of(2, subscriptions));
+        assertTrue(change.isEmpty());
+        assertFalse(change.isSelectionChanged());
+        assertTrue(new SubscriptionChange(SubscriptionSnapshot.EMPTY, SubscriptionSnapshot.EMPTY).isEmpty());
+    }
+
+    @Test
+    public void testAddedUnselectedNotSelectionChange() {
+        final SubscriptionChange change = new SubscriptionChange(SubscriptionSnapshot.of(1, Collections.singletonList(detail("a", true))),
+            SubscriptionSnapshot.of(2, Arrays.asList(detail("a", true), detail("b", false))));
+        assertFalse(change.isEmpty());
+        assertFalse(change.isSelectionChanged());
+    }
+
+    private static SubscriptionDetail detail(String id, boolean selected) {
+        return new SubscriptionDetail(id, "name-" + id, "tenant", selected);
+    }
+
+    private static List<String> ids(List<SubscriptionDetail> details) {
+        return Arrays.asList(details.stream().map(SubscriptionDetail::getSubscriptionId).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.container;
+
+import com.google.gson.Gson;
+import com.microsoft.azuretools.core.mvp.model.container.ContainerRegistryCatalog.CatalogPage;
+import com.microsoft.azuretools.core.mvp.model.container.pojo.Catalog;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ContainerRegistryCatalogTest {
+    private static final String USERNAME = "registry";
+    private static final String PASSWORD = "password";
+    private static final String CATALOG_PATH = "v2/_catalog";
+    private static final String PAGE_SIZE = "30";
+
+    private FakeRegistryServer registry;
+    private ContainerRegistryCatalog catalog;
+
+    @Before
+    public void setUp() throws Exception {
+        final Map<String, List<String>> tags = new HashMap<>();
+        for (int i = 0; i < 250; i++) {
+            tags.put(String.format("repo-%03d", i), Collections.singletonList("latest"));
+        }
+        tags.put("library/app", IntStream.range(0, 75).mapToObj(i -> "v" + i).collect(Collectors.toList()));
+
+        registry = new FakeRegistryServer(USERNAME, PASSWORD, tags);
+        catalog = new ContainerRegistryCatalog(new OkHttpClient(), "http", Duration.ofMinutes(2));
+    }
+
+    @After
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    public void testNoChallengeForPages() throws Exception {
+        final List<String> repos = new ArrayList<>();
+        String last = null;
+        do {
+            final CatalogPage page = catalog.listRepositories(registry.getServerUrl(), USERNAME, PASSWORD, query(last));
+            final List<String> names = new Gson().fromJson(page.getBody(), Catalog.class).getRepositories();
+            repos.addAll(names);
+            last = page.getLink() == null ? null : names.get(names.size() - 1);
+        } while (last != null);
+
+        final List<String> tags = new ArrayList<>();
+        String lastTag = null;
+        do {
+            final CatalogPage page = catalog.listTags(registry.getServerUrl(), USERNAME, PASSWORD, "library/app",
+                    query(lastTag));
+            final HttpUrl next = ContainerRegistryCatalog.getNextUrl(page, HttpUrl.get("http://" + registry.getServerUrl()));
+            tags.add(page.getBody());
+            lastTag = next == null ? null : next.queryParameter("last");
+        } while (lastTag != null);
+
+        assertEquals(251, repos.size());
+        assertEquals(3, tags.size());
+        assertEquals(0, registry.getUnauthorizedCount());
+    }
+
+    @Test
+    public void testNextPageIsPrefetched() throws Exception {
+        final CatalogPage first = catalog.listRepositories(registry.getServerUrl(), USERNAME, PASSWORD, query(null));
+        assertNotNull(first.getLink());
+
+        // "library/app" comes first, the first page ends with "repo-028"
+        final Map<String, String> nextQuery = query("repo-028");
+        waitUntil(() -> catalog.isPageCached(registry.getServerUrl(), CATALOG_PATH, nextQuery));
+
+        final CatalogPage second = catalog.listRepositories(registry.getServerUrl(), USERNAME, PASSWORD, nextQuery);
+        final List<String> names = new Gson().fromJson(second.getBody(), Catalog.class).getRepositories();
+
+        assertEquals("repo-029", names.get(0));
+        // Requested once by the prefetching, not by the listing
+        assertEquals(1, registry.getRequestCount("/" + CATALOG_PATH, "repo-028"));
+        // And the page after it is prefetched in turn
+        waitUntil(() -> catalog.isPageCached(registry.getServerUrl(), CATALOG_PATH, query("repo-058")));
+    }
+
+    @Test
+    public void testExpiredPageIsRevalidated() throws Exception {
+        final ContainerRegistryCatalog expiring = new ContainerRegistryCatalog(new OkHttpClient(), "http", Duration.ZERO);
+        final CatalogPage first = expiring.listRepositories(registry.getServerUrl(), USERNAME, PASSWORD, query(null));
+        final CatalogPage second = expiring.listRepositories(registry.getServerUrl(), USERNAME, PASSWORD, query(null));
+
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals(first.getLink(), second.getLink());
+        assertTrue(registry.getNotModifiedCount() >= 1);
+    }
+
+    @Test
+    public void testListBySubscriptionsInParallel() {
+        final List<String> subscriptionIds = IntStream.range(0, 10).mapToObj(i -> "subscription-" + i)
+                .collect(Collectors.toList());
+
+        final long start = System.nanoTime();
+        final List<String> registries = catalog.listBySubscriptions(subscriptionIds, sid -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Arrays.asList(sid + "/registry-0", sid + "/registry-1");
+        });
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(20, registries.size());
+        assertEquals("subscription-0/registry-0", registries.get(0));
+        assertEquals("subscription-9/registry-1", registries.get(19));
+        // At most 8 subscriptions at a time, two rounds rather than ten
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 1000);
+    }
+
+    @Test
+    public void testSearchFullIndex() throws Exception {
+        assertTrue(catalog.searchRepositories(registry.getServerUrl(), "repo-1").isEmpty());
+
+        catalog.indexRepositories(registry.getServerUrl(), USERNAME, PASSWORD).get(10, TimeUnit.SECONDS);
+        catalog.indexTags(registry.getServerUrl(), USERNAME, PASSWORD, "library/app").get(10, TimeUnit.SECONDS);
+
+        assertTrue(catalog.isIndexed(registry.getServerUrl(), null));
+        assertEquals(100, catalog.searchRepositories(registry.getServerUrl(), "repo-1").size());
+        assertEquals(Collections.singletonList("library/app"),
+                catalog.searchRepositories(registry.getServerUrl(), "lib"));
+        assertEquals(Arrays.asList("v7", "v70", "v71", "v72", "v73", "v74"),
+                catalog.searchTags(registry.getServerUrl(), "library/app", "v7"));
+        assertEquals(0, registry.getUnauthorizedCount());
+
+        catalog.invalidate(registry.getServerUrl());
+        assertTrue(catalog.searchRepositories(registry.getServerUrl(), "repo-1").isEmpty());
+        assertFalse(catalog.isIndexed(registry.getServerUrl(), null));
+    }
+
+    private static Map<String, String> query(String last) {
+        final Map<String, String> query = new HashMap<>();
+        query.put("n", PAGE_SIZE);
+        if (last != null) {
+            query.put("last", last);
+        }
+        return query;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.container;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A local registry serving {@code /v2/_catalog} and {@code /v2/<repo>/tags/list} pages with the Link header,
+ * challenging the requests without the basic credential, and answering 304 to the matched ETag.
+ */
+class FakeRegistryServer implements AutoCloseable {
+    private static final String CATALOG_PATH = "/v2/_catalog";
+    private static final String TAGS_SUFFIX = "/tags/list";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final String credential;
+    private final Map<String, List<String>> tags = new TreeMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger unauthorizedCount = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+    private volatile long latencyMillis = 0;
+
+    FakeRegistryServer(String username, String password, Map<String, List<String>> tags) throws IOException {
+        this.credential = Credentials.basic(username, password);
+        this.tags.putAll(tags);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/v2/", this::handle);
+        this.server.start();
+    }
+
+    String getServerUrl() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    int getUnauthorizedCount() {
+        return unauthorizedCount.get();
+    }
+
+    int getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    int getRequestCount(String path, String last) {
+        return requestCounts.getOrDefault(path + "?last=" + last, new AtomicInteger()).get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            if (!credential.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                unauthorizedCount.incrementAndGet();
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"fake-registry\"");
+                respond(exchange, 401, "{\"errors\":[{\"code\":\"UNAUTHORIZED\"}]}");
+                return;
+            }
+
+            final HttpUrl url = Objects.requireNonNull(HttpUrl.parse("http://localhost" + exchange.getRequestURI()));
+            final String path = url.encodedPath();
+            final String last = url.queryParameter("last");
+            requestCounts.computeIfAbsent(path + "?last=" + last, any -> new AtomicInteger()).incrementAndGet();
+
+            final List<String> names;
+            final String field;
+            if (path.equals(CATALOG_PATH)) {
+                names = tags.keySet().stream().collect(Collectors.toList());
+                field = "repositories";
+            } else if (path.endsWith(TAGS_SUFFIX)) {
+                final String repo = path.substring("/v2/".length(), path.length() - TAGS_SUFFIX.length());
+                names = tags.getOrDefault(repo, Collections.emptyList()).stream().sorted().collect(Collectors.toList());
+                field = "tags";
+            } else {
+                respond(exchange, 404, "{}");
+                return;
+            }
+
+            final int pageSize = url.queryParameter("n") == null ? 100 : Integer.parseInt(url.queryParameter("n"));
+            final List<String> page = names.stream()
+                    .filter(name -> last == null || name.compareTo(last) > 0)
+                    .limit(pageSize)
+                    .collect(Collectors.toList());
+            final String body = new Gson().toJson(Collections.singletonMap(field, page));
+            final String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+            if (!page.isEmpty() && names.indexOf(page.get(page.size() - 1)) < names.size() - 1) {
+                exchange.getResponseHeaders().add("Link", String.format("<%s?last=%s&n=%d>; rel=\"next\"",
+                        path, page.get(page.size() - 1), pageSize));
+            }
+            exchange.getResponseHeaders().add("ETag", etag);
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            respond(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, "{}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Compare the JMH JSON results with a stored baseline, and fail when the score or the allocation per operation of a
+ * benchmark regresses more than the threshold. The benchmarks are matched by the name and the parameters, those not
+ * in both files are skipped.
+ *
+ * Usage: BenchmarkRegressionChecker results.json baseline.json [threshold percent]
+ */
+public final class BenchmarkRegressionChecker {
+    static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double DEFAULT_THRESHOLD_PERCENT = 15;
+
+    private final double thresholdPercent;
+
+    public BenchmarkRegressionChecker(double thresholdPercent) {
+        this.thresholdPercent = thresholdPercent;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkRegressionChecker <results.json> <baseline.json> [threshold percent]");
+            System.exit(2);
+        }
+
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        final File baselineFile = new File(args[1]);
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonNode results = mapper.readTree(new File(args[0]));
+        final JsonNode baseline = baselineFile.exists() ? mapper.readTree(baselineFile) : mapper.createArrayNode();
+        if (baseline.size() == 0) {
+            System.out.printf("No baseline in %s, copy %s to it to start checking regressions.%n", args[1], args[0]);
+            return;
+        }
+
+        final List<Regression> regressions = new BenchmarkRegressionChecker(threshold).check(results, baseline);
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark metric(s) regressed more than %.1f%%:%n", regressions.size(), threshold);
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.printf("No benchmark regressed more than %.1f%% against %s.%n", threshold, args[1]);
+    }
+
+    /**
+     * @param results  the JMH results, in the format of "-rf json"
+     * @param baseline the stored results of the same format
+     */
+    public List<Regression> check(JsonNode results, JsonNode baseline) {
+        final Map<String, JsonNode> baselineByKey = indexByKey(baseline);
+        final List<Regression> regressions = new ArrayList<>();
+        for (final JsonNode result : results) {
+            final JsonNode expected = baselineByKey.get(getKey(result));
+            if (expected == null) {
+                continue;
+            }
+
+            final boolean higherIsBetter = "thrpt".equals(result.path("mode").asText());
+            final JsonNode score = result.path("primaryMetric");
+            final JsonNode expectedScore = expected.path("primaryMetric");
+            checkMetric(getKey(result), score.path("scoreUnit").asText(), expectedScore.path("score").asDouble(),
+                        score.path("score").asDouble(), higherIsBetter).ifPresent(regressions::add);
+
+            final JsonNode allocation = getSecondaryMetric(result, ALLOCATION_METRIC);
+            final JsonNode expectedAllocation = getSecondaryMetric(expected, ALLOCATION_METRIC);
+            if (allocation != null && expectedAllocation != null) {
+                checkMetric(getKey(result), allocation.path("scoreUnit").asText(),
+                            expectedAllocation.path("score").asDouble(), allocation.path("score").asDouble(), false)
+                        .ifPresent(regressions::add);
+            }
+        }
+        return regressions;
+    }
+
+    private Optional<Regression> checkMetric(String key, String unit, double expected, double actual,
+                                             boolean higherIsBetter) {
+        if (expected <= 0) {
+            return Optional.empty();
+        }
+
+        final double changePercent = (actual - expected) / expected * 100;
+        final double regressionPercent = higherIsBetter ? -changePercent : changePercent;
+        return regressionPercent > thresholdPercent ?
+               Optional.of(new Regression(key, unit, expected, actual, changePercent)) :
+               Optional.empty();
+    }
+
+    static String getKey(JsonNode result) {
+        final Map<String, String> params = new TreeMap<>();
+        final Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        return params.isEmpty() ? result.path("benchmark").asText() : result.path("benchmark").asText() + params;
+    }
+
+    private static Map<String, JsonNode> indexByKey(JsonNode results) {
+        final Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        results.forEach(result -> byKey.put(getKey(result), result));
+        return byKey;
+    }
+
+    /**
+     * The names of the GC profiler metrics start with a middle dot before JMH 1.35, e.g. "&middot;gc.alloc.rate.norm"
+     */
+    private static JsonNode getSecondaryMetric(JsonNode result, String name) {
+        final Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            final Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().equals(name) || metric.getKey().equals("\u00b7" + name)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+
+    public static final class Regression {
+        private final String benchmark;
+        private final String unit;
+        private final double expected;
+        private final double actual;
+        private final double changePercent;
+
+        Regression(String benchmark, String unit, double expected, double actual, double changePercent) {
+            this.benchmark = benchmark;
+            this.unit = unit;
+            this.expected = expected;
+            this.actual = actual;
+            this.changePercent = changePercent;
+        }
+
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public double getChangePercent() {
+            return changePercent;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.3f -> %.3f %s (%+.1f%%)", benchmark, expected, actual, unit, changePercent);
+        }
+    }
+}
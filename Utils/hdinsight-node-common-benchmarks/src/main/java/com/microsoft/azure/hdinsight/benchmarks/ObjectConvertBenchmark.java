@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Convert a single object, as the job view does for each REST response and each line of the Spark event log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectConvertBenchmark {
+    private static final String JOB_START_EVENT = "{\"Event\":\"SparkListenerJobStart\",\"Job ID\":0," +
+            "\"Submission Time\":1622535132170,\"Stage IDs\":[0,1],\"Properties\":{\"spark.rdd.scope\":" +
+            "\"{\\\"id\\\":\\\"6\\\",\\\"name\\\":\\\"collect\\\"}\",\"spark.job.description\":\"collect at <console>:26\"}}";
+
+    private String task;
+    private String malformed;
+
+    @Setup
+    public void setUp() {
+        task = Payloads.sparkTask();
+        malformed = task.substring(0, task.length() / 2);
+    }
+
+    @Benchmark
+    public Task convertJsonToObject() throws IOException {
+        return ObjectConvertUtils.convertJsonToObject(task, Task.class).orElse(null);
+    }
+
+    @Benchmark
+    public JobStartEventLog convertToObjectQuietly() {
+        return ObjectConvertUtils.convertToObjectQuietly(JOB_START_EVENT, JobStartEventLog.class);
+    }
+
+    /**
+     * The event log lines of the other events are failed to convert, and ignored
+     */
+    @Benchmark
+    public Task convertToObjectQuietlyMalformed() {
+        return ObjectConvertUtils.convertToObjectQuietly(malformed, Task.class);
+    }
+}
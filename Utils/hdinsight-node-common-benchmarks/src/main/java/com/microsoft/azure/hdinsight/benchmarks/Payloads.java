@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The recorded and anonymised REST payloads under resources/payloads, scaled to the size of small, medium and huge
+ * applications by repeating the recorded item with the {{n}} placeholders replaced by the item index.
+ */
+final class Payloads {
+    private static final int EXECUTORS = 16;
+
+    private Payloads() {
+    }
+
+    /**
+     * The Spark REST API response of the task list of a stage, e.g. /applications/[app-id]/stages/0/0/taskList
+     */
+    static String sparkTaskList(int count) {
+        final String task = compact(read("spark-task.json"));
+        final StringBuilder json = new StringBuilder(count * (task.length() + 8)).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(task.replace("{{n}}", String.valueOf(i))
+                            .replace("{{executor}}", String.valueOf(i % EXECUTORS + 1)));
+        }
+        return json.append(']').toString();
+    }
+
+    static String sparkTask() {
+        return sparkTaskList(1).substring(1).replaceFirst("]$", "");
+    }
+
+    /**
+     * The YARN ResourceManager REST API response of /ws/v1/cluster/apps
+     */
+    static String yarnApplications(int count) {
+        final String app = compact(read("yarn-app.json"));
+        final StringBuilder json = new StringBuilder(count * (app.length() + 8)).append("{\"apps\":{\"app\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(app.replace("{{n}}", String.format("%04d", i)));
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * The Livy REST API response of /sessions/[id]/statements/[id] which shows a data frame of the rows
+     */
+    static String livyStatement(int rows) {
+        final StringBuilder table = new StringBuilder("+--------------+--------+\\n|          type|   count|\\n");
+        for (int i = 0; i < rows; i++) {
+            table.append(String.format("|%14s|%8d|\\n", "event-type-" + i, i * 37L % 100000));
+        }
+        table.append("+--------------+--------+\\n");
+        return compact(read("livy-statement.json"))
+                .replace("{{n}}", String.valueOf(rows))
+                .replace("{{rows}}", table.toString());
+    }
+
+    /**
+     * The lines of a Spark driver log, by repeating the recorded log
+     */
+    static List<String> sparkDriverLog(int count) {
+        final List<String> recorded = Arrays.asList(read("spark-driver.log").split("\n"));
+        final List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(recorded.get(i % recorded.size()));
+        }
+        return lines;
+    }
+
+    static StringEntity jsonEntity(String json) {
+        return new StringEntity(json, ContentType.APPLICATION_JSON);
+    }
+
+    static String read(String name) {
+        try (InputStream input = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            if (input == null) {
+                throw new IllegalArgumentException("No payload " + name);
+            }
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remove the line breaks and indents of the recorded JSON, the REST APIs return compact JSON
+     */
+    private static String compact(String json) {
+        return json.replaceAll("\\s*\\n\\s*", "").replace("\" : ", "\":");
+    }
+}
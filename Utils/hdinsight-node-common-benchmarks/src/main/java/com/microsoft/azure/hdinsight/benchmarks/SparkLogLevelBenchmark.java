@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
+import com.microsoft.azure.hdinsight.spark.common.log.SparkLogUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.microsoft.azure.hdinsight.common.MessageInfoType.Log;
+
+/**
+ * Classify the driver log lines by the log4j levels, as the Spark batch job console does for each line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparkLogLevelBenchmark {
+    @Param({"1000", "100000"})
+    private int lines;
+
+    private List<SparkLogLine> log;
+
+    @Setup
+    public void setUp() {
+        log = Payloads.sparkDriverLog(lines).stream()
+                      .map(line -> new SparkLogLine(SparkLogLine.SPARK_DRIVER_STDERR, Log, line))
+                      .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void mapTypedMessageByLog4jLevels(Blackhole blackhole) {
+        SparkLogLine previous = new SparkLogLine(SparkLogLine.TOOL, Log, "");
+        for (final SparkLogLine line : log) {
+            previous = SparkLogUtils.mapTypedMessageByLog4jLevels(previous, line);
+            blackhole.consume(previous);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import org.apache.http.entity.StringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialize the task list of a stage, as SparkRestUtil.getSparkTasks does for the job view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SparkTaskListBenchmark {
+    @Param({"100", "10000", "100000"})
+    private int tasks;
+
+    private String json;
+    private StringEntity entity;
+
+    @Setup
+    public void setUp() {
+        json = Payloads.sparkTaskList(tasks);
+        entity = Payloads.jsonEntity(json);
+    }
+
+    @Benchmark
+    public List<Task> convertJsonToList() throws IOException {
+        return ObjectConvertUtils.convertJsonToList(json, Task.class).orElse(null);
+    }
+
+    /**
+     * Including reading the response entity as a string first
+     */
+    @Benchmark
+    public List<Task> convertEntityToList() throws IOException {
+        return ObjectConvertUtils.convertEntityToList(entity, Task.class).orElse(null);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.hdinsight.benchmarks.BenchmarkRegressionChecker.Regression;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BenchmarkRegressionCheckerTest {
+    private static final String TASK_LIST = "com.microsoft.azure.hdinsight.benchmarks.SparkTaskListBenchmark.convertJsonToList";
+    private static final String OBJECT = "com.microsoft.azure.hdinsight.benchmarks.ObjectConvertBenchmark.convertJsonToTask";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BenchmarkRegressionChecker checker = new BenchmarkRegressionChecker(15);
+
+    @Test
+    public void testWithinThreshold() {
+        final ArrayNode baseline = results(result(TASK_LIST, "avgt", "100", 100, "\u00b7gc.alloc.rate.norm", 2000));
+        final ArrayNode current = results(result(TASK_LIST, "avgt", "100", 110, "\u00b7gc.alloc.rate.norm", 2200));
+
+        assertTrue(checker.check(current, baseline).isEmpty());
+    }
+
+    @Test
+    public void testAverageTimeRegression() {
+        final ArrayNode baseline = results(result(TASK_LIST, "avgt", "100", 100, null, 0));
+        final ArrayNode current = results(result(TASK_LIST, "avgt", "100", 130, null, 0));
+
+        final List<Regression> regressions = checker.check(current, baseline);
+
+        assertEquals(1, regressions.size());
+        assertEquals(TASK_LIST + "{tasks=100}", regressions.get(0).getBenchmark());
+        assertEquals(30, regressions.get(0).getChangePercent(), 0.001);
+    }
+
+    @Test
+    public void testThroughputIsHigherBetter() {
+        final ArrayNode baseline = results(result(OBJECT, "thrpt", null, 1000, null, 0));
+
+        assertTrue(checker.check(results(result(OBJECT, "thrpt", null, 1500, null, 0)), baseline).isEmpty());
+        assertEquals(1, checker.check(results(result(OBJECT, "thrpt", null, 800, null, 0)), baseline).size());
+    }
+
+    @Test
+    public void testAllocationRegression() {
+        final ArrayNode baseline = results(result(OBJECT, "avgt", null, 10, "\u00b7gc.alloc.rate.norm", 1000));
+        final ArrayNode current = results(result(OBJECT, "avgt", null, 10, "gc.alloc.rate.norm", 1500));
+
+        final List<Regression> regressions = checker.check(current, baseline);
+
+        assertEquals(1, regressions.size());
+        assertEquals("B/op", regressions.get(0).getUnit());
+    }
+
+    @Test
+    public void testMatchByParams() {
+        final ArrayNode baseline = results(result(TASK_LIST, "avgt", "100", 100, null, 0),
+                                           result(TASK_LIST, "avgt", "10000", 10000, null, 0));
+        final ArrayNode current = results(result(TASK_LIST, "avgt", "10000", 10500, null, 0),
+                                          result(TASK_LIST, "avgt", "100000", 500000, null, 0),
+                                          result(OBJECT, "avgt", null, 50, null, 0));
+
+        // Only the "tasks=10000" one is in both, and it's within the threshold
+        assertTrue(checker.check(current, baseline).isEmpty());
+    }
+
+    private ArrayNode results(ObjectNode... results) {
+        final ArrayNode array = mapper.createArrayNode();
+        for (final ObjectNode result : results) {
+            array.add(result);
+        }
+        return array;
+    }
+
+    private ObjectNode result(String benchmark, String mode, String tasks, double score,
+                              String allocationMetric, double allocation) {
+        final ObjectNode result = mapper.createObjectNode();
+        result.put("benchmark", benchmark);
+        result.put("mode", mode);
+        if (tasks != null) {
+            result.putObject("params").put("tasks", tasks);
+        }
+        result.putObject("primaryMetric")
+              .put("score", score)
+              .put("scoreUnit", "thrpt".equals(mode) ? "ops/ms" : "us/op");
+        final ObjectNode secondaryMetrics = result.putObject("secondaryMetrics");
+        if (allocationMetric != null) {
+            secondaryMetrics.putObject(allocationMetric).put("score", allocation).put("scoreUnit", "B/op");
+        }
+        return result;
+    }
+}
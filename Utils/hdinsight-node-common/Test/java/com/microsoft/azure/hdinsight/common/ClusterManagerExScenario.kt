@@ -147,7 +147,7 @@ class ClusterManagerExScenario {
                 }
 
         doReturn(subscriptionClusters).`when`(clusterMagr!!)
-                .getSubscriptionHDInsightClusters(ArgumentMatchers.any())
+                .getSubscriptionHDInsightClusters(ArgumentMatchers.any(), ArgumentMatchers.any())
     }
 
     @Given("^subscriptions mocked are:$")
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster;
+
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusterDetailScenario {
+    private final MutableClock clock = new MutableClock();
+    private final FakeClusterOperation clusterOperation = new FakeClusterOperation();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final List<Future<?>> calls = new ArrayList<>();
+    private ClusterDetail cluster;
+
+    @After
+    public void cleanUp() {
+        clusterOperation.release();
+        callers.shutdownNow();
+    }
+
+    @Given("^a cluster whose configuration requests (are blocked|succeed|fail)$")
+    public void createCluster(String behavior) {
+        final ClusterRawInfo rawInfo = mock(ClusterRawInfo.class, Mockito.RETURNS_DEEP_STUBS);
+        when(rawInfo.getName()).thenReturn("cluster");
+        when(rawInfo.getProperties().getComputeProfile().getRoles()).thenReturn(Collections.emptyList());
+
+        if (behavior.equals("are blocked")) {
+            clusterOperation.block();
+        } else {
+            setRequestsBehavior(behavior);
+        }
+
+        cluster = new ClusterDetail(null, rawInfo, clusterOperation, clock);
+    }
+
+    @When("^the configuration requests (succeed|fail)$")
+    public void setRequestsBehavior(String behavior) {
+        clusterOperation.failing = behavior.equals("fail");
+    }
+
+    @When("^the configuration requests are released$")
+    public void releaseRequests() {
+        clusterOperation.release();
+    }
+
+    @When("^(\\d+) callers get the cluster configuration concurrently$")
+    public void getConfigurationConcurrently(int callerCount) throws Throwable {
+        for (int i = 0; i < callerCount; i++) {
+            calls.add(callers.submit(() -> {
+                cluster.getConfigurationInfo();
+                return null;
+            }));
+        }
+
+        // All the callers are waiting for the blocked request
+        assertTrue(clusterOperation.requested.await(10, TimeUnit.SECONDS));
+    }
+
+    @When("^get the cluster configuration$")
+    public void getConfiguration() throws Throwable {
+        cluster.getConfigurationInfo();
+    }
+
+    @When("^(\\d+) (minutes|seconds) pass$")
+    public void passTime(long amount, String unit) {
+        clock.advance(unit.equals("minutes") ? Duration.ofMinutes(amount) : Duration.ofSeconds(amount));
+    }
+
+    @When("^wait for the configuration load done$")
+    public void waitConfigurationLoad() throws Throwable {
+        cluster.loadConfigurationInfoAsync().exceptionally(ignored -> null).get(10, TimeUnit.SECONDS);
+    }
+
+    @When("^prefetch the configuration of (\\d+) clusters wrapping the cluster$")
+    public void prefetchWrappingClusters(int clusterCount) throws Throwable {
+        final List<IClusterDetail> wrappers = new ArrayList<>();
+        for (int i = 0; i < clusterCount; i++) {
+            // Such as the linked clusters, whose blocking loads wait for the load of the cluster
+            final IClusterDetail wrapper = mock(IClusterDetail.class);
+            doAnswer(invocation -> {
+                cluster.getConfigurationInfo();
+                return null;
+            }).when(wrapper).getConfigurationInfo();
+            wrappers.add(wrapper);
+        }
+
+        ClusterDetail.prefetchConfigurationInfo(wrappers).get(10, TimeUnit.SECONDS);
+    }
+
+    @Then("^all the callers should get the cluster configuration$")
+    public void checkCalls() throws Throwable {
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        assertTrue(cluster.isConfigInfoAvailable());
+    }
+
+    @Then("^the cluster configuration should be available$")
+    public void checkConfigurationAvailable() {
+        assertTrue(cluster.isConfigInfoAvailable());
+    }
+
+    @Then("^getting the cluster configuration should fail$")
+    public void checkConfigurationFailure() throws Throwable {
+        try {
+            cluster.getConfigurationInfo();
+            fail("The configuration shouldn't be loaded");
+        } catch (IOException ex) {
+            assertEquals(FakeClusterOperation.FAILURE_MESSAGE, ex.getMessage());
+        }
+    }
+
+    @Then("^the cluster should get (\\d+) configuration requests?$")
+    public void checkRequestCount(int expect) {
+        assertEquals(expect, clusterOperation.requests.get());
+    }
+
+    private static class FakeClusterOperation implements IClusterOperation {
+        private static final String FAILURE_MESSAGE = "Failed to get the cluster configuration";
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final CountDownLatch requested = new CountDownLatch(1);
+        private volatile CountDownLatch blocking = new CountDownLatch(0);
+        private volatile boolean failing;
+
+        void block() {
+            blocking = new CountDownLatch(1);
+        }
+
+        void release() {
+            blocking.countDown();
+        }
+
+        @Override
+        public List<ClusterRawInfo> listCluster(SubscriptionDetail subscription) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public ClusterConfiguration getClusterConfiguration(SubscriptionDetail subscription, String clusterId)
+                throws IOException {
+            requests.incrementAndGet();
+            requested.countDown();
+
+            try {
+                blocking.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+
+            if (failing) {
+                throw new IOException(FAILURE_MESSAGE);
+            }
+
+            // No configuration is loaded as well
+            return null;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2021-06-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
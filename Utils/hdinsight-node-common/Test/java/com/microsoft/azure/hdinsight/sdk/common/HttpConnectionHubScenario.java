@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azuretools.service.ServiceManager;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import com.microsoft.tooling.msservices.helpers.IDEHelper;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.ssl.TrustStrategy;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.CompositeSubscription;
+
+import javax.net.ssl.SSLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HttpConnectionHubScenario {
+    private WireMockServer httpsServerMock;
+    private IDEHelper originalIdeHelper;
+    private TrustStrategy originalTrustStrategy;
+    private int originalMaxPerRoute;
+    private long originalHandshakeCount;
+    private final List<String> responses = new ArrayList<>();
+    private final CompositeSubscription slowRequests = new CompositeSubscription();
+
+    @Before
+    public void setUp() {
+        httpsServerMock = new WireMockServer(wireMockConfig().dynamicPort().dynamicHttpsPort());
+        httpsServerMock.start();
+
+        // Trust the self-signed certificate of the mocked server
+        originalTrustStrategy = ServiceManager.getServiceProvider(TrustStrategy.class);
+        ServiceManager.setServiceProvider(TrustStrategy.class, TrustAllStrategy.INSTANCE);
+        final IDEHelper ideHelper = mock(IDEHelper.class);
+        when(ideHelper.isApplicationPropertySet(CommonConst.DISABLE_SSL_CERTIFICATE_VALIDATION)).thenReturn(true);
+        when(ideHelper.getApplicationProperty(CommonConst.DISABLE_SSL_CERTIFICATE_VALIDATION)).thenReturn("true");
+        originalIdeHelper = DefaultLoader.getIdeHelper();
+        DefaultLoader.setIdeHelper(ideHelper);
+
+        originalMaxPerRoute = HttpConnectionHub.getInstance().getMaxPerRoute();
+        HttpConnectionHub.getInstance().closeIdleConnections();
+        originalHandshakeCount = HttpConnectionHub.getInstance().getHandshakeCount();
+    }
+
+    @After
+    public void cleanUp() {
+        slowRequests.unsubscribe();
+        httpsServerMock.stop();
+        HttpConnectionHub.getInstance().setMaxPerRoute(originalMaxPerRoute);
+        HttpConnectionHub.getInstance().closeIdleConnections();
+        DefaultLoader.setIdeHelper(originalIdeHelper);
+
+        if (originalTrustStrategy != null) {
+            ServiceManager.setServiceProvider(TrustStrategy.class, originalTrustStrategy);
+        } else {
+            ServiceManager.removeServiceProvider(TrustStrategy.class);
+        }
+    }
+
+    @Given("^a mocked HTTPS server for GET request '(.+)' to return '(.+)' after (\\d+) ms$")
+    public void mockHttpsServer(String path, String response, int delayMillis) {
+        WireMock.configureFor(httpsServerMock.port());
+        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo(path))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(delayMillis)
+                        .withBody(response)));
+    }
+
+    @Given("^the HTTP connection hub allows (\\d+) connections per route$")
+    public void setMaxPerRoute(int maxPerRoute) {
+        HttpConnectionHub.getInstance().setMaxPerRoute(maxPerRoute);
+    }
+
+    @When("^send (\\d+) sequential GET requests to '(.+)' '(.+)' through (\\d+) HttpObservable instances$")
+    public void sendSequentialRequests(int requestCount, String host, String path, int instanceCount) {
+        final List<HttpObservable> httpObservables = new ArrayList<>();
+        for (int i = 0; i < instanceCount; i++) {
+            httpObservables.add(new HttpObservable("user" + i, "password"));
+        }
+
+        for (int i = 0; i < requestCount; i++) {
+            responses.add(httpObservables.get(i % instanceCount)
+                    .requestWithHttpResponse(new HttpGet(getUrl(host, path)), null, null, null)
+                    .toBlocking()
+                    .single()
+                    .getMessage());
+        }
+    }
+
+    @When("^send (\\d+) concurrent GET requests to '(.+)' '(.+)'$")
+    public void sendConcurrentRequests(int requestCount, String host, String path) throws Throwable {
+        for (int i = 0; i < requestCount; i++) {
+            slowRequests.add(new HttpObservable()
+                    .requestWithHttpResponse(new HttpGet(getUrl(host, path)), null, null, null)
+                    .subscribeOn(Schedulers.io())
+                    .subscribe(response -> { }, err -> { }));
+        }
+
+        // Wait for the requests to take all the connections of the route
+        final long deadline = System.currentTimeMillis() + 2000;
+        while (HttpConnectionHub.getInstance().getPendingRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Then("^all the responses should be '(.+)'$")
+    public void checkResponses(String expect) {
+        assertTrue(responses.stream().allMatch(expect::equals));
+    }
+
+    @Then("^the TLS handshakes of the HTTP connection hub should be at most (\\d+)$")
+    public void checkHandshakes(int expectMax) {
+        final long handshakes = HttpConnectionHub.getInstance().getHandshakeCount() - originalHandshakeCount;
+
+        assertTrue("TLS handshakes: " + handshakes, handshakes > 0 && handshakes <= expectMax);
+    }
+
+    @Then("^the GET request to '(.+)' '(.+)' should return '(.+)' within (\\d+) ms$")
+    public void checkFastRequest(String host, String path, String expect, int timeoutMillis) {
+        final long start = System.currentTimeMillis();
+        final String response = new HttpObservable()
+                .requestWithHttpResponse(new HttpGet(getUrl(host, path)), null, null, null)
+                .toBlocking()
+                .single()
+                .getMessage();
+
+        assertEquals(expect, response);
+        assertTrue(System.currentTimeMillis() - start < timeoutMillis);
+    }
+
+    @Then("^the GET request to '(.+)' '(.+)' with an OAuth token should fail the certificate verification$")
+    public void checkOAuthRequestVerified(String host, String path) {
+        try {
+            new OAuthTokenHttpObservable("token")
+                    .requestWithHttpResponse(new HttpGet(getUrl(host, path)), null, null, null)
+                    .toBlocking()
+                    .single();
+            fail("The self-signed certificate is trusted for the OAuth token request");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.toString(), ExceptionUtils.indexOfType(ex, SSLException.class) >= 0);
+        }
+    }
+
+    private String getUrl(String host, String path) {
+        return String.format("https://%s:%d%s", host, httpsServerMock.httpsPort(), path);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LivySessionPoolScenario {
+    private MockLivyService livyService;
+    private LivySessionPool pool;
+    private final Map<String, Session> consoleSessions = new HashMap<>();
+
+    @After
+    public void cleanUp() {
+        if (pool != null) {
+            pool.close();
+        }
+
+        if (livyService != null) {
+            livyService.stop();
+        }
+    }
+
+    @Given("^a mock Livy service starting sessions in (\\d+) ms and running statements in (\\d+) ms$")
+    public void startLivyService(long startupMillis, long statementMillis) throws Throwable {
+        livyService = new MockLivyService(startupMillis, statementMillis);
+    }
+
+    @Given("^a Livy session pool keeping (\\d+) idle sessions per key and (\\d+) in total for (\\d+) ms$")
+    public void createPool(int maxIdlePerKey, int maxIdle, long idleTtlMillis) {
+        // Check the health in the steps only
+        pool = new LivySessionPool(maxIdlePerKey, maxIdle, idleTtlMillis, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @When("^the console '(.+)' acquires a Spark session from the pool$")
+    public void acquireSession(String console) {
+        consoleSessions.put(console, pool.acquire(newSession(console)).toBlocking().single());
+    }
+
+    @When("^the user '(.+)' acquires a Spark session from the pool on the console '(.+)'$")
+    public void acquireSessionOfUser(String user, String console) {
+        final Session session = new SparkSession(console, livyService.getBaseUrl(), user, "password");
+        consoleSessions.put(console, pool.acquire(session).toBlocking().single());
+    }
+
+    @When("^the console '(.+)' releases its session to the pool$")
+    public void releaseSession(String console) {
+        pool.release(consoleSessions.get(console));
+    }
+
+    @When("^the console '(.+)' runs (\\d+) statements '(.+)' one by one$")
+    public void runStatements(String console, int count, String codes) {
+        livyService.clearRequests();
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(String.valueOf(i),
+                         consoleSessions.get(console).runCodes(codes).toBlocking().single().get("text/plain"));
+        }
+    }
+
+    @When("^the console '(.+)' submits (\\d+) statements '(.+)' without waiting$")
+    public void submitStatements(String console, int count, String codes) throws Throwable {
+        final List<Observable<Map<String, String>>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(consoleSessions.get(console).submitCodes(codes));
+        }
+
+        assertEquals(count, Observable.merge(results).count().toBlocking().single().intValue());
+    }
+
+    @When("^the console '(.+)' releases its session to the pool while (\\d+) statements '(.+)' are running$")
+    public void releaseSessionWhileRunning(String console, int count, String codes) throws Throwable {
+        final List<Observable<Map<String, String>>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(consoleSessions.get(console).submitCodes(codes));
+        }
+
+        pool.release(consoleSessions.get(console));
+        Observable.merge(results).onErrorResumeNext(Observable.empty()).toBlocking().lastOrDefault(null);
+    }
+
+    @When("^wait (\\d+) ms and check the health of the Livy session pool$")
+    public void checkHealth(long waitMillis) throws Throwable {
+        Thread.sleep(waitMillis);
+        pool.checkHealth();
+    }
+
+    @Then("^the console '(.+)' should acquire a Spark session from the pool in (\\d+) ms$")
+    public void checkAcquireTime(String console, long expectMaxMillis) {
+        final long start = System.currentTimeMillis();
+        acquireSession(console);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Acquired in " + elapsed + " ms", elapsed < expectMaxMillis);
+        assertTrue(consoleSessions.get(console).isStatementRunnable());
+    }
+
+    @Then("^the mock Livy service should get (\\d+) '(.+)' requests to '(.+)'$")
+    public void checkRequests(long expect, String method, String path) {
+        assertEquals(expect, livyService.countRequests(method, path));
+    }
+
+    @Then("^the Livy session pool should keep (\\d+) idle sessions$")
+    public void checkIdleCount(int expect) {
+        assertEquals(expect, pool.getIdleCount());
+    }
+
+    private Session newSession(String console) {
+        return new SparkSession(console, livyService.getBaseUrl());
+    }
+}
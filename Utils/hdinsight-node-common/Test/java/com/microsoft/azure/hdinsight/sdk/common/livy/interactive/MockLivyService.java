@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A stand-in Livy server of the interactive sessions and statements APIs, the sessions get idle after the startup
+ * latency and the statements get available after the statement latency.
+ */
+public class MockLivyService {
+    private static final Pattern SESSION_PATH = Pattern.compile("^/sessions/(\\d+)$");
+    private static final Pattern STATEMENTS_PATH = Pattern.compile("^/sessions/(\\d+)/statements$");
+    private static final Pattern STATEMENT_PATH = Pattern.compile("^/sessions/(\\d+)/statements/(\\d+)$");
+
+    private final HttpServer server;
+    private final long startupMillis;
+    private final long statementMillis;
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+    private final Map<Integer, MockSession> sessions = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private static class MockSession {
+        private final long createdAt = System.currentTimeMillis();
+        private final AtomicInteger nextStatementId = new AtomicInteger();
+        private final Map<Integer, Long> statementsDoneAt = new ConcurrentHashMap<>();
+        private volatile boolean isKilled = false;
+    }
+
+    public MockLivyService(long startupMillis, long statementMillis) throws IOException {
+        this.startupMillis = startupMillis;
+        this.statementMillis = statementMillis;
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public URI getBaseUrl() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    public long countRequests(String method, String path) {
+        return requests.stream().filter((method + " " + path)::equals).count();
+    }
+
+    public void clearRequests() {
+        requests.clear();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        requests.add(method + " " + path);
+
+        Matcher matcher;
+        if ("POST".equals(method) && "/sessions".equals(path)) {
+            final int id = nextSessionId.getAndIncrement();
+            sessions.put(id, new MockSession());
+            respond(exchange, 201, sessionJson(id, "starting"));
+        } else if ((matcher = SESSION_PATH.matcher(path)).matches()) {
+            final int id = Integer.parseInt(matcher.group(1));
+            final MockSession session = sessions.get(id);
+            if (session == null) {
+                respond(exchange, 404, "\"Session '" + id + "' not found.\"");
+            } else if ("DELETE".equals(method)) {
+                session.isKilled = true;
+                respond(exchange, 200, "{\"msg\":\"deleted\"}");
+            } else {
+                respond(exchange, 200, sessionJson(id, session.isKilled ? "dead" :
+                        System.currentTimeMillis() - session.createdAt >= startupMillis ? "idle" : "starting"));
+            }
+        } else if ("POST".equals(method) && (matcher = STATEMENTS_PATH.matcher(path)).matches()) {
+            final MockSession session = sessions.get(Integer.parseInt(matcher.group(1)));
+            final int id = session.nextStatementId.getAndIncrement();
+            session.statementsDoneAt.put(id, System.currentTimeMillis() + statementMillis);
+            respond(exchange, 201, statementJson(id, session.statementsDoneAt.get(id)));
+        } else if ((matcher = STATEMENT_PATH.matcher(path)).matches()) {
+            final MockSession session = sessions.get(Integer.parseInt(matcher.group(1)));
+            final int id = Integer.parseInt(matcher.group(2));
+            respond(exchange, 200, statementJson(id, session.statementsDoneAt.get(id)));
+        } else {
+            respond(exchange, 404, "\"Not found\"");
+        }
+    }
+
+    private static String sessionJson(int id, String state) {
+        return String.format("{\"id\":%d,\"appId\":\"application_%d\",\"owner\":null,\"proxyUser\":null,"
+                + "\"state\":\"%s\",\"kind\":\"spark\",\"log\":[]}", id, id, state);
+    }
+
+    private static String statementJson(int id, long doneAt) {
+        return System.currentTimeMillis() < doneAt
+               ? String.format("{\"id\":%d,\"state\":\"running\",\"output\":null}", id)
+               : String.format("{\"id\":%d,\"state\":\"available\",\"output\":{\"status\":\"ok\","
+                       + "\"execution_count\":%d,\"data\":{\"text/plain\":\"%d\"}}}", id, id, id);
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
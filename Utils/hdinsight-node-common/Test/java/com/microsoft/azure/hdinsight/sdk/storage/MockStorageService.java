@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URLEncodedUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A stand-in ADLS Gen2 file system "/fs" and WebHDFS "/webhdfs/v1" of the same files, used as the HTTP proxy of any
+ * host, e.g. http://account.dfs.core.windows.net/fs. Every request takes the latency, and the listings are split into
+ * pages of the page size with the continuation tokens.
+ */
+public class MockStorageService {
+    public static final String GEN2_PREFIX = "/fs";
+    public static final String WEBHDFS_PREFIX = "/webhdfs/v1";
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final int pageSize;
+
+    // The relative paths without the leading slash, to whether it's a directory
+    private final NavigableMap<String, Boolean> files = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger listingsInFlight = new AtomicInteger();
+    private final AtomicInteger maxListingsInFlight = new AtomicInteger();
+
+    public MockStorageService(long latencyMillis, int pageSize) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.pageSize = pageSize;
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public HttpHost getProxy() {
+        return new HttpHost("localhost", server.getAddress().getPort());
+    }
+
+    public void addDirectory(String path, int fileCount, int directoryCount) {
+        putWithParents(path, true);
+        for (int i = 0; i < fileCount; i++) {
+            files.put(String.format("%s/file-%05d", path, i), false);
+        }
+        for (int i = 0; i < directoryCount; i++) {
+            files.put(String.format("%s/dir-%05d", path, i), true);
+        }
+    }
+
+    public int getRequestCount(String operation) {
+        return requestCounts.computeIfAbsent(operation, key -> new AtomicInteger()).get();
+    }
+
+    public int getTotalRequestCount() {
+        return requestCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    public int getMaxListingsInFlight() {
+        return maxListingsInFlight.get();
+    }
+
+    public void clearRequests() {
+        requestCounts.clear();
+        maxListingsInFlight.set(0);
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            // Drain the uploaded data to keep the connection alive
+            final byte[] buffer = new byte[8192];
+            while (requestBody.read(buffer) >= 0) {
+                // ignore the data
+            }
+
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath();
+            final Map<String, String> query = new HashMap<>();
+            for (final NameValuePair pair : URLEncodedUtils.parse(exchange.getRequestURI(), StandardCharsets.UTF_8)) {
+                query.put(pair.getName(), pair.getValue());
+            }
+
+            final String operation;
+            if (path.startsWith(WEBHDFS_PREFIX)) {
+                operation = query.getOrDefault("op", method);
+            } else if ("filesystem".equals(query.get("resource"))) {
+                operation = "LIST";
+            } else if ("getStatus".equals(query.get("action"))) {
+                operation = "GETSTATUS";
+            } else {
+                operation = method + " " + StringUtils.defaultString(query.get("resource"), query.get("action"));
+            }
+            requestCounts.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+
+            final boolean isListing = "LIST".equals(operation) || "LISTSTATUS_BATCH".equals(operation);
+            if (isListing) {
+                maxListingsInFlight.accumulateAndGet(listingsInFlight.incrementAndGet(), Math::max);
+            }
+            try {
+                Thread.sleep(latencyMillis);
+                if (path.startsWith(WEBHDFS_PREFIX)) {
+                    handleWebHdfs(exchange, operation, getRelativePath(path, WEBHDFS_PREFIX), query);
+                } else if (path.startsWith(GEN2_PREFIX)) {
+                    handleGen2(exchange, operation, getRelativePath(path, GEN2_PREFIX), query);
+                } else {
+                    respond(exchange, 404, "{}");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (isListing) {
+                    listingsInFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void handleGen2(HttpExchange exchange, String operation, String path, Map<String, String> query)
+            throws IOException {
+        switch (operation) {
+            case "LIST":
+                final String directory = StringUtils.strip(query.getOrDefault("directory", ""), "/");
+                if (!directory.isEmpty() && !Boolean.TRUE.equals(files.get(directory))) {
+                    respond(exchange, 404, "{\"error\":{\"code\":\"PathNotFound\"}}");
+                    return;
+                }
+
+                final List<String> children = getChildren(directory);
+                final int start = Integer.parseInt(query.getOrDefault("continuation", "0"));
+                final int end = Math.min(start + pageSize, children.size());
+                if (end < children.size()) {
+                    exchange.getResponseHeaders().add("x-ms-continuation", String.valueOf(end));
+                }
+                respond(exchange, 200, children.subList(start, end).stream()
+                        .map(child -> files.get(child)
+                                      ? String.format("{\"name\":\"%s\",\"isDirectory\":\"true\"}", child)
+                                      : String.format("{\"name\":\"%s\",\"contentLength\":\"0\"}", child))
+                        .collect(Collectors.joining(",", "{\"paths\":[", "]}")));
+                break;
+            case "GETSTATUS":
+                final Boolean isDirectory = files.get(path);
+                if (isDirectory == null) {
+                    respondHead(exchange, 404);
+                } else {
+                    exchange.getResponseHeaders().add("x-ms-resource-type", isDirectory ? "directory" : "file");
+                    respondHead(exchange, 200);
+                }
+                break;
+            case "PUT directory":
+                putWithParents(path, true);
+                respond(exchange, 201, "");
+                break;
+            case "PUT file":
+                putWithParents(path, false);
+                respond(exchange, 201, "");
+                break;
+            case "PATCH append":
+                respond(exchange, 202, "");
+                break;
+            case "PATCH flush":
+                respond(exchange, 200, "");
+                break;
+            default:
+                respond(exchange, 400, "{}");
+        }
+    }
+
+    private void handleWebHdfs(HttpExchange exchange, String operation, String path, Map<String, String> query)
+            throws IOException {
+        final Boolean isDirectory = path.isEmpty() ? Boolean.TRUE : files.get(path);
+        if (isDirectory == null) {
+            respond(exchange, 404, "{\"RemoteException\":{\"exception\":\"FileNotFoundException\"}}");
+            return;
+        }
+
+        switch (operation) {
+            case "LISTSTATUS_BATCH":
+                final List<String> children = getChildren(path);
+                final String startAfter = query.get("startAfter");
+                int start = 0;
+                while (startAfter != null && start < children.size()
+                        && getName(children.get(start)).compareTo(startAfter) <= 0) {
+                    start++;
+                }
+                final int end = Math.min(start + pageSize, children.size());
+                respond(exchange, 200, children.subList(start, end).stream()
+                        .map(child -> fileStatusJson(getName(child), files.get(child)))
+                        .collect(Collectors.joining(",",
+                                "{\"DirectoryListing\":{\"partialListing\":{\"FileStatuses\":{\"FileStatus\":[",
+                                "]}},\"remainingEntries\":" + (children.size() - end) + "}}")));
+                break;
+            case "GETFILESTATUS":
+                respond(exchange, 200, "{\"FileStatus\":" + fileStatusJson("", isDirectory) + "}");
+                break;
+            default:
+                respond(exchange, 400, "{}");
+        }
+    }
+
+    private List<String> getChildren(String directory) {
+        final String prefix = directory.isEmpty() ? "" : directory + "/";
+        final List<String> children = new ArrayList<>();
+        for (final String path : files.tailMap(prefix, true).keySet()) {
+            if (!path.startsWith(prefix)) {
+                break;
+            }
+            if (!path.equals(directory) && path.indexOf('/', prefix.length()) < 0) {
+                children.add(path);
+            }
+        }
+        return children;
+    }
+
+    private void putWithParents(String path, boolean isDirectory) {
+        files.put(path, isDirectory);
+        for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+            files.put(path.substring(0, slash), true);
+        }
+    }
+
+    private static String getRelativePath(String path, String prefix) {
+        return StringUtils.strip(path.substring(prefix.length()), "/");
+    }
+
+    private static String getName(String path) {
+        return StringUtils.substringAfterLast("/" + path, "/");
+    }
+
+    private static String fileStatusJson(String pathSuffix, boolean isDirectory) {
+        return String.format("{\"pathSuffix\":\"%s\",\"type\":\"%s\",\"length\":0,\"modificationTime\":0}",
+                             pathSuffix, isDirectory ? "DIRECTORY" : "FILE");
+    }
+
+    private static void respondHead(HttpExchange exchange, int statusCode) throws IOException {
+        exchange.sendResponseHeaders(statusCode, -1);
+        exchange.close();
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        if (body.isEmpty()) {
+            respondHead(exchange, statusCode);
+            return;
+        }
+
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+}
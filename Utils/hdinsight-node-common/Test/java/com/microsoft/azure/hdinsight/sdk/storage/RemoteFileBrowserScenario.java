@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage;
+
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
+import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsFSOperation;
+import com.microsoft.azure.hdinsight.spark.common.ADLSGen2Deploy;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.apache.http.impl.client.HttpClients;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteFileBrowserScenario {
+    private static final String GEN2_ROOT = "http://account.dfs.core.windows.net" + MockStorageService.GEN2_PREFIX;
+    private static final String WEBHDFS_ROOT = "http://cluster.azurehdinsight.net" + MockStorageService.WEBHDFS_PREFIX;
+
+    private MockStorageService storageService;
+    private HttpObservable http;
+    private RemoteFileBrowser browser;
+
+    @After
+    public void cleanUp() {
+        if (storageService != null) {
+            storageService.stop();
+        }
+    }
+
+    @Given("^a mock storage service responding in (\\d+) ms with (\\d+) entries per page$")
+    public void startStorageService(long latencyMillis, int pageSize) throws Throwable {
+        storageService = new MockStorageService(latencyMillis, pageSize);
+        // All the hosts go to the mock service
+        http = new HttpObservable().setHttpClient(HttpClients.custom().setProxy(storageService.getProxy()).build());
+    }
+
+    @Given("^the remote directory '(.+)' has (\\d+) files and (\\d+) directories$")
+    public void addDirectory(String path, int fileCount, int directoryCount) {
+        storageService.addDirectory(path, fileCount, directoryCount);
+    }
+
+    @Given("^a remote file browser caching listings for (\\d+) ms with (\\d+) prefetch requests$")
+    public void createBrowser(long ttlMillis, int maxPrefetch) {
+        browser = new RemoteFileBrowser(ttlMillis, maxPrefetch);
+    }
+
+    @When("^list the (ADLS Gen2|WebHDFS) directory '(.*)'$")
+    public void listDirectory(String type, String directory) {
+        browser.list(getLister(type), getRoot(type), directory).toList().toBlocking().single();
+    }
+
+    @When("^clear the requests to the mock storage service$")
+    public void clearRequests() {
+        storageService.clearRequests();
+    }
+
+    @When("^wait for the prefetching done$")
+    public void waitPrefetching() throws Throwable {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (browser.getPrefetchingCount() > 0) {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @When("^wait (\\d+) ms$")
+    public void waitMillis(long millis) throws Throwable {
+        Thread.sleep(millis);
+    }
+
+    @When("^deploy the artifact '(.+)' to the ADLS Gen2 directory '(.+)'$")
+    public void deploy(String name, String directory) throws Throwable {
+        final File artifact = new File(Files.createTempDirectory("artifact").toFile(), name);
+        Files.write(artifact.toPath(), "jar".getBytes(StandardCharsets.UTF_8));
+        // The deployment invalidates the shared browser
+        browser = RemoteFileBrowser.getInstance();
+        listDirectory("ADLS Gen2", directory);
+        assertTrue(browser.isCached(GEN2_ROOT, directory));
+
+        new ADLSGen2Deploy(http, GEN2_ROOT + "/" + directory + "/").deploy(artifact, null).toBlocking().single();
+    }
+
+    @Then("^the first entry of the (ADLS Gen2|WebHDFS) directory '(.+)' should be listed in (\\d+) ms$")
+    public void checkFirstEntryTime(String type, String directory, long expectMaxMillis) {
+        final long start = System.currentTimeMillis();
+        final RemoteFile first = browser.list(getLister(type), getRoot(type), directory)
+                .subscribeOn(Schedulers.io())
+                .toBlocking()
+                .first();
+        final long elapsed = System.currentTimeMillis() - start;
+
+        assertNotNull(first);
+        assertTrue("Listed the first entry in " + elapsed + " ms", elapsed < expectMaxMillis);
+    }
+
+    @Then("^the (ADLS Gen2|WebHDFS) directory '(.*)' should be listed with (\\d+) entries$")
+    public void checkListing(String type, String directory, int expect) {
+        final List<RemoteFile> files = browser.list(getLister(type), getRoot(type), directory)
+                .toList().toBlocking().single();
+
+        assertEquals(expect, files.size());
+    }
+
+    @Then("^(\\d+) concurrent listings of the (ADLS Gen2|WebHDFS) directory '(.+)' should get (\\d+) entries each$")
+    public void checkConcurrentListing(int count, String type, String directory, int expect) {
+        final List<Observable<Integer>> listings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            listings.add(browser.list(getLister(type), getRoot(type), directory)
+                                .count()
+                                .subscribeOn(Schedulers.io()));
+        }
+
+        Observable.merge(listings).toList().toBlocking().single()
+                  .forEach(size -> assertEquals(expect, size.intValue()));
+    }
+
+    @Then("^the (ADLS Gen2|WebHDFS) path '(.+)' should be a (file|directory)$")
+    public void checkStat(String type, String path, String kind) {
+        final RemoteFile file = browser.stat(getLister(type), getRoot(type), path).toBlocking().singleOrDefault(null);
+
+        assertNotNull(file);
+        assertEquals("directory".equals(kind), file.isDirectory());
+    }
+
+    @Then("^the (ADLS Gen2|WebHDFS) path '(.+)' should not exist$")
+    public void checkNotExist(String type, String path) {
+        assertNull(browser.stat(getLister(type), getRoot(type), path).toBlocking().singleOrDefault(null));
+    }
+
+    @Then("^the (ADLS Gen2|WebHDFS) directory '(.*)' should (be|not be) cached$")
+    public void checkCached(String type, String directory, String be) {
+        assertEquals("be".equals(be), browser.isCached(getRoot(type), directory));
+    }
+
+    @Then("^the (\\d+) sub-directories of the ADLS Gen2 directory '(.+)' should be cached$")
+    public void checkChildrenCached(int count, String directory) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(browser.isCached(GEN2_ROOT, String.format("%s/dir-%05d", directory, i)));
+        }
+    }
+
+    @Then("^the ADLS Gen2 directory '(.+)' should have a new folder$")
+    public void checkNewFolder(String directory) {
+        final List<RemoteFile> files = browser.list(getLister("ADLS Gen2"), GEN2_ROOT, directory)
+                .toList().toBlocking().single();
+
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).isDirectory());
+    }
+
+    @Then("^the mock storage service should get (\\d+) '(.+)' requests$")
+    public void checkRequests(int expect, String operation) {
+        assertEquals(expect, storageService.getRequestCount(operation));
+    }
+
+    @Then("^the mock storage service should get no requests$")
+    public void checkNoRequests() {
+        assertEquals(0, storageService.getTotalRequestCount());
+    }
+
+    @Then("^the mock storage service should get at most (\\d+) concurrent listings$")
+    public void checkMaxConcurrentListings(int expectMax) {
+        final int max = storageService.getMaxListingsInFlight();
+
+        assertTrue("Got " + max + " concurrent listings", max <= expectMax);
+        assertFalse(max == 0);
+    }
+
+    private RemoteFileLister getLister(String type) {
+        return "WebHDFS".equals(type) ? new WebHdfsFSOperation(http) : new ADLSGen2FSOperation(http);
+    }
+
+    private static String getRoot(String type) {
+        return "WebHDFS".equals(type) ? WEBHDFS_ROOT : GEN2_ROOT;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LivyBatchLogReaderScenario {
+    private static final String APPLICATION_ID = "application_1600000000000_0001";
+
+    private MockLivyBatchLogService livyService;
+    private LivyBatchLogReader reader;
+    private Thread appender;
+    private final AtomicBoolean isAppending = new AtomicBoolean(false);
+    private final AtomicInteger lineNumber = new AtomicInteger();
+    private final List<String> applicationIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> linesRead = Collections.synchronizedList(new ArrayList<>());
+
+    // The max count of the lines sent by the server but not read yet
+    private int maxLinesAhead = 0;
+
+    @After
+    public void cleanUp() throws Throwable {
+        isAppending.set(false);
+        if (appender != null) {
+            appender.join();
+        }
+
+        if (reader != null) {
+            reader.close();
+        }
+
+        if (livyService != null) {
+            livyService.stop();
+        }
+    }
+
+    @Given("^a mock Livy batch (\\d+) with (\\d+) log lines$")
+    public void startLivyService(int batchId, int lineCount) throws Throwable {
+        livyService = new MockLivyBatchLogService(batchId);
+        appendLines(lineCount);
+    }
+
+    @Given("^the Livy batch log reader with page size (\\d+)$")
+    public void createReader(int pageSize) {
+        reader = new LivyBatchLogReader(SparkBatchSubmission.getInstance(),
+                                        livyService.getBatchesUrl(),
+                                        livyService.getBatchId(),
+                                        pageSize,
+                                        LivyBatchLogReader.DEFAULT_APPLICATION_ID_PATTERN);
+        reader.getApplicationIdObservable().subscribe(applicationIds::add);
+    }
+
+    @Given("^the mock Livy batch appends (\\d+) lines every ms$")
+    public void startAppending(int linesPerMillis) {
+        isAppending.set(true);
+        appender = new Thread(() -> {
+            while (isAppending.get()) {
+                appendLines(linesPerMillis);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        appender.start();
+    }
+
+    @When("^read the Livy batch log polling every (\\d+) ms till (\\d+) fetches made$")
+    public void readTillFetched(long pollIntervalMillis, long fetchCount) throws Throwable {
+        final CompletableFuture<List<String>> reading = new CompletableFuture<>();
+        reader.lines(isAppending::get, pollIntervalMillis, pollIntervalMillis, Schedulers.io())
+              .subscribeOn(Schedulers.io())
+              .toList()
+              .subscribe(reading::complete, reading::completeExceptionally);
+
+        while (reader.getFetchCount() < fetchCount) {
+            Thread.sleep(10);
+        }
+
+        isAppending.set(false);
+        appender.join();
+        linesRead.addAll(reading.get(30, TimeUnit.SECONDS));
+    }
+
+    @When("^read (\\d+) Livy batch log lines one by one$")
+    public void readOneByOne(int count) throws Throwable {
+        final CompletableFuture<Void> reading = new CompletableFuture<>();
+        reader.lines(() -> false, 1, 1, Schedulers.io())
+              .take(count)
+              .subscribe(new Subscriber<String>() {
+                  @Override
+                  public void onStart() {
+                      request(1);
+                  }
+
+                  @Override
+                  public void onNext(String line) {
+                      linesRead.add(line);
+                      maxLinesAhead = Math.max(maxLinesAhead, livyService.getMaxSentIndex() - linesRead.size());
+                      request(1);
+                  }
+
+                  @Override
+                  public void onCompleted() {
+                      reading.complete(null);
+                  }
+
+                  @Override
+                  public void onError(Throwable e) {
+                      reading.completeExceptionally(e);
+                  }
+              });
+
+        reading.get(60, TimeUnit.SECONDS);
+    }
+
+    @When("^the mock Livy batch log is rotated to (\\d+) new lines$")
+    public void rotateLog(int lineCount) {
+        livyService.rotate(IntStream.range(0, lineCount)
+                                    .mapToObj(i -> "rotated line " + i)
+                                    .toArray(String[]::new));
+    }
+
+    @When("^read the rest Livy batch log lines$")
+    public void readRest() {
+        linesRead.addAll(reader.lines(() -> false, 1, 1, Schedulers.io())
+                               .toList()
+                               .toBlocking()
+                               .single());
+    }
+
+    @Then("^the Livy batch log lines read should be all the (\\d+) lines logged in order$")
+    public void checkLinesInOrder(int expectMinCount) {
+        assertTrue("Read " + linesRead.size() + " lines", linesRead.size() >= expectMinCount);
+        assertEquals(livyService.getLineCount(), linesRead.size());
+        for (int i = 0; i < linesRead.size(); i++) {
+            assertTrue(linesRead.get(i), linesRead.get(i).startsWith("line " + i + " "));
+        }
+    }
+
+    @Then("^the Livy batch log lines read should be (\\d+) lines logged and then (\\d+) rotated lines$")
+    public void checkRotatedLines(int lineCount, int rotatedCount) {
+        assertEquals(lineCount + rotatedCount, linesRead.size());
+        for (int i = 0; i < lineCount; i++) {
+            assertTrue(linesRead.get(i), linesRead.get(i).startsWith("line " + i + " "));
+        }
+
+        for (int i = 0; i < rotatedCount; i++) {
+            assertEquals("rotated line " + i, linesRead.get(lineCount + i));
+        }
+
+        assertEquals(1, reader.getResyncCount());
+    }
+
+    @Then("^the YARN application ID should be detected once after scanning (\\d+) lines$")
+    public void checkApplicationId(long scannedLines) {
+        assertEquals(Collections.singletonList(APPLICATION_ID), applicationIds);
+        assertEquals(APPLICATION_ID, reader.getApplicationId());
+        assertEquals(scannedLines, reader.getScannedLineCount());
+    }
+
+    @Then("^the bytes sent by the mock Livy server should be less than (\\d+) times of the log plus (\\d+) bytes per fetch$")
+    public void checkSentBytes(long logTimes, long bytesPerFetch) {
+        final long maxBytes = logTimes * livyService.getLogBytes() + bytesPerFetch * livyService.getRequestCount();
+
+        assertTrue(String.format("Sent %d bytes, the log is %d bytes in %d fetches",
+                                 livyService.getSentBytes(), livyService.getLogBytes(), livyService.getRequestCount()),
+                   livyService.getSentBytes() < maxBytes);
+        assertEquals(livyService.getRequestCount(), reader.getFetchCount());
+    }
+
+    @Then("^the mock Livy server should never send more than (\\d+) lines ahead of the reading$")
+    public void checkLinesAhead(int expectMax) {
+        assertTrue("Sent " + maxLinesAhead + " lines ahead", maxLinesAhead <= expectMax);
+    }
+
+    private void appendLines(int count) {
+        livyService.append(IntStream.range(0, count)
+                                    .mapToObj(i -> getLogLine(lineNumber.getAndIncrement()))
+                                    .toArray(String[]::new));
+    }
+
+    /**
+     * The YARN client reports the application every 1,000 lines since the line 3,000
+     */
+    private static String getLogLine(int number) {
+        return number >= 3000 && number % 1000 == 0
+               ? String.format("line %d INFO Client: Application report for %s (state: ACCEPTED)", number, APPLICATION_ID)
+               : String.format("line %d INFO Client: uploading resources", number);
+    }
+}
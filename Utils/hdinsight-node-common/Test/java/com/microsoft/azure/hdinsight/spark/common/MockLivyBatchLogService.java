@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stand-in Livy server of one batch, serving {@code /batches/{id}/log} with the {@code from} and {@code size} paging
+ * of the lines logged so far.
+ */
+public class MockLivyBatchLogService {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final int batchId;
+
+    // The log lines, guarded by itself
+    private final List<String> lines = new ArrayList<>();
+    private long logBytes = 0;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicInteger maxSentIndex = new AtomicInteger();
+
+    public MockLivyBatchLogService(int batchId) throws IOException {
+        this.batchId = batchId;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/batches/" + batchId + "/log", this::handleLog);
+        this.server.start();
+    }
+
+    public String getBatchesUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/batches";
+    }
+
+    public int getBatchId() {
+        return batchId;
+    }
+
+    public void append(String... newLines) {
+        synchronized (lines) {
+            lines.addAll(Arrays.asList(newLines));
+            Arrays.stream(newLines).forEach(line -> logBytes += line.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    /**
+     * Replace the log with the new lines, like the log is rotated at server side
+     */
+    public void rotate(String... newLines) {
+        synchronized (lines) {
+            lines.clear();
+            maxSentIndex.set(0);
+            append(newLines);
+        }
+    }
+
+    public int getLineCount() {
+        synchronized (lines) {
+            return lines.size();
+        }
+    }
+
+    public long getLogBytes() {
+        synchronized (lines) {
+            return logBytes;
+        }
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    /**
+     * @return the index after the last line sent
+     */
+    public int getMaxSentIndex() {
+        return maxSentIndex.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private void handleLog(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        final Map<String, String> queries = parseQueries(exchange.getRequestURI().getRawQuery());
+        final int from = Integer.parseInt(queries.getOrDefault("from", "0"));
+        final int size = Integer.parseInt(queries.getOrDefault("size", "100"));
+
+        final Map<String, Object> page = new LinkedHashMap<>();
+        synchronized (lines) {
+            final int start = Math.min(from, lines.size());
+            final int end = (int) Math.min((long) start + size, lines.size());
+
+            page.put("id", batchId);
+            page.put("from", start);
+            page.put("total", lines.size());
+            page.put("log", new ArrayList<>(lines.subList(start, end)));
+            maxSentIndex.accumulateAndGet(end, Math::max);
+        }
+
+        final byte[] body = MAPPER.writeValueAsBytes(page);
+        sentBytes.addAndGet(body.length);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        // The JDK server delays the keep-alive responses by the delayed ACK, which slows down the polls a lot
+        exchange.getResponseHeaders().add("Connection", "close");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQueries(String rawQuery) throws IOException {
+        final Map<String, String> queries = new HashMap<>();
+        if (rawQuery == null) {
+            return queries;
+        }
+
+        for (final String query : rawQuery.split("&")) {
+            final String[] pair = query.split("=", 2);
+            queries.put(URLDecoder.decode(pair[0], "UTF-8"), pair.length > 1 ? URLDecoder.decode(pair[1], "UTF-8") : "");
+        }
+
+        return queries;
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.common.JobViewManager;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class JobViewHttpServerScenario {
+    private MockSparkHistoryService historyService;
+    private IClusterDetail cluster;
+    private final List<Response> responses = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger maxServerThreads = new AtomicInteger();
+    private Future<Response> pendingRequest;
+
+    // The concurrent requests start together, with the server threads sampled till they're done
+    private final List<Response> baselineResponses = new ArrayList<>();
+    private final List<Future<Response>> concurrentRequests = new ArrayList<>();
+    private final AtomicBoolean isSampling = new AtomicBoolean(false);
+    private ExecutorService clients;
+    private Thread sampler;
+
+    // The browser doesn't retry the request closed by the server
+    private final CloseableHttpClient client = HttpClients.custom()
+            .disableAutomaticRetries()
+            .disableContentCompression()
+            .setMaxConnTotal(1000)
+            .setMaxConnPerRoute(1000)
+            .build();
+
+    private static final class Response {
+        private final int statusCode;
+        private final String contentEncoding;
+        private final String body;
+        private final long elapsedMillis;
+
+        private Response(int statusCode, String contentEncoding, String body, long elapsedMillis) {
+            this.statusCode = statusCode;
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+            this.elapsedMillis = elapsedMillis;
+        }
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        client.close();
+        JobViewHttpServer.close();
+        System.clearProperty(JobViewRequestDispatcher.REQUEST_TIMEOUT_SECONDS_PROPERTY);
+        if (historyService != null) {
+            historyService.stop();
+        }
+    }
+
+    @Given("^a mock Spark history server responding in (\\d+) ms with (\\d+) applications$")
+    public void startHistoryService(long latencyMillis, int applicationCount) throws Throwable {
+        historyService = new MockSparkHistoryService(latencyMillis, applicationCount);
+
+        final String clusterName = "mock-cluster-" + historyService.getConnectionUrl().hashCode();
+        final String connectionUrl = historyService.getConnectionUrl();
+        cluster = new IClusterDetail() {
+            @Override
+            public String getName() {
+                return clusterName;
+            }
+
+            @Override
+            public String getTitle() {
+                return clusterName;
+            }
+
+            @Override
+            public String getConnectionUrl() {
+                return connectionUrl;
+            }
+
+            @Override
+            public SubscriptionDetail getSubscription() {
+                return null;
+            }
+        };
+        JobViewManager.registerJovViewNode(clusterName, cluster);
+    }
+
+    @Given("^the job view requests time out in (\\d+) seconds$")
+    public void setRequestTimeout(int seconds) {
+        System.setProperty(JobViewRequestDispatcher.REQUEST_TIMEOUT_SECONDS_PROPERTY, String.valueOf(seconds));
+    }
+
+    @Given("^the job view HTTP server is started$")
+    public void startJobViewServer() {
+        JobViewHttpServer.close();
+        JobViewHttpServer.initialize();
+        assertTrue(JobViewHttpServer.isEnabled());
+    }
+
+    @Given("^the Spark applications of the mock cluster are listed$")
+    public void listApplications() throws Throwable {
+        JobViewCacheManager.getSparkApplications(cluster);
+    }
+
+    @When("^send (\\d+) concurrent connection checks$")
+    public void sendConnectionChecks(int count) throws Throwable {
+        startConcurrentRequests(count, i -> getServerUrl() + "/try");
+        baselineResponses.addAll(joinConcurrentRequests());
+    }
+
+    @When("^send (\\d+) concurrent stage requests of the (\\d+) applications from (\\d+) job views$")
+    public void sendConcurrentRequests(int count, int applicationCount, int viewCount) throws Throwable {
+        sendConcurrentRequestsInBackground(count, applicationCount, viewCount);
+        waitConcurrentRequests();
+    }
+
+    @When("^send (\\d+) concurrent stage requests of the (\\d+) applications from (\\d+) job views in background$")
+    public void sendConcurrentRequestsInBackground(int count, int applicationCount, int viewCount) throws Throwable {
+        startConcurrentRequests(count, i -> getStagesUrl(i % applicationCount, "view-" + (i % viewCount)));
+    }
+
+    @When("^wait for the concurrent requests$")
+    public void waitConcurrentRequests() throws Throwable {
+        responses.addAll(joinConcurrentRequests());
+    }
+
+    @When("^wait until the job view server has (\\d+) waiting requests$")
+    public void waitRequests(int count) throws Throwable {
+        final JobViewRequestDispatcher dispatcher = JobViewHttpServer.getDispatcher();
+        assertNotNull(dispatcher);
+
+        final long deadline = System.currentTimeMillis() + 30000;
+        while (dispatcher.getWaitingRequestCount() < count) {
+            assertTrue("Only " + dispatcher.getWaitingRequestCount() + " requests are waiting",
+                       System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @When("^the mock Spark history server is (paused|resumed)$")
+    public void pauseHistoryService(String state) {
+        if ("paused".equals(state)) {
+            historyService.pause();
+        } else {
+            historyService.resume();
+        }
+    }
+
+    @When("^request the stages of the application (\\d+) from the job view '(.+)' in background$")
+    public void requestInBackground(int appIndex, String viewId) {
+        pendingRequest = CompletableFuture.supplyAsync(() -> {
+            try {
+                return request(getStagesUrl(appIndex, viewId));
+            } catch (IOException e) {
+                return null;
+            }
+        });
+    }
+
+    @When("^request the stages of the application (\\d+) from the job view '(.+)'$")
+    public void requestStages(int appIndex, String viewId) throws Throwable {
+        responses.add(request(getStagesUrl(appIndex, viewId)));
+    }
+
+    @When("^cancel the job view '(.+)'$")
+    public void cancelView(String viewId) throws Throwable {
+        try (CloseableHttpResponse response = client.execute(
+                new HttpPost(getServerUrl() + "/cancel?view-id=" + viewId))) {
+            assertEquals(204, response.getStatusLine().getStatusCode());
+        }
+    }
+
+    @When("^wait (\\d+) ms$")
+    public void waitMillis(long millis) throws Throwable {
+        Thread.sleep(millis);
+    }
+
+    @Then("^all the job view responses should be the gzipped stages$")
+    public void checkGzippedResponses() {
+        assertTrue(responses.size() > 0);
+        for (final Response response : responses) {
+            assertEquals(response.body, 200, response.statusCode);
+            assertEquals("gzip", response.contentEncoding);
+            assertTrue(response.body, response.body.startsWith("[{") && response.body.contains("\"stageId\":19"));
+        }
+    }
+
+    @Then("^the job view response should be (\\d+)$")
+    public void checkStatusCode(int expect) {
+        assertEquals(1, responses.size());
+        assertEquals(expect, responses.get(0).statusCode);
+    }
+
+    @Then("^the p99 latency of the stage requests should exceed the connection checks by less than (\\d+) ms$")
+    public void checkP99Latency(long expectMaxMillis) {
+        final long baseline = getP99(baselineResponses);
+        final long p99 = getP99(responses);
+
+        assertTrue("p99 is " + p99 + " ms, " + baseline + " ms for the connection checks",
+                   p99 - baseline < expectMaxMillis);
+    }
+
+    @Then("^the job view server should run less than (\\d+) threads$")
+    public void checkServerThreads(int expectMax) {
+        assertTrue("Ran " + maxServerThreads.get() + " threads", maxServerThreads.get() < expectMax);
+        assertTrue(maxServerThreads.get() > 0);
+    }
+
+    @Then("^the mock Spark history server should get (\\d+) requests? for the stages of each of the (\\d+) applications$")
+    public void checkStageRequests(int expect, int applicationCount) {
+        for (int i = 0; i < applicationCount; i++) {
+            assertEquals(expect, historyService.getRequestCount(MockSparkHistoryService.getStagesPath(i)));
+        }
+    }
+
+    @Then("^the mock Spark history server should get (\\d+) requests? for the stages of the application (\\d+)$")
+    public void checkStageRequestsOfApplication(int expect, int appIndex) {
+        assertEquals(expect, historyService.getRequestCount(MockSparkHistoryService.getStagesPath(appIndex)));
+    }
+
+    @Then("^the job view fetches should stop in (\\d+) ms$")
+    public void checkFetchesStopped(long expectMaxMillis) throws Throwable {
+        final JobViewRequestDispatcher dispatcher = JobViewHttpServer.getDispatcher();
+        assertNotNull(dispatcher);
+
+        final long deadline = System.currentTimeMillis() + expectMaxMillis;
+        while (dispatcher.getRunningFetchCount() > 0 || dispatcher.getFetchCount() > 0) {
+            assertTrue("The fetch is still running", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Then("^the background job view request should be closed without response$")
+    public void checkClosedWithoutResponse() throws Throwable {
+        assertEquals(null, pendingRequest.get(5, TimeUnit.SECONDS));
+    }
+
+    @Then("^the mock Spark history server should respond (\\d+) requests$")
+    public void checkRespondedRequests(int expect) {
+        assertEquals(expect, historyService.getRespondedCount());
+    }
+
+    private void startConcurrentRequests(int count, IntFunction<String> getUrl) throws InterruptedException {
+        clients = Executors.newFixedThreadPool(count);
+        final CountDownLatch ready = new CountDownLatch(count);
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < count; i++) {
+            final String url = getUrl.apply(i);
+            concurrentRequests.add(clients.submit(() -> {
+                ready.countDown();
+                start.await();
+                return request(url);
+            }));
+        }
+
+        isSampling.set(true);
+        sampler = new Thread(() -> {
+            while (isSampling.get()) {
+                maxServerThreads.accumulateAndGet(countServerThreads(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        ready.await();
+        start.countDown();
+    }
+
+    private List<Response> joinConcurrentRequests() throws Exception {
+        final List<Response> done = new ArrayList<>();
+        try {
+            for (final Future<Response> request : concurrentRequests) {
+                done.add(request.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            isSampling.set(false);
+            sampler.join();
+            clients.shutdownNow();
+            concurrentRequests.clear();
+        }
+
+        return done;
+    }
+
+    private static long getP99(List<Response> responses) {
+        final long[] latencies = responses.stream().mapToLong(response -> response.elapsedMillis).sorted().toArray();
+
+        return latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+    }
+
+    private String getServerUrl() {
+        return "http://localhost:" + JobViewHttpServer.getPort();
+    }
+
+    private String getStagesUrl(int appIndex, String viewId) {
+        return String.format("%s/applications/stages_summary?http-type=spark&cluster-name=%s&appId=%s&view-id=%s",
+                             getServerUrl(), cluster.getName(), MockSparkHistoryService.getApplicationId(appIndex),
+                             viewId);
+    }
+
+    private Response request(String url) throws IOException {
+        final long start = System.currentTimeMillis();
+        final HttpGet get = new HttpGet(url);
+        get.addHeader("Accept-Encoding", "gzip");
+        // Don't reuse the connections beyond the max idle connections of the server
+        get.addHeader("Connection", "close");
+
+        try (CloseableHttpResponse response = client.execute(get)) {
+            final Header contentEncoding = response.getFirstHeader("Content-Encoding");
+            final HttpEntity entity = response.getEntity();
+            final String body;
+            if (entity == null) {
+                body = "";
+            } else {
+                try (InputStream content = contentEncoding != null && "gzip".equals(contentEncoding.getValue())
+                                           ? new GZIPInputStream(entity.getContent())
+                                           : entity.getContent()) {
+                    body = IOUtils.toString(content, StandardCharsets.UTF_8);
+                }
+            }
+
+            return new Response(response.getStatusLine().getStatusCode(),
+                                contentEncoding == null ? null : contentEncoding.getValue(),
+                                body,
+                                System.currentTimeMillis() - start);
+        }
+    }
+
+    private static int countServerThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("job-view-")
+                        || thread.getName().startsWith("HTTP-Dispatcher"))
+                .count();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A stand-in Spark history server of the applications with one attempt each, every request takes the latency.
+ */
+public class MockSparkHistoryService {
+    public static final String API_PREFIX = "/sparkhistory/api/v1/applications";
+    private static final int STAGE_COUNT = 20;
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final int applicationCount;
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger respondedCount = new AtomicInteger();
+    private volatile CountDownLatch pausing = new CountDownLatch(0);
+
+    public MockSparkHistoryService(long latencyMillis, int applicationCount) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.applicationCount = applicationCount;
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public String getConnectionUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public static String getApplicationId(int index) {
+        return String.format("application_1600000000000_%04d", index);
+    }
+
+    public static String getStagesPath(int index) {
+        return API_PREFIX + "/" + getApplicationId(index) + "/1/stages";
+    }
+
+    public int getRequestCount(String path) {
+        return requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).get();
+    }
+
+    public int getRespondedCount() {
+        return respondedCount.get();
+    }
+
+    /**
+     * Hold the requests until resumed, the latency starts after resumed.
+     */
+    public void pause() {
+        pausing = new CountDownLatch(1);
+    }
+
+    public void resume() {
+        pausing.countDown();
+    }
+
+    public void stop() {
+        resume();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+
+        try {
+            pausing.await();
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (path.equals(API_PREFIX) || path.equals(API_PREFIX + "/")) {
+            respond(exchange, IntStream.range(0, applicationCount)
+                    .mapToObj(i -> String.format(
+                            "{\"id\":\"%s\",\"name\":\"app%d\",\"attempts\":[{\"attemptId\":\"1\"}]}",
+                            getApplicationId(i), i))
+                    .collect(Collectors.joining(",", "[", "]")));
+        } else if (path.endsWith("/stages")) {
+            respond(exchange, IntStream.range(0, STAGE_COUNT)
+                    .mapToObj(i -> String.format(
+                            "{\"status\":\"COMPLETE\",\"stageId\":%d,\"attemptId\":0,\"name\":\"collect at Main.scala:%d\"}",
+                            i, i))
+                    .collect(Collectors.joining(",", "[", "]")));
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(bytes);
+            }
+            respondedCount.incrementAndGet();
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.apache.commons.io.IOUtils;
+import rx.schedulers.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class SparkJobLogInputStreamScenario {
+    private SparkJobLogFetchScheduler fetchScheduler;
+    private final List<SparkJobLogInputStream> streams = new ArrayList<>();
+
+    @After
+    public void cleanUp() throws Throwable {
+        if (fetchScheduler != null) {
+            fetchScheduler.close();
+        }
+
+        for (final SparkJobLogInputStream stream : streams) {
+            stream.close();
+        }
+    }
+
+    @Given("^a Spark job log fetch scheduler ticking every (\\d+) ms$")
+    public void createFetchScheduler(long tickMillis) {
+        fetchScheduler = new SparkJobLogFetchScheduler(Schedulers.io(), tickMillis);
+    }
+
+    @Given("^attach a Spark job '(.+)' log stream with buffer size (\\d+) fed by the log slices$")
+    public void attachLogStream(String logType, int bufferSize, List<String> slices) {
+        final SparkJobLogInputStream stream = new SparkJobLogInputStream(logType, fetchScheduler, bufferSize) {
+            private int next = 0;
+
+            @Override
+            protected Optional<SimpleImmutableEntry<String, Long>> fetchLog(long logOffset, int fetchSize) {
+                return next < slices.size()
+                        ? Optional.of(new SimpleImmutableEntry<>(slices.get(next++), logOffset))
+                        : Optional.empty();
+            }
+        };
+
+        stream.attachJob(mock(ISparkBatchJob.class));
+        streams.add(stream);
+    }
+
+    @When("^the Spark job log fetch scheduler is closed$")
+    public void closeFetchScheduler() {
+        fetchScheduler.close();
+    }
+
+    @Then("^the Spark job log stream (\\d+) should be available without blocking$")
+    public void checkAvailableNotBlocking(int index) throws Throwable {
+        final long start = System.currentTimeMillis();
+        streams.get(index).available();
+
+        assertTrue(System.currentTimeMillis() - start < 100);
+    }
+
+    @Then("^reading the Spark job log stream (\\d+) to the end should get '(.*)'$")
+    public void checkReadToEnd(int index, String expected) throws Throwable {
+        assertEquals(expected, IOUtils.toString(streams.get(index), StandardCharsets.UTF_8));
+    }
+
+    @Then("^the Spark job log stream (\\d+) metrics should have (\\d+) bytes fetched and read$")
+    public void checkMetrics(int index, long bytes) {
+        final SparkJobLogMetrics metrics = streams.get(index).getMetrics();
+
+        assertEquals(bytes, metrics.getBytesFetched());
+        assertEquals(bytes, metrics.getBytesRead());
+        assertTrue(metrics.getFetches() > 0);
+    }
+}
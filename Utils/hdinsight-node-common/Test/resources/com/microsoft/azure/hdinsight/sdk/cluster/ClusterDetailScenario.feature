@@ -0,0 +1,39 @@
+Feature: ClusterDetail unit test
+
+  Scenario: ClusterDetail shares one configuration load with the concurrent callers
+    Given a cluster whose configuration requests are blocked
+    When 8 callers get the cluster configuration concurrently
+    And the configuration requests are released
+    Then all the callers should get the cluster configuration
+    And the cluster should get 1 configuration request
+
+  Scenario: ClusterDetail keeps the loaded configuration for 30 minutes
+    Given a cluster whose configuration requests succeed
+    When get the cluster configuration
+    And 29 minutes pass
+    And get the cluster configuration
+    Then the cluster should get 1 configuration request
+    When 2 minutes pass
+    And the configuration requests fail
+    And get the cluster configuration
+    Then the cluster configuration should be available
+    When wait for the configuration load done
+    Then the cluster should get 2 configuration requests
+
+  Scenario: ClusterDetail rethrows the failed configuration load for 30 seconds
+    Given a cluster whose configuration requests fail
+    Then getting the cluster configuration should fail
+    When 29 seconds pass
+    Then getting the cluster configuration should fail
+    And the cluster should get 1 configuration request
+    When 2 seconds pass
+    And the configuration requests succeed
+    And get the cluster configuration
+    Then the cluster configuration should be available
+    And the cluster should get 2 configuration requests
+
+  Scenario: ClusterDetail prefetches more clusters than the configuration loaders without starving them
+    Given a cluster whose configuration requests succeed
+    When prefetch the configuration of 16 clusters wrapping the cluster
+    Then the cluster configuration should be available
+    And the cluster should get 1 configuration request
@@ -0,0 +1,20 @@
+Feature: HttpConnectionHub unit test
+
+  Scenario: HttpConnectionHub reuses the TLS connections for the HttpObservable instances to the same host
+    Given a mocked HTTPS server for GET request '/ping' to return 'pong' after 0 ms
+    And the HTTP connection hub allows 5 connections per route
+    When send 500 sequential GET requests to 'localhost' '/ping' through 20 HttpObservable instances
+    Then all the responses should be 'pong'
+    And the TLS handshakes of the HTTP connection hub should be at most 5
+
+  Scenario: HttpConnectionHub doesn't let a slow route starve the other hosts
+    Given a mocked HTTPS server for GET request '/slow' to return 'slow' after 3000 ms
+    And a mocked HTTPS server for GET request '/fast' to return 'fast' after 0 ms
+    And the HTTP connection hub allows 2 connections per route
+    When send 4 concurrent GET requests to 'localhost' '/slow'
+    Then the GET request to '127.0.0.1' '/fast' should return 'fast' within 1000 ms
+
+  Scenario: HttpConnectionHub verifies the OAuth token requests by the system trust only
+    Given a mocked HTTPS server for GET request '/token' to return 'token' after 0 ms
+    Then the GET request to 'localhost' '/token' should return 'token' within 1000 ms
+    And the GET request to 'localhost' '/token' with an OAuth token should fail the certificate verification
@@ -0,0 +1,53 @@
+Feature: LivySessionPool unit test
+
+  Scenario: LivySessionPool hands the released session to the next console
+    Given a mock Livy service starting sessions in 500 ms and running statements in 10 ms
+    And a Livy session pool keeping 1 idle sessions per key and 4 in total for 60000 ms
+    When the console 'console1' acquires a Spark session from the pool
+    And the console 'console1' releases its session to the pool
+    Then the console 'console2' should acquire a Spark session from the pool in 100 ms
+    And the mock Livy service should get 1 'POST' requests to '/sessions'
+
+  Scenario: LivySessionPool doesn't hand the released session to a console of another user
+    Given a mock Livy service starting sessions in 0 ms and running statements in 10 ms
+    And a Livy session pool keeping 1 idle sessions per key and 4 in total for 60000 ms
+    When the user 'alice' acquires a Spark session from the pool on the console 'console1'
+    And the console 'console1' releases its session to the pool
+    And the user 'bob' acquires a Spark session from the pool on the console 'console2'
+    Then the mock Livy service should get 2 'POST' requests to '/sessions'
+    And the Livy session pool should keep 1 idle sessions
+    When the user 'alice' acquires a Spark session from the pool on the console 'console3'
+    Then the mock Livy service should get 2 'POST' requests to '/sessions'
+    And the Livy session pool should keep 0 idle sessions
+
+  Scenario: LivySessionPool sessions run statements without checking the session state
+    Given a mock Livy service starting sessions in 0 ms and running statements in 10 ms
+    And a Livy session pool keeping 1 idle sessions per key and 4 in total for 60000 ms
+    When the console 'console1' acquires a Spark session from the pool
+    And the console 'console1' runs 100 statements '1 + 1' one by one
+    And the console 'console1' submits 100 statements '1 + 1' without waiting
+    Then the mock Livy service should get 0 'GET' requests to '/sessions/0'
+    And the mock Livy service should get 200 'POST' requests to '/sessions/0/statements'
+
+  Scenario: LivySessionPool honours its max size and idle TTL
+    Given a mock Livy service starting sessions in 0 ms and running statements in 10 ms
+    And a Livy session pool keeping 1 idle sessions per key and 4 in total for 500 ms
+    When the console 'console1' acquires a Spark session from the pool
+    And the console 'console2' acquires a Spark session from the pool
+    And the console 'console1' releases its session to the pool
+    And the console 'console2' releases its session to the pool
+    Then the Livy session pool should keep 1 idle sessions
+    And the mock Livy service should get 1 'DELETE' requests to '/sessions/1'
+    When wait 600 ms and check the health of the Livy session pool
+    Then the Livy session pool should keep 0 idle sessions
+    And the mock Livy service should get 1 'DELETE' requests to '/sessions/0'
+
+  Scenario: LivySessionPool doesn't keep the released session with running statements
+    Given a mock Livy service starting sessions in 0 ms and running statements in 500 ms
+    And a Livy session pool keeping 1 idle sessions per key and 4 in total for 60000 ms
+    When the console 'console1' acquires a Spark session from the pool
+    And the console 'console1' releases its session to the pool while 2 statements '1 + 1' are running
+    Then the Livy session pool should keep 0 idle sessions
+    And the mock Livy service should get 1 'DELETE' requests to '/sessions/0'
+    When the console 'console2' acquires a Spark session from the pool
+    Then the mock Livy service should get 2 'POST' requests to '/sessions'
@@ -0,0 +1,72 @@
+Feature: RemoteFileBrowser unit test
+
+  Scenario: RemoteFileBrowser streams the first page regardless of the directory size
+    Given a mock storage service responding in 50 ms with 100 entries per page
+    And the remote directory 'big' has 2000 files and 0 directories
+    And the remote directory 'small' has 10 files and 0 directories
+    And a remote file browser caching listings for 60000 ms with 0 prefetch requests
+    When list the ADLS Gen2 directory 'small'
+    Then the first entry of the ADLS Gen2 directory 'big' should be listed in 500 ms
+    And the first entry of the WebHDFS directory 'big' should be listed in 500 ms
+    And the ADLS Gen2 directory 'big' should be listed with 2000 entries
+    And the WebHDFS directory 'big' should be listed with 2000 entries
+
+  Scenario: RemoteFileBrowser lists the directory once for the concurrent and repeated requests
+    Given a mock storage service responding in 50 ms with 100 entries per page
+    And the remote directory 'data' has 450 files and 3 directories
+    And a remote file browser caching listings for 60000 ms with 0 prefetch requests
+    Then 5 concurrent listings of the ADLS Gen2 directory 'data' should get 453 entries each
+    And the mock storage service should get 5 'LIST' requests
+    When clear the requests to the mock storage service
+    Then the ADLS Gen2 directory 'data' should be listed with 453 entries
+    And the ADLS Gen2 path 'data/file-00001' should be a file
+    And the ADLS Gen2 path 'data/missing' should not exist
+    And the mock storage service should get no requests
+
+  Scenario: RemoteFileBrowser lists again after the TTL
+    Given a mock storage service responding in 0 ms with 100 entries per page
+    And the remote directory 'data' has 10 files and 0 directories
+    And a remote file browser caching listings for 300 ms with 0 prefetch requests
+    When list the WebHDFS directory 'data'
+    And clear the requests to the mock storage service
+    Then the WebHDFS directory 'data' should be cached
+    And the WebHDFS directory 'data' should be listed with 10 entries
+    And the mock storage service should get no requests
+    When wait 400 ms
+    Then the WebHDFS directory 'data' should not be cached
+    And the WebHDFS directory 'data' should be listed with 10 entries
+    And the mock storage service should get 1 'LISTSTATUS_BATCH' requests
+
+  Scenario: RemoteFileBrowser checks the existence without listing the parent
+    Given a mock storage service responding in 10 ms with 100 entries per page
+    And the remote directory 'data/sub' has 1000 files and 0 directories
+    And a remote file browser caching listings for 60000 ms with 0 prefetch requests
+    Then the ADLS Gen2 path 'data/sub/file-00999' should be a file
+    And the ADLS Gen2 path 'data/sub' should be a directory
+    And the ADLS Gen2 path 'data/sub/missing' should not exist
+    And the WebHDFS path 'data/sub/file-00999' should be a file
+    And the WebHDFS path 'data/sub/missing' should not exist
+    And the mock storage service should get 3 'GETSTATUS' requests
+    And the mock storage service should get 2 'GETFILESTATUS' requests
+    And the mock storage service should get 0 'LIST' requests
+    And the mock storage service should get 0 'LISTSTATUS_BATCH' requests
+
+  Scenario: RemoteFileBrowser prefetches the sub-directories with limited concurrency
+    Given a mock storage service responding in 50 ms with 100 entries per page
+    And the remote directory 'parent' has 5 files and 20 directories
+    And a remote file browser caching listings for 60000 ms with 3 prefetch requests
+    When list the ADLS Gen2 directory 'parent'
+    And wait for the prefetching done
+    Then the 20 sub-directories of the ADLS Gen2 directory 'parent' should be cached
+    And the mock storage service should get at most 3 concurrent listings
+    When clear the requests to the mock storage service
+    And list the ADLS Gen2 directory 'parent/dir-00007'
+    Then the mock storage service should get no requests
+
+  Scenario: RemoteFileBrowser drops the cached listings after uploading by ADLSGen2Deploy
+    Given a mock storage service responding in 0 ms with 100 entries per page
+    And the remote directory 'SparkSubmission' has 0 files and 0 directories
+    When deploy the artifact 'app.jar' to the ADLS Gen2 directory 'SparkSubmission'
+    Then the ADLS Gen2 directory 'SparkSubmission' should not be cached
+    And the ADLS Gen2 directory 'SparkSubmission' should have a new folder
+    And the ADLS Gen2 directory 'SparkSubmission' should be cached
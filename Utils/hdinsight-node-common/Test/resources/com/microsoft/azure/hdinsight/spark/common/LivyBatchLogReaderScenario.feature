@@ -0,0 +1,27 @@
+Feature: LivyBatchLogReader unit test
+
+  Scenario: LivyBatchLogReader reads the growing log incrementally
+    Given a mock Livy batch 1 with 0 log lines
+    And the Livy batch log reader with page size 500
+    And the mock Livy batch appends 5 lines every ms
+    When read the Livy batch log polling every 1 ms till 1000 fetches made
+    Then the Livy batch log lines read should be all the 3001 lines logged in order
+    And the YARN application ID should be detected once after scanning 3001 lines
+    And the bytes sent by the mock Livy server should be less than 2 times of the log plus 100 bytes per fetch
+
+  Scenario: LivyBatchLogReader reads the large log with the bounded memory
+    Given a mock Livy batch 2 with 200000 log lines
+    And the Livy batch log reader with page size 500
+    When read 200000 Livy batch log lines one by one
+    Then the Livy batch log lines read should be all the 200000 lines logged in order
+    And the mock Livy server should never send more than 1000 lines ahead of the reading
+    And the bytes sent by the mock Livy server should be less than 2 times of the log plus 100 bytes per fetch
+    And the YARN application ID should be detected once after scanning 3001 lines
+
+  Scenario: LivyBatchLogReader reads the rotated log from the start
+    Given a mock Livy batch 3 with 1000 log lines
+    And the Livy batch log reader with page size 300
+    When read 1000 Livy batch log lines one by one
+    And the mock Livy batch log is rotated to 400 new lines
+    And read the rest Livy batch log lines
+    Then the Livy batch log lines read should be 1000 lines logged and then 400 rotated lines
@@ -0,0 +1,56 @@
+Feature: JobViewHttpServer unit test
+
+  Scenario: JobViewHttpServer shares one upstream fetch among the concurrent identical requests
+    Given a mock Spark history server responding in 500 ms with 20 applications
+    And the job view HTTP server is started
+    And the Spark applications of the mock cluster are listed
+    And the mock Spark history server is paused
+    When send 500 concurrent stage requests of the 20 applications from 50 job views in background
+    And wait until the job view server has 500 waiting requests
+    And the mock Spark history server is resumed
+    And wait for the concurrent requests
+    Then all the job view responses should be the gzipped stages
+    And the mock Spark history server should get 1 request for the stages of each of the 20 applications
+    And the job view server should run less than 100 threads
+
+  Scenario: JobViewHttpServer serves the concurrent requests within the upstream latency
+    Given a mock Spark history server responding in 500 ms with 20 applications
+    And the job view HTTP server is started
+    And the Spark applications of the mock cluster are listed
+    When send 500 concurrent connection checks
+    And send 500 concurrent stage requests of the 20 applications from 50 job views
+    Then all the job view responses should be the gzipped stages
+    And the p99 latency of the stage requests should exceed the connection checks by less than 1000 ms
+    And the job view server should run less than 100 threads
+
+  Scenario: JobViewHttpServer cancels the upstream fetch of a closed job view
+    Given a mock Spark history server responding in 500 ms with 5 applications
+    And the job view HTTP server is started
+    And the Spark applications of the mock cluster are listed
+    When request the stages of the application 3 from the job view 'tab-1' in background
+    And wait 100 ms
+    And cancel the job view 'tab-1'
+    Then the job view fetches should stop in 200 ms
+    And the background job view request should be closed without response
+    And the mock Spark history server should get 1 request for the stages of the application 3
+    And the mock Spark history server should respond 1 requests
+
+  Scenario: JobViewHttpServer keeps the fetch shared with the other job views
+    Given a mock Spark history server responding in 500 ms with 5 applications
+    And the job view HTTP server is started
+    And the Spark applications of the mock cluster are listed
+    When request the stages of the application 2 from the job view 'tab-1' in background
+    And wait 100 ms
+    And cancel the job view 'tab-2'
+    And request the stages of the application 2 from the job view 'tab-2'
+    Then all the job view responses should be the gzipped stages
+    And the mock Spark history server should get 1 request for the stages of the application 2
+
+  Scenario: JobViewHttpServer times out the slow request and stops its upstream fetch
+    Given a mock Spark history server responding in 1500 ms with 5 applications
+    And the job view requests time out in 1 seconds
+    And the job view HTTP server is started
+    And the Spark applications of the mock cluster are listed
+    When request the stages of the application 1 from the job view 'tab-1'
+    Then the job view response should be 504
+    And the job view fetches should stop in 200 ms
@@ -0,0 +1,23 @@
+Feature: SparkJobLogInputStream unit test
+
+  Scenario: SparkJobLogInputStream reads the logs larger than its buffer
+    Given a Spark job log fetch scheduler ticking every 10 ms
+    And attach a Spark job 'stdout' log stream with buffer size 8 fed by the log slices
+      | 0123456789abcdef |
+      | ghij             |
+      | klmnopqrstuvwxyz |
+    Then the Spark job log stream 0 should be available without blocking
+    When the Spark job log fetch scheduler is closed
+    Then reading the Spark job log stream 0 to the end should get '0123456789abcdefghijklmnopqrstuvwxyz'
+    And the Spark job log stream 0 metrics should have 36 bytes fetched and read
+
+  Scenario: SparkJobLogInputStream shares the fetch scheduler of the job
+    Given a Spark job log fetch scheduler ticking every 10 ms
+    And attach a Spark job 'stdout' log stream with buffer size 1024 fed by the log slices
+      | stdout line 1 |
+      | stdout line 2 |
+    And attach a Spark job 'stderr' log stream with buffer size 1024 fed by the log slices
+      | stderr line 1 |
+    When the Spark job log fetch scheduler is closed
+    Then reading the Spark job log stream 1 to the end should get 'stderr line 1'
+    And reading the Spark job log stream 0 to the end should get 'stdout line 1stdout line 2'
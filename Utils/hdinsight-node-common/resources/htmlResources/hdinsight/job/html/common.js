@@ -26,6 +26,24 @@ function findElement(arrs, func) {
 
 var asyncMessageCounter = 0;
 
+// Identify the requests of this page, so the server cancels them when the page is closed
+var jobViewId = Math.random().toString(36).substring(2) + Date.now().toString(36);
+
+window.addEventListener('pagehide', function () {
+    if (!spark.localhost) {
+        return;
+    }
+
+    var cancelUrl = spark.localhost + '/cancel?view-id=' + jobViewId;
+    if (navigator.sendBeacon) {
+        navigator.sendBeacon(cancelUrl);
+    } else {
+        var xmlHttp = new XMLHttpRequest();
+        xmlHttp.open('GET', cancelUrl, false);
+        xmlHttp.send(null);
+    }
+});
+
 function getRestHeaders(type) {
     return {'http-type' : type, 'cluster-name' : spark.clusterName }
 }
@@ -44,7 +62,8 @@ function getMessageAsync(url, type, callback, appId) {
     var queries = {
         'http-type' : type || 'spark',
         'cluster-name' : spark.clusterName || '0',
-        'appId' : appId || '0'
+        'appId' : appId || '0',
+        'view-id' : jobViewId
     };
     var queryString = serializeQuery(queries);
 
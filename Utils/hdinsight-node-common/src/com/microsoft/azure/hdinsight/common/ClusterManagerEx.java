@@ -29,6 +29,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -54,6 +55,7 @@ public class ClusterManagerEx implements ILogger {
     private boolean isListAdditionalClusterSuccess = false;
     private boolean isListEmulatorClusterSuccess = false;
     private boolean isSelectedSubscriptionExist = false;
+    private boolean isClusterSnapshotRestored = false;
 
     private ClusterManagerEx() {
     }
@@ -67,6 +69,7 @@ public class ClusterManagerEx implements ILogger {
                     AuthMethodManager.getInstance().addSignOutEventListener(() -> {
                         // Clean cached clusters
                         instance.setCachedClusters(instance.additionalClusterDetails);
+                        instance.removeClusterSnapshot();
                     });
                 }
             }
@@ -166,14 +169,9 @@ public class ClusterManagerEx implements ILogger {
                 clusterDetail instanceof EmulatorClusterDetail;
     }
 
-    synchronized Observable<List<ClusterDetail>> getSubscriptionHDInsightClustersOfType(List<SubscriptionDetail> list) {
+    Observable<SubscriptionClusters> getSubscriptionHDInsightClustersOfType(List<SubscriptionDetail> list) {
         setSelectedSubscriptionExist(list.stream().anyMatch(SubscriptionDetail::isSelected));
-        return ClusterManager.getInstance().getHDInsightClustersWithSpecificType(list, OSTYPE)
-                .doOnNext(clusters -> isListClusterSuccess = true)
-                .doOnError(err -> {
-                    log().warn("Error Refreshing HDInsight clusters. " + ExceptionUtils.getStackTrace(err));
-                    isListClusterSuccess = false;
-                });
+        return ClusterManager.getInstance().discoverHDInsightClustersWithSpecificType(list, OSTYPE);
     }
 
     public List<IClusterDetail> getAdditionalClusterDetails() {
@@ -200,18 +198,56 @@ public class ClusterManagerEx implements ILogger {
         }
     }
 
+    /**
+     * Get the HDInsight clusters of the selected subscriptions, the clusters listed last time are kept for the
+     * subscriptions failed or timed out
+     *
+     * @param onProgress called in the current thread with the clusters got so far once a subscription responds
+     */
     @NotNull
-    List<ClusterDetail> getSubscriptionHDInsightClusters(@Nullable AzureManager manager) {
+    List<ClusterDetail> getSubscriptionHDInsightClusters(@Nullable AzureManager manager,
+                                                         @NotNull Consumer<List<ClusterDetail>> onProgress) {
         if (manager == null) {
             return new ArrayList<>();
         }
 
-        return Observable.fromCallable(() -> manager.getSubscriptionManager().getSelectedSubscriptionDetails())
-                .doOnError(err -> log().warn("Failed to list HDInsight Clusters: {}", err.getMessage()))
-                .flatMap(this::getSubscriptionHDInsightClustersOfType)
-                .onErrorResumeNext(Observable.just(new ArrayList<>()))
-                .toBlocking()
-                .singleOrDefault(new ArrayList<>());
+        final Map<String, List<ClusterDetail>> lastListedClusters = getCachedClusters().stream()
+                .filter(ClusterDetail.class::isInstance)
+                .map(ClusterDetail.class::cast)
+                .filter(cluster -> cluster.getSubscription() != null)
+                .collect(Collectors.groupingBy(cluster -> cluster.getSubscription().getSubscriptionId()));
+        final List<ClusterDetail> clusters = new ArrayList<>();
+        boolean isAnySucceeded = false;
+
+        try {
+            final Iterable<SubscriptionClusters> subscriptionClustersIterable =
+                    Observable.fromCallable(() -> manager.getSubscriptionManager().getSelectedSubscriptionDetails())
+                            .doOnError(err -> log().warn("Failed to list HDInsight Clusters: {}", err.getMessage()))
+                            .flatMap(this::getSubscriptionHDInsightClustersOfType)
+                            .toBlocking()
+                            .toIterable();
+
+            for (final SubscriptionClusters subscriptionClusters : subscriptionClustersIterable) {
+                if (subscriptionClusters.isSucceeded()) {
+                    isAnySucceeded = true;
+                    clusters.addAll(subscriptionClusters.getClusters());
+                } else {
+                    clusters.addAll(lastListedClusters.getOrDefault(
+                            subscriptionClusters.getSubscription().getSubscriptionId(), emptyList()));
+                }
+
+                onProgress.accept(Collections.unmodifiableList(new ArrayList<>(clusters)));
+            }
+        } catch (RuntimeException err) {
+            log().warn("Error Refreshing HDInsight clusters. " + ExceptionUtils.getStackTrace(err));
+            isListClusterSuccess = false;
+
+            return new ArrayList<>();
+        }
+
+        isListClusterSuccess = isAnySucceeded || clusters.isEmpty();
+
+        return clusters;
     }
 
     /**
@@ -223,6 +259,60 @@ public class ClusterManagerEx implements ILogger {
      * @return all kinds of cluster details
      */
     public ImmutableList<IClusterDetail> getClusterDetails() {
+        return getClusterDetails(clusters -> {});
+    }
+
+    /**
+     * Same as {@link #getClusterDetails()} with the clusters got so far reported once a subscription responds
+     *
+     * @param onProgress called in the current thread with all kinds of clusters got so far
+     * @return all kinds of cluster details
+     */
+    public ImmutableList<IClusterDetail> getClusterDetails(@NotNull Consumer<ImmutableList<IClusterDetail>> onProgress) {
+        final List<IClusterDetail> linkedClusters = listLinkedClusters();
+        final List<IClusterDetail> emulatorClusters = listEmulatorClusters();
+
+        // Get clusters from Subscription, an empty list for non-logged in user.
+        final AzureManager azureManager = getAzureManager();
+        List<ClusterDetail> clusterDetailsFromSubscription = getSubscriptionHDInsightClusters(
+                azureManager,
+                clusters -> onProgress.accept(mergeClusters(linkedClusters, emulatorClusters, clusters)));
+
+        // Sort the merged clusters before set it to cache, sorting algorithm is based on cluster name
+        ImmutableList<IClusterDetail> mergedClusters =
+                mergeClusters(linkedClusters, emulatorClusters, clusterDetailsFromSubscription);
+
+        synchronized (this) {
+            setAdditionalClusterDetails(linkedClusters);
+            isListAdditionalClusterSuccess = true;
+
+            setEmulatorClusterDetails(emulatorClusters);
+            isListEmulatorClusterSuccess = true;
+
+            // Keep the clusters listed for next startup
+            if (azureManager != null && isListClusterSuccess) {
+                saveClusterSnapshot(clusterDetailsFromSubscription);
+            }
+
+            setCachedClusters(mergedClusters);
+            isListClusterSuccess = true;
+
+            return getCachedClusters();
+        }
+    }
+
+    private ImmutableList<IClusterDetail> mergeClusters(@NotNull List<IClusterDetail> linkedClusters,
+                                                        @NotNull List<IClusterDetail> emulatorClusters,
+                                                        @NotNull List<ClusterDetail> subscriptionClusters) {
+        return new ImmutableSortedSet.Builder<IClusterDetail>(ComparableCluster::compareTo)
+                .addAll(linkedClusters)
+                .addAll(emulatorClusters)
+                .addAll(subscriptionClusters)
+                .build()
+                .asList();
+    }
+
+    private List<IClusterDetail> listLinkedClusters() {
         List<IClusterDetail> linkedClusters;
         if (!isListAdditionalClusterSuccess()) {
             try {
@@ -234,6 +324,10 @@ public class ClusterManagerEx implements ILogger {
             linkedClusters = getAdditionalClusterDetails();
         }
 
+        return linkedClusters;
+    }
+
+    private List<IClusterDetail> listEmulatorClusters() {
         List<IClusterDetail> emulatorClusters;
         if (!isListEmulatorClusterSuccess()) {
             try {
@@ -245,29 +339,82 @@ public class ClusterManagerEx implements ILogger {
             emulatorClusters = getEmulatorClusterDetails();
         }
 
-        // Get clusters from Subscription, an empty list for non-logged in user.
-        List<ClusterDetail> clusterDetailsFromSubscription = getSubscriptionHDInsightClusters(getAzureManager());
+        return emulatorClusters;
+    }
 
-        // Sort the merged clusters before set it to cache, sorting algorithm is based on cluster name
-        ImmutableSortedSet<IClusterDetail> mergedClusters =
-                new ImmutableSortedSet.Builder<IClusterDetail>(ComparableCluster::compareTo)
-                        .addAll(linkedClusters)
-                        .addAll(emulatorClusters)
-                        .addAll(clusterDetailsFromSubscription)
-                        .build();
+    /**
+     * Put the subscription clusters listed last time into cache if no clusters are listed yet, for the explorer to
+     * show them at once while the subscriptions are being listed
+     *
+     * @return true if any clusters restored, which should be refreshed in background
+     */
+    public synchronized boolean restoreClusterSnapshot() {
+        if (isClusterSnapshotRestored || isListClusterSuccess()) {
+            return false;
+        }
 
-        synchronized (this) {
-            setAdditionalClusterDetails(linkedClusters);
-            isListAdditionalClusterSuccess = true;
+        isClusterSnapshotRestored = true;
 
-            setEmulatorClusterDetails(emulatorClusters);
-            isListEmulatorClusterSuccess = true;
+        final List<ClusterDetail> clusters;
+        try {
+            final AzureManager manager = getAzureManager();
+            if (manager == null) {
+                return false;
+            }
 
-            setCachedClusters(mergedClusters.asList());
-            isListClusterSuccess = true;
+            final Set<String> selectedSubscriptionIds = manager.getSubscriptionManager().getSelectedSubscriptionDetails()
+                    .stream()
+                    .map(SubscriptionDetail::getSubscriptionId)
+                    .collect(Collectors.toSet());
+            clusters = loadClusterSnapshot().stream()
+                    .filter(snapshot -> snapshot.getSubscription() != null
+                            && selectedSubscriptionIds.contains(snapshot.getSubscription().getSubscriptionId()))
+                    .map(ClusterDetailSnapshot::toClusterDetail)
+                    .collect(Collectors.toList());
+        } catch (Exception ex) {
+            log().warn("Failed to restore the HDInsight clusters listed last time", ex);
 
-            return getCachedClusters();
+            return false;
         }
+
+        if (clusters.isEmpty()) {
+            return false;
+        }
+
+        setCachedClusters(mergeClusters(listLinkedClusters(), listEmulatorClusters(), clusters));
+
+        return true;
+    }
+
+    private void saveClusterSnapshot(@NotNull List<ClusterDetail> clusters) {
+        try {
+            final List<ClusterDetailSnapshot> snapshots = clusters.stream()
+                    .map(ClusterDetailSnapshot::of)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .collect(Collectors.toList());
+            DefaultLoader.getIdeHelper().setApplicationProperty(
+                    CommonConst.HDINSIGHT_SUBSCRIPTION_CLUSTERS_SNAPSHOT, new Gson().toJson(snapshots));
+        } catch (Exception ex) {
+            log().warn("Failed to save the HDInsight clusters listed", ex);
+        }
+    }
+
+    @NotNull
+    private List<ClusterDetailSnapshot> loadClusterSnapshot() {
+        final String json = DefaultLoader.getIdeHelper().getApplicationProperty(CommonConst.HDINSIGHT_SUBSCRIPTION_CLUSTERS_SNAPSHOT);
+        if (StringUtils.isBlank(json)) {
+            return emptyList();
+        }
+
+        final List<ClusterDetailSnapshot> snapshots =
+                new Gson().fromJson(json, new TypeToken<ArrayList<ClusterDetailSnapshot>>() { }.getType());
+
+        return snapshots == null ? emptyList() : snapshots;
+    }
+
+    void removeClusterSnapshot() {
+        DefaultLoader.getIdeHelper().unsetApplicationProperty(CommonConst.HDINSIGHT_SUBSCRIPTION_CLUSTERS_SNAPSHOT);
     }
 
     public synchronized  void addEmulatorCluster(EmulatorClusterDetail emulatorClusterDetail) {
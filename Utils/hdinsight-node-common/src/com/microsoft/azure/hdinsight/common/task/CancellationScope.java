@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.common.task;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * The cancellation of a call and the blocking requests it made. The blocking I/O doesn't respond to the thread
+ * interruption, so the requests made in {@link #call(Callable)} register their aborts with {@link #onCancel(Runnable)}
+ * to be stopped by {@link #cancel()} from another thread.
+ */
+public class CancellationScope {
+    private static final ThreadLocal<CancellationScope> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> cancellers = new ArrayList<>();
+    private boolean isCancelled = false;
+
+    /**
+     * @return the scope of the call running on the current thread, or null if the call isn't cancellable
+     */
+    @Nullable
+    public static CancellationScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Register the abort of a blocking request with the scope of the current thread, if any.
+     */
+    public static void onCurrentCancel(@NotNull Runnable canceller) {
+        final CancellationScope scope = current();
+        if (scope != null) {
+            scope.onCancel(canceller);
+        }
+    }
+
+    public <T> T call(@NotNull Callable<T> callable) throws Exception {
+        final CancellationScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return callable.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Run the canceller when the scope is cancelled, or right now if it's already cancelled.
+     */
+    public void onCancel(@NotNull Runnable canceller) {
+        synchronized (cancellers) {
+            if (!isCancelled) {
+                cancellers.add(canceller);
+                return;
+            }
+        }
+
+        canceller.run();
+    }
+
+    public void cancel() {
+        final List<Runnable> toRun;
+        synchronized (cancellers) {
+            if (isCancelled) {
+                return;
+            }
+
+            isCancelled = true;
+            toRun = new ArrayList<>(cancellers);
+            cancellers.clear();
+        }
+
+        toRun.forEach(Runnable::run);
+    }
+
+    public boolean isCancelled() {
+        synchronized (cancellers) {
+            return isCancelled;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.common.task;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of daemon threads with a bounded queue, which counts the tasks rejected when both are full. The
+ * threads are created on demand and die after idle for a minute.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * @param nameFormat the thread name format with a "%d" for the thread number, e.g. "hdinsight-task-%d"
+     */
+    public InstrumentedThreadPoolExecutor(@NotNull String nameFormat, int maxThreads, int queueSize) {
+        super(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(queueSize),
+              new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler((runnable, executor) -> {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(
+                    "Task rejected with " + getActiveCount() + " active and " + getQueueDepth() + " queued");
+        });
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
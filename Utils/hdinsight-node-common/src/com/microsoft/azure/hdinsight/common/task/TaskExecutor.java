@@ -10,15 +10,77 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Run the REST tasks on a bounded pool, the tasks beyond the max threads wait in the queue and the tasks beyond the
+ * queue size fail with {@link RejectedExecutionException} instead of growing the threads. The limits can be set with
+ * the system properties {@value #MAX_THREADS_PROPERTY} (default 16) and {@value #QUEUE_SIZE_PROPERTY} (default 256).
+ */
 public class TaskExecutor {
-    private static ListeningExecutorService executors = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    public static final String MAX_THREADS_PROPERTY = "azure.toolkit.task.maxThreads";
+    public static final String QUEUE_SIZE_PROPERTY = "azure.toolkit.task.queueSize";
+
+    private static final int DEFAULT_MAX_THREADS = 16;
+    private static final int DEFAULT_QUEUE_SIZE = 256;
+
+    private static final InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor(
+            "hdinsight-task-%d",
+            Integer.getInteger(MAX_THREADS_PROPERTY, DEFAULT_MAX_THREADS),
+            Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE));
+    private static final ListeningExecutorService executors = MoreExecutors.listeningDecorator(pool);
 
     public static <T> ListenableFuture<T> submit(@NotNull Task<T> task) {
-        final ListenableFuture<T> listenableFuture = executors.submit(task);
+        ListenableFuture<T> listenableFuture;
+        try {
+            listenableFuture = executors.submit(task);
+        } catch (RejectedExecutionException ex) {
+            listenableFuture = Futures.immediateFailedFuture(ex);
+        }
+
         Futures.addCallback(listenableFuture, task.callback, MoreExecutors.directExecutor());
         return listenableFuture;
     }
+
+    public static int getQueueDepth() {
+        return pool.getQueueDepth();
+    }
+
+    public static int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public static long getRejectedCount() {
+        return pool.getRejectedCount();
+    }
+
+    /**
+     * Create an executor for the tasks mostly blocked on remote I/O, which starts a virtual thread per task on the Java
+     * runtimes supporting them, or runs the tasks on a bounded pool of platform threads.
+     *
+     * @param nameFormat the platform thread name format with a "%d" for the thread number
+     */
+    @NotNull
+    public static ExecutorService newBlockingIoExecutor(@NotNull String nameFormat, int maxThreads, int queueSize) {
+        final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+        return virtualThreadExecutor != null
+               ? virtualThreadExecutor
+               : new InstrumentedThreadPoolExecutor(nameFormat, maxThreads, queueSize);
+    }
+
+    @Nullable
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // Built with Java 8, so look up the Java 21 API at runtime
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // Before Java 21, or the preview feature of Java 19 and 20 isn't enabled
+            return null;
+        }
+    }
 }
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.cluster;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.hdinsight.common.AbfsUri;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.WasbUri;
@@ -24,11 +25,21 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class ClusterDetail implements IClusterDetail, LivyCluster, YarnCluster, ILogger  {
 
@@ -43,9 +54,24 @@ public class ClusterDetail implements IClusterDetail, LivyCluster, YarnCluster,
     private final String ResourceGroupStartTag = "resourceGroups/";
     private final String ResourceGroupEndTag = "/providers/";
 
+    private static final long CONFIG_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long CONFIG_FAILURE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_CONFIG_LOADER_THREADS = 8;
+
+    // Shared by all clusters to bound the concurrent configuration requests
+    private static final ExecutorService CONFIG_LOADER = Executors.newFixedThreadPool(
+            MAX_CONFIG_LOADER_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("hdinsight-cluster-config-%d").setDaemon(true).build());
+
+    // The blocking loads of the other clusters, which may wait for the ones of CONFIG_LOADER, never run on it
+    private static final ExecutorService CONFIG_PREFETCHER = Executors.newFixedThreadPool(
+            MAX_CONFIG_LOADER_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("hdinsight-cluster-config-prefetch-%d").setDaemon(true).build());
+
     private SubscriptionDetail subscription;
     private ClusterRawInfo clusterRawInfo;
     private IClusterOperation clusterOperation;
+    private final Clock clock;
 
     private int dataNodes;
     @Nullable
@@ -54,16 +80,27 @@ public class ClusterDetail implements IClusterDetail, LivyCluster, YarnCluster,
     private String passWord;
     private IHDIStorageAccount defaultStorageAccount;
     private List<HDStorageAccount> additionalStorageAccounts;
-    private boolean isConfigInfoAvailable = false;
+    private volatile boolean isConfigInfoAvailable = false;
+    @Nullable
+    private CompletableFuture<Void> configLoad;
+    private long configLoadExpiresAt;
     @Nullable
     private Map<String, String> coresiteMap = null;
 
     public ClusterDetail(SubscriptionDetail paramSubscription,
                          ClusterRawInfo paramClusterRawInfo,
                          IClusterOperation clusterOperation){
+        this(paramSubscription, paramClusterRawInfo, clusterOperation, Clock.systemUTC());
+    }
+
+    ClusterDetail(SubscriptionDetail paramSubscription,
+                  ClusterRawInfo paramClusterRawInfo,
+                  IClusterOperation clusterOperation,
+                  @NotNull Clock clock){
         this.subscription = paramSubscription;
         this.clusterRawInfo = paramClusterRawInfo;
         this.clusterOperation = clusterOperation;
+        this.clock = clock;
         ExtractInfoFromComputeProfile();
     }
 
@@ -186,6 +223,14 @@ public class ClusterDetail implements IClusterDetail, LivyCluster, YarnCluster,
         return subscription;
     }
 
+    public ClusterRawInfo getClusterRawInfo() {
+        return clusterRawInfo;
+    }
+
+    public IClusterOperation getClusterOperation() {
+        return clusterOperation;
+    }
+
     public int getDataNodes(){
         return dataNodes;
     }
@@ -256,62 +301,160 @@ public class ClusterDetail implements IClusterDetail, LivyCluster, YarnCluster,
         }
     }
 
+    /**
+     * Load the cluster configuration, shared with the concurrent callers of the same cluster. A successful load is
+     * refreshed in the background once it is older than {@link #CONFIG_TTL_MILLIS}, while a failed one is rethrown
+     * without another request for {@link #CONFIG_FAILURE_TTL_MILLIS}.
+     */
     public void getConfigurationInfo() throws IOException, HDIException, AzureCmdException {
-        // If exception happens, isConfigInfoAvailable is still false, which means
-        // next time we call getConfigurationInfo(), load configuration codes will still be executed.
-        if (!isConfigInfoAvailable()) {
-            String userName = null;
-            String passWord = null;
-            Map<String, String> coresiteMap = null;
-            IHDIStorageAccount defaultStorageAccount = null;
-            List<HDStorageAccount> additionalStorageAccounts = null;
-
-            ClusterConfiguration clusterConfiguration =
-                    clusterOperation.getClusterConfiguration(subscription, clusterRawInfo.getId());
-            if (clusterConfiguration != null && clusterConfiguration.getConfigurations() != null) {
-                Configurations configurations = clusterConfiguration.getConfigurations();
-                Gateway gateway = configurations.getGateway();
-                if (gateway != null) {
-                    userName = gateway.getUsername();
-                    passWord = gateway.getPassword();
+        final CompletableFuture<Void> load = loadConfigurationInfoAsync();
+        if (isConfigInfoAvailable()) {
+            // Stale configuration is still usable while it's being refreshed
+            return;
+        }
+
+        try {
+            load.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while getting configuration of cluster " + getName());
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof HDIException) {
+                throw (HDIException) cause;
+            } else if (cause instanceof AzureCmdException) {
+                throw (AzureCmdException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new HDIException("Failed to get configuration of cluster " + getName(), cause);
+        }
+    }
+
+    /**
+     * Get the in-flight or cached configuration load, starting a new one when there is none or it has expired
+     */
+    @NotNull
+    public synchronized CompletableFuture<Void> loadConfigurationInfoAsync() {
+        if (configLoad != null && clock.millis() < configLoadExpiresAt) {
+            return configLoad;
+        }
+
+        final CompletableFuture<Void> load = new CompletableFuture<>();
+        configLoad = load;
+        configLoadExpiresAt = Long.MAX_VALUE;
+
+        try {
+            CONFIG_LOADER.execute(() -> {
+                try {
+                    fetchConfigurationInfo();
+                    completeConfigurationLoad(load, null);
+                } catch (Throwable ex) {
+                    completeConfigurationLoad(load, ex);
                 }
+            });
+        } catch (RejectedExecutionException ex) {
+            completeConfigurationLoad(load, ex);
+        }
+
+        return load;
+    }
+
+    // Set the expiration before completing, so that the callers woken up never see the in-flight one
+    private void completeConfigurationLoad(@NotNull CompletableFuture<Void> load, @Nullable Throwable ex) {
+        synchronized (this) {
+            if (configLoad == load) {
+                configLoadExpiresAt = clock.millis() + (ex == null ? CONFIG_TTL_MILLIS : CONFIG_FAILURE_TTL_MILLIS);
+            }
+        }
+
+        if (ex == null) {
+            load.complete(null);
+        } else {
+            load.completeExceptionally(ex);
+        }
+    }
 
-                Map<String, String> coresSiteMap = configurations.getCoresite();
-                ClusterIdentity clusterIdentity = configurations.getClusterIdentity();
-                if (coresSiteMap != null) {
-                    coresiteMap = coresSiteMap;
-                    try {
-                        defaultStorageAccount = getDefaultStorageAccount(coresSiteMap, clusterIdentity);
-                    } catch (HDIException exp) {
-                        String errMsg = String.format("Encounter exception when getting storage configuration for cluster name:%s,type:%s,location:%s," +
-                                        "state:%s,version:%s,osType:%s,kind:%s,spark version:%s",
-                                clusterRawInfo.getName(),
-                                clusterRawInfo.getType(),
-                                clusterRawInfo.getLocation(),
-                                clusterRawInfo.getProperties().getClusterState(),
-                                clusterRawInfo.getProperties().getClusterVersion(),
-                                clusterRawInfo.getProperties().getOsType(),
-                                clusterRawInfo.getProperties().getClusterDefinition().getKind(),
-                                clusterRawInfo.getProperties().getClusterDefinition().getComponentVersion().getSpark());
-                        log().warn(errMsg, exp);
-                        throw new HDIException(errMsg, exp);
+    /**
+     * Warm the configuration of the clusters in parallel, the returned future completes when all loads are done
+     * and never completes exceptionally. The memoised loads of {@link ClusterDetail} are composed as they are, only
+     * the other clusters are loaded with blocking calls, on a pool of their own
+     */
+    @NotNull
+    public static CompletableFuture<Void> prefetchConfigurationInfo(@NotNull Collection<? extends IClusterDetail> clusters) {
+        final CompletableFuture<?>[] loads = clusters.stream()
+                .map(cluster -> {
+                    if (cluster instanceof ClusterDetail) {
+                        return ((ClusterDetail) cluster).loadConfigurationInfoAsync();
                     }
 
-                    additionalStorageAccounts = getAdditionalStorageAccounts(coresSiteMap);
-                }
+                    return CompletableFuture.runAsync(() -> {
+                        try {
+                            cluster.getConfigurationInfo();
+                        } catch (IOException | HDIException | AzureCmdException ex) {
+                            throw new CompletionException(ex);
+                        }
+                    }, CONFIG_PREFETCHER);
+                })
+                .map(load -> load.exceptionally(ignored -> null))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(loads);
+    }
+
+    private void fetchConfigurationInfo() throws IOException, HDIException, AzureCmdException {
+        String userName = null;
+        String passWord = null;
+        Map<String, String> coresiteMap = null;
+        IHDIStorageAccount defaultStorageAccount = null;
+        List<HDStorageAccount> additionalStorageAccounts = null;
+
+        ClusterConfiguration clusterConfiguration =
+                clusterOperation.getClusterConfiguration(subscription, clusterRawInfo.getId());
+        if (clusterConfiguration != null && clusterConfiguration.getConfigurations() != null) {
+            Configurations configurations = clusterConfiguration.getConfigurations();
+            Gateway gateway = configurations.getGateway();
+            if (gateway != null) {
+                userName = gateway.getUsername();
+                passWord = gateway.getPassword();
             }
 
-            synchronized (this) {
-                if (!isConfigInfoAvailable()) {
-                    this.userName = userName;
-                    this.passWord = passWord;
-                    this.coresiteMap = coresiteMap;
-                    this.defaultStorageAccount = defaultStorageAccount;
-                    this.additionalStorageAccounts = additionalStorageAccounts;
-                    isConfigInfoAvailable = true;
+            Map<String, String> coresSiteMap = configurations.getCoresite();
+            ClusterIdentity clusterIdentity = configurations.getClusterIdentity();
+            if (coresSiteMap != null) {
+                coresiteMap = coresSiteMap;
+                try {
+                    defaultStorageAccount = getDefaultStorageAccount(coresSiteMap, clusterIdentity);
+                } catch (HDIException exp) {
+                    String errMsg = String.format("Encounter exception when getting storage configuration for cluster name:%s,type:%s,location:%s," +
+                                    "state:%s,version:%s,osType:%s,kind:%s,spark version:%s",
+                            clusterRawInfo.getName(),
+                            clusterRawInfo.getType(),
+                            clusterRawInfo.getLocation(),
+                            clusterRawInfo.getProperties().getClusterState(),
+                            clusterRawInfo.getProperties().getClusterVersion(),
+                            clusterRawInfo.getProperties().getOsType(),
+                            clusterRawInfo.getProperties().getClusterDefinition().getKind(),
+                            clusterRawInfo.getProperties().getClusterDefinition().getComponentVersion().getSpark());
+                    log().warn(errMsg, exp);
+                    throw new HDIException(errMsg, exp);
                 }
+
+                additionalStorageAccounts = getAdditionalStorageAccounts(coresSiteMap);
             }
         }
+
+        synchronized (this) {
+            this.userName = userName;
+            this.passWord = passWord;
+            this.coresiteMap = coresiteMap;
+            this.defaultStorageAccount = defaultStorageAccount;
+            this.additionalStorageAccounts = additionalStorageAccounts;
+            isConfigInfoAvailable = true;
+        }
     }
 
     @Nullable
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster;
+
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.ClusterOperationNewAPIImpl;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Optional;
+
+/**
+ * The persisted form of a subscription {@link ClusterDetail}, to show the clusters listed last time before the
+ * subscriptions respond
+ */
+public class ClusterDetailSnapshot {
+    private SubscriptionDetail subscription;
+    private ClusterRawInfo clusterRawInfo;
+    @Nullable
+    private HDInsightUserRoleType newApiRoleType;
+    private boolean isMfa;
+
+    // for json mapper
+    @SuppressWarnings("unused")
+    private ClusterDetailSnapshot() {
+    }
+
+    private ClusterDetailSnapshot(@NotNull SubscriptionDetail subscription,
+                                  @NotNull ClusterRawInfo clusterRawInfo,
+                                  @Nullable HDInsightUserRoleType newApiRoleType,
+                                  boolean isMfa) {
+        this.subscription = subscription;
+        this.clusterRawInfo = clusterRawInfo;
+        this.newApiRoleType = newApiRoleType;
+        this.isMfa = isMfa;
+    }
+
+    public static Optional<ClusterDetailSnapshot> of(@NotNull ClusterDetail cluster) {
+        if (cluster.getSubscription() == null || cluster.getClusterRawInfo() == null) {
+            return Optional.empty();
+        }
+
+        final HDInsightUserRoleType roleType = cluster.getClusterOperation() instanceof ClusterOperationNewAPIImpl
+                ? ((ClusterOperationNewAPIImpl) cluster.getClusterOperation()).getRoleType()
+                : null;
+
+        return Optional.of(new ClusterDetailSnapshot(
+                cluster.getSubscription(), cluster.getClusterRawInfo(), roleType, cluster instanceof MfaClusterDetail));
+    }
+
+    @Nullable
+    public SubscriptionDetail getSubscription() {
+        return subscription;
+    }
+
+    @NotNull
+    public ClusterDetail toClusterDetail() {
+        final IClusterOperation clusterOperation;
+        if (newApiRoleType != null) {
+            final ClusterOperationNewAPIImpl newApiOperation = new ClusterOperationNewAPIImpl(subscription);
+            newApiOperation.setRoleType(newApiRoleType);
+            clusterOperation = newApiOperation;
+        } else {
+            clusterOperation = new ClusterOperationImpl();
+        }
+
+        return isMfa
+                ? new MfaClusterDetail(subscription, clusterRawInfo, clusterOperation)
+                : new ClusterDetail(subscription, clusterRawInfo, clusterOperation);
+    }
+}
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.cluster;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -16,6 +17,7 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.lang3.StringUtils;
 import rx.Observable;
+import rx.Scheduler;
 import rx.schedulers.Schedulers;
 
 import java.io.IOException;
@@ -24,6 +26,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class ClusterManager implements ILogger {
     // Singleton Instance
@@ -41,6 +46,16 @@ public class ClusterManager implements ILogger {
         return instance;
     }
 
+    // The list cluster and probe requests of all subscriptions share these threads
+    private static final int MAX_DISCOVERY_THREADS = 8;
+    private static final int MAX_CONCURRENT_SUBSCRIPTIONS = 4;
+    private static final long SUBSCRIPTION_DISCOVERY_TIMEOUT_SECONDS = 60;
+
+    @NotNull
+    private final Scheduler discoveryScheduler = Schedulers.from(Executors.newFixedThreadPool(
+            MAX_DISCOVERY_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("hdinsight-cluster-discovery-%d").setDaemon(true).build()));
+
     private ClusterManager() {
     }
 
@@ -60,52 +75,86 @@ public class ClusterManager implements ILogger {
      * get hdinsight detailed cluster info list with specific cluster type: Spark and RServer
      *
      * @param subscriptions
-     * @return detailed cluster info list with specific cluster type
+     * @return detailed cluster info list with specific cluster type, the clusters of the failed subscriptions are
+     * skipped unless all subscriptions failed
+     */
+    public Observable<List<ClusterDetail>> getHDInsightClustersWithSpecificType(
+            List<SubscriptionDetail> subscriptions,
+            String osType) {
+        return discoverHDInsightClustersWithSpecificType(subscriptions, osType)
+                .toList()
+                .flatMap(results -> results.stream().anyMatch(SubscriptionClusters::isSucceeded) || results.isEmpty()
+                        ? Observable.just(results.stream()
+                                                 .flatMap(result -> result.getClusters().stream())
+                                                 .collect(Collectors.toList()))
+                        : Observable.error(results.get(0).getError()));
+    }
+
+    /**
+     * Discover the clusters with specific cluster type: Spark and RServer, subscription by subscription on a bounded
+     * number of threads
+     *
+     * @param subscriptions the subscriptions to discover
+     * @return the clusters of each subscription as soon as it responds, a subscription not responding in time is
+     * emitted as failed
      */
-    public synchronized Observable<List<ClusterDetail>> getHDInsightClustersWithSpecificType(
+    public Observable<SubscriptionClusters> discoverHDInsightClustersWithSpecificType(
             List<SubscriptionDetail> subscriptions,
             String osType) {
         return Observable.from(subscriptions)
-                .flatMap(subscriptionDetail ->
-                        Observable.fromCallable(() ->
-                                new ClusterOperationImpl().listCluster(subscriptionDetail))
-                                // Run time-consuming list clusters job in IO thread
-                                .subscribeOn(Schedulers.io())
-                                // Remove duplicate clusters that share the same cluster name
-                                .map(this::deduplicateClusters)
-                                .flatMap(Observable::from)
-                                // Extract RServer and Spark Cluster with required OS type we need
-                                .filter(clusterRawInfo -> {
-                                    ClusterType rawClusterType = ClusterDetail.getType(clusterRawInfo);
-                                    String rawOsType = ClusterDetail.getOSType(clusterRawInfo);
-                                    return (rawClusterType.equals(ClusterType.rserver)
-                                            || rawClusterType.equals(ClusterType.spark))
-                                                && StringUtils.equalsIgnoreCase(rawOsType, osType);
-                                })
-                                .flatMap(clusterRawInfo -> {
-                                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
-                                    if (isHDInsightNewSDKEnabled()) {
-                                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
-                                                // Run the time-consuming probe job concurrently in IO thread
-                                                .subscribeOn(Schedulers.io())
-                                                .map(isProbeSucceed -> isProbeSucceed
-                                                        ? (isMfaEspCluster(clusterRawInfo)
-                                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
-                                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
-                                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    } else {
-                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    }
-                                })
-                )
+                .flatMap(subscriptionDetail -> getSubscriptionClustersWithSpecificType(subscriptionDetail, osType)
+                                .toList()
+                                .timeout(SUBSCRIPTION_DISCOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                                .map(clusters -> SubscriptionClusters.succeeded(subscriptionDetail, clusters))
+                                .onErrorReturn(err -> {
+                                    log().warn(String.format("Failed to list HDInsight clusters of subscription %s: %s",
+                                            subscriptionDetail.getSubscriptionName(), err));
+
+                                    return SubscriptionClusters.failed(subscriptionDetail, err);
+                                }),
+                        MAX_CONCURRENT_SUBSCRIPTIONS);
+    }
+
+    private Observable<ClusterDetail> getSubscriptionClustersWithSpecificType(
+            @NotNull SubscriptionDetail subscriptionDetail,
+            String osType) {
+        return Observable.fromCallable(() ->
+                new ClusterOperationImpl().listCluster(subscriptionDetail))
+                // Run time-consuming list clusters job in the bounded discovery threads
+                .subscribeOn(discoveryScheduler)
+                // Remove duplicate clusters that share the same cluster name
+                .map(this::deduplicateClusters)
+                .flatMap(Observable::from)
+                // Extract RServer and Spark Cluster with required OS type we need
+                .filter(clusterRawInfo -> {
+                    ClusterType rawClusterType = ClusterDetail.getType(clusterRawInfo);
+                    String rawOsType = ClusterDetail.getOSType(clusterRawInfo);
+                    return (rawClusterType.equals(ClusterType.rserver)
+                            || rawClusterType.equals(ClusterType.spark))
+                                && StringUtils.equalsIgnoreCase(rawOsType, osType);
+                })
+                .flatMap(clusterRawInfo -> {
+                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
+                    if (isHDInsightNewSDKEnabled()) {
+                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
+                                // Run the time-consuming probe job concurrently in the bounded discovery threads
+                                .subscribeOn(discoveryScheduler)
+                                .map(isProbeSucceed -> isProbeSucceed
+                                        ? (isMfaEspCluster(clusterRawInfo)
+                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
+                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
+                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
+                    } else {
+                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
+                    }
+                })
                 .doOnNext(clusterDetail -> {
                     String debugMsg = String.format("Thread: %s. Sub: %s. Cluster: %s",
                             Thread.currentThread().getName(),
                             clusterDetail.getSubscription().getSubscriptionName(),
                             clusterDetail.getName());
                     log().info(debugMsg);
-                })
-                .toList();
+                });
     }
 
     public boolean isHDInsightNewSDKEnabled() {
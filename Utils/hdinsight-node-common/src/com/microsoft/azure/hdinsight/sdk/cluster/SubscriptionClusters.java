@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.cluster;
+
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The HDInsight clusters discovered in one subscription, or the error if the discovery failed or timed out
+ */
+public class SubscriptionClusters {
+    @NotNull
+    private final SubscriptionDetail subscription;
+    @NotNull
+    private final List<ClusterDetail> clusters;
+    @Nullable
+    private final Throwable error;
+
+    private SubscriptionClusters(@NotNull SubscriptionDetail subscription,
+                                 @NotNull List<ClusterDetail> clusters,
+                                 @Nullable Throwable error) {
+        this.subscription = subscription;
+        this.clusters = Collections.unmodifiableList(clusters);
+        this.error = error;
+    }
+
+    public static SubscriptionClusters succeeded(@NotNull SubscriptionDetail subscription,
+                                                 @NotNull List<ClusterDetail> clusters) {
+        return new SubscriptionClusters(subscription, clusters, null);
+    }
+
+    public static SubscriptionClusters failed(@NotNull SubscriptionDetail subscription, @NotNull Throwable error) {
+        return new SubscriptionClusters(subscription, Collections.emptyList(), error);
+    }
+
+    @NotNull
+    public SubscriptionDetail getSubscription() {
+        return subscription;
+    }
+
+    @NotNull
+    public List<ClusterDetail> getClusters() {
+        return clusters;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+}
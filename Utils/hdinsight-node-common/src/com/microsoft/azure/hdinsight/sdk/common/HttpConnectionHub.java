@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.TrustStrategy;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The process wide HTTP connection pool shared by all {@link HttpObservable} instances, so the calls to the same
+ * cluster reuse the kept-alive connections instead of paying a TCP and TLS handshake each time. The pool is bounded
+ * per route, a slow cluster can't take the connections of the others. The per-instance cookies, auth states and
+ * request configs stay in the {@link org.apache.http.client.protocol.HttpClientContext} of each instance.
+ *
+ * The connections are pooled apart by {@link TrustPolicy}, so a connection established with the trust settings of the
+ * clusters is never leased to the calls which must be verified by the system trust, like the ARM and AAD ones.
+ *
+ * The limits of each pool can be set with the system properties {@value #MAX_PER_ROUTE_PROPERTY} (default 10) and
+ * {@value #MAX_TOTAL_PROPERTY} (default 100).
+ */
+public class HttpConnectionHub implements ILogger {
+    public static final String MAX_PER_ROUTE_PROPERTY = "azure.toolkit.http.maxConnectionsPerRoute";
+    public static final String MAX_TOTAL_PROPERTY = "azure.toolkit.http.maxConnections";
+
+    private static final int DEFAULT_MAX_PER_ROUTE = 10;
+    private static final int DEFAULT_MAX_TOTAL = 100;
+    // Used when the server doesn't tell how long to keep the connection alive
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long IDLE_TIMEOUT_SECONDS = 60;
+    private static final long EVICTION_INTERVAL_SECONDS = 10;
+    // Fail the requests waiting for a pooled connection rather than hang forever on a leaked response
+    private static final int CONNECTION_REQUEST_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * How the server certificates of HTTPS connections are verified
+     */
+    public enum TrustPolicy {
+        /**
+         * By the {@link TrustStrategy} service provider and the HDInsight "disable SSL certificate validation"
+         * setting, for the clusters which may have self-signed certificates
+         */
+        CLUSTER,
+        /**
+         * By the JSSE default trust and hostname verification only, for the Azure service calls with bearer tokens
+         */
+        SYSTEM
+    }
+
+    @NotNull
+    private final Map<TrustPolicy, Pool> pools = new EnumMap<>(TrustPolicy.class);
+
+    @NotNull
+    private final ScheduledExecutorService evictor;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder connects = new LongAdder();
+    private final LongAdder handshakes = new LongAdder();
+
+    @Nullable
+    private volatile TrustedSocketFactory trustedSocketFactory;
+
+    // Created on the first use, the same as the one of a client built with the system properties
+    @NotNull
+    private final Supplier<LayeredConnectionSocketFactory> systemSocketFactory =
+            Suppliers.memoize(SSLConnectionSocketFactory::getSystemSocketFactory);
+
+    private static final class SingletonHolder {
+        private static final HttpConnectionHub INSTANCE = new HttpConnectionHub();
+    }
+
+    public static HttpConnectionHub getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    private HttpConnectionHub() {
+        pools.put(TrustPolicy.CLUSTER, new Pool(new CountingSSLSocketFactory(this::getSSLSocketFactory)));
+        pools.put(TrustPolicy.SYSTEM, new Pool(new CountingSSLSocketFactory(systemSocketFactory::get)));
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("azure-toolkit-http-connection-evictor")
+                .setDaemon(true)
+                .build());
+        this.evictor.scheduleWithFixedDelay(() -> pools.values().forEach(pool -> {
+            pool.connectionManager.closeExpiredConnections();
+            pool.connectionManager.closeIdleConnections(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }), EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Get the shared client trusting the cluster settings. It's not owned by the caller, don't close it, and pass a
+     * per-caller context to {@code execute()} to keep the cookies and auth states apart.
+     */
+    @NotNull
+    public CloseableHttpClient getHttpClient() {
+        return getHttpClient(TrustPolicy.CLUSTER);
+    }
+
+    /**
+     * Get the shared client of the trust policy, see {@link #getHttpClient()}
+     */
+    @NotNull
+    public CloseableHttpClient getHttpClient(@NotNull TrustPolicy trustPolicy) {
+        return pools.get(trustPolicy).httpClient;
+    }
+
+    /**
+     * Fill the pool settings into the request config if it has none
+     */
+    @NotNull
+    public RequestConfig withPoolDefaults(@NotNull RequestConfig requestConfig) {
+        if (requestConfig.getConnectionRequestTimeout() >= 0) {
+            return requestConfig;
+        }
+
+        return RequestConfig.copy(requestConfig)
+                .setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT_MILLIS)
+                .build();
+    }
+
+    /**
+     * Set the max connections per route of each pool
+     */
+    public void setMaxPerRoute(int maxPerRoute) {
+        pools.values().forEach(pool -> pool.connectionManager.setDefaultMaxPerRoute(maxPerRoute));
+    }
+
+    public int getMaxPerRoute() {
+        return pools.get(TrustPolicy.CLUSTER).connectionManager.getDefaultMaxPerRoute();
+    }
+
+    /**
+     * Set the max connections of each pool
+     */
+    public void setMaxTotal(int maxTotal) {
+        pools.values().forEach(pool -> pool.connectionManager.setMaxTotal(maxTotal));
+    }
+
+    public int getMaxTotal() {
+        return pools.get(TrustPolicy.CLUSTER).connectionManager.getMaxTotal();
+    }
+
+    /**
+     * Close all the pooled connections not in use, e.g. after the SSL settings are changed
+     */
+    public void closeIdleConnections() {
+        pools.values().forEach(pool -> pool.connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS));
+    }
+
+    /*
+     * Statistics, summed up over the pools
+     */
+
+    public int getLeasedConnectionCount() {
+        return pools.values().stream().mapToInt(pool -> pool.connectionManager.getTotalStats().getLeased()).sum();
+    }
+
+    public int getAvailableConnectionCount() {
+        return pools.values().stream().mapToInt(pool -> pool.connectionManager.getTotalStats().getAvailable()).sum();
+    }
+
+    public int getPendingRequestCount() {
+        return pools.values().stream().mapToInt(pool -> pool.connectionManager.getTotalStats().getPending()).sum();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getConnectCount() {
+        return connects.sum();
+    }
+
+    public long getHandshakeCount() {
+        return handshakes.sum();
+    }
+
+    /**
+     * The ratio of the requests sent over a reused connection, 0 if nothing is sent
+     */
+    public double getReuseRatio() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 0 : Math.max(0, requestCount - getConnectCount()) / (double) requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HttpConnectionHub{leased=%d, available=%d, pending=%d, requests=%d, connects=%d, handshakes=%d}",
+                getLeasedConnectionCount(), getAvailableConnectionCount(), getPendingRequestCount(),
+                getRequestCount(), getConnectCount(), getHandshakeCount());
+    }
+
+    /*
+     * SSL socket factory of the cluster trust policy, cached by the trust settings
+     */
+
+    @NotNull
+    LayeredConnectionSocketFactory getSSLSocketFactory() {
+        final TrustStrategy trustStrategy = ServiceManager.getServiceProvider(TrustStrategy.class);
+        final boolean isValidationDisabled = HttpObservable.isSSLCertificateValidationDisabled();
+
+        final TrustedSocketFactory cached = trustedSocketFactory;
+        if (cached != null && cached.trustStrategy == trustStrategy && cached.isValidationDisabled == isValidationDisabled) {
+            return cached.socketFactory;
+        }
+
+        final TrustedSocketFactory created = new TrustedSocketFactory(
+                trustStrategy, isValidationDisabled, createSSLSocketFactory(trustStrategy, isValidationDisabled));
+        trustedSocketFactory = created;
+
+        if (cached != null) {
+            // Don't reuse the connections established with the previous trust settings
+            pools.get(TrustPolicy.CLUSTER).connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        }
+
+        return created.socketFactory;
+    }
+
+    @NotNull
+    private LayeredConnectionSocketFactory createSSLSocketFactory(@Nullable TrustStrategy trustStrategy,
+                                                                  boolean isValidationDisabled) {
+        if (trustStrategy != null) {
+            try {
+                final SSLContext sslContext = new SSLContextBuilder()
+                        .loadTrustMaterial(trustStrategy)
+                        .build();
+
+                return new SSLConnectionSocketFactory(sslContext,
+                        isValidationDisabled ? NoopHostnameVerifier.INSTANCE : new DefaultHostnameVerifier());
+            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+                log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
+            }
+        }
+
+        return SSLConnectionSocketFactory.getSystemSocketFactory();
+    }
+
+    /**
+     * The connection pool and the client of a trust policy
+     */
+    private final class Pool {
+        @NotNull
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        @NotNull
+        private final CloseableHttpClient httpClient;
+
+        private Pool(@NotNull LayeredConnectionSocketFactory sslSocketFactory) {
+            final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", new CountingPlainSocketFactory())
+                    .register("https", sslSocketFactory)
+                    .build();
+
+            this.connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+            this.connectionManager.setDefaultMaxPerRoute(Integer.getInteger(MAX_PER_ROUTE_PROPERTY, DEFAULT_MAX_PER_ROUTE));
+            this.connectionManager.setMaxTotal(Integer.getInteger(MAX_TOTAL_PROPERTY, DEFAULT_MAX_TOTAL));
+            // Check the connections idle for a while before leasing them, the servers may have closed them
+            this.connectionManager.setValidateAfterInactivity((int) TimeUnit.SECONDS.toMillis(2));
+
+            final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+                final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE_MILLIS;
+            };
+
+            this.httpClient = HttpClients.custom()
+                    .useSystemProperties()
+                    .setConnectionManager(connectionManager)
+                    // Nobody but the hub closes the pool, even if the client is closed by mistake
+                    .setConnectionManagerShared(true)
+                    .setKeepAliveStrategy(keepAliveStrategy)
+                    .addInterceptorFirst((HttpRequestInterceptor) (request, context) -> requests.increment())
+                    .build();
+        }
+    }
+
+    private static final class TrustedSocketFactory {
+        @Nullable
+        private final TrustStrategy trustStrategy;
+        private final boolean isValidationDisabled;
+        @NotNull
+        private final LayeredConnectionSocketFactory socketFactory;
+
+        private TrustedSocketFactory(@Nullable TrustStrategy trustStrategy,
+                                     boolean isValidationDisabled,
+                                     @NotNull LayeredConnectionSocketFactory socketFactory) {
+            this.trustStrategy = trustStrategy;
+            this.isValidationDisabled = isValidationDisabled;
+            this.socketFactory = socketFactory;
+        }
+    }
+
+    private class CountingPlainSocketFactory implements ConnectionSocketFactory {
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return PlainConnectionSocketFactory.getSocketFactory().createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout,
+                                    Socket sock,
+                                    HttpHost host,
+                                    InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress,
+                                    HttpContext context) throws IOException {
+            final Socket socket = PlainConnectionSocketFactory.getSocketFactory()
+                    .connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+            connects.increment();
+            return socket;
+        }
+    }
+
+    // Resolve the SSL socket factory for each new connection, so the changes of the trust settings take effect
+    private class CountingSSLSocketFactory implements LayeredConnectionSocketFactory {
+        @NotNull
+        private final Supplier<LayeredConnectionSocketFactory> delegate;
+
+        private CountingSSLSocketFactory(@NotNull Supplier<LayeredConnectionSocketFactory> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return delegate.get().createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout,
+                                    Socket sock,
+                                    HttpHost host,
+                                    InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress,
+                                    HttpContext context) throws IOException {
+            final Socket socket = delegate.get()
+                    .connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+            connects.increment();
+            handshakes.increment();
+            return socket;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+                throws IOException {
+            // Tunneled through a proxy, the TCP connection is counted by the plain socket factory
+            final Socket layered = delegate.get().createLayeredSocket(socket, target, port, context);
+            handshakes.increment();
+            return layered;
+        }
+    }
+}
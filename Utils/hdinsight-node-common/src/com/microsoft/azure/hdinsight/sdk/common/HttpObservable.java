@@ -12,11 +12,9 @@ import com.microsoft.azure.hdinsight.sdk.common.errorresponse.*;
 import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
-import com.microsoft.azuretools.service.ServiceManager;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.*;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.AuthSchemes;
@@ -25,34 +23,24 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.ssl.DefaultHostnameVerifier;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.HeaderGroup;
-import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.ssl.SSLContextBuilder;
-import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.exceptions.Exceptions;
 
-import javax.net.ssl.SSLContext;
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.UnknownServiceException;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static rx.exceptions.Exceptions.propagate;
 
-public class HttpObservable implements ILogger {
+public class HttpObservable implements ILogger, Closeable {
     @NotNull
     private RequestConfig defaultRequestConfig;
 
@@ -71,8 +59,12 @@ public class HttpObservable implements ILogger {
     @NotNull
     private HttpContext httpContext;
 
-    @NotNull
-    private CloseableHttpClient httpClient;
+    /**
+     * The client set by subclasses or tests, which is owned by this instance, otherwise the shared one of
+     * {@link HttpConnectionHub} is used
+     */
+    @Nullable
+    private CloseableHttpClient httpClient = null;
 
     @NotNull
     private List<NameValuePair> defaultParameters = new ArrayList<>();
@@ -98,7 +90,8 @@ public class HttpObservable implements ILogger {
         });
 
         this.cookieStore = new BasicCookieStore();
-        this.httpContext = new BasicHttpContext();
+        // The connections are shared by all instances, the cookies and auth states are kept per instance
+        this.httpContext = HttpClientContext.create();
         this.httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
 
         // Create global request configuration
@@ -107,13 +100,6 @@ public class HttpObservable implements ILogger {
                 .setTargetPreferredAuthSchemes(Arrays.asList(AuthSchemes.KERBEROS, AuthSchemes.DIGEST, AuthSchemes.BASIC))
                 .setProxyPreferredAuthSchemes(Collections.singletonList(AuthSchemes.BASIC))
                 .build();
-
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
     }
 
     /**
@@ -131,13 +117,6 @@ public class HttpObservable implements ILogger {
             setDefaultHeader(new BasicHeader(
                     HttpHeaders.AUTHORIZATION, String.format("%s %s", "Basic", new String(encodedAuth))));
         }
-
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
     }
 
     /*
@@ -167,13 +146,22 @@ public class HttpObservable implements ILogger {
 
     public HttpObservable setCookieStore(@NotNull CookieStore cookieStore) {
         this.cookieStore = cookieStore;
+        this.httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
 
         return this;
     }
 
     @NotNull
     public CloseableHttpClient getHttpClient() {
-        return httpClient;
+        return httpClient != null ? httpClient : HttpConnectionHub.getInstance().getHttpClient(getTrustPolicy());
+    }
+
+    /**
+     * The trust policy of the shared connections, the cluster trust settings by default
+     */
+    @NotNull
+    protected HttpConnectionHub.TrustPolicy getTrustPolicy() {
+        return HttpConnectionHub.TrustPolicy.CLUSTER;
     }
 
     public HttpObservable setHttpClient(@NotNull CloseableHttpClient httpClient) {
@@ -243,33 +231,13 @@ public class HttpObservable implements ILogger {
         }
     }
 
-    private SSLConnectionSocketFactory createSSLSocketFactory() {
-        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
-        SSLConnectionSocketFactory sslSocketFactory = null;
-
-        if (ts != null) {
-            try {
-                SSLContext sslContext = new SSLContextBuilder()
-                        .loadTrustMaterial(ts)
-                        .build();
-
-                sslSocketFactory = new SSLConnectionSocketFactory(sslContext,
-                        HttpObservable.isSSLCertificateValidationDisabled()
-                                ? NoopHostnameVerifier.INSTANCE
-                                : new DefaultHostnameVerifier());
-            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-                log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
-            }
-        }
-        return sslSocketFactory;
-    }
-
     @NotNull
     public static HttpErrorStatus classifyHttpError(@NotNull CloseableHttpResponse httpResponse) throws IOException {
         StatusLine status = httpResponse.getStatusLine();
         int statusCode = status.getStatusCode();
         HttpEntity httpEntity = httpResponse.getEntity();
-        String message = EntityUtils.toString(httpEntity);
+        // No entity in the responses of HEAD requests
+        String message = httpEntity == null ? status.getReasonPhrase() : EntityUtils.toString(httpEntity);
         Header[] headers = httpResponse.getAllHeaders();
         if (statusCode == 400) {
             return new BadRequestHttpErrorStatus(message, headers, httpEntity);
@@ -377,6 +345,9 @@ public class HttpObservable implements ILogger {
                 httpRequest.setHeader(entity.getContentType());
             }
 
+            getHttpContext().setAttribute(HttpClientContext.REQUEST_CONFIG,
+                    HttpConnectionHub.getInstance().withPoolDefaults(getDefaultRequestConfig()));
+
             return getHttpClient().execute(httpRequest, getHttpContext());
         });
     }
@@ -454,4 +425,17 @@ public class HttpObservable implements ILogger {
                     }
                 });
     }
+
+    /**
+     * Release the client set by {@link #setHttpClient(CloseableHttpClient)} and the cookies. The pooled connections
+     * are kept in {@link HttpConnectionHub} for other instances.
+     */
+    @Override
+    public void close() throws IOException {
+        getCookieStore().clear();
+
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
 }
@@ -10,7 +10,6 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.Header;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 
 import java.io.IOException;
@@ -37,12 +36,15 @@ public class OAuthTokenHttpObservable extends HttpObservable {
         setDefaultRequestConfig(RequestConfig.custom()
                 .setCookieSpec(CookieSpecs.DEFAULT)
                 .build());
+    }
 
-        setHttpClient(HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .build());
+    /**
+     * The bearer tokens are only sent over the connections verified by the system trust
+     */
+    @NotNull
+    @Override
+    protected HttpConnectionHub.TrustPolicy getTrustPolicy() {
+        return HttpConnectionHub.TrustPolicy.SYSTEM;
     }
 
     @NotNull
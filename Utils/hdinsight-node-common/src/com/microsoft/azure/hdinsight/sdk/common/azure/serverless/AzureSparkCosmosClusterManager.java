@@ -81,7 +81,11 @@ public class AzureSparkCosmosClusterManager implements ClusterContainer,
         // Invalid cached accounts when signing out or changing subscription selection
         AuthMethodManager.getInstance().addSignOutEventListener(() -> accounts = ImmutableSortedSet.of());
         if (getAzureManager() != null) {
-            getAzureManager().getSubscriptionManager().addListener(ev -> accounts = ImmutableSortedSet.of());
+            getAzureManager().getSubscriptionManager().addChangeListener(change -> {
+                if (change.isSelectionChanged()) {
+                    accounts = ImmutableSortedSet.of();
+                }
+            });
         }
     }
 
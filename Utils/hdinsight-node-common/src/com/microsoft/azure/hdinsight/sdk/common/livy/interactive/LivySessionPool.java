@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.PostSessions;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keep the started Livy interactive sessions released by the consoles for a while, and hand them to the next consoles
+ * of the same cluster, session kind and configurations, which skip the 30 to 90 seconds of the session starting.
+ *
+ * A pooled session keeps its interpreter state, so the next console shares the variables, imports and Spark
+ * configurations left by the previous one. The pool is disabled by default, set the system property
+ * {@value #MAX_IDLE_PER_KEY_PROPERTY} to a positive number to enable it. The other limits can be set with
+ * {@value #MAX_IDLE_PROPERTY} (default 4) and {@value #IDLE_TTL_MINUTES_PROPERTY} (default 10). The sessions with
+ * running statements are never pooled, and the idle ones are checked in background and killed after the idle TTL or
+ * when the pool is closed.
+ */
+public class LivySessionPool implements Closeable, ILogger {
+    public static final String MAX_IDLE_PER_KEY_PROPERTY = "azure.toolkit.livy.sessionPool.maxIdlePerKey";
+    public static final String MAX_IDLE_PROPERTY = "azure.toolkit.livy.sessionPool.maxIdle";
+    public static final String IDLE_TTL_MINUTES_PROPERTY = "azure.toolkit.livy.sessionPool.idleTtlMinutes";
+
+    private static final int DEFAULT_MAX_IDLE_PER_KEY = 0;
+    private static final int DEFAULT_MAX_IDLE = 4;
+    private static final long DEFAULT_IDLE_TTL_MINUTES = 10;
+    private static final long HEALTH_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final int maxIdlePerKey;
+    private final int maxIdle;
+    private final long idleTtlMillis;
+
+    // Guarded by this
+    private final Map<PoolKey, Deque<PooledSession>> idleSessions = new HashMap<>();
+    private int idleCount = 0;
+    private boolean isClosed = false;
+    // The keys of the sessions handed out, taken before the deployment changes their creating parameters
+    private final Map<Session, PoolKey> leasedKeys = new WeakHashMap<>();
+
+    @NotNull
+    private final ScheduledExecutorService healthChecker;
+
+    private static final class SingletonHolder {
+        private static final LivySessionPool INSTANCE = new LivySessionPool(
+                Integer.getInteger(MAX_IDLE_PER_KEY_PROPERTY, DEFAULT_MAX_IDLE_PER_KEY),
+                Integer.getInteger(MAX_IDLE_PROPERTY, DEFAULT_MAX_IDLE),
+                TimeUnit.MINUTES.toMillis(Long.getLong(IDLE_TTL_MINUTES_PROPERTY, DEFAULT_IDLE_TTL_MINUTES)),
+                HEALTH_CHECK_INTERVAL_MILLIS);
+    }
+
+    public static LivySessionPool getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public LivySessionPool(final int maxIdlePerKey,
+                           final int maxIdle,
+                           final long idleTtlMillis,
+                           final long healthCheckIntervalMillis) {
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.maxIdle = maxIdle;
+        this.idleTtlMillis = idleTtlMillis;
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("livy-session-pool-health-checker")
+                .setDaemon(true)
+                .build());
+        if (maxIdlePerKey > 0 && maxIdle > 0) {
+            this.healthChecker.scheduleWithFixedDelay(
+                    this::checkHealth, healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Take over an idle session of the pool, or deploy, create and wait for the session to be ready.
+     *
+     * @param session the session to start
+     * @return the started session Observable
+     */
+    public Observable<Session> acquire(final Session session) {
+        return acquire(session, toStart -> toStart.deploy()
+                                                  .flatMap(Session::create)
+                                                  .flatMap(Session::awaitReady));
+    }
+
+    /**
+     * Take over an idle session of the pool, or start the session with the starter.
+     *
+     * @param session the session to start
+     * @param starter the function to start the session if no idle one is pooled
+     * @return the started session Observable
+     */
+    public Observable<Session> acquire(final Session session,
+                                       final Function<? super Session, Observable<Session>> starter) {
+        return Observable.defer(() -> {
+            final PoolKey key = lease(session);
+            final PooledSession pooled = pollIdle(key);
+
+            if (pooled == null) {
+                return starter.apply(session);
+            }
+
+            log().info("Take over the pooled Livy session " + pooled.session.getId() + " for " + session.getName());
+            session.adopt(pooled.session);
+
+            return Observable.just(session);
+        });
+    }
+
+    /**
+     * Keep the session for the next consoles, or kill it if the pool is disabled or full, the session isn't ready, or
+     * any statement of it is still running.
+     *
+     * @param session the session to release
+     */
+    public void release(final Session session) {
+        if (offerIdle(session)) {
+            log().info("Keep the Livy session " + session.getId() + " of " + session.getName() + " in the pool");
+            session.getCtrlSubject().onCompleted();
+
+            return;
+        }
+
+        session.close();
+    }
+
+    /**
+     * Start sessions in background and put them into the pool.
+     *
+     * @param factory the factory to create sessions
+     * @param count the count of sessions to start
+     */
+    public void warmUp(final Supplier<? extends Session> factory, final int count) {
+        for (int i = 0; i < count; i++) {
+            final Session session = factory.get();
+            lease(session);
+
+            session.deploy()
+                   .flatMap(Session::create)
+                   .flatMap(Session::awaitReady)
+                   .subscribeOn(Schedulers.io())
+                   .subscribe(this::release,
+                              err -> log().warn("Failed to warm up a Livy session of " + session.getName() + ". "
+                                                        + ExceptionUtils.getStackTrace(err)));
+        }
+    }
+
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+
+        final List<PooledSession> toKill = new ArrayList<>();
+        synchronized (this) {
+            isClosed = true;
+            idleSessions.values().forEach(toKill::addAll);
+            idleSessions.clear();
+            idleCount = 0;
+        }
+
+        toKill.forEach(pooled -> pooled.session.close());
+    }
+
+    /**
+     * Kill the expired and dead idle sessions, and check the state of the others, so the statements sent to a taken
+     * over session don't need to wait for the session to be ready.
+     */
+    void checkHealth() {
+        final List<PooledSession> toCheck = new ArrayList<>();
+        synchronized (this) {
+            idleSessions.values().forEach(toCheck::addAll);
+        }
+
+        for (final PooledSession pooled : toCheck) {
+            if (!pooled.isExpired()) {
+                try {
+                    pooled.session.get().toBlocking().lastOrDefault(null);
+                } catch (Exception ex) {
+                    log().warn("Failed to check the pooled Livy session " + pooled.session.getId() + ". "
+                                       + ExceptionUtils.getStackTrace(ex));
+                }
+
+                if (pooled.session.isStatementRunnableKnown()) {
+                    continue;
+                }
+            }
+
+            if (removeIdle(pooled)) {
+                log().info("Kill the pooled Livy session " + pooled.session.getId() + " in state "
+                                   + pooled.session.getLastState());
+                pooled.session.close();
+            }
+        }
+    }
+
+    private synchronized PoolKey lease(final Session session) {
+        return leasedKeys.computeIfAbsent(session, PoolKey::of);
+    }
+
+    private synchronized boolean offerIdle(final Session session) {
+        final PoolKey key = Optional.ofNullable(leasedKeys.remove(session)).orElseGet(() -> PoolKey.of(session));
+        if (isClosed || !session.isStatementRunnableKnown() || session.hasRunningStatements() || idleCount >= maxIdle) {
+            return false;
+        }
+
+        final Deque<PooledSession> sessions = idleSessions.computeIfAbsent(key, any -> new ArrayDeque<>());
+        if (sessions.size() >= maxIdlePerKey) {
+            return false;
+        }
+
+        sessions.offerFirst(new PooledSession(session, key));
+        idleCount++;
+
+        return true;
+    }
+
+    @Nullable
+    private PooledSession pollIdle(final PoolKey key) {
+        final List<PooledSession> toKill = new ArrayList<>();
+        PooledSession taken = null;
+
+        synchronized (this) {
+            final Deque<PooledSession> sessions = idleSessions.get(key);
+            while (sessions != null && taken == null && !sessions.isEmpty()) {
+                final PooledSession pooled = sessions.pollFirst();
+                idleCount--;
+
+                if (pooled.isExpired() || !pooled.session.isStatementRunnableKnown()) {
+                    toKill.add(pooled);
+                } else {
+                    taken = pooled;
+                }
+            }
+        }
+
+        toKill.forEach(pooled -> pooled.session.close());
+
+        return taken;
+    }
+
+    private synchronized boolean removeIdle(final PooledSession pooled) {
+        final Deque<PooledSession> sessions = idleSessions.get(pooled.key);
+        if (sessions == null) {
+            return false;
+        }
+
+        final Iterator<PooledSession> iterator = sessions.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == pooled) {
+                iterator.remove();
+                idleCount--;
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private final class PooledSession {
+        private final Session session;
+        private final PoolKey key;
+        private final long releasedAt;
+
+        private PooledSession(final Session session, final PoolKey key) {
+            this.session = session;
+            this.key = key;
+            this.releasedAt = System.currentTimeMillis();
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - releasedAt >= idleTtlMillis;
+        }
+    }
+
+    /**
+     * The sessions can be taken over by each other if they are created by the same kind of session class with the
+     * same Livy URL, credential and creating parameters except the name.
+     */
+    static final class PoolKey {
+        private final URI baseUrl;
+        private final String sessionClass;
+        private final SessionKind kind;
+        private final String parameters;
+        private final List<String> artifactsToDeploy;
+        private final String authorization;
+
+        private PoolKey(final URI baseUrl,
+                        final String sessionClass,
+                        final SessionKind kind,
+                        final String parameters,
+                        final List<String> artifactsToDeploy,
+                        final String authorization) {
+            this.baseUrl = baseUrl;
+            this.sessionClass = sessionClass;
+            this.kind = kind;
+            this.parameters = parameters;
+            this.artifactsToDeploy = artifactsToDeploy;
+            this.authorization = authorization;
+        }
+
+        static PoolKey of(final Session session) {
+            final PostSessions postBody = session.getCreateParameters().build();
+            postBody.setName(null);
+
+            final String authorization = Optional.ofNullable(session.getHttp().getDefaultHeaderGroup())
+                                                 .map(headers -> headers.getFirstHeader(HttpHeaders.AUTHORIZATION))
+                                                 .map(Header::getValue)
+                                                 .orElse("");
+
+            return new PoolKey(session.getBaseUrl(),
+                               session.getClass().getName(),
+                               session.getKind(),
+                               postBody.convertToJson().orElse(""),
+                               new ArrayList<>(session.getArtifactsToDeploy()),
+                               authorization);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            final PoolKey that = (PoolKey) o;
+            return Objects.equals(baseUrl, that.baseUrl) &&
+                    Objects.equals(sessionClass, that.sessionClass) &&
+                    kind == that.kind &&
+                    Objects.equals(parameters, that.parameters) &&
+                    Objects.equals(artifactsToDeploy, that.artifactsToDeploy) &&
+                    Objects.equals(authorization, that.authorization);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseUrl, sessionClass, kind, parameters, artifactsToDeploy, authorization);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.Sess
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionState;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.PostSessions;
 import com.microsoft.azure.hdinsight.spark.common.Deployable;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
@@ -30,6 +31,7 @@ import rx.Observable;
 import rx.Scheduler;
 import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
+import rx.subjects.ReplaySubject;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
@@ -38,7 +40,9 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -52,6 +56,8 @@ import static rx.exceptions.Exceptions.propagate;
 public abstract class Session implements AutoCloseable, Closeable, ILogger {
     private static final String REST_SEGMENT_SESSION = "sessions";
 
+    static final int MAX_PENDING_STATEMENTS = 32;
+
     // @NotNull annotation is removed since Not Null is by default,
     // refer to https://checkerframework.org/manual/#null-defaults
     private final URI baseUrl;            // Session base URL
@@ -67,6 +73,20 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
 
     private SessionState lastState; // Last session state gotten
 
+    // The last response of the session or its statements tells that it takes statements, no need to check again
+    private volatile boolean isStatementRunnableKnown = false;
+
+    // The statements submitted and not done yet
+    private final Semaphore pendingStatements = new Semaphore(MAX_PENDING_STATEMENTS);
+
+    // The statements run and waited for by the callers
+    private final AtomicInteger runningStatements = new AtomicInteger(0);
+
+    // The statements before are run by the previous owners if the session is taken over
+    private int firstStatementId = 0;
+
+    private final AtomicInteger nextStatementId = new AtomicInteger(0);
+
     private List<String> lastLogs = Collections.emptyList();  // Last session logs
 
     @Nullable
@@ -411,6 +431,14 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return lastState;
     }
 
+    public int getFirstStatementId() {
+        return firstStatementId;
+    }
+
+    void onStatementUpdated(final int statementId) {
+        nextStatementId.accumulateAndGet(statementId + 1, Math::max);
+    }
+
     private void setLastState(final SessionState lastState) {
         this.lastState = lastState;
     }
@@ -528,10 +556,39 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         this.setAppId(sessionResp.getAppId());
         this.setLastState(sessionResp.getState());
         this.setLastLogs(sessionResp.getLog());
+        this.isStatementRunnableKnown = isStatementRunnable();
 
         return this;
     }
 
+    /**
+     * Take over a started Livy session, e.g. a pooled one, instead of creating a new one.
+     *
+     * @param started the started session to take over
+     */
+    void adopt(final Session started) {
+        this.setId(started.getId());
+        this.setAppId(started.appId);
+        this.setLastState(started.getLastState());
+        this.setLastLogs(started.getLastLogs());
+        this.isStatementRunnableKnown = started.isStatementRunnableKnown();
+        this.firstStatementId = started.nextStatementId.get();
+        this.nextStatementId.set(firstStatementId);
+    }
+
+    boolean isStatementRunnableKnown() {
+        return isStatementRunnableKnown && isStatementRunnable();
+    }
+
+    /**
+     * @return whether any statement run by this session object isn't done yet, or Livy last told the session is busy
+     */
+    boolean hasRunningStatements() {
+        return runningStatements.get() > 0 ||
+                pendingStatements.availablePermits() < MAX_PENDING_STATEMENTS ||
+                getLastState() == SessionState.BUSY;
+    }
+
     private Observable<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Session> createSessionRequest() {
         final URI uri = baseUrl.resolve(REST_SEGMENT_SESSION);
 
@@ -564,6 +621,7 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return deleteSessionRequest()
                 .map(resp -> {
                     lastState = SessionState.SHUTTING_DOWN;
+                    isStatementRunnableKnown = false;
                     return this;
                 })
                 .defaultIfEmpty(this);
@@ -597,17 +655,74 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
     }
 
     public Observable<Map<String, String>> runStatement(final Statement statement) {
-        return awaitReady()
-                .flatMap(session -> statement
-                        .run()
-                        .map(result -> {
-                            if (!"ok".equalsIgnoreCase(result.getStatus())) {
-                                throw propagate(new StatementExecutionError(
-                                        result.getEname(), result.getEvalue(), result.getTraceback()));
-                            }
-
-                            return result.getData();
-                        }));
+        // Count the statement as running until it's done or the caller stops waiting for it
+        return Observable.using(
+                runningStatements::incrementAndGet,
+                any -> awaitReadyIfUnknown()
+                        .flatMap(session -> statement
+                                .run()
+                                .doOnNext(output -> isStatementRunnableKnown = true)
+                                .doOnError(err -> isStatementRunnableKnown = false)
+                                .map(this::getStatementResult)),
+                any -> runningStatements.decrementAndGet(),
+                true);
+    }
+
+    /**
+     * Post the codes and return without waiting for the result, so the lines sent one by one are queued by Livy
+     * rather than run one after another by the caller. The caller is blocked when {@value #MAX_PENDING_STATEMENTS}
+     * statements are pending, until one of them is done.
+     *
+     * @param codes the codes to run
+     * @return the result Observable, the result is polled and replayed whether it's subscribed or not
+     * @throws InterruptedException if interrupted while waiting for the pending statements
+     */
+    public Observable<Map<String, String>> submitCodes(final String codes) throws InterruptedException {
+        pendingStatements.acquire();
+
+        final Statement statement = new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8)));
+        final Statement posted;
+        try {
+            posted = awaitReadyIfUnknown()
+                    .flatMap(session -> statement.post())
+                    .doOnError(err -> isStatementRunnableKnown = false)
+                    .toBlocking()
+                    .lastOrDefault(null);
+        } catch (RuntimeException err) {
+            pendingStatements.release();
+            throw err;
+        }
+
+        if (posted == null) {
+            pendingStatements.release();
+            throw propagate(new SessionNotStartException("Session " + getName() + " is " + getLastState() + "."));
+        }
+
+        final ReplaySubject<Map<String, String>> result = ReplaySubject.create();
+        posted.awaitResult()
+                .map(Statement::getOutput)
+                .doOnNext(output -> isStatementRunnableKnown = true)
+                .doOnError(err -> isStatementRunnableKnown = false)
+                .map(this::getStatementResult)
+                .doAfterTerminate(pendingStatements::release)
+                .subscribeOn(Schedulers.io())
+                .subscribe(result);
+
+        return result;
+    }
+
+    private Map<String, String> getStatementResult(final StatementOutput output) {
+        if (!"ok".equalsIgnoreCase(output.getStatus())) {
+            throw propagate(new StatementExecutionError(output.getEname(), output.getEvalue(), output.getTraceback()));
+        }
+
+        return output.getData();
+    }
+
+    private Observable<Session> awaitReadyIfUnknown() {
+        // The session state is tracked with the statement responses and the pool health checks, don't poll it for
+        // every statement
+        return isStatementRunnableKnown() ? Observable.just(this) : awaitReady();
     }
 
     public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
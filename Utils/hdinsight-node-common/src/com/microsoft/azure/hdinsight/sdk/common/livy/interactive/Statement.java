@@ -23,10 +23,14 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
 
+    private static final long FIRST_POLLING_DELAY_MILLIS = 50;
+    private static final long MAX_POLLING_DELAY_MILLIS = 1000;
+
     @NotNull
     private Session session;            // Statement owner session
 
@@ -116,17 +120,47 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
-        return runStatementRequest()
-                .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
-                                                                         // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
-                )
+        return post()
+                .flatMap(Statement::awaitResult)
                 .map(Statement::getOutput);
     }
 
+    /**
+     * Post the statement codes without waiting for the result, Livy queues the statements of a session and runs them
+     * in order.
+     *
+     * @return the posted statement Observable
+     */
+    public Observable<Statement> post() {
+        return runStatementRequest()
+                .map(this::updateWithResponse);
+    }
+
+    /**
+     * Poll the posted statement until it's done. The trivial statements finish in tens of milliseconds, so poll fast
+     * at first and back off to once a second for the long running ones.
+     *
+     * @return the done statement Observable
+     */
+    public Observable<Statement> awaitResult() {
+        if (isDone()) {
+            return Observable.just(this);
+        }
+
+        return get()                                                  // Get statement result
+                .repeatWhen(ob -> {                                   // The unmet state won't trigger retries,
+                    final AtomicInteger polls = new AtomicInteger();  // which is handled by repeatWhen()
+                    return ob.concatMap(any -> Observable.timer(
+                            getPollingDelayMillis(polls.getAndIncrement()), TimeUnit.MILLISECONDS));
+                })
+                .takeUntil(Statement::isDone)
+                .filter(Statement::isDone);
+    }
+
+    static long getPollingDelayMillis(int polls) {
+        return Math.min(MAX_POLLING_DELAY_MILLIS, FIRST_POLLING_DELAY_MILLIS << Math.min(polls, 10));
+    }
+
     public boolean isDoneWithError()
     {
         return getLastState() == StatementState.ERROR || getLastState() == StatementState.CANCELLED;
@@ -142,6 +176,7 @@ public class Statement implements ILogger {
 
     private Statement updateWithResponse(com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp) {
         this.setId(statementResp.getId());
+        getSession().onStatementUpdated(statementResp.getId());
         this.setLastState(statementResp.getState());
         this.setOutput(statementResp.getOutput());
 
@@ -16,6 +16,14 @@ public class RemoteFile {
     @JsonProperty(value = "isDirectory")
     private boolean isDirectory;
 
+    public RemoteFile() {
+    }
+
+    public RemoteFile(String name, boolean isDirectory) {
+        this.name = name;
+        this.isDirectory = isDirectory;
+    }
+
     public String getName() {
         return name;
     }
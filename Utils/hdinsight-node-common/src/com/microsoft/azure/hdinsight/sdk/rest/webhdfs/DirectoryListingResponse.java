@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.webhdfs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The response of WebHDFS LISTSTATUS_BATCH operation, e.g.
+ * {"DirectoryListing":{"partialListing":{"FileStatuses":{"FileStatus":[...]}},"remainingEntries":2}}
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DirectoryListingResponse {
+    @JsonProperty(value = "DirectoryListing")
+    private DirectoryListing directoryListing;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DirectoryListing {
+        @JsonProperty(value = "partialListing")
+        private PartialListing partialListing;
+
+        @JsonProperty(value = "remainingEntries")
+        private long remainingEntries;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PartialListing {
+        @JsonProperty(value = "FileStatuses")
+        private FileStatuses fileStatuses;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileStatuses {
+        @JsonProperty(value = "FileStatus")
+        private List<FileStatus> fileStatus;
+    }
+
+    public List<FileStatus> getFileStatuses() {
+        return Optional.ofNullable(directoryListing)
+                .map(listing -> listing.partialListing)
+                .map(partial -> partial.fileStatuses)
+                .map(statuses -> statuses.fileStatus)
+                .orElse(Collections.emptyList());
+    }
+
+    public long getRemainingEntries() {
+        return directoryListing == null ? 0 : directoryListing.remainingEntries;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.webhdfs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The FileStatus JSON object of WebHDFS REST API
+ * https://hadoop.apache.org/docs/stable/hadoop-project-dist/hadoop-hdfs/WebHDFS.html#FileStatus_JSON_Schema
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FileStatus {
+    @JsonProperty(value = "pathSuffix")
+    private String pathSuffix;
+
+    @JsonProperty(value = "type")
+    private String type;
+
+    @JsonProperty(value = "length")
+    private long length;
+
+    @JsonProperty(value = "modificationTime")
+    private long modificationTime;
+
+    public String getPathSuffix() {
+        return pathSuffix;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getModificationTime() {
+        return modificationTime;
+    }
+
+    public boolean isDirectory() {
+        return "DIRECTORY".equals(type);
+    }
+}
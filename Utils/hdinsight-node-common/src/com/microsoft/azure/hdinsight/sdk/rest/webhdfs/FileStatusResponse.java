@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest.webhdfs;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The response of WebHDFS GETFILESTATUS operation
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FileStatusResponse {
+    @JsonProperty(value = "FileStatus")
+    private FileStatus fileStatus;
+
+    public FileStatus getFileStatus() {
+        return fileStatus;
+    }
+}
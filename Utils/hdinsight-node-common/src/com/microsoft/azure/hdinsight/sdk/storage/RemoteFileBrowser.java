@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache the remote directory listings of ADLS Gen2 and WebHDFS by the account root and the directory path, so the
+ * storage nodes, the artifact path validations and the storage choosers share the listings instead of repeating them.
+ *
+ * The listing is streamed page by page, and concurrent requests of the same directory share one listing in flight.
+ * Once a directory is listed, its sub-directories are prefetched in background with at most the max prefetch requests
+ * at a time. The listings expire after the TTL, and the toolkit invalidates them after its own uploads. The limits can
+ * be set with the system properties {@value #TTL_SECONDS_PROPERTY} (default 60) and {@value #MAX_PREFETCH_PROPERTY}
+ * (default 4), set the max prefetch requests to 0 to disable the prefetching.
+ */
+public class RemoteFileBrowser implements ILogger {
+    public static final String TTL_SECONDS_PROPERTY = "azure.toolkit.storage.listingTtlSeconds";
+    public static final String MAX_PREFETCH_PROPERTY = "azure.toolkit.storage.maxPrefetchRequests";
+
+    private static final long DEFAULT_TTL_SECONDS = 60;
+    private static final int DEFAULT_MAX_PREFETCH = 4;
+    private static final int PREFETCH_QUEUE_SIZE = 256;
+
+    private final long ttlMillis;
+    private final int maxPrefetch;
+    private final ConcurrentMap<String, Listing> listings = new ConcurrentHashMap<>();
+
+    @Nullable
+    private final ThreadPoolExecutor prefetcher;
+
+    private static final class SingletonHolder {
+        private static final RemoteFileBrowser INSTANCE = new RemoteFileBrowser(
+                TimeUnit.SECONDS.toMillis(Long.getLong(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS)),
+                Integer.getInteger(MAX_PREFETCH_PROPERTY, DEFAULT_MAX_PREFETCH));
+    }
+
+    public static RemoteFileBrowser getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public RemoteFileBrowser(long ttlMillis, int maxPrefetch) {
+        this.ttlMillis = ttlMillis;
+        this.maxPrefetch = maxPrefetch;
+
+        if (maxPrefetch > 0) {
+            // The oldest prefetching is the least likely to be expanded when the user goes on browsing
+            this.prefetcher = new ThreadPoolExecutor(maxPrefetch, maxPrefetch, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(PREFETCH_QUEUE_SIZE),
+                    new ThreadFactoryBuilder().setNameFormat("remote-file-prefetch-%d").setDaemon(true).build(),
+                    new ThreadPoolExecutor.DiscardOldestPolicy());
+            this.prefetcher.allowCoreThreadTimeOut(true);
+        } else {
+            this.prefetcher = null;
+        }
+    }
+
+    /**
+     * List the directory children, from the cache if it's listed in the TTL, or page by page from the remote.
+     *
+     * @param rootPath  the file system root, e.g. https://accountName.dfs.core.windows.net/fileSystem
+     * @param directory the directory path relative to the root, empty for the root
+     */
+    public Observable<RemoteFile> list(@NotNull RemoteFileLister lister,
+                                       @NotNull String rootPath,
+                                       @NotNull String directory) {
+        return Observable.defer(() -> {
+            final Listing listing = getListing(lister, rootPath, directory);
+
+            return listing.files.doOnCompleted(() -> {
+                if (listing.isChildrenPrefetched.compareAndSet(false, true)) {
+                    listing.getDirectories().forEach(child -> prefetch(lister, rootPath, child.getName()));
+                }
+            });
+        });
+    }
+
+    /**
+     * Get the file or directory from the cached parent listing, or by a status request without listing the parent.
+     *
+     * @return the file, or empty if the path doesn't exist
+     */
+    public Observable<RemoteFile> stat(@NotNull RemoteFileLister lister,
+                                       @NotNull String rootPath,
+                                       @NotNull String path) {
+        return Observable.defer(() -> {
+            final String normalizedPath = StringUtils.strip(path, "/");
+            final String parentPath = normalizedPath.contains("/")
+                                      ? StringUtils.substringBeforeLast(normalizedPath, "/")
+                                      : "";
+            final Listing parent = listings.get(getKey(rootPath, parentPath));
+
+            if (parent != null && parent.isCompleted() && !parent.isExpired()) {
+                return parent.files.filter(file -> normalizedPath.equals(StringUtils.strip(file.getName(), "/")))
+                                   .take(1);
+            }
+
+            return lister.stat(rootPath, normalizedPath);
+        });
+    }
+
+    /**
+     * Drop the cached listings of the path, its ancestors and its descendants, call it after the file or directory is
+     * created or deleted.
+     *
+     * @param url the full url of the file or directory, e.g. https://accountName.dfs.core.windows.net/fs/dir/a.jar
+     */
+    public void invalidate(@NotNull String url) {
+        final String target = normalize(url);
+        listings.keySet().removeIf(key -> key.equals(target)
+                || key.startsWith(target + "/")
+                || target.startsWith(key + "/"));
+    }
+
+    public void invalidateAll() {
+        listings.clear();
+    }
+
+    public boolean isCached(@NotNull String rootPath, @NotNull String directory) {
+        final Listing listing = listings.get(getKey(rootPath, directory));
+
+        return listing != null && listing.isCompleted() && !listing.isExpired();
+    }
+
+    public int getMaxPrefetch() {
+        return maxPrefetch;
+    }
+
+    public int getPrefetchingCount() {
+        return prefetcher == null ? 0 : prefetcher.getActiveCount() + prefetcher.getQueue().size();
+    }
+
+    private Listing getListing(@NotNull RemoteFileLister lister, @NotNull String rootPath, @NotNull String directory) {
+        final String key = getKey(rootPath, directory);
+
+        return listings.compute(key, (k, cached) -> cached != null && !cached.isExpired()
+                                                    ? cached
+                                                    : new Listing(k, lister.list(rootPath, directory)));
+    }
+
+    private void prefetch(@NotNull RemoteFileLister lister, @NotNull String rootPath, @NotNull String directory) {
+        if (prefetcher == null) {
+            return;
+        }
+
+        prefetcher.execute(() -> {
+            final Listing cached = listings.get(getKey(rootPath, directory));
+            if (cached != null && !cached.isExpired()) {
+                // Listed or being listed by the others
+                return;
+            }
+
+            getListing(lister, rootPath, directory).files
+                    .onErrorResumeNext(err -> {
+                        log().debug("Failed to prefetch " + directory + ": " + err);
+                        return Observable.empty();
+                    })
+                    .toBlocking()
+                    .lastOrDefault(null);
+        });
+    }
+
+    @NotNull
+    static String getKey(@NotNull String rootPath, @NotNull String directory) {
+        final String path = StringUtils.strip(directory, "/");
+
+        return path.isEmpty() ? normalize(rootPath) : normalize(rootPath) + "/" + path;
+    }
+
+    /**
+     * Normalize the url to the decoded form without the query and the ending slash, since the listing keys are built
+     * from the raw paths.
+     */
+    @NotNull
+    static String normalize(@NotNull String url) {
+        try {
+            final URI uri = new URI(url);
+            final String path = StringUtils.stripEnd(StringUtils.defaultString(uri.getPath()), "/");
+
+            return uri.getScheme() == null || uri.getAuthority() == null
+                   ? path
+                   : uri.getScheme().toLowerCase() + "://" + uri.getAuthority().toLowerCase() + path;
+        } catch (URISyntaxException ex) {
+            return StringUtils.stripEnd(StringUtils.substringBefore(url, "?"), "/");
+        }
+    }
+
+    private final class Listing {
+        @NotNull
+        private final String key;
+
+        // The children listed so far, the subscribers of the same listing share one remote listing
+        @NotNull
+        private final List<RemoteFile> children = new ArrayList<>();
+
+        @NotNull
+        private final Observable<RemoteFile> files;
+
+        private final AtomicBoolean isChildrenPrefetched = new AtomicBoolean(false);
+        private volatile long completedAt = -1;
+
+        private Listing(@NotNull String key, @NotNull Observable<RemoteFile> remoteFiles) {
+            this.key = key;
+            this.files = remoteFiles
+                    .doOnNext(file -> {
+                        synchronized (children) {
+                            children.add(file);
+                        }
+                    })
+                    .doOnCompleted(() -> completedAt = System.currentTimeMillis())
+                    // Don't keep the failed listing, the next request retries it
+                    .doOnError(err -> listings.remove(this.key, this))
+                    .cache();
+        }
+
+        private boolean isCompleted() {
+            return completedAt >= 0;
+        }
+
+        private boolean isExpired() {
+            return isCompleted() && System.currentTimeMillis() - completedAt >= ttlMillis;
+        }
+
+        @NotNull
+        private List<RemoteFile> getDirectories() {
+            final List<RemoteFile> directories = new ArrayList<>();
+            synchronized (children) {
+                children.stream().filter(RemoteFile::isDirectory).forEach(directories::add);
+            }
+
+            return directories;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage;
+
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+
+/**
+ * The REST operations to browse a remote file system. The paths are relative to the root path without the leading
+ * slash, e.g. "SparkSubmission/2021/01/01", and the names of the listed files are in the same form.
+ */
+public interface RemoteFileLister {
+    /**
+     * List one page of the directory children.
+     *
+     * @param rootPath     the file system root, e.g. https://accountName.dfs.core.windows.net/fileSystem
+     * @param directory    the directory path, empty for the root
+     * @param continuation the token from the previous page, or null for the first page
+     */
+    Observable<RemoteFilePage> listPage(@NotNull String rootPath,
+                                        @NotNull String directory,
+                                        @Nullable String continuation);
+
+    /**
+     * Get the file or directory without listing its parent.
+     *
+     * @return the file, or empty if the path doesn't exist
+     */
+    Observable<RemoteFile> stat(@NotNull String rootPath, @NotNull String path);
+
+    /**
+     * List the directory children page by page, each page is emitted before the next page is requested.
+     */
+    default Observable<RemoteFile> list(@NotNull String rootPath, @NotNull String directory) {
+        return listFrom(rootPath, directory, null);
+    }
+
+    default Observable<RemoteFile> listFrom(@NotNull String rootPath,
+                                            @NotNull String directory,
+                                            @Nullable String continuation) {
+        return listPage(rootPath, directory, continuation)
+                .concatMap(page -> Observable.from(page.getFiles()).concatWith(page.getContinuation() == null
+                        ? Observable.empty()
+                        : Observable.defer(() -> listFrom(rootPath, directory, page.getContinuation()))));
+    }
+}
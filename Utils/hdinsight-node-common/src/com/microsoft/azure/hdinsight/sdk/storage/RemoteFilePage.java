@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage;
+
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a remote directory listing, with the token to get the next page or null for the last page.
+ */
+public class RemoteFilePage {
+    @NotNull
+    private final List<RemoteFile> files;
+
+    @Nullable
+    private final String continuation;
+
+    public RemoteFilePage(@Nullable List<RemoteFile> files, @Nullable String continuation) {
+        this.files = files == null ? Collections.emptyList() : files;
+        this.continuation = continuation;
+    }
+
+    @NotNull
+    public List<RemoteFile> getFiles() {
+        return files;
+    }
+
+    @Nullable
+    public String getContinuation() {
+        return continuation;
+    }
+}
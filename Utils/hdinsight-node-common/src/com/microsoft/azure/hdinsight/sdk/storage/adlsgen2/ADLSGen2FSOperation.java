@@ -6,14 +6,19 @@
 package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
 
 import com.google.common.collect.ImmutableList;
+import com.microsoft.azure.hdinsight.common.AzureStorageUri;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.errorresponse.NotFoundHttpErrorStatus;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFileLister;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFilePage;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.entity.BufferedHttpEntity;
@@ -29,10 +34,12 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
-public class ADLSGen2FSOperation {
+public class ADLSGen2FSOperation implements RemoteFileLister {
     public static final String DEFAULT_UMASK = "0000";
     public static final String PERMISSIONS_HEADER = "x-ms-permissions";
     public static final String UMASK_HEADER = "x-ms-umask";
+    public static final String CONTINUATION_HEADER = "x-ms-continuation";
+    public static final String RESOURCE_TYPE_HEADER = "x-ms-resource-type";
 
     private HttpObservable http;
 
@@ -45,9 +52,6 @@ public class ADLSGen2FSOperation {
     @NotNull
     private List<NameValuePair> appendReqParams;
 
-    @NotNull
-    private ADLSGen2ParamsBuilder listReqBuilder;
-
     @NotNull
     private ADLSGen2ParamsBuilder flushReqParamsBuilder;
 
@@ -115,17 +119,33 @@ public class ADLSGen2FSOperation {
                 .flatMap(len -> flushData(destFilePath, len));
     }
 
-    public Observable<RemoteFile> list(String rootPath, String relativePath) {
-        this.listReqBuilder = new ADLSGen2ParamsBuilder()
+    @Override
+    public Observable<RemoteFilePage> listPage(@NotNull String rootPath,
+                                               @NotNull String directory,
+                                               @Nullable String continuation) {
+        final ADLSGen2ParamsBuilder listReqBuilder = new ADLSGen2ParamsBuilder()
                 .enableRecursive(false)
-                .setResource("filesystem");
-
-        return http.get(
-                StringUtils.stripEnd(rootPath, "/"),
-                listReqBuilder.setDirectory(relativePath).build(),
-                null,
-                GetRemoteFilesResponse.class)
-                .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
+                .setResource("filesystem")
+                .setDirectory(directory);
+        if (continuation != null) {
+            listReqBuilder.setContinuation(continuation);
+        }
+
+        return http.requestWithHttpResponse(
+                new HttpGet(StringUtils.stripEnd(rootPath, "/")), null, listReqBuilder.build(), null)
+                .map(resp -> new RemoteFilePage(
+                        http.convertJsonResponseToObject(resp, GetRemoteFilesResponse.class).getRemoteFiles(),
+                        StringUtils.defaultIfEmpty(resp.findHeader(CONTINUATION_HEADER), null)));
+    }
+
+    @Override
+    public Observable<RemoteFile> stat(@NotNull String rootPath, @NotNull String path) {
+        final String filePath = StringUtils.stripEnd(rootPath, "/") + "/" + AzureStorageUri.encodeAndNormalizePath(path);
+        return http.head(filePath, new ADLSGen2ParamsBuilder().setAction("getStatus").build(), Collections.emptyList())
+                .map(resp -> new RemoteFile(path, "directory".equals(resp.findHeader(RESOURCE_TYPE_HEADER))))
+                .onErrorResumeNext(err -> err instanceof NotFoundHttpErrorStatus
+                                          ? Observable.empty()
+                                          : Observable.error(err));
     }
 
     private Observable<Long> appendData(String filePath, File src) {
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.webhdfs;
+
+import com.microsoft.azure.hdinsight.common.AzureStorageUri;
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.errorresponse.NotFoundHttpErrorStatus;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
+import com.microsoft.azure.hdinsight.sdk.rest.webhdfs.DirectoryListingResponse;
+import com.microsoft.azure.hdinsight.sdk.rest.webhdfs.FileStatus;
+import com.microsoft.azure.hdinsight.sdk.rest.webhdfs.FileStatusResponse;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFileLister;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFilePage;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Browse the cluster storage through WebHDFS, e.g. with the root path https://clusterName.azurehdinsight.net/webhdfs/v1
+ */
+public class WebHdfsFSOperation implements RemoteFileLister {
+    @NotNull
+    private final HttpObservable http;
+
+    public WebHdfsFSOperation(@NotNull HttpObservable http) {
+        this.http = http;
+    }
+
+    @Override
+    public Observable<RemoteFilePage> listPage(@NotNull String rootPath,
+                                               @NotNull String directory,
+                                               @Nullable String continuation) {
+        final WebHdfsParamsBuilder listReqBuilder = new WebHdfsParamsBuilder("LISTSTATUS_BATCH");
+        if (continuation != null) {
+            listReqBuilder.setStartAfter(continuation);
+        }
+
+        return http.get(getUrl(rootPath, directory), listReqBuilder.build(), null, DirectoryListingResponse.class)
+                .map(listing -> {
+                    final List<FileStatus> statuses = listing.getFileStatuses();
+                    final List<RemoteFile> files = statuses.stream()
+                            .map(status -> new RemoteFile(getChildPath(directory, status.getPathSuffix()),
+                                                          status.isDirectory()))
+                            .collect(Collectors.toList());
+                    // The next batch starts after the last name of this batch
+                    final String next = listing.getRemainingEntries() > 0 && !statuses.isEmpty()
+                                        ? statuses.get(statuses.size() - 1).getPathSuffix()
+                                        : null;
+                    return new RemoteFilePage(files, next);
+                });
+    }
+
+    @Override
+    public Observable<RemoteFile> stat(@NotNull String rootPath, @NotNull String path) {
+        return http.get(getUrl(rootPath, path), new WebHdfsParamsBuilder("GETFILESTATUS").build(), null,
+                        FileStatusResponse.class)
+                .map(resp -> new RemoteFile(path, resp.getFileStatus() != null && resp.getFileStatus().isDirectory()))
+                .onErrorResumeNext(err -> err instanceof NotFoundHttpErrorStatus
+                                          ? Observable.empty()
+                                          : Observable.error(err));
+    }
+
+    private static String getUrl(@NotNull String rootPath, @NotNull String path) {
+        return StringUtils.stripEnd(rootPath, "/") + "/" + AzureStorageUri.encodeAndNormalizePath(path);
+    }
+
+    private static String getChildPath(@NotNull String directory, @NotNull String name) {
+        return StringUtils.isEmpty(directory) ? name : StringUtils.stripEnd(directory, "/") + "/" + name;
+    }
+}
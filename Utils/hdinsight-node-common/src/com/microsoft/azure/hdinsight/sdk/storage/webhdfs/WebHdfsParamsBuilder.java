@@ -32,6 +32,11 @@ public class WebHdfsParamsBuilder {
         return this;
     }
 
+    public WebHdfsParamsBuilder setStartAfter(@NotNull String value) {
+        params.add(new BasicNameValuePair("startAfter", value));
+        return this;
+    }
+
     public List<NameValuePair> build() {
         return params;
     }
@@ -8,6 +8,8 @@ package com.microsoft.azure.hdinsight.serverexplore;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.IconPathBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.serverexplore.hdinsightnode.ClusterNode;
 import com.microsoft.azure.hdinsight.serverexplore.hdinsightnode.HDInsightRootModule;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -20,8 +22,12 @@ import com.microsoft.azuretools.telemetrywrapper.EventUtil;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureIconSymbol;
 import com.microsoft.tooling.msservices.serviceexplorer.Node;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
+import rx.Observable;
+import rx.schedulers.Schedulers;
 
-public class HDInsightRootModuleImpl extends HDInsightRootModule {
+import java.util.List;
+
+public class HDInsightRootModuleImpl extends HDInsightRootModule implements ILogger {
     private static final String HDINSIGHT_NODE_EXPAND = "HDInsightExplorer.HDInsightNodeExpand";
 
     private static final String HDInsight_SERVICE_MODULE_ID = HDInsightRootModuleImpl.class.getName();
@@ -56,19 +62,33 @@ public class HDInsightRootModuleImpl extends HDInsightRootModule {
     @Override
     protected void refreshItems() throws AzureCmdException {
         synchronized (this) {
-            ClusterManagerEx.getInstance().getCachedClusters().stream()
-                    .filter(ClusterManagerEx.getInstance().getHDInsightClusterFilterPredicate())
-                    .forEach(cluster -> addChildNode(new ClusterNode(this, cluster)));
+            if (ClusterManagerEx.getInstance().restoreClusterSnapshot()) {
+                // Show the clusters listed last time at once, and list the clusters again in background
+                Observable.fromCallable(() -> ClusterManagerEx.getInstance().getClusterDetails())
+                        .subscribeOn(Schedulers.io())
+                        .subscribe(clusters -> load(false),
+                                   err -> log().warn("Failed to refresh HDInsight clusters", err));
+            }
+
+            addClusterNodes(ClusterManagerEx.getInstance().getCachedClusters());
         }
     }
 
     @Override
     protected void refreshFromAzure() throws Exception {
         synchronized (this) {
-            ClusterManagerEx.getInstance().getClusterDetails();
+            // Show the clusters got so far once a subscription responds
+            ClusterManagerEx.getInstance().getClusterDetails(this::addClusterNodes);
         }
     }
 
+    private void addClusterNodes(@NotNull List<IClusterDetail> clusters) {
+        removeAllChildNodes();
+        clusters.stream()
+                .filter(ClusterManagerEx.getInstance().getHDInsightClusterFilterPredicate())
+                .forEach(cluster -> addChildNode(new ClusterNode(this, cluster)));
+    }
+
     @Override
     protected void onNodeClick(NodeActionEvent e) {
         // Send telemetry for expanding node action
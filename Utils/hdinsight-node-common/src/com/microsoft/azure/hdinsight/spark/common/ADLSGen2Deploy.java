@@ -9,6 +9,7 @@ import com.microsoft.azure.hdinsight.common.AbfsUri;
 import com.microsoft.azure.hdinsight.common.UriUtil;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFileBrowser;
 import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
@@ -77,9 +78,39 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                  .flatMap(ignore -> op.createFile(filePath, "0755"))
                  .flatMap(ignore -> op.uploadData(filePath, src))
                  .doOnNext(ignore -> log().info(String.format("Append data to file %s successfully.", filePath)))
+                 // The new folder and artifact aren't in the cached listings
+                 .doOnNext(ignore -> RemoteFileBrowser.getInstance().invalidate(filePath))
                  .map(ignored -> AbfsUri.parse(filePath).getUri().toString());
     }
 
+    /**
+     * Check the referenced file exists on the storage account the artifacts are uploaded to, from the cached parent
+     * listing or by a status request. The files on other accounts, or which can't be checked, are left to Livy.
+     *
+     * @param uri the ADLS Gen2 URI of the referenced file
+     * @return false if the path is missing or is a directory, otherwise true
+     */
+    public Observable<Boolean> isReferencedFileExisting(@NotNull String uri) {
+        if (!AbfsUri.isType(uri) || !AbfsUri.isType(destinationRootPath)) {
+            return Observable.just(true);
+        }
+
+        final AbfsUri fileUri = AbfsUri.parse(uri);
+        if (!fileUri.getAccountName().equalsIgnoreCase(AbfsUri.parse(destinationRootPath).getAccountName())) {
+            return Observable.just(true);
+        }
+
+        final String fileSystemRootPath = fileUri.resolve("/").getUrl().toString();
+        return RemoteFileBrowser.getInstance()
+                                .stat(new ADLSGen2FSOperation(this.http), fileSystemRootPath, fileUri.getDirectoryParam())
+                                .map(file -> !file.isDirectory())
+                                .defaultIfEmpty(false)
+                                .onErrorReturn(err -> {
+                                    log().warn(String.format("Failed to check the referenced file %s: %s", uri, err.getMessage()));
+                                    return true;
+                                });
+    }
+
     public static String getForbiddenErrorHints(String fileSystemRootPath) {
         final String signInUserEmail = AuthMethodManager.getInstance().getAuthMethodDetails().getAccountEmail();
         return " Please verify if\n"
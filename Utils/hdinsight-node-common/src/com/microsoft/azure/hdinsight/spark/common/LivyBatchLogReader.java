@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.impl.client.CloseableHttpClient;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.subjects.ReplaySubject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.UnknownServiceException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read the log of a Livy batch incrementally with the {@code from} and {@code size} paging of
+ * {@code /batches/{id}/log}, so every poll only gets the lines arrived since the last one, at most a page a time.
+ * The server reported {@code total} tells whether there are more lines to get without waiting, and a shrunk total means
+ * the log is truncated or rotated at server side, then it's read again from the start of the new log.
+ *
+ * The YARN application ID is scanned from the new lines only, until it's found.
+ */
+public class LivyBatchLogReader implements Closeable, ILogger {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final Pattern DEFAULT_APPLICATION_ID_PATTERN =
+            Pattern.compile("Application report for ([^ ]*) \\(state: ACCEPTED\\)");
+
+    @NotNull
+    private final SparkBatchSubmission submission;
+    @NotNull
+    private final String batchesUrl;
+    private final int batchId;
+    private final int pageSize;
+    @NotNull
+    private final Pattern applicationIdPattern;
+    @NotNull
+    private final ReplaySubject<String> applicationIdSubject = ReplaySubject.createWithSize(1);
+    @Nullable
+    private volatile String applicationId;
+
+    // The reading cursor, guarded by this
+    private int nextIndex = 0;
+    private int total = 0;
+    @Nullable
+    private CloseableHttpClient httpClient;
+
+    private final AtomicLong fetchCount = new AtomicLong();
+    private final AtomicLong fetchedLineCount = new AtomicLong();
+    private final AtomicLong scannedLineCount = new AtomicLong();
+    private final AtomicLong resyncCount = new AtomicLong();
+
+    /**
+     * @param batchesUrl eg http://localhost:8998/batches
+     */
+    public LivyBatchLogReader(@NotNull SparkBatchSubmission submission, @NotNull String batchesUrl, int batchId) {
+        this(submission, batchesUrl, batchId, DEFAULT_PAGE_SIZE, DEFAULT_APPLICATION_ID_PATTERN);
+    }
+
+    /**
+     * @param applicationIdPattern the pattern to find the YARN application ID in a line, as the first group
+     */
+    public LivyBatchLogReader(@NotNull SparkBatchSubmission submission,
+                              @NotNull String batchesUrl,
+                              int batchId,
+                              int pageSize,
+                              @NotNull Pattern applicationIdPattern) {
+        this.submission = submission;
+        this.batchesUrl = batchesUrl;
+        this.batchId = batchId;
+        this.pageSize = pageSize;
+        this.applicationIdPattern = applicationIdPattern;
+    }
+
+    /**
+     * Get the next page of the new lines
+     *
+     * @return the lines arrived since the last fetch, at most a page, or empty if no new lines
+     */
+    @NotNull
+    public synchronized List<String> fetchNextPage() throws IOException {
+        final String logUrl = String.format("%s/%d/log?from=%d&size=%d", batchesUrl, batchId, nextIndex, pageSize);
+        HttpResponse httpResponse = submission.getHttpResponseViaGet(logUrl, getHttpClient(), null);
+        fetchCount.incrementAndGet();
+
+        if (httpResponse.getCode() == 401) {
+            // The reused client may carry an expired access token, retry once with a new one
+            close();
+            httpResponse = submission.getHttpResponseViaGet(logUrl, getHttpClient(), null);
+            fetchCount.incrementAndGet();
+        }
+
+        if (httpResponse.getCode() < 200 || httpResponse.getCode() >= 300) {
+            throw new UnknownServiceException("Bad spark log response: " + httpResponse.getMessage());
+        }
+
+        final String message = httpResponse.getMessage();
+        final SparkJobLog page = ObjectConvertUtils.convertJsonToObject(message, SparkJobLog.class)
+                .orElseThrow(() -> new UnknownServiceException("Bad spark log response: " + message));
+        final List<String> lines = page.getLog() == null ? Collections.emptyList() : page.getLog();
+
+        if (page.getTotal() < nextIndex) {
+            log().warn(String.format("Livy batch %d log is truncated from %d to %d lines, read it from the start",
+                                     batchId, nextIndex, page.getTotal()));
+            resyncCount.incrementAndGet();
+            nextIndex = 0;
+            total = page.getTotal();
+
+            return Collections.emptyList();
+        }
+
+        nextIndex += lines.size();
+        total = page.getTotal();
+        fetchedLineCount.addAndGet(lines.size());
+        scanApplicationId(lines);
+
+        return lines;
+    }
+
+    /**
+     * @return true if the server has the lines not fetched yet by the last fetch
+     */
+    public synchronized boolean hasMoreLines() {
+        return nextIndex < total;
+    }
+
+    /**
+     * The log lines as a back-pressured stream, which fetches the next page only when the previous one is consumed.
+     * Without new lines, it polls with the interval growing from the min one to the max one, and completes once the
+     * job isn't alive and all the lines are got.
+     *
+     * @param isAlive checked before the polls after all the lines are got, the log is read to the end once it's false
+     * @param scheduler to wait for the next poll on, which is also where the poll runs
+     */
+    @NotNull
+    public Observable<String> lines(@NotNull Func0<Boolean> isAlive,
+                                    long minPollIntervalMillis,
+                                    long maxPollIntervalMillis,
+                                    @NotNull Scheduler scheduler) {
+        return Observable.defer(() -> {
+            final Polling polling = new Polling(isAlive, minPollIntervalMillis, maxPollIntervalMillis);
+
+            return Observable.fromCallable(polling::poll)
+                    .repeatWhen(polled -> polled
+                            .takeWhile(any -> !polling.isEnded)
+                            .concatMap(any -> polling.isCaughtUp
+                                              ? Observable.timer(polling.intervalMillis, TimeUnit.MILLISECONDS, scheduler)
+                                              : Observable.just(0L)))
+                    .flatMapIterable(lines -> lines, 1);
+        }).doOnTerminate(this::close).doOnUnsubscribe(this::close);
+    }
+
+    private void scanApplicationId(@NotNull List<String> lines) {
+        if (applicationId != null) {
+            return;
+        }
+
+        for (final String line : lines) {
+            scannedLineCount.incrementAndGet();
+            final Matcher matcher = applicationIdPattern.matcher(line);
+
+            if (matcher.find()) {
+                applicationId = matcher.group(1);
+                applicationIdSubject.onNext(applicationId);
+                applicationIdSubject.onCompleted();
+                return;
+            }
+        }
+    }
+
+    @NotNull
+    private synchronized CloseableHttpClient getHttpClient() throws IOException {
+        if (httpClient == null) {
+            // One client for all the polls to reuse the connections
+            httpClient = submission.getHttpClient();
+        }
+
+        return httpClient;
+    }
+
+    /**
+     * @return the YARN application ID found in the log, emitted once
+     */
+    @NotNull
+    public Observable<String> getApplicationIdObservable() {
+        return applicationIdSubject.asObservable();
+    }
+
+    @Nullable
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    public long getFetchedLineCount() {
+        return fetchedLineCount.get();
+    }
+
+    public long getScannedLineCount() {
+        return scannedLineCount.get();
+    }
+
+    public long getResyncCount() {
+        return resyncCount.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException ex) {
+                log().debug("Failed to close the Livy batch log HTTP client", ex);
+            }
+
+            httpClient = null;
+        }
+    }
+
+    /**
+     * The polling state of a {@link #lines} subscription, which polls one page a time
+     */
+    private final class Polling {
+        @NotNull
+        private final Func0<Boolean> isAlive;
+        private final long minIntervalMillis;
+        private final long maxIntervalMillis;
+
+        private volatile boolean isCaughtUp = true;
+        private volatile boolean isEnded = false;
+        private volatile long intervalMillis = 0;
+
+        private Polling(@NotNull Func0<Boolean> isAlive, long minIntervalMillis, long maxIntervalMillis) {
+            this.isAlive = isAlive;
+            this.minIntervalMillis = minIntervalMillis;
+            this.maxIntervalMillis = maxIntervalMillis;
+        }
+
+        @NotNull
+        private List<String> poll() throws IOException {
+            // Check the job before the fetch, so the lines logged before the job ends are always got
+            final boolean wasAlive = !isCaughtUp || isAlive.call();
+            final List<String> lines = fetchNextPage();
+
+            isCaughtUp = lines.isEmpty() && !hasMoreLines();
+            isEnded = isCaughtUp && !wasAlive;
+            intervalMillis = isCaughtUp ? Math.min(maxIntervalMillis, Math.max(minIntervalMillis, intervalMillis * 2)) : 0;
+
+            return lines;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Observer;
 import rx.Subscriber;
+import rx.schedulers.Schedulers;
 import rx.subjects.PublishSubject;
 
 import java.io.File;
@@ -57,10 +58,11 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     private final Observer<SparkLogLine> ctrlSubject;
 
     /**
-     * Livy log fetching offset in Spark Batch Job context. Accessing with {@link #livyLogOffsetLock}
+     * Livy log reader in Spark Batch Job context, which keeps the log offset across the submission log subscriptions.
+     * Accessing with {@link #getLivyLogReader()}
      */
-    private int nextLivyLogOffset = 0;
-    private final Object livyLogOffsetLock = new Object();
+    @Nullable
+    private LivyBatchLogReader livyLogReader;
 
     @Nullable
     private String getCurrentLogUrl() {
@@ -802,55 +804,45 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "stderr:",
                 "yarn diagnostics:"));
 
-        return Observable.create(ob -> {
-            try {
-                final int maxLinesPerGet = 128;
-                int linesGot;
-                boolean isFetching = true;
-
-                while (isFetching) {
-                    final int start = nextLivyLogOffset;
-                    final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
-                            .lastOrDefault(true);
-                    final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
-                                                        this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
-
-                    final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
-
-                    final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
-                                                                                           SparkJobLog.class)
-                                                                      .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark log response: " + httpResponse.getMessage()));
-
-                    synchronized (livyLogOffsetLock) {
-                        if (start != nextLivyLogOffset) {
-                            // The offset is moved by another fetching thread, re-do it with new offset
-                            continue;
-                        }
-
-                        // To subscriber
-                        sparkJobLog.getLog().stream()
-                                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
-                                .forEach(line -> ob.onNext(new SparkLogLine(LIVY, Log, line)));
+        final long pollIntervalMillis = TimeUnit.SECONDS.toMillis(this.getDelaySeconds());
+
+        return getLivyLogReader()
+                .lines(this::isSubmissionLogGrowing, pollIntervalMillis, pollIntervalMillis, Schedulers.io())
+                // To subscriber
+                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
+                .map(line -> new SparkLogLine(LIVY, Log, line))
+                .onErrorResumeNext(err -> {
+                    final Throwable cause = err instanceof RuntimeException && err.getCause() != null
+                                            ? err.getCause()
+                                            : err;
+
+                    return cause instanceof IOException
+                           ? Observable.just(new SparkLogLine(TOOL, Error, cause.getMessage()))
+                           : Observable.error(err);
+                });
+    }
 
-                        linesGot = sparkJobLog.getLog().size();
-                        nextLivyLogOffset += linesGot;
-                    }
+    @NotNull
+    private synchronized LivyBatchLogReader getLivyLogReader() {
+        if (livyLogReader == null) {
+            livyLogReader = new LivyBatchLogReader(this.getSubmission(), this.getConnectUri().toString(), batchId);
+        }
 
-                    // Retry interval
-                    if (linesGot == 0) {
-                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated;
+        return livyLogReader;
+    }
 
-                        sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-                    }
-                }
-            } catch (final IOException ex) {
-                ob.onNext(new SparkLogLine(TOOL, Error, ex.getMessage()));
-            } catch (final InterruptedException ignored) {
-            } finally {
-                ob.onCompleted();
-            }
-        });
+    /**
+     * The submission log keeps growing till the job is started with YARN application allocated
+     */
+    private boolean isSubmissionLogGrowing() {
+        try {
+            final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
+                    .lastOrDefault(true);
+
+            return "starting".equals(this.getState()) && !isAppIdAllocated;
+        } catch (final IOException ex) {
+            throw propagate(ex);
+        }
     }
 
     public boolean isActive() throws IOException {
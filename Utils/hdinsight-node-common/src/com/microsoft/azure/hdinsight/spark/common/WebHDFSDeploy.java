@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.spark.common;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.storage.RemoteFileBrowser;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
@@ -110,6 +111,8 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                         throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
                     }
                 })
+                // The new folder and artifact aren't in the cached listings
+                .doOnNext(ignored -> RemoteFileBrowser.getInstance().invalidate(dest.resolve(src.getName()).toString()))
                 .map(ignored -> {
                     try {
                         return getArtifactUploadedPath(dest.resolve(src.getName()).toString());
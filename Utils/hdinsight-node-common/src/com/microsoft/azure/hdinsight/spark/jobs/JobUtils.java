@@ -20,6 +20,7 @@ import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azure.hdinsight.common.MessageInfoType;
 import com.microsoft.azure.hdinsight.common.StreamUtil;
+import com.microsoft.azure.hdinsight.common.task.CancellationScope;
 import com.microsoft.azure.hdinsight.sdk.cluster.EmulatorClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster;
@@ -423,6 +424,8 @@ public class JobUtils {
         }
 
         final HttpGet get = new HttpGet(url);
+        // Abort the request once the job view request waiting for it is cancelled
+        CancellationScope.onCurrentCancel(get::abort);
         final HttpResponse response = client.execute(get);
         final int code = response.getStatusLine().getStatusCode();
         if (code == HttpStatus.SC_OK || code == HttpStatus.SC_CREATED) {
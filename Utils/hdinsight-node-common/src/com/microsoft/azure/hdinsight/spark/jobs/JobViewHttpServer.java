@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.microsoft.azure.hdinsight.common.task.InstrumentedThreadPoolExecutor;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
@@ -15,13 +17,19 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * The local HTTP server of the Spark job view pages. The server threads only dispatch the requests, the data requests
+ * are fetched asynchronously by {@link JobViewRequestDispatcher}.
+ */
 public class JobViewHttpServer {
     private static HttpServer server;
-    private static final int NUMBER_OF_THREADS = 50;
+    private static final int NUMBER_OF_THREADS = 8;
+    private static final int REQUEST_QUEUE_SIZE = 1024;
+    private static final int CONNECTION_BACKLOG = 1024;
     private static ExecutorService executorService;
+    private static JobViewRequestDispatcher dispatcher;
     private static boolean isEnabled = false;
     private static int port = -1;
 
@@ -33,6 +41,9 @@ public class JobViewHttpServer {
         if (server != null) {
             server.stop(0);
         }
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
         if (executorService != null) {
             executorService.shutdown();
             try {
@@ -47,6 +58,11 @@ public class JobViewHttpServer {
         return port;
     }
 
+    @Nullable
+    public synchronized static JobViewRequestDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     public synchronized static void initialize() {
         if (isEnabled) {
             return;
@@ -60,17 +76,20 @@ public class JobViewHttpServer {
             InetSocketAddress socketAddress = new InetSocketAddress(s.getLocalPort());
             port = socketAddress.getPort();
 
-            server = HttpServer.create(socketAddress, NUMBER_OF_THREADS);
+            server = HttpServer.create(socketAddress, CONNECTION_BACKLOG);
 
             server.createContext("/try", (httpExchange) -> {
                     httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
                     JobUtils.setResponse(httpExchange, "Connect Successfully");
             });
-            server.createContext("/applications", new SparkJobHttpHandler());
-            server.createContext("/apps", new YarnJobHttpHandler());
+            dispatcher = new JobViewRequestDispatcher();
+            server.createContext("/applications", dispatcher.dispatchTo(new SparkJobHttpHandler()));
+            server.createContext("/apps", dispatcher.dispatchTo(new YarnJobHttpHandler()));
             server.createContext("/actions", new ActionHttpHandler());
+            server.createContext("/cancel", dispatcher::handleCancel);
 
-            executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+            executorService = new InstrumentedThreadPoolExecutor(
+                    "job-view-server-%d", NUMBER_OF_THREADS, REQUEST_QUEUE_SIZE);
             server.setExecutor(executorService);
             server.start();
             isEnabled = true;
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.common.task.CancellationScope;
+import com.microsoft.azure.hdinsight.common.task.TaskExecutor;
+import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Run the job view requests asynchronously, so the HTTP server threads only parse the requests and write the
+ * responses, and the blocking fetches of Spark history and YARN run on a bounded executor, or on virtual threads if
+ * the Java runtime supports them.
+ *
+ * The identical requests in flight, e.g. the stages of the same application from several job view tabs, share one
+ * fetch. Each request waits for at most the timeout, and a job view page cancels its requests with the view ID when
+ * it's closed. A fetch is cancelled, with its remote calls aborted, once no request waits for it. The limits can be
+ * set with the system properties {@value #REQUEST_TIMEOUT_SECONDS_PROPERTY} (default 60) and
+ * {@value #MAX_FETCH_THREADS_PROPERTY} (default 32).
+ */
+public class JobViewRequestDispatcher implements ILogger {
+    public static final String REQUEST_TIMEOUT_SECONDS_PROPERTY = "azure.toolkit.jobView.requestTimeoutSeconds";
+    public static final String MAX_FETCH_THREADS_PROPERTY = "azure.toolkit.jobView.maxFetchThreads";
+
+    static final String VIEW_ID_QUERY_KEY = "view-id";
+
+    private static final long DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_MAX_FETCH_THREADS = 32;
+    private static final int FETCH_QUEUE_SIZE = 1024;
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    private final long timeoutMillis;
+    @NotNull
+    private final ExecutorService fetcher;
+    @NotNull
+    private final ScheduledThreadPoolExecutor timer;
+
+    // The fetches in flight by the request path and queries without the view ID
+    private final ConcurrentMap<String, Fetch> fetches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Waiter>> waitersByView = new ConcurrentHashMap<>();
+    private final AtomicInteger runningFetchCount = new AtomicInteger();
+    private final AtomicInteger waitingRequestCount = new AtomicInteger();
+
+    public JobViewRequestDispatcher() {
+        this(TimeUnit.SECONDS.toMillis(Long.getLong(REQUEST_TIMEOUT_SECONDS_PROPERTY, DEFAULT_REQUEST_TIMEOUT_SECONDS)),
+             Integer.getInteger(MAX_FETCH_THREADS_PROPERTY, DEFAULT_MAX_FETCH_THREADS));
+    }
+
+    public JobViewRequestDispatcher(long timeoutMillis, int maxFetchThreads) {
+        this.timeoutMillis = timeoutMillis;
+        this.fetcher = TaskExecutor.newBlockingIoExecutor("job-view-fetch-%d", maxFetchThreads, FETCH_QUEUE_SIZE);
+        this.timer = new ScheduledThreadPoolExecutor(
+                1, new ThreadFactoryBuilder().setNameFormat("job-view-timer-%d").setDaemon(true).build());
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * @return the HTTP handler which runs the job view request handler asynchronously
+     */
+    @NotNull
+    public HttpHandler dispatchTo(@NotNull JobViewRequestHandler handler) {
+        return httpExchange -> dispatch(httpExchange, handler);
+    }
+
+    /**
+     * Handle the cancel request, which a job view page sends with its view ID when it's closed.
+     */
+    public void handleCancel(@NotNull HttpExchange httpExchange) throws IOException {
+        drainRequestBody(httpExchange);
+        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        final String viewId = getQuery(httpExchange.getRequestURI(), VIEW_ID_QUERY_KEY);
+        if (viewId != null) {
+            cancelView(viewId);
+        }
+
+        httpExchange.sendResponseHeaders(204, -1);
+        httpExchange.close();
+    }
+
+    /**
+     * Cancel the requests of the job view page, and the fetches which no other request waits for.
+     */
+    public void cancelView(@NotNull String viewId) {
+        final Set<Waiter> waiters = waitersByView.remove(viewId);
+        if (waiters != null) {
+            waiters.forEach(waiter -> waiter.complete(null));
+        }
+    }
+
+    public int getFetchCount() {
+        return fetches.size();
+    }
+
+    public int getRunningFetchCount() {
+        return runningFetchCount.get();
+    }
+
+    public int getWaitingRequestCount() {
+        return waitingRequestCount.get();
+    }
+
+    public void close() {
+        fetcher.shutdownNow();
+        timer.shutdownNow();
+        fetches.values().forEach(Fetch::cancel);
+    }
+
+    private void dispatch(@NotNull HttpExchange httpExchange, @NotNull JobViewRequestHandler handler)
+            throws IOException {
+        drainRequestBody(httpExchange);
+        final JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
+        final URI uri = httpExchange.getRequestURI();
+        final String key = getFetchKey(uri);
+
+        Fetch fetch;
+        do {
+            fetch = fetches.computeIfAbsent(key, Fetch::new);
+            if (fetch.join()) {
+                break;
+            }
+
+            // Cancelled just now, start a new one
+            fetches.remove(key, fetch);
+        } while (true);
+
+        final Waiter waiter = new Waiter(httpExchange, fetch, getQuery(uri, VIEW_ID_QUERY_KEY));
+        waiter.start();
+        fetch.start(handler, requestDetail);
+    }
+
+    private void respond(@NotNull HttpExchange httpExchange, @NotNull JobViewResponse response) {
+        try {
+            final String acceptEncoding = httpExchange.getRequestHeaders().getFirst("Accept-Encoding");
+            final boolean isGzipped = response.getBody().length >= MIN_GZIP_SIZE
+                    && StringUtils.containsIgnoreCase(acceptEncoding, "gzip");
+            final byte[] body = isGzipped ? response.getGzippedBody() : response.getBody();
+
+            httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+            httpExchange.getResponseHeaders().add("Content-Type", response.getContentType());
+            if (isGzipped) {
+                httpExchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+
+            httpExchange.sendResponseHeaders(response.getStatusCode(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream stream = httpExchange.getResponseBody()) {
+                    stream.write(body);
+                }
+            }
+        } catch (IOException ex) {
+            log().debug("The job view request " + httpExchange.getRequestURI() + " is closed: " + ex);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    private static void drainRequestBody(@NotNull HttpExchange httpExchange) throws IOException {
+        // The server closes the connection after the response if the request body isn't read to the end
+        httpExchange.getRequestBody().close();
+    }
+
+    @NotNull
+    private static JobViewResponse toErrorResponse(@NotNull Throwable err) {
+        final Throwable cause = err instanceof CompletionException || err instanceof ExecutionException
+                                ? err.getCause()
+                                : err;
+
+        return cause instanceof RejectedExecutionException
+               ? JobViewResponse.error(503, "Too many job view requests")
+               : JobViewResponse.error(500, StringUtils.defaultString(cause.getMessage(), cause.toString()));
+    }
+
+    @NotNull
+    static String getFetchKey(@NotNull URI uri) {
+        final String queries = Arrays.stream(StringUtils.defaultString(uri.getRawQuery()).split("&"))
+                .filter(query -> !query.isEmpty() && !query.startsWith(VIEW_ID_QUERY_KEY + "="))
+                .sorted()
+                .collect(Collectors.joining("&"));
+
+        return uri.getPath() + "?" + queries;
+    }
+
+    @Nullable
+    private static String getQuery(@NotNull URI uri, @NotNull String name) {
+        return Arrays.stream(StringUtils.defaultString(uri.getQuery()).split("&"))
+                .filter(query -> query.startsWith(name + "="))
+                .map(query -> query.substring(name.length() + 1))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private final class Fetch {
+        @NotNull
+        private final String key;
+        private final CompletableFuture<JobViewResponse> result = new CompletableFuture<>();
+        private final CancellationScope scope = new CancellationScope();
+        private final AtomicBoolean isStarted = new AtomicBoolean(false);
+
+        // The count of the requests waiting for the fetch, -1 once it's cancelled
+        private final AtomicInteger waiterCount = new AtomicInteger();
+
+        @Nullable
+        private volatile Future<?> task;
+
+        private Fetch(@NotNull String key) {
+            this.key = key;
+        }
+
+        private boolean join() {
+            int count;
+            do {
+                count = waiterCount.get();
+                if (count < 0) {
+                    return false;
+                }
+            } while (!waiterCount.compareAndSet(count, count + 1));
+
+            return true;
+        }
+
+        private void leave() {
+            if (waiterCount.decrementAndGet() == 0 && !result.isDone() && waiterCount.compareAndSet(0, -1)) {
+                cancel();
+            }
+        }
+
+        private void start(@NotNull JobViewRequestHandler handler, @NotNull JobRequestDetails requestDetail) {
+            if (!isStarted.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                task = fetcher.submit(() -> {
+                    if (scope.isCancelled()) {
+                        return;
+                    }
+
+                    JobViewResponse response;
+                    runningFetchCount.incrementAndGet();
+                    try {
+                        response = scope.call(() -> handler.handle(requestDetail));
+                        if (response == null) {
+                            response = JobViewResponse.error(404, "");
+                        }
+                    } catch (Exception ex) {
+                        response = toErrorResponse(ex);
+                    } finally {
+                        runningFetchCount.decrementAndGet();
+                    }
+
+                    // Don't share the fetch with the requests coming after it's done
+                    fetches.remove(key, this);
+                    result.complete(response);
+                });
+            } catch (RejectedExecutionException ex) {
+                fetches.remove(key, this);
+                result.complete(toErrorResponse(ex));
+            }
+        }
+
+        private void cancel() {
+            fetches.remove(key, this);
+            result.cancel(false);
+            scope.cancel();
+
+            final Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+
+    private final class Waiter {
+        @NotNull
+        private final HttpExchange httpExchange;
+        @NotNull
+        private final Fetch fetch;
+        @Nullable
+        private final String viewId;
+        private final AtomicBoolean isDone = new AtomicBoolean(false);
+
+        @Nullable
+        private volatile ScheduledFuture<?> timeout;
+
+        private Waiter(@NotNull HttpExchange httpExchange, @NotNull Fetch fetch, @Nullable String viewId) {
+            this.httpExchange = httpExchange;
+            this.fetch = fetch;
+            this.viewId = viewId;
+        }
+
+        private void start() {
+            waitingRequestCount.incrementAndGet();
+            if (viewId != null) {
+                waitersByView.computeIfAbsent(viewId, id -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
+                             .add(this);
+            }
+
+            try {
+                timeout = timer.schedule(
+                        () -> complete(JobViewResponse.error(504, "Timed out to get " + httpExchange.getRequestURI())),
+                        timeoutMillis,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                // The dispatcher is closed
+                complete(null);
+                return;
+            }
+
+            fetch.result.whenComplete((response, err) -> {
+                if (err instanceof CancellationException) {
+                    complete(null);
+                } else {
+                    complete(err != null ? toErrorResponse(err) : response);
+                }
+            });
+        }
+
+        /**
+         * @param response the response to send, or null to close the request without any response
+         */
+        private void complete(@Nullable JobViewResponse response) {
+            if (!isDone.compareAndSet(false, true)) {
+                return;
+            }
+
+            final ScheduledFuture<?> scheduledTimeout = timeout;
+            if (scheduledTimeout != null) {
+                scheduledTimeout.cancel(false);
+            }
+
+            if (viewId != null) {
+                waitersByView.computeIfPresent(viewId, (id, waiters) -> {
+                    waiters.remove(this);
+                    return waiters.isEmpty() ? null : waiters;
+                });
+            }
+
+            fetch.leave();
+            waitingRequestCount.decrementAndGet();
+
+            if (response != null) {
+                respond(httpExchange, response);
+            } else {
+                httpExchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+/**
+ * Fetch the job view data for a request. The handler blocks on the remote calls, and is run by
+ * {@link JobViewRequestDispatcher} off the HTTP server threads.
+ */
+@FunctionalInterface
+public interface JobViewRequestHandler {
+    /**
+     * @return the response, or null if the request path isn't supported
+     */
+    @Nullable
+    JobViewResponse handle(@NotNull JobRequestDetails requestDetail) throws Exception;
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The response of a job view request, shared by all the identical requests waiting for it, so the body is encoded and
+ * compressed only once.
+ */
+public class JobViewResponse {
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final int statusCode;
+    @NotNull
+    private final String contentType;
+    @NotNull
+    private final byte[] body;
+    private volatile byte[] gzippedBody;
+
+    private JobViewResponse(int statusCode, @NotNull String contentType, @NotNull String body) {
+        this.statusCode = statusCode;
+        this.contentType = contentType;
+        this.body = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static JobViewResponse json(@NotNull String json) {
+        return new JobViewResponse(200, JSON_CONTENT_TYPE, json);
+    }
+
+    public static JobViewResponse text(@NotNull String message) {
+        return new JobViewResponse(200, TEXT_CONTENT_TYPE, message);
+    }
+
+    public static JobViewResponse error(int statusCode, @NotNull String message) {
+        return new JobViewResponse(statusCode, TEXT_CONTENT_TYPE, message);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @NotNull
+    public String getContentType() {
+        return contentType;
+    }
+
+    @NotNull
+    public byte[] getBody() {
+        return body;
+    }
+
+    @NotNull
+    public byte[] getGzippedBody() {
+        byte[] gzipped = gzippedBody;
+        if (gzipped == null) {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(body);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            gzipped = buffer.toByteArray();
+            gzippedBody = gzipped;
+        }
+
+        return gzipped;
+    }
+}
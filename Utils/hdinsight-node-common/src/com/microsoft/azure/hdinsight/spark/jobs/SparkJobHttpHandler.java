@@ -16,30 +16,30 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
-public class SparkJobHttpHandler implements HttpHandler {
+public class SparkJobHttpHandler implements JobViewRequestHandler {
 
     @Override
-    public void handle(HttpExchange httpExchange) throws IOException {
-        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-        JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
+    @Nullable
+    public JobViewResponse handle(@NotNull JobRequestDetails requestDetail) throws IOException {
         try {
             String path = requestDetail.getRequestPath();
             if (path.equalsIgnoreCase("/applications/") && requestDetail.getAppId().equalsIgnoreCase("0")) {
                 try {
                     List<Application> applications = SparkRestUtil.getSparkApplications(requestDetail.getCluster());
                     Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(applications);
-                    JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                    return JobViewResponse.json(responseString.orElseThrow(IOException::new));
                 } catch (HDIException e) {
                     DefaultLoader.getUIHelper().logError("get applications list error", e);
+                    return JobViewResponse.error(500, "get applications list error");
                 }
             } else if (path.contains("application_graph")) {
                 ApplicationKey key = new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId());
@@ -48,23 +48,24 @@ public class SparkJobHttpHandler implements HttpHandler {
                 List<JobStartEventLog> jobStartEventLogs = JobViewCacheManager.getJobStartEventLogs(key);
                 YarnAppWithJobs yarnAppWithJobs = new YarnAppWithJobs(app, jobs, jobStartEventLogs);
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(yarnAppWithJobs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             } else if (path.contains("stages_summary")) {
                 List<Stage> stages = JobViewCacheManager.getStages(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(stages);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             } else if (path.contains("executors_summary")) {
                 List<Executor> executors = JobViewCacheManager.getExecutors(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             } else if (path.contains("tasks_summary")) {
                 List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             }
         } catch (ExecutionException e) {
-            JobUtils.setResponse(httpExchange, e.getMessage(), 500);
+            return JobViewResponse.error(500, e.getMessage());
         }
+
+        return null;
     }
 }
-
@@ -10,32 +10,32 @@ import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
 import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
-public class YarnJobHttpHandler implements HttpHandler {
+public class YarnJobHttpHandler implements JobViewRequestHandler {
     @Override
-    public void handle(HttpExchange httpExchange) throws IOException {
-        httpExchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-
-        JobRequestDetails requestDetail = JobRequestDetails.getJobRequestDetail(httpExchange);
+    @Nullable
+    public JobViewResponse handle(@NotNull JobRequestDetails requestDetail) throws IOException {
         String path = requestDetail.getRequestPath();
         try {
             if (path.contains("/apps/app") && requestDetail.isSpecificApp()) {
                 App app = JobViewCacheManager.getYarnApp(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(app);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             } else if (path.contains("/apps/logs") && requestDetail.isSpecificApp()) {
                 ApplicationMasterLogs logs = JobViewCacheManager.getYarnLogs(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(logs);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                return JobViewResponse.json(responseString.orElseThrow(IOException::new));
             }
         } catch (ExecutionException e) {
-            JobUtils.setResponse(httpExchange, e.getMessage(), 500);
+            return JobViewResponse.error(500, e.getMessage());
         }
+
+        return null;
     }
 }
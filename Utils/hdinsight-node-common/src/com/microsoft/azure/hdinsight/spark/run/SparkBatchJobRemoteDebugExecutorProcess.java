@@ -40,8 +40,8 @@ public class SparkBatchJobRemoteDebugExecutorProcess extends SparkBatchJobRemote
         this.parentJob = parentJob;
         this.host = host;
         this.logUrl = logBaseUrl;
-        this.stdOutInputStream = new SparkJobExecutorLogInputStream("stdout", logBaseUrl);
-        this.stdErrInputStream = new SparkJobExecutorLogInputStream("stderr", logBaseUrl);
+        this.stdOutInputStream = new SparkJobExecutorLogInputStream("stdout", logBaseUrl, getLogFetchScheduler());
+        this.stdErrInputStream = new SparkJobExecutorLogInputStream("stderr", logBaseUrl, getLogFetchScheduler());
     }
 
     @NotNull
@@ -35,6 +35,8 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
     @NotNull
     private final PublishSubject<SparkLogLine> ctrlSubject;
     @NotNull
+    private final SparkJobLogFetchScheduler logFetchScheduler = new SparkJobLogFetchScheduler();
+    @NotNull
     private final SparkJobLogInputStream jobStdoutLogInputSteam;
     @NotNull
     private final SparkJobLogInputStream jobStderrLogInputSteam;
@@ -59,8 +61,8 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
         this.title = title;
         this.ctrlSubject = ctrlSubject;
 
-        this.jobStdoutLogInputSteam = new SparkJobLogInputStream("stdout");
-        this.jobStderrLogInputSteam = new SparkJobLogInputStream("stderr");
+        this.jobStdoutLogInputSteam = new SparkJobLogInputStream("stdout", logFetchScheduler);
+        this.jobStderrLogInputSteam = new SparkJobLogInputStream("stderr", logFetchScheduler);
     }
 
     /**
@@ -183,6 +185,9 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
         if (!isDisconnected()) {
             this.isDisconnected = true;
 
+            // Stop polling job logs, the log streams end after the rest logs are read
+            this.logFetchScheduler.close();
+
             this.ctrlSubject.onCompleted();
             this.eventSubject.onCompleted();
 
@@ -226,6 +231,11 @@ public class SparkBatchJobRemoteProcess extends Process implements ILogger {
                 .flatMap(this::startJobSubmissionLogReceiver);   // To receive the Livy submission log
     }
 
+    @NotNull
+    public SparkJobLogFetchScheduler getLogFetchScheduler() {
+        return logFetchScheduler;
+    }
+
     @NotNull
     public IdeSchedulers getSchedulers() {
         return schedulers;
@@ -5,8 +5,8 @@
 
 package com.microsoft.azure.hdinsight.spark.run;
 
-import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Optional;
@@ -15,26 +15,21 @@ import java.util.Optional;
 class SparkJobExecutorLogInputStream extends SparkJobLogInputStream {
     private final String logUrl;
 
-    public SparkJobExecutorLogInputStream(@NotNull String logType, @NotNull String logUrl) {
-        super(logType);
+    public SparkJobExecutorLogInputStream(@NotNull String logType,
+                                          @NotNull String logUrl,
+                                          @Nullable SparkJobLogFetchScheduler fetchScheduler) {
+        super(logType, fetchScheduler);
 
         this.logUrl = logUrl;
     }
 
     @Override
-    protected synchronized Optional<SimpleImmutableEntry<String, Long>> fetchLog(long logOffset, int fetchSize) {
+    protected Optional<SimpleImmutableEntry<String, Long>> fetchLog(long logOffset, int fetchSize) {
         return getAttachedJob()
                 .map(job -> job.getContainerLog(getLogUrl(), getLogType(), logOffset, fetchSize)
                         .toBlocking().singleOrDefault(null));
     }
 
-    @Override
-    public ISparkBatchJob attachJob(@NotNull ISparkBatchJob sparkJob) {
-        setSparkBatchJob(sparkJob);
-
-        return sparkJob;
-    }
-
     public String getLogUrl() {
         return logUrl;
     }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the log fetching of all log streams of one Spark job with a single timer, instead of one blocked thread per
+ * stream. The fetches themselves run on the given scheduler and push the logs got into the stream buffers.
+ */
+public class SparkJobLogFetchScheduler implements ILogger {
+    public static final long DEFAULT_TICK_MILLIS = 200;
+
+    @NotNull
+    private final Scheduler fetchScheduler;
+    @NotNull
+    private final Scheduler.Worker timer;
+    private final long tickMillis;
+    @NotNull
+    private final Set<SparkJobLogInputStream> streams = new CopyOnWriteArraySet<>();
+    private boolean isStarted = false;
+    private volatile boolean isClosing = false;
+
+    public SparkJobLogFetchScheduler() {
+        this(Schedulers.io(), DEFAULT_TICK_MILLIS);
+    }
+
+    public SparkJobLogFetchScheduler(@NotNull Scheduler fetchScheduler, long tickMillis) {
+        this.fetchScheduler = fetchScheduler;
+        this.timer = Schedulers.computation().createWorker();
+        this.tickMillis = tickMillis;
+    }
+
+    public synchronized void register(@NotNull SparkJobLogInputStream stream) {
+        streams.add(stream);
+
+        if (isClosing) {
+            stream.finish();
+        }
+
+        if (!isStarted) {
+            isStarted = true;
+            timer.schedule(this::tick);
+        }
+    }
+
+    public void unregister(@NotNull SparkJobLogInputStream stream) {
+        streams.remove(stream);
+    }
+
+    /**
+     * Stop polling the logs, each stream gets a last fetch and reaches its end once the logs got are read
+     */
+    public synchronized void close() {
+        if (isClosing) {
+            return;
+        }
+
+        isClosing = true;
+        streams.forEach(SparkJobLogInputStream::finish);
+    }
+
+    @NotNull
+    Scheduler getFetchScheduler() {
+        return fetchScheduler;
+    }
+
+    private void tick() {
+        final long now = System.currentTimeMillis();
+        boolean isAllDone = true;
+
+        for (final SparkJobLogInputStream stream : streams) {
+            try {
+                stream.fetchIfDue(now, fetchScheduler);
+            } catch (final RuntimeException err) {
+                log().warn("Failed to schedule log fetching for " + stream.getLogType(), err);
+            }
+
+            isAllDone &= stream.isFetchDone();
+        }
+
+        if (isClosing && isAllDone) {
+            timer.unsubscribe();
+            streams.forEach(stream -> log().debug("Spark job " + stream.getLogType() + " log stream, " + stream.getMetrics()));
+            return;
+        }
+
+        timer.schedule(this::tick, tickMillis, TimeUnit.MILLISECONDS);
+    }
+}
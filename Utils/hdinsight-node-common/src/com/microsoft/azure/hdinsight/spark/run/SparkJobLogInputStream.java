@@ -5,39 +5,86 @@
 
 package com.microsoft.azure.hdinsight.spark.run;
 
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.spark.common.ISparkBatchJob;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.Scheduler;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.lang.Thread.sleep;
+/**
+ * Spark job log stream, the logs are pushed into a bounded buffer by the {@link SparkJobLogFetchScheduler} and
+ * {@link #available()} never blocks.
+ */
+public class SparkJobLogInputStream extends InputStream implements ILogger {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // The fetch interval grows up to the max one while no new logs got
+    private static final long MIN_FETCH_INTERVAL_MILLIS = 200;
+    private static final long MAX_FETCH_INTERVAL_MILLIS = 3000;
+    private static final long READ_WAIT_MILLIS = 1000;
 
-public class SparkJobLogInputStream extends InputStream {
     @NotNull
     private String logType;
     @Nullable
     private ISparkBatchJob sparkBatchJob;
-
-    private long offset = 0;
+    @Nullable
+    private SparkJobLogFetchScheduler fetchScheduler;
+    @NotNull
+    private final SparkJobLogRingBuffer buffer;
+    @NotNull
+    private final SparkJobLogMetrics metrics = new SparkJobLogMetrics();
     @NotNull
-    private byte[] buffer = new byte[0];
-    private int bufferPos;
+    private final AtomicBoolean isFetching = new AtomicBoolean(false);
+
+    // The logs fetched but not put into the buffer yet, guarded by this
+    @Nullable
+    private byte[] pending;
+    private int pendingPos;
+
+    private volatile long offset = 0;
+    private volatile long nextFetchMillis = 0;
+    private long fetchIntervalMillis = 0;
+    private volatile boolean isFinishing = false;
+    private volatile boolean isFetchDone = false;
 
     public SparkJobLogInputStream(@NotNull String logType) {
+        this(logType, null);
+    }
+
+    public SparkJobLogInputStream(@NotNull String logType, @Nullable SparkJobLogFetchScheduler fetchScheduler) {
+        this(logType, fetchScheduler, DEFAULT_BUFFER_SIZE);
+    }
+
+    public SparkJobLogInputStream(@NotNull String logType,
+                                  @Nullable SparkJobLogFetchScheduler fetchScheduler,
+                                  int bufferSize) {
         this.logType = logType;
+        this.fetchScheduler = fetchScheduler;
+        this.buffer = new SparkJobLogRingBuffer(bufferSize);
     }
 
     public ISparkBatchJob attachJob(@NotNull ISparkBatchJob sparkJob) {
         setSparkBatchJob(sparkJob);
+        getFetchScheduler().register(this);
 
         return sparkJob;
     }
 
-    protected synchronized Optional<SimpleImmutableEntry<String, Long>> fetchLog(long logOffset, int fetchSize) {
+    /**
+     * Fetch the log slice from {@code logOffset}, called on the fetch scheduler and never concurrently for one stream
+     *
+     * @return the log slice and the offset it starts from
+     */
+    protected Optional<SimpleImmutableEntry<String, Long>> fetchLog(long logOffset, int fetchSize) {
         return getAttachedJob()
                 .map(job -> job.getDriverLog(getLogType(), logOffset, fetchSize)
                                .toBlocking().singleOrDefault(null));
@@ -51,34 +98,170 @@ public class SparkJobLogInputStream extends InputStream {
         return Optional.ofNullable(sparkBatchJob);
     }
 
+    @NotNull
+    synchronized SparkJobLogFetchScheduler getFetchScheduler() {
+        if (fetchScheduler == null) {
+            fetchScheduler = new SparkJobLogFetchScheduler();
+        }
+
+        return fetchScheduler;
+    }
+
+    void fetchIfDue(long nowMillis, @NotNull Scheduler scheduler) {
+        if (isFetchDone() || (!isFinishing && nowMillis < nextFetchMillis) || !getAttachedJob().isPresent()) {
+            return;
+        }
+
+        if (deliver()) {
+            // Not to fetch more until the consumer catches up
+            return;
+        }
+
+        if (!isFetching.compareAndSet(false, true)) {
+            return;
+        }
+
+        final boolean isLastFetch = isFinishing;
+        final long startNanos = System.nanoTime();
+        Observable.fromCallable(() -> fetchLog(offset, buffer.capacity()))
+                .subscribeOn(scheduler)
+                .subscribe(
+                        slice -> onFetched(slice.orElse(null), System.nanoTime() - startNanos, isLastFetch),
+                        err -> onFetchFailed(err, System.nanoTime() - startNanos, isLastFetch));
+    }
+
+    private void onFetched(@Nullable SimpleImmutableEntry<String, Long> sliceOffsetPair,
+                           long latencyNanos,
+                           boolean isLastFetch) {
+        final String slice = sliceOffsetPair == null ? null : sliceOffsetPair.getKey();
+
+        if (StringUtils.isEmpty(slice)) {
+            metrics.onFetched(latencyNanos, 0);
+            backOff(isLastFetch);
+        } else {
+            final byte[] bytes = slice.getBytes(StandardCharsets.UTF_8);
+            metrics.onFetched(latencyNanos, bytes.length);
+            offset = sliceOffsetPair.getValue() + slice.length();
+
+            synchronized (this) {
+                pending = bytes;
+                pendingPos = 0;
+            }
+
+            fetchIntervalMillis = 0;
+            nextFetchMillis = 0;
+        }
+
+        isFetching.set(false);
+        deliver();
+    }
+
+    private void onFetchFailed(@NotNull Throwable err, long latencyNanos, boolean isLastFetch) {
+        log().debug("Failed to fetch Spark job " + getLogType() + " log", err);
+        metrics.onFetchFailed(latencyNanos);
+        backOff(isLastFetch);
+        isFetching.set(false);
+        deliver();
+    }
+
+    private void backOff(boolean isLastFetch) {
+        if (isLastFetch) {
+            isFetchDone = true;
+            return;
+        }
+
+        fetchIntervalMillis = Math.min(MAX_FETCH_INTERVAL_MILLIS, Math.max(MIN_FETCH_INTERVAL_MILLIS, fetchIntervalMillis * 2));
+        nextFetchMillis = System.currentTimeMillis() + fetchIntervalMillis;
+    }
+
+    /**
+     * Move the pending logs into the buffer as many as fit, and close the buffer after the last logs
+     *
+     * @return true if there are still pending logs
+     */
+    private synchronized boolean deliver() {
+        if (pending != null) {
+            pendingPos += buffer.offer(pending, pendingPos, pending.length - pendingPos);
+
+            if (pendingPos >= pending.length) {
+                pending = null;
+            }
+        }
+
+        if (pending == null && isFetchDone && !buffer.isClosed()) {
+            buffer.close();
+        }
+
+        return pending != null;
+    }
+
+    /**
+     * Fetch the rest logs and reach the stream end once they are read
+     */
+    void finish() {
+        isFinishing = true;
+
+        if (!getAttachedJob().isPresent()) {
+            isFetchDone = true;
+            deliver();
+        }
+    }
+
+    boolean isFetchDone() {
+        return isFetchDone || buffer.isClosed();
+    }
+
     @Override
     public int read() throws IOException {
-        if (bufferPos >= buffer.length) {
-            throw new IOException("Beyond the buffer end, needs a new log fetch");
+        final byte[] single = new byte[1];
+
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    /**
+     * Block until some logs are got or the stream ends, and read as many as buffered
+     */
+    @Override
+    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
         }
 
-        return buffer[bufferPos++];
+        if (len == 0) {
+            return 0;
+        }
+
+        try {
+            int count;
+            do {
+                count = buffer.poll(b, off, len, READ_WAIT_MILLIS);
+            } while (count == 0);
+
+            if (count > 0) {
+                metrics.onRead(count);
+                deliver();
+            }
+
+            return count;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Spark job " + getLogType() + " log");
+        }
     }
 
     @Override
     public int available() throws IOException {
-        if (bufferPos >= buffer.length) {
-            return fetchLog(offset, -1)
-                    .map(sliceOffsetPair -> {
-                        buffer = sliceOffsetPair.getKey().getBytes();
-                        bufferPos = 0;
-                        offset = sliceOffsetPair.getValue() + sliceOffsetPair.getKey().length();
-
-                        return buffer.length;
-                    }).orElseGet(() -> {
-                        try {
-                            sleep(3000);
-                        } catch (InterruptedException ignore) { }
-
-                        return 0;
-                    });
-        } else {
-            return buffer.length - bufferPos;
+        return buffer.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        getFetchScheduler().unregister(this);
+        isFetchDone = true;
+
+        synchronized (this) {
+            pending = null;
+            buffer.close();
         }
     }
 
@@ -86,4 +269,9 @@ public class SparkJobLogInputStream extends InputStream {
     public String getLogType() {
         return logType;
     }
+
+    @NotNull
+    public SparkJobLogMetrics getMetrics() {
+        return metrics;
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and throughput counters of a Spark job log stream
+ */
+public class SparkJobLogMetrics {
+    private final long startNanos = System.nanoTime();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder emptyFetches = new LongAdder();
+    private final LongAdder failedFetches = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final AtomicLong maxFetchNanos = new AtomicLong();
+    private final LongAdder bytesFetched = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+
+    void onFetched(long latencyNanos, int bytes) {
+        fetches.increment();
+        if (bytes == 0) {
+            emptyFetches.increment();
+        }
+
+        fetchNanos.add(latencyNanos);
+        maxFetchNanos.accumulateAndGet(latencyNanos, Math::max);
+        bytesFetched.add(bytes);
+    }
+
+    void onFetchFailed(long latencyNanos) {
+        fetches.increment();
+        failedFetches.increment();
+        fetchNanos.add(latencyNanos);
+        maxFetchNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    void onRead(int bytes) {
+        reads.increment();
+        bytesRead.add(bytes);
+    }
+
+    public long getFetches() {
+        return fetches.sum();
+    }
+
+    public long getEmptyFetches() {
+        return emptyFetches.sum();
+    }
+
+    public long getFailedFetches() {
+        return failedFetches.sum();
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    public double getAverageFetchLatencyMillis() {
+        final long count = fetches.sum();
+
+        return count == 0 ? 0 : fetchNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxFetchLatencyMillis() {
+        return maxFetchNanos.get() / 1e6;
+    }
+
+    /**
+     * @return the bytes fetched per second since the stream is created
+     */
+    public double getThroughputBytesPerSecond() {
+        final long elapsed = System.nanoTime() - startNanos;
+
+        return elapsed <= 0 ? 0 : bytesFetched.sum() * 1e9 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("fetches: %d (empty: %d, failed: %d), fetch latency avg/max: %.1f/%.1f ms, "
+                        + "bytes fetched/read: %d/%d, throughput: %.1f bytes/s",
+                getFetches(), getEmptyFetches(), getFailedFetches(), getAverageFetchLatencyMillis(),
+                getMaxFetchLatencyMillis(), getBytesFetched(), getBytesRead(), getThroughputBytesPerSecond());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.run;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+/**
+ * Bounded byte ring buffer between the log fetcher (producer) and the log reader (consumer).
+ * The producer never blocks, it offers as many bytes as fit and keeps the rest.
+ */
+public class SparkJobLogRingBuffer {
+    @NotNull
+    private final byte[] buffer;
+    private int head;
+    private int size;
+    private boolean closed;
+
+    public SparkJobLogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive: " + capacity);
+        }
+
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Put bytes into the buffer without blocking
+     *
+     * @return the count of bytes accepted, which is less than {@code len} if the buffer is full or closed
+     */
+    public synchronized int offer(@NotNull byte[] src, int off, int len) {
+        if (closed) {
+            return 0;
+        }
+
+        final int count = Math.min(len, buffer.length - size);
+        final int tail = (head + size) % buffer.length;
+        final int firstPart = Math.min(count, buffer.length - tail);
+        System.arraycopy(src, off, buffer, tail, firstPart);
+        System.arraycopy(src, off + firstPart, buffer, 0, count - firstPart);
+        size += count;
+
+        if (count > 0) {
+            notifyAll();
+        }
+
+        return count;
+    }
+
+    /**
+     * Take bytes from the buffer, waiting at most {@code timeoutMillis} for the first one
+     *
+     * @return the count of bytes taken, 0 if timed out, or -1 if the buffer is closed and drained
+     */
+    public synchronized int poll(@NotNull byte[] dst, int off, int len, long timeoutMillis) throws InterruptedException {
+        if (len == 0) {
+            return 0;
+        }
+
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (size == 0 && !closed) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return 0;
+            }
+
+            wait(remaining);
+        }
+
+        if (size == 0) {
+            return -1;
+        }
+
+        final int count = Math.min(len, size);
+        final int firstPart = Math.min(count, buffer.length - head);
+        System.arraycopy(buffer, head, dst, off, firstPart);
+        System.arraycopy(buffer, 0, dst, off + firstPart, count - firstPart);
+        head = (head + count) % buffer.length;
+        size -= count;
+
+        return count;
+    }
+
+    public synchronized int available() {
+        return size;
+    }
+
+    public synchronized int remainingCapacity() {
+        return closed ? 0 : buffer.length - size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Stop accepting bytes, the bytes buffered can still be taken
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+}
@@ -58,7 +58,11 @@ public class ArcadiaSparkComputeManager implements ClusterContainer, ILogger {
         AuthMethodManager.getInstance().addSignOutEventListener(() -> workSpaces = ImmutableSortedSet.of());
         AzureManager azureManager = getAzureManager();
         if (azureManager != null) {
-            azureManager.getSubscriptionManager().addListener(ev -> workSpaces = ImmutableSortedSet.of());
+            azureManager.getSubscriptionManager().addChangeListener(change -> {
+                if (change.isSelectionChanged()) {
+                    workSpaces = ImmutableSortedSet.of();
+                }
+            });
         }
     }
 
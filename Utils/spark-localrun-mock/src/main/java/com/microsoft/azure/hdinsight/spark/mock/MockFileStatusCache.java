@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.mock;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * The directory listings of a mocked file system, kept for the lifetime of the job. A listing is dropped once
+ * the watch service reports a change in its directory, and is also checked against the directory's last modified
+ * time in case the change hasn't been reported yet.
+ */
+class MockFileStatusCache implements Closeable {
+    private static final class Listing {
+        private final java.nio.file.Path dir;
+        private final FileTime dirLastModified;
+        private final FileStatus[] statuses;
+
+        private Listing(java.nio.file.Path dir, FileTime dirLastModified, FileStatus[] statuses) {
+            this.dir = dir;
+            this.dirLastModified = dirLastModified;
+            this.statuses = statuses;
+        }
+    }
+
+    private final int maxDirectories;
+    private final WatchService watchService;
+    private final Map<Path, Listing> listings = new ConcurrentHashMap<>();
+    private final Map<java.nio.file.Path, WatchKey> watchedDirs = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Thread watcher;
+
+    MockFileStatusCache(int maxDirectories) throws IOException {
+        this.maxDirectories = maxDirectories;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watcher = new Thread(this::watchChanges, "mockfs-metadata-cache-watcher");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    private Logger log() {
+        return LoggerFactory.getLogger(this.getClass());
+    }
+
+    /**
+     * Get the cached listing of a directory, or null if it's not cached or the directory has been modified since
+     */
+    FileStatus[] getListing(Path qualifiedPath, FileTime dirLastModified) {
+        Listing listing = listings.get(qualifiedPath);
+        if (listing == null) {
+            return null;
+        }
+
+        if (!listing.dirLastModified.equals(dirLastModified)) {
+            invalidate(listing.dir);
+            return null;
+        }
+
+        // Callers are free to modify the returned array
+        return listing.statuses.clone();
+    }
+
+    /**
+     * Watch the directory before reading it, the returned stamp tells {@link #putListing} whether the directory
+     * changed during the read
+     */
+    long watch(java.nio.file.Path dir) {
+        long stamp = invalidations.get();
+
+        if (!watchedDirs.containsKey(dir) && watchedDirs.size() < maxDirectories) {
+            try {
+                watchedDirs.put(dir, dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY));
+            } catch (IOException | ClosedWatchServiceException | UnsupportedOperationException ex) {
+                log().debug("Can't watch the directory " + dir + ", its listing won't be cached", ex);
+            }
+        }
+
+        return stamp;
+    }
+
+    void putListing(Path qualifiedPath,
+                    java.nio.file.Path dir,
+                    FileTime dirLastModified,
+                    FileStatus[] statuses,
+                    long stamp) {
+        // Only the watched directories can be invalidated
+        if (!watchedDirs.containsKey(dir)) {
+            return;
+        }
+
+        listings.put(qualifiedPath, new Listing(dir, dirLastModified, statuses.clone()));
+
+        // Drop it if anything changed after the directory was read
+        if (invalidations.get() != stamp) {
+            listings.remove(qualifiedPath);
+        }
+    }
+
+    void invalidate(java.nio.file.Path dir) {
+        invalidations.incrementAndGet();
+        listings.values().removeIf(listing -> listing.dir.equals(dir));
+    }
+
+    void invalidateAll() {
+        invalidations.incrementAndGet();
+        listings.clear();
+    }
+
+    private void watchChanges() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                java.nio.file.Path dir = (java.nio.file.Path) key.watchable();
+
+                boolean isOverflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    isOverflow |= event.kind() == OVERFLOW;
+                }
+
+                if (isOverflow) {
+                    invalidateAll();
+                } else {
+                    invalidate(dir);
+                }
+
+                if (!key.reset()) {
+                    // The directory is deleted or not accessible any more
+                    watchedDirs.remove(dir, key);
+                    invalidate(dir);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // The cache is closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        invalidateAll();
+        watchedDirs.clear();
+        watchService.close();
+        watcher.interrupt();
+    }
+}
@@ -18,6 +18,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,50 +35,98 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     private String scheme = "wasb";
     private URI uri;
 
+    /**
+     * Set to true to cache the directory listings for the job, the cache is invalidated by a directory watch service
+     */
+    static final String METADATA_CACHE_ENABLED_KEY = "fs.mockfs.metadata.cache.enabled";
+    static final String METADATA_CACHE_MAX_DIRECTORIES_KEY = "fs.mockfs.metadata.cache.max.directories";
+    private static final int METADATA_CACHE_MAX_DIRECTORIES_DEFAULT = 4096;
+
+    private MockFileStatusCache statusCache;
+
     @Override
     public FileStatus getFileStatus(Path f) throws IOException {
         File path = pathToFile(f);
-        if (path.exists()) {
-            return new RawLocalFileStatus(pathToFile(f), getDefaultBlockSize(f), makeQualified(f));
-        } else {
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null) {
             throw new FileNotFoundException("File " + f + " does not exist");
         }
+
+        return new RawLocalFileStatus(path, attributes, getDefaultBlockSize(f), makeQualified(f));
     }
 
     @Override
     public FileStatus[] listStatus(Path f) throws IOException {
         File localf = pathToFile(f);
-        FileStatus[] results;
+        Path qualified = makeQualified(f);
+        long blockSize = getDefaultBlockSize(f);
 
-        if (!localf.exists()) {
+        BasicFileAttributes attributes = readAttributes(localf);
+        if (attributes == null) {
             throw new FileNotFoundException("File " + f + " does not exist");
         }
-        if (localf.isFile()) {
-            return new FileStatus[] {
-                    new RawLocalFileStatus(localf, getDefaultBlockSize(f), makeQualified(f)) };
+        if (!attributes.isDirectory()) {
+            return new FileStatus[] { new RawLocalFileStatus(localf, attributes, blockSize, qualified) };
         }
 
-        String[] names = localf.list();
-        if (names == null) {
-            return null;
+        java.nio.file.Path dir = localf.toPath();
+        FileTime dirLastModified = attributes.lastModifiedTime();
+        if (statusCache != null) {
+            FileStatus[] cached = statusCache.getListing(qualified, dirLastModified);
+            if (cached != null) {
+                return cached;
+            }
         }
-        results = new FileStatus[names.length];
-        int j = 0;
-        for (int i = 0; i < names.length; i++) {
-            try {
-                // Assemble the path using the Path 3 arg constructor to make sure
-                // paths with colon are properly resolved on Linux
-                results[j] = getFileStatus(new Path(f, new Path(null, null, names[i])));
-                j++;
-            } catch (FileNotFoundException e) {
-                // ignore the files not found since the dir list may have have changed
-                // since the names[] list was generated.
+
+        long stamp = statusCache != null ? statusCache.watch(dir) : 0;
+        List<FileStatus> results = new ArrayList<>();
+
+        try (DirectoryStream<java.nio.file.Path> entries = Files.newDirectoryStream(dir)) {
+            // Get the attributes relative to the opened directory without resolving the full path each time
+            SecureDirectoryStream<java.nio.file.Path> secureEntries = entries instanceof SecureDirectoryStream
+                    ? (SecureDirectoryStream<java.nio.file.Path>) entries
+                    : null;
+
+            for (java.nio.file.Path entry : entries) {
+                String name = entry.getFileName().toString();
+
+                try {
+                    BasicFileAttributes entryAttributes = secureEntries != null
+                            ? secureEntries.getFileAttributeView(entry.getFileName(), BasicFileAttributeView.class)
+                                           .readAttributes()
+                            : Files.readAttributes(entry, BasicFileAttributes.class);
+
+                    // Assemble the path using the Path 3 arg constructor to make sure
+                    // paths with colon are properly resolved on Linux
+                    results.add(new RawLocalFileStatus(
+                            entry.toFile(), entryAttributes, blockSize, new Path(qualified, new Path(null, null, name))));
+                } catch (NoSuchFileException ignored) {
+                    // ignore the files not found since the dir may have changed during the listing
+                }
             }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            throw new FileNotFoundException("File " + f + " does not exist");
         }
-        if (j == names.length) {
-            return results;
+
+        FileStatus[] statuses = results.toArray(new FileStatus[0]);
+        if (statusCache != null) {
+            statusCache.putListing(qualified, dir, dirLastModified, statuses, stamp);
+        }
+
+        return statuses;
+    }
+
+    /**
+     * Read the file attributes with one call, instead of checking the existence, length, type and time separately
+     *
+     * @return null if the file doesn't exist
+     */
+    private static BasicFileAttributes readAttributes(File file) throws IOException {
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException | InvalidPathException e) {
+            return null;
         }
-        return Arrays.copyOf(results, j);
     }
 
     @Override
@@ -84,6 +141,23 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         } catch (URISyntaxException e) {
             throw new IllegalArgumentException(e);
         }
+
+        if (conf.getBoolean(METADATA_CACHE_ENABLED_KEY, false) && statusCache == null) {
+            statusCache = new MockFileStatusCache(
+                    conf.getInt(METADATA_CACHE_MAX_DIRECTORIES_KEY, METADATA_CACHE_MAX_DIRECTORIES_DEFAULT));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (statusCache != null) {
+                statusCache.close();
+                statusCache = null;
+            }
+        }
     }
 
     @Override
@@ -114,8 +188,13 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return !super.getOwner().isEmpty();
         }
 
-        RawLocalFileStatus(File f, long defaultBlockSize, Path p) {
-            super(f.length(), f.isDirectory(), 1, defaultBlockSize, f.lastModified(), p);
+        RawLocalFileStatus(File f, BasicFileAttributes attributes, long defaultBlockSize, Path p) {
+            super(attributes.size(),
+                  attributes.isDirectory(),
+                  1,
+                  defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(),
+                  p);
             this.file = f;
         }
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.mock
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.Path
+import java.io.File
+import java.net.URI
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measure listing a large mocked folder, like the part files of a Spark output, with and without the metadata
+ * cache. Run it manually with the arguments `[files] [iterations]`.
+ */
+object MockRawLocalFileSystemListingBenchmark {
+    private const val WARM_UP_ITERATIONS = 5
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        val files = args.getOrNull(0)?.toInt() ?: 20000
+        val iterations = args.getOrNull(1)?.toInt() ?: 20
+        val folder = Files.createTempDirectory("mockfs-benchmark").toFile()
+
+        try {
+            (0 until files).forEach { File(folder, "part-%05d".format(it)).writeText("$it") }
+
+            listOf(false, true).forEach { isCacheEnabled ->
+                val avgMillis = measure(folder, isCacheEnabled, iterations)
+                println("Listing $files files with metadata cache ${if (isCacheEnabled) "enabled" else "disabled"}: " +
+                        "%.2f ms/op".format(avgMillis))
+            }
+        } finally {
+            folder.deleteRecursively()
+        }
+    }
+
+    private fun measure(folder: File, isCacheEnabled: Boolean, iterations: Int): Double {
+        val fs = MockRawLocalFileSystem().apply {
+            initialize(URI.create("mockfs:///"), Configuration().apply {
+                setBoolean(MockRawLocalFileSystem.METADATA_CACHE_ENABLED_KEY, isCacheEnabled)
+            })
+        }
+
+        fs.use {
+            val folderPath = Path(folder.toURI())
+            repeat(WARM_UP_ITERATIONS) { fs.listStatus(folderPath) }
+
+            val start = System.nanoTime()
+            repeat(iterations) { fs.listStatus(folderPath) }
+
+            return (System.nanoTime() - start).toDouble() / iterations / TimeUnit.MILLISECONDS.toNanos(1)
+        }
+    }
+}
@@ -22,16 +22,28 @@
 
 package com.microsoft.azure.hdinsight.spark.mock
 
+import cucumber.api.java.After
 import cucumber.api.java.en.Given
 import cucumber.api.java.en.Then
+import cucumber.api.java.en.When
 import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.Path
 import org.assertj.core.api.Assertions.assertThat
 import java.io.File
+import java.net.URI
+import java.nio.file.Files
 import kotlin.test.assertNotNull
 
 class MockRawLocalFileSystemScenario {
     private var workDir = ""
+    private var mockedFolder: File? = null
+    private var fs: MockRawLocalFileSystem? = null
+
+    @After
+    fun cleanUp() {
+        fs?.close()
+        mockedFolder?.deleteRecursively()
+    }
 
     @Given("^set mocked file system local working directory to '(.*)'")
     fun setWorkingDirectory(workDir: String) {
@@ -51,4 +63,41 @@ class MockRawLocalFileSystemScenario {
         fs.conf = Configuration()
         assertNotNull(fs.getFileStatus(Path(path)))
     }
-}
\ No newline at end of file
+
+    @Given("^a mocked folder with (\\d+) files$")
+    fun createMockedFolder(count: Int) {
+        mockedFolder = Files.createTempDirectory("mockfs").toFile()
+        addFiles(count)
+    }
+
+    @Given("^mocked file system metadata cache is (enabled|disabled)$")
+    fun createFileSystem(state: String) {
+        fs = MockRawLocalFileSystem().apply {
+            initialize(URI.create("mockfs:///"), Configuration().apply {
+                setBoolean(MockRawLocalFileSystem.METADATA_CACHE_ENABLED_KEY, state == "enabled")
+            })
+        }
+    }
+
+    @When("^add (\\d+) more files to the mocked folder$")
+    fun addFiles(count: Int) {
+        val existing = mockedFolder!!.list()!!.size
+
+        (existing until existing + count).forEach { File(mockedFolder, "part-%05d".format(it)).writeText("$it") }
+    }
+
+    @Then("^listing the mocked folder should get (\\d+) files within (\\d+) ms$")
+    fun verifyListing(expected: Int, timeoutMs: Long) {
+        val deadline = System.currentTimeMillis() + timeoutMs
+        var statuses = fs!!.listStatus(Path(mockedFolder!!.toURI()))
+
+        // Wait for the watch service to report the change, which is asynchronous
+        while (statuses.size != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50)
+            statuses = fs!!.listStatus(Path(mockedFolder!!.toURI()))
+        }
+
+        assertThat(statuses).hasSize(expected)
+        assertThat(statuses).allMatch { it.isFile && it.len > 0 && it.path.name.startsWith("part-") }
+    }
+}
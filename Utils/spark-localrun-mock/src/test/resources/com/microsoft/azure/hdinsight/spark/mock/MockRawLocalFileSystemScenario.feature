@@ -26,3 +26,15 @@ Feature: Mock File System Unit Test
   Scenario: Resources file exists
     Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
     Then mocked file 'my_words.txt' should exists
+
+  Scenario: List large mocked folder
+    Given a mocked folder with 5000 files
+    And mocked file system metadata cache is disabled
+    Then listing the mocked folder should get 5000 files within 0 ms
+
+  Scenario: List mocked folder with metadata cache
+    Given a mocked folder with 100 files
+    And mocked file system metadata cache is enabled
+    Then listing the mocked folder should get 100 files within 0 ms
+    When add 10 more files to the mocked folder
+    Then listing the mocked folder should get 110 files within 5000 ms
@@ -24,12 +24,15 @@ package org.apache.spark.scheduler
 
 import java.io._
 import java.text.SimpleDateFormat
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicLong
 import java.util.{Base64, Date}
 
 import org.apache.commons.io.IOUtils
 import org.apache.hadoop.fs.Path
 import org.apache.spark._
 import org.apache.spark.broadcast.Broadcast
+import org.apache.spark.io.CompressionCodec
 import org.apache.spark.network.buffer.ManagedBuffer
 import org.apache.spark.network.shuffle.BlockFetchingListener
 import org.apache.spark.rdd.RDD
@@ -37,9 +40,10 @@ import org.apache.spark.storage.{BlockId, BlockManagerId, BlockManagerMaster, Sh
 import org.apache.spark.util.{Clock, SystemClock, ThreadUtils, Utils}
 import org.json4s.jackson.Serialization.write
 
+import scala.collection.JavaConverters._
 import scala.collection.mutable
-import scala.concurrent.Promise
-import scala.concurrent.duration.Duration
+import scala.concurrent.duration._
+import scala.concurrent.{ExecutionContext, Future, Promise}
 import scala.language.postfixOps
 import scala.reflect.ClassTag
 import scala.util.control.NonFatal
@@ -74,6 +78,15 @@ class DAGWithFailureSaveScheduler(
   val fs = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration)
   private val serializer = SparkEnv.get.closureSerializer.newInstance()
 
+  // The failure context capture settings
+  private val saveParallelism = sc.conf.getInt("spark.failure.save.parallelism", 8)
+  private val saveFetchTimeoutMs = sc.conf.getTimeAsMs("spark.failure.save.fetchTimeout", "120s")
+  private val saveTimeoutMs = sc.conf.getTimeAsMs("spark.failure.save.timeout", "10min")
+  private val saveMaxShuffleBytes = sc.conf.getSizeAsBytes("spark.failure.save.maxShuffleSize", "1g")
+  private val saveShuffleSampleFraction = sc.conf.getDouble("spark.failure.save.shuffle.sampleFraction", 1.0)
+  private val saveCompressionCodec = Option(sc.conf.get("spark.failure.save.compression.codec", "lz4"))
+    .filterNot(_.equalsIgnoreCase("none"))
+
   def getEncodedByteArray(buffer: Array[Byte]): String =
     Base64.getEncoder.encode(buffer)
       .map(_.toChar)
@@ -100,10 +113,7 @@ class DAGWithFailureSaveScheduler(
     }
   }
 
-  def fetchShuffleSync(host: String, port: Int, execId: String, blockId: String): ManagedBuffer = {
-    //    val driverBlockManager = SparkEnv.get.blockManager
-
-    // A monitor for the thread to wait on.
+  def fetchShuffleAsync(host: String, port: Int, execId: String, blockId: String): Future[ManagedBuffer] = {
     val result = Promise[ManagedBuffer]()
     driverBlockManager.blockTransferService.fetchBlocks(host, port, execId, Array(blockId),
       new BlockFetchingListener {
@@ -116,7 +126,20 @@ class DAGWithFailureSaveScheduler(
         }
       })
 
-    ThreadUtils.awaitResult(result.future, Duration.Inf)
+    result.future
+  }
+
+  def fetchShuffleSync(host: String, port: Int, execId: String, blockId: String): ManagedBuffer = {
+    val fetching = fetchShuffleAsync(host, port, execId, blockId)
+
+    try {
+      ThreadUtils.awaitResult(fetching, saveFetchTimeoutMs milliseconds)
+    } catch {
+      case NonFatal(e) =>
+        // Release the buffer arriving after the timeout
+        fetching.foreach(_.release())(ThreadUtils.sameThread)
+        throw e
+    }
   }
 
   // from remote or local
@@ -136,6 +159,100 @@ class DAGWithFailureSaveScheduler(
     }
   }
 
+  def compressed(out: OutputStream, codec: Option[CompressionCodec]): OutputStream =
+    codec.map(_.compressedOutputStream(out)).getOrElse(out)
+
+  // Sample the same shuffle blocks for the same block IDs
+  def isShuffleBlockSampled(blockId: BlockId): Boolean =
+    saveShuffleSampleFraction >= 1.0 || Utils.nonNegativeHash(blockId.name) % 10000 < saveShuffleSampleFraction * 10000
+
+  def saveShuffleBlock(blockMgrId: BlockManagerId,
+                       blockId: BlockId,
+                       blockSize: Long,
+                       savingPath: String => Path,
+                       codec: Option[CompressionCodec]): Option[ShuffleData] = {
+    getShuffleBuffer(blockMgrId, blockId)._2.map { buffer =>
+      // Copy the shuffle partition data into a file
+      val shuffleFile = savingPath(blockId.toString())
+
+      logInfo(s"Generate shuffle files: $shuffleFile")
+      Utils.tryWithSafeFinally {
+        val shuffleIn = buffer.createInputStream()
+        val shuffleOut = compressed(fs.create(shuffleFile, true), codec)
+
+        Utils.tryWithSafeFinally {
+          IOUtils.copy(shuffleIn, shuffleOut)
+        } {
+          shuffleIn.close()
+          shuffleOut.close()
+        }
+      } {
+        buffer.release()
+      }
+
+      // Need to prepare the index file for recovering
+      val SHUFFLE = "shuffle_([0-9]+)_([0-9]+)_([0-9]+)".r
+      blockId.toString() match {
+        case SHUFFLE(shuffleId, mapId, reduceId) =>
+          val shuffleIndexId = ShuffleIndexBlockId(shuffleId.toInt, mapId.toInt, 0)
+          val idxFile = driverBlockManager.diskBlockManager.getFile(shuffleIndexId).getName
+          val idxFileOutput = fs.create(savingPath(idxFile), true)
+
+          writeIndexFile(idxFileOutput, Array.fill(reduceId.toInt)(0.toLong) :+ blockSize)
+          idxFileOutput.close()
+      }
+
+      ShuffleData(blockId.toString, blockId.toString, blockMgrId.toString())
+    }
+  }
+
+  // Reserve the block size before fetching, so the parallel savings never exceed the limit together
+  def saveShuffleBlockWithinLimit(savedShuffleBytes: AtomicLong,
+                                  blockMgrId: BlockManagerId,
+                                  blockId: BlockId,
+                                  blockSize: Long,
+                                  savingPath: String => Path,
+                                  codec: Option[CompressionCodec]): Option[ShuffleData] = {
+    if (savedShuffleBytes.addAndGet(blockSize) > saveMaxShuffleBytes) {
+      savedShuffleBytes.addAndGet(-blockSize)
+      logWarning(s"Skip shuffle block $blockId since the saved shuffle size exceeds $saveMaxShuffleBytes bytes")
+      return None
+    }
+
+    // Give the reservation back if the block isn't saved, not to skip the other blocks for nothing
+    val saved = try {
+      saveShuffleBlock(blockMgrId, blockId, blockSize, savingPath, codec)
+    } catch {
+      case NonFatal(e) =>
+        savedShuffleBytes.addAndGet(-blockSize)
+        throw e
+    }
+
+    if (saved.isEmpty) {
+      savedShuffleBytes.addAndGet(-blockSize)
+    }
+
+    saved
+  }
+
+  def saveBroadcastValue(id: Long,
+                         bc: Broadcast[_],
+                         savingPath: String => Path,
+                         codec: Option[CompressionCodec]): BroadcastValue = {
+    val bcFileName = s"broadcast_$id"
+    // Serializer instances are not thread safe
+    val bcOut = SparkEnv.get.closureSerializer.newInstance()
+      .serializeStream(compressed(fs.create(savingPath(bcFileName), true), codec))
+
+    Utils.tryWithSafeFinally {
+      bcOut.writeObject[Any](bc.value)
+    } {
+      bcOut.close()
+    }
+
+    BroadcastValue(id, path = Some(bcFileName))
+  }
+
   def saveFailureTask(task: Task[_], stageId: Int, taskId: String, attemptId: Int, timestamp: String): Unit = {
     def getFailureSavingPath(fileName: String = null): Path = {
       val appFolderName = sc.applicationId + sc.applicationAttemptId.map(attemptId => s"[${attemptId}]@").getOrElse("@") + timestamp
@@ -170,56 +287,81 @@ class DAGWithFailureSaveScheduler(
     }
 
 
-    val shuffleDeps = shuffleMgrBlockIds.flatMap { case (shuffleId, mgrBlockIds) =>
-      mgrBlockIds
-        .map { case (blockMgrId, blockIds) =>
+    val codec = saveCompressionCodec.map(CompressionCodec.createCodec(sc.conf, _))
+    val deadline = System.currentTimeMillis() + saveTimeoutMs
+    val savedShuffleBytes = new AtomicLong(0)
+    val skippedShuffleBlocks = new ConcurrentLinkedQueue[String]()
+
+    // Capture the shuffle blocks and broadcasts in parallel, not to block the driver longer than the timeout
+    val savingPool = ThreadUtils.newDaemonFixedThreadPool(saveParallelism, "failure-save")
+    implicit val savingContext: ExecutionContext = ExecutionContext.fromExecutorService(savingPool)
+
+    def awaitSaving[T](saving: Future[T], name: String): Option[T] = {
+      val remainingMs = math.max(deadline - System.currentTimeMillis(), 0) + saveFetchTimeoutMs
+
+      try {
+        Some(ThreadUtils.awaitResult(saving, remainingMs milliseconds))
+      } catch {
+        case NonFatal(e) =>
+          logWarning(s"Failed to save $name of the failure task", e)
+          None
+      }
+    }
+
+    val (shuffleDeps, bcs) = try {
+      val shuffleSavings = shuffleMgrBlockIds.flatMap { case (shuffleId, mgrBlockIds) =>
+        val mapStatus = mapOutputTracker.getSerializedMapOutputStatuses(shuffleId)
+
+        mgrBlockIds.map { case (blockMgrId, blockIds) =>
           logInfo(blockMgrId.toString())
 
-          val mapStatus = mapOutputTracker.getSerializedMapOutputStatuses(shuffleId)
-
-          ShuffleDeps(
-            shuffleId,
-            blockIds
-              .filter(_._2 > 0)
-              .map { case (blockId, blockSize) =>
-                getShuffleBuffer(blockMgrId, blockId)._2 match {
-                  case Some(buffer: ManagedBuffer) =>
-                    // Copy the shuffle partition data into a file
-                    val shuffleFile = getFailureSavingPath(blockId.toString())
-                    val shuffleIn = buffer.createInputStream()
-
-                    logInfo(s"Generate shuffle files: $shuffleFile")
-                    val shuffleOut = fs.create(shuffleFile, true)
-
-                    IOUtils.copy(shuffleIn, shuffleOut)
-
-                    buffer.release()
-                    shuffleIn.close()
-                    shuffleOut.close()
-
-                    // Need to prepare the index file for recovering
-                    val SHUFFLE = "shuffle_([0-9]+)_([0-9]+)_([0-9]+)".r
-                    blockId.toString() match {
-                      case SHUFFLE(shuffleId, mapId, reduceId) =>
-                        val shuffleIndexId = ShuffleIndexBlockId(shuffleId.toInt, mapId.toInt, 0)
-                        val idxFile = driverBlockManager.diskBlockManager.getFile(shuffleIndexId).getName
-                        val idxFileOutput = fs.create(getFailureSavingPath(idxFile), true)
-
-                        writeIndexFile(idxFileOutput, Array.fill(reduceId.toInt)(0.toLong) :+ blockSize)
-                        idxFileOutput.close()
-                    }
-
-                    ShuffleData(blockId.toString, blockId.toString, blockMgrId.toString())
+          val blockSavings = blockIds
+            .filter(_._2 > 0)
+            .map { case (blockId, blockSize) =>
+              val saving = Future {
+                if (System.currentTimeMillis() > deadline) {
+                  logWarning(s"Skip shuffle block $blockId since saving the failure task is timed out")
+                  None
+                } else if (!isShuffleBlockSampled(blockId)) {
+                  None
+                } else {
+                  saveShuffleBlockWithinLimit(
+                    savedShuffleBytes, blockMgrId, blockId, blockSize, getFailureSavingPath(_), codec)
                 }
-              } toArray,
-            getEncodedByteArray(mapStatus))
+              }
+
+              (blockId, saving)
+            }
+
+          (shuffleId, blockSavings, mapStatus)
         }
-    } filter(_.shuffleData.nonEmpty) toArray
+      }
 
-    // Get broadcast values
-    val bcs = sc.bcIdMap.map { case (id, bc) =>
-      BroadcastValue(id, encodeObject(bc.value))
-    } toArray
+      // Save broadcast values into separate files
+      val bcSavings = sc.bcIdMap.map { case (id, bc) =>
+        (id, Future { saveBroadcastValue(id, bc, getFailureSavingPath(_), codec) })
+      }
+
+      val savedShuffleDeps = shuffleSavings.map { case (shuffleId, blockSavings, mapStatus) =>
+        ShuffleDeps(
+          shuffleId,
+          blockSavings.flatMap { case (blockId, saving) =>
+            val saved = awaitSaving(saving, s"shuffle block $blockId").flatten
+            if (saved.isEmpty) {
+              skippedShuffleBlocks.add(blockId.toString)
+            }
+
+            saved
+          } toArray,
+          getEncodedByteArray(mapStatus))
+      } filter(_.shuffleData.nonEmpty) toArray
+
+      val savedBcs = bcSavings.flatMap { case (id, saving) => awaitSaving(saving, s"broadcast $id") } toArray
+
+      (savedShuffleDeps, savedBcs)
+    } finally {
+      savingPool.shutdownNow()
+    }
 
     implicit val formats = org.json4s.DefaultFormats
 
@@ -237,17 +379,20 @@ class DAGWithFailureSaveScheduler(
       task.metrics,
       bcs,
       shuffleDeps,
-      task.isInstanceOf[ResultTask[Any, Any]]
+      task.isInstanceOf[ResultTask[Any, Any]],
+      compressionCodec = saveCompressionCodec,
+      skippedShuffleBlocks = Some(skippedShuffleBlocks.asScala.toArray).filter(_.nonEmpty)
     )
 
-    // Serialize to JSON
-    val json = write(failureTask)
+    // Serialize to JSON, streaming into the file
     val failureContextFile = getFailureSavingPath("failure_save.ftd")
-    val out = fs.create(failureContextFile, true)
-    val writer = new PrintWriter(out)
+    val writer = new BufferedWriter(new OutputStreamWriter(fs.create(failureContextFile, true), "UTF-8"))
 
-    writer.write(json)
-    writer.close()
+    Utils.tryWithSafeFinally {
+      write(failureTask, writer)
+    } {
+      writer.close()
+    }
 
     val fullSavingFolderUri = new Path(fs.getWorkingDirectory, getFailureSavingPath())
     logInfo("Failure task has been saved into " + fullSavingFolderUri)
@@ -22,17 +22,25 @@
 
 package org.apache.spark.scheduler
 
+import java.io.{DataInputStream, File, FileInputStream, IOException, InputStream}
+import java.nio.ByteBuffer
 import java.util.Properties
+import java.util.concurrent.atomic.AtomicLong
 
+import org.apache.commons.io.IOUtils
+import org.apache.hadoop.fs.Path
 import org.apache.spark._
 import org.apache.spark.broadcast.BroadcastManager
+import org.apache.spark.io.CompressionCodec
+import org.apache.spark.network.buffer.{ManagedBuffer, NioManagedBuffer}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.scheduler.SchedulingMode.SchedulingMode
-import org.apache.spark.storage.{BlockId, BlockManagerId, BlockManagerMaster}
-import org.apache.spark.util.{AccumulatorV2, CallSite}
+import org.apache.spark.storage.{BlockId, BlockManagerId, BlockManagerMaster, ShuffleBlockId}
+import org.apache.spark.util.{AccumulatorV2, CallSite, Utils}
 import org.scalatest.concurrent.{Signaler, ThreadSignaler, TimeLimits}
 
 import scala.collection.mutable.{ArrayBuffer, HashMap, HashSet, Map}
+import scala.concurrent.Future
 
 class DAGWithFailureSaveSchedulerSuite extends SparkFunSuite with LocalSparkContext with TimeLimits {
   // Borrow the context preparing codes from org.apache.spark.scheduler.DAGSchedulerSuite
@@ -137,6 +145,10 @@ class DAGWithFailureSaveSchedulerSuite extends SparkFunSuite with LocalSparkCont
     override def jobFailed(exception: Exception) = { failure = exception }
   }
 
+  /** The shuffle blocks served to the failure saving, the missing ones fail to be fetched. */
+  val remoteShuffleBlocks = new HashMap[String, Array[Byte]]
+  val fetchedShuffleBlocks = new ArrayBuffer[String]
+
   def mySC: SparkContextWithFailureSave = sc.asInstanceOf[SparkContextWithFailureSave]
 
   override def beforeEach(): Unit = {
@@ -156,6 +168,8 @@ class DAGWithFailureSaveSchedulerSuite extends SparkFunSuite with LocalSparkCont
     cancelledStages.clear()
     cacheLocations.clear()
     results.clear()
+    remoteShuffleBlocks.clear()
+    fetchedShuffleBlocks.clear()
     broadcastManager = new BroadcastManager(true, conf, securityMgr)
     mapOutputTracker = new MapOutputTrackerMaster(conf, broadcastManager, true) {
       override def sendTracker(message: Any): Unit = {
@@ -169,7 +183,14 @@ class DAGWithFailureSaveSchedulerSuite extends SparkFunSuite with LocalSparkCont
       mySC.listenerBus,
       mapOutputTracker,
       blockManagerMaster,
-      mySC.env)
+      mySC.env) {
+      override def fetchShuffleAsync(host: String, port: Int, execId: String, blockId: String): Future[ManagedBuffer] = {
+        fetchedShuffleBlocks += blockId
+        remoteShuffleBlocks.get(blockId)
+          .map(data => Future.successful[ManagedBuffer](new NioManagedBuffer(ByteBuffer.wrap(data))))
+          .getOrElse(Future.failed[ManagedBuffer](new IOException(s"Failed to fetch $blockId")))
+      }
+    }
 
     dagEventProcessLoopTester = new DAGSchedulerEventProcessLoopTester(scheduler)
   }
@@ -290,4 +311,106 @@ class DAGWithFailureSaveSchedulerSuite extends SparkFunSuite with LocalSparkCont
     assert(sparkListener.failedStages.size === 1)
     assertDataStructuresEmpty()
   }
+
+  private def savingPath(dir: File): String => Path = name => new Path(dir.getAbsolutePath, name)
+
+  private def readAll(in: InputStream): Array[Byte] = {
+    try {
+      IOUtils.toByteArray(in)
+    } finally {
+      in.close()
+    }
+  }
+
+  test("save the shuffle block compressed with its index") {
+    val data = Array.tabulate[Byte](64 * 1024)(i => (i % 7).toByte)
+    val blockId = ShuffleBlockId(0, 1, 2)
+    remoteShuffleBlocks(blockId.name) = data
+    val dir = Utils.createTempDir()
+    val codec = CompressionCodec.createCodec(conf, "lz4")
+
+    val saved = scheduler.saveShuffleBlock(
+      makeBlockManagerId("hostA"), blockId, data.length, savingPath(dir), Some(codec))
+
+    assert(saved.map(_.name) === Some(blockId.name))
+    val savedFile = new File(dir, blockId.name)
+    assert(savedFile.length() < data.length)
+    assert(readAll(codec.compressedInputStream(new FileInputStream(savedFile))) === data)
+
+    // The index points the reduce partition to the whole saved block
+    val index = new DataInputStream(new FileInputStream(new File(dir, "shuffle_0_1_0.index")))
+    try {
+      assert(Seq.fill(4)(index.readLong()) === Seq(0L, 0L, 0L, data.length.toLong))
+    } finally {
+      index.close()
+    }
+  }
+
+  test("save the shuffle block uncompressed without codec") {
+    val data = Array.fill[Byte](1024)(1)
+    val blockId = ShuffleBlockId(0, 0, 0)
+    remoteShuffleBlocks(blockId.name) = data
+    val dir = Utils.createTempDir()
+
+    assert(scheduler.saveShuffleBlock(makeBlockManagerId("hostA"), blockId, data.length, savingPath(dir), None).isDefined)
+    assert(readAll(new FileInputStream(new File(dir, blockId.name))) === data)
+  }
+
+  test("skip the shuffle block failed to fetch") {
+    val dir = Utils.createTempDir()
+
+    assert(scheduler.saveShuffleBlock(
+      makeBlockManagerId("hostA"), ShuffleBlockId(0, 0, 0), 1024, savingPath(dir), None).isEmpty)
+    assert(dir.listFiles().isEmpty)
+  }
+
+  test("save the broadcast value and read it back") {
+    val dir = Utils.createTempDir()
+    val value = Seq("hello", "broadcast", "world!")
+    val bc = sc.broadcast(value)
+
+    for (codec <- Seq(Some(CompressionCodec.createCodec(conf, "lz4")), None)) {
+      val saved = scheduler.saveBroadcastValue(bc.id, bc, savingPath(dir), codec)
+
+      assert(saved.path === Some(s"broadcast_${bc.id}"))
+      val savedIn = new FileInputStream(new File(dir, saved.path.get))
+      val in = SparkEnv.get.closureSerializer.newInstance()
+        .deserializeStream(codec.map(_.compressedInputStream(savedIn)).getOrElse(savedIn))
+      try {
+        assert(in.readObject[Any]() === value)
+      } finally {
+        in.close()
+      }
+    }
+  }
+
+  test("cap the saved shuffle size, the failed fetches give their reservations back") {
+    afterEach()
+    init(new SparkConf().set("spark.failure.save.maxShuffleSize", "1000"))
+
+    val dir = Utils.createTempDir()
+    val savedShuffleBytes = new AtomicLong(0)
+    val fetchedBlock = ShuffleBlockId(0, 0, 0)
+    val lostBlock = ShuffleBlockId(0, 1, 0)
+    val fittingBlock = ShuffleBlockId(0, 2, 0)
+    val overLimitBlock = ShuffleBlockId(0, 3, 0)
+    remoteShuffleBlocks(fetchedBlock.name) = Array.fill[Byte](600)(1)
+    remoteShuffleBlocks(fittingBlock.name) = Array.fill[Byte](400)(2)
+    remoteShuffleBlocks(overLimitBlock.name) = Array.fill[Byte](1)(3)
+
+    def save(blockId: BlockId, blockSize: Long) = scheduler.saveShuffleBlockWithinLimit(
+      savedShuffleBytes, makeBlockManagerId("hostA"), blockId, blockSize, savingPath(dir), None)
+
+    assert(save(fetchedBlock, 600).isDefined)
+    assert(save(lostBlock, 400).isEmpty)
+    assert(savedShuffleBytes.get() === 600)
+
+    // It fits only since the lost block gave its room back
+    assert(save(fittingBlock, 400).isDefined)
+    assert(savedShuffleBytes.get() === 1000)
+
+    assert(save(overLimitBlock, 1).isEmpty)
+    assert(savedShuffleBytes.get() === 1000)
+    assert(fetchedShuffleBlocks === Seq(fetchedBlock.name, lostBlock.name, fittingBlock.name))
+  }
 }
@@ -26,9 +26,14 @@ import java.util.Properties
 
 import org.apache.spark.executor.TaskMetrics
 
+/**
+  * A broadcast value of the failure task, saved into a separate blob file at `path`. The Base64 encoded `value`
+  * is only set by the contexts saved before the blob files.
+  */
 case class BroadcastValue(
   id: Long,
-  value: String
+  value: Option[String] = None,
+  path: Option[String] = None
 )
 
 case class ShuffleData(
@@ -57,10 +62,14 @@ case class FailureTask(
   bcs: Array[BroadcastValue],
   shuffleDeps: Array[ShuffleDeps],
   isResult: Boolean,
-  version: String = FailureTask.version
+  version: String = FailureTask.version,
+  // The codec of the saved shuffle and broadcast files, they are uncompressed if not set
+  compressionCodec: Option[String] = None,
+  // The shuffle blocks not saved because of the sampling, size cap or timeout
+  skippedShuffleBlocks: Option[Array[String]] = None
 )
 
 object FailureTask {
-  val version = "0.1"
+  val version = "0.2"
 }
 
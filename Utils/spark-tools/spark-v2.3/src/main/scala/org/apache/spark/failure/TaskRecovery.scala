@@ -32,6 +32,7 @@ import org.apache.hadoop.fs.Path
 import org.apache.spark.broadcast.Broadcast
 import org.apache.spark.executor.TaskMetrics
 import org.apache.spark.internal.Logging
+import org.apache.spark.io.CompressionCodec
 import org.apache.spark.network.buffer.FileSegmentManagedBuffer
 import org.apache.spark.scheduler._
 import org.apache.spark.serializer.SerializerInstance
@@ -45,10 +46,15 @@ class TaskRecovery(sc: SparkContext, failureTask: FailureTask) extends Logging {
 
   private val serializer = SparkEnv.get.closureSerializer.newInstance()
   private val fs = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration)
+  private val codec = failureTask.compressionCodec.map(CompressionCodec.createCodec(sc.conf, _))
   private val bcMap: Map[Long, Broadcast[Any]] = failureTask.bcs
     .sortBy(_.id)
     .map(bc => {
-      val newBc = sc.broadcast(decodeObj[Any](serializer, bc.value))
+      val value = bc.path
+        .map(readBroadcastValue)
+        .orElse(bc.value.map(decodeObj[Any](serializer, _)))
+        .getOrElse(throw new IllegalArgumentException(s"No value saved for broadcast ${bc.id}"))
+      val newBc = sc.broadcast(value)
 
       bc.id -> newBc
     }) toMap
@@ -82,7 +88,7 @@ class TaskRecovery(sc: SparkContext, failureTask: FailureTask) extends Logging {
 
                 val shuffleSavedFile = new Path(shuffleData.path)
 
-                val in = fs.open(shuffleSavedFile)
+                val in = openSavedFile(shuffleSavedFile)
 
                 importShuffleToLocal(
                   fileSegMgtBuf.getOffset,
@@ -150,6 +156,22 @@ class TaskRecovery(sc: SparkContext, failureTask: FailureTask) extends Logging {
     )
   }
 
+  private def openSavedFile(path: Path): InputStream = {
+    val in = fs.open(path)
+
+    codec.map(_.compressedInputStream(in)).getOrElse(in)
+  }
+
+  private def readBroadcastValue(path: String): Any = {
+    val in = serializer.deserializeStream(openSavedFile(new Path(path)))
+
+    try {
+      in.readObject[Any]()
+    } finally {
+      in.close()
+    }
+  }
+
   def rerun(): Unit = {
     val rerunTaskSet = new TaskSet(
       Array(recoveredTask),
@@ -22,7 +22,12 @@
 
 package org.apache.spark
 
+import java.io.{File, FileInputStream}
+
+import org.apache.commons.io.FileUtils
+import org.apache.spark.io.CompressionCodec
 import org.apache.spark.scheduler.DAGWithFailureSaveScheduler
+import org.apache.spark.util.Utils
 import org.scalatest.concurrent.Eventually
 import org.scalatest.MustMatchers._
 
@@ -43,4 +48,59 @@ class SparkContextWithFailureSaveSuite extends SparkFunSuite with LocalSparkCont
     val bc = sc.broadcast("hello broadcast world!")
     mySC.bcIdMap must contain value bc
   }
+
+  test("SparkContextWithFailureSave should save the compressed failure context of the failed task") {
+    val failureDir = Utils.createTempDir()
+    val conf = new SparkConf().setAppName("test").setMaster("local")
+      .set("spark.failure.path", failureDir.toURI.toString)
+      .set("spark.failure.save.compression.codec", "lz4")
+    sc = new SparkContextWithFailureSave(conf)
+    val failuresDir = new File(failureDir, ".spark-failures")
+
+    val bc = sc.broadcast(Seq("hello", "broadcast", "world!"))
+    val error = intercept[SparkException] {
+      sc.parallelize(1 to 10, 2)
+        .map(i => (i % 2, i))
+        .groupByKey(2)
+        .map { case (key, values) =>
+          if (key == 0) throw new IllegalStateException(bc.value.mkString(" ")) else values.sum
+        }
+        .collect()
+    }
+    error.getMessage must include ("Failure context saved into")
+
+    try {
+      val appFailureDirs = failuresDir.listFiles()
+      appFailureDirs must have length 1
+      verifySavedFailureContext(conf, appFailureDirs.head, bc.id, bc.value)
+    } finally {
+      Utils.deleteRecursively(failureDir)
+    }
+  }
+
+  private def verifySavedFailureContext(conf: SparkConf, appDir: File, bcId: Long, bcValue: Any): Unit = {
+    val codec = CompressionCodec.createCodec(conf, "lz4")
+
+    FileUtils.readFileToString(new File(appDir, "failure_save.ftd"), "UTF-8") must include ("\"compressionCodec\":\"lz4\"")
+
+    // Both map tasks have the values of key 0 for the failed reduce partition
+    val shuffleFiles = appDir.listFiles().filter(_.getName.matches("shuffle_\\d+_\\d+_0"))
+    shuffleFiles must have length 2
+    shuffleFiles.foreach { shuffleFile =>
+      val in = codec.compressedInputStream(new FileInputStream(shuffleFile))
+      try {
+        in.read() must not be (-1)
+      } finally {
+        in.close()
+      }
+    }
+
+    val bcIn = SparkEnv.get.closureSerializer.newInstance()
+      .deserializeStream(codec.compressedInputStream(new FileInputStream(new File(appDir, s"broadcast_$bcId"))))
+    try {
+      bcIn.readObject[Any]() mustBe bcValue
+    } finally {
+      bcIn.close()
+    }
+  }
 }